@@ -0,0 +1,283 @@
+package gov.samhsa.c2s.ums.benchmark;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.domain.Address;
+import gov.samhsa.c2s.ums.domain.Demographics;
+import gov.samhsa.c2s.ums.domain.Identifier;
+import gov.samhsa.c2s.ums.domain.IdentifierSystem;
+import gov.samhsa.c2s.ums.domain.Locale;
+import gov.samhsa.c2s.ums.domain.Patient;
+import gov.samhsa.c2s.ums.domain.Telecom;
+import gov.samhsa.c2s.ums.domain.User;
+import gov.samhsa.c2s.ums.domain.reference.AdministrativeGenderCode;
+import gov.samhsa.c2s.ums.domain.reference.CountryCode;
+import gov.samhsa.c2s.ums.domain.reference.StateCode;
+import gov.samhsa.c2s.ums.service.dto.AddressDto;
+import gov.samhsa.c2s.ums.service.dto.IdentifierDto;
+import gov.samhsa.c2s.ums.service.dto.RoleDto;
+import gov.samhsa.c2s.ums.service.dto.TelecomDto;
+import gov.samhsa.c2s.ums.service.dto.UserDto;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * Builds realistic, deterministic users for the benchmarks: a patient with the demographics, telecoms, addresses and
+ * identifiers that the UMS UI registers, with the reference data of the sample database.
+ */
+public final class UserFixtures {
+    public static final String MRN_SYSTEM = "https://bhits.github.io/consent2share";
+    public static final String SSN_SYSTEM = "http://hl7.org/fhir/sid/us-ssn";
+    public static final String NPI_SYSTEM = "http://hl7.org/fhir/sid/us-npi";
+
+    private static final String[] FIRST_NAMES = {"James", "Mary", "Robert", "Patricia", "Michael", "Jennifer", "William", "Linda", "David", "Elizabeth"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez"};
+    private static final String[] STREETS = {"Main St", "Oak Ave", "Maple Dr", "Cedar Ln", "Park Blvd", "Washington St"};
+    private static final String[] CITIES = {"Columbia", "Rockville", "Baltimore", "Frederick", "Annapolis", "Bethesda"};
+    private static final String[] STATES = {"MD", "VA", "DC", "PA", "DE"};
+
+    private final Random random;
+
+    public UserFixtures(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public static UmsProperties umsProperties() {
+        final UmsProperties umsProperties = new UmsProperties();
+        final UmsProperties.Mrn mrn = new UmsProperties.Mrn();
+        mrn.setCodeSystem(MRN_SYSTEM);
+        mrn.setCodeSystemOID("1.3.6.1.4.1.21367.13.20.200");
+        mrn.setDisplayName("MRN");
+        mrn.setPrefix("C2S-DEV");
+        mrn.setLength(10);
+        umsProperties.setMrn(mrn);
+        final UmsProperties.Ssn ssn = new UmsProperties.Ssn();
+        ssn.setCodeSystem(SSN_SYSTEM);
+        ssn.setCodeSystemOID("urn:oid:2.16.840.1.113883.4.1");
+        ssn.setDisplayName("SSN");
+        umsProperties.setSsn(ssn);
+        umsProperties.setFhir(new UmsProperties.Fhir());
+        return umsProperties;
+    }
+
+    public User newPatientUser(long id) {
+        final Demographics demographics = new Demographics();
+        demographics.setId(id);
+        demographics.setFirstName(pick(FIRST_NAMES));
+        demographics.setMiddleName(random.nextBoolean() ? pick(FIRST_NAMES) : null);
+        demographics.setLastName(pick(LAST_NAMES));
+        demographics.setBirthDay(LocalDate.of(1940, 1, 1).plusDays(random.nextInt(25000)));
+        demographics.setAdministrativeGenderCode(genderCode(random.nextBoolean() ? "male" : "female"));
+        demographics.setTelecoms(newTelecoms(demographics));
+        demographics.setAddresses(newAddresses(demographics));
+        demographics.setIdentifiers(newIdentifiers());
+
+        final Patient patient = new Patient();
+        patient.setId(id);
+        patient.setDemographics(demographics);
+        patient.setRegistrationPurposeEmail(random.nextInt(4) == 0 ? "registration" + id + "@example.com" : null);
+        demographics.setPatient(patient);
+
+        final User user = new User();
+        user.setId(id);
+        user.setUserAuthId(String.valueOf(random.nextLong()));
+        user.setLocale(locale("en"));
+        user.setDemographics(demographics);
+        demographics.setUser(user);
+        return user;
+    }
+
+    /**
+     * @return a square, photo-like avatar: a gradient with some noise, so that it compresses like a photo
+     */
+    public static byte[] newAvatarImage(int sizePixels, String formatName) throws IOException {
+        return newAvatarImage(sizePixels, formatName, new Color(0x2a5d8f), new Color(0xe8c39e), 42);
+    }
+
+    /**
+     * @return a square, photo-like avatar with a gradient between the given colors and noise from the given seed
+     */
+    public static byte[] newAvatarImage(int sizePixels, String formatName, Color fromColor, Color toColor, long seed) throws IOException {
+        final BufferedImage image = new BufferedImage(sizePixels, sizePixels, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setPaint(new GradientPaint(0, 0, fromColor, sizePixels, sizePixels, toColor));
+            graphics.fillRect(0, 0, sizePixels, sizePixels);
+        } finally {
+            graphics.dispose();
+        }
+        final Random random = new Random(seed);
+        for (int y = 0; y < sizePixels; y++) {
+            for (int x = 0; x < sizePixels; x++) {
+                image.setRGB(x, y, image.getRGB(x, y) ^ random.nextInt(0x080808));
+            }
+        }
+
+        final ByteArrayOutputStream imageOutputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, formatName, imageOutputStream);
+        return imageOutputStream.toByteArray();
+    }
+
+    /**
+     * @param sequence makes the email and the social security number of the patient unique
+     * @return a patient as registered through <code>POST /users</code> by the staff of a provider
+     */
+    public UserDto newPatientUserDto(long sequence) {
+        final String firstName = pick(FIRST_NAMES);
+        final String lastName = pick(LAST_NAMES);
+        final List<TelecomDto> telecoms = new ArrayList<>();
+        telecoms.add(new TelecomDto(Telecom.System.PHONE.name(), phoneNumber(), Telecom.Use.HOME.name()));
+        telecoms.add(new TelecomDto(Telecom.System.EMAIL.name(),
+                firstName.toLowerCase() + "." + lastName.toLowerCase() + "." + sequence + "@example.com", Telecom.Use.HOME.name()));
+        final AddressDto address = new AddressDto();
+        address.setLine1((100 + random.nextInt(9900)) + " " + pick(STREETS));
+        address.setCity(pick(CITIES));
+        address.setStateCode(pick(STATES));
+        address.setPostalCode(String.format("%05d", 20000 + random.nextInt(2000)));
+        address.setCountryCode("US");
+        address.setUse(Address.Use.HOME.name());
+        return UserDto.builder()
+                .firstName(firstName)
+                .middleName(random.nextBoolean() ? pick(FIRST_NAMES) : null)
+                .lastName(lastName)
+                .birthDate(LocalDate.of(1940, 1, 1).plusDays(random.nextInt(25000)))
+                .genderCode(random.nextBoolean() ? "male" : "female")
+                .socialSecurityNumber(Optional.of(String.format("%03d-%02d-%04d",
+                        100 + sequence / 1_000_000 % 800, 1 + sequence / 10_000 % 99, sequence % 10_000)))
+                .telecoms(telecoms)
+                .addresses(Collections.singletonList(address))
+                .roles(Collections.singletonList(RoleDto.builder().code("patient").build()))
+                .locale("en")
+                .registrationPurposeEmail(Optional.empty())
+                .identifiers(Optional.of(Collections.emptyList()))
+                .build();
+    }
+
+    /**
+     * @return the telecoms of the user as requested by an update that changes one of them
+     */
+    public List<TelecomDto> newUpdatedTelecomDtos(User user) {
+        final List<TelecomDto> telecomDtos = new ArrayList<>();
+        user.getDemographics().getTelecoms().forEach(telecom ->
+                telecomDtos.add(new TelecomDto(telecom.getSystem().name(), telecom.getValue(), telecom.getUse().name())));
+        telecomDtos.set(0, new TelecomDto(Telecom.System.PHONE.name(), phoneNumber(), Telecom.Use.HOME.name()));
+        return telecomDtos;
+    }
+
+    /**
+     * @return the identifiers of the user as requested by an update that adds one
+     */
+    public List<IdentifierDto> newUpdatedIdentifierDtos(User user) {
+        final List<IdentifierDto> identifierDtos = new ArrayList<>();
+        user.getDemographics().getIdentifiers().forEach(identifier ->
+                identifierDtos.add(IdentifierDto.of(identifier.getValue(), identifier.getIdentifierSystem().getSystem())));
+        identifierDtos.add(IdentifierDto.of(String.valueOf(1_000_000_000L + random.nextInt(900_000_000)), NPI_SYSTEM));
+        return identifierDtos;
+    }
+
+    private List<Telecom> newTelecoms(Demographics demographics) {
+        final List<Telecom> telecoms = new ArrayList<>();
+        telecoms.add(telecom(demographics, Telecom.System.PHONE, phoneNumber(), Telecom.Use.HOME));
+        telecoms.add(telecom(demographics, Telecom.System.EMAIL,
+                demographics.getFirstName().toLowerCase() + "." + demographics.getLastName().toLowerCase() + random.nextInt(1000) + "@example.com",
+                Telecom.Use.HOME));
+        if (random.nextBoolean()) {
+            telecoms.add(telecom(demographics, Telecom.System.PHONE, phoneNumber(), Telecom.Use.WORK));
+        }
+        return telecoms;
+    }
+
+    private List<Address> newAddresses(Demographics demographics) {
+        final List<Address> addresses = new ArrayList<>();
+        addresses.add(address(demographics, Address.Use.HOME));
+        if (random.nextInt(4) == 0) {
+            addresses.add(address(demographics, Address.Use.WORK));
+        }
+        return addresses;
+    }
+
+    private List<Identifier> newIdentifiers() {
+        final List<Identifier> identifiers = new ArrayList<>();
+        identifiers.add(Identifier.of("C2S-DEV-" + (1_000_000_000L + random.nextInt(900_000_000)), identifierSystem(MRN_SYSTEM)));
+        if (random.nextInt(3) != 0) {
+            identifiers.add(Identifier.of(String.format("%03d-%02d-%04d", 100 + random.nextInt(800), 1 + random.nextInt(99), 1 + random.nextInt(9999)),
+                    identifierSystem(SSN_SYSTEM)));
+        }
+        return identifiers;
+    }
+
+    private Telecom telecom(Demographics demographics, Telecom.System system, String value, Telecom.Use use) {
+        final Telecom telecom = new Telecom();
+        telecom.setSystem(system);
+        telecom.setValue(value);
+        telecom.setUse(use);
+        telecom.setDemographics(demographics);
+        return telecom;
+    }
+
+    private Address address(Demographics demographics, Address.Use use) {
+        final Address address = new Address();
+        address.setLine1((100 + random.nextInt(9900)) + " " + pick(STREETS));
+        address.setLine2(random.nextInt(5) == 0 ? "Apt " + (1 + random.nextInt(400)) : null);
+        address.setCity(pick(CITIES));
+        address.setStateCode(stateCode(pick(STATES)));
+        address.setPostalCode(String.format("%05d", 20000 + random.nextInt(2000)));
+        address.setCountryCode(countryCode("US"));
+        address.setUse(use);
+        address.setDemographics(demographics);
+        return address;
+    }
+
+    private String phoneNumber() {
+        return String.format("%03d-%03d-%04d", 200 + random.nextInt(800), 200 + random.nextInt(800), random.nextInt(10000));
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static IdentifierSystem identifierSystem(String system) {
+        final IdentifierSystem identifierSystem = new IdentifierSystem();
+        identifierSystem.setSystem(system);
+        return identifierSystem;
+    }
+
+    private static AdministrativeGenderCode genderCode(String code) {
+        final AdministrativeGenderCode genderCode = new AdministrativeGenderCode();
+        genderCode.setCode(code);
+        genderCode.setDisplayName(code);
+        return genderCode;
+    }
+
+    private static Locale locale(String code) {
+        final Locale locale = new Locale();
+        locale.setCode(code);
+        locale.setDisplayName(code);
+        return locale;
+    }
+
+    private static StateCode stateCode(String code) {
+        final StateCode stateCode = new StateCode();
+        stateCode.setCode(code);
+        stateCode.setDisplayName(code);
+        return stateCode;
+    }
+
+    private static CountryCode countryCode(String code) {
+        final CountryCode countryCode = new CountryCode();
+        countryCode.setCode(code);
+        countryCode.setDisplayName(code);
+        return countryCode;
+    }
+}
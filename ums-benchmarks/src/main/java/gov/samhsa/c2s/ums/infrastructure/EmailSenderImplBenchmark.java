@@ -0,0 +1,118 @@
+package gov.samhsa.c2s.ums.infrastructure;
+
+import gov.samhsa.c2s.ums.config.EmailSenderProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring4.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import javax.mail.internet.MimeMessage;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the rendering of the verification link email with the templates and messages of ums: the Thymeleaf
+ * template alone, and the whole email including the MIME message, with a mail sender that does not send it.
+ * <p>
+ * Run from the ums-benchmarks folder with: ../ums/mvnw compile exec:exec -Dbenchmark.includes=EmailSenderImplBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailSenderImplBenchmark {
+    private static final String EMAIL_TOKEN = "0q1hg8a2kd7rv3mn5tc6ufe9sb";
+
+    @Param({"en", "es"})
+    private String language;
+
+    private AnnotationConfigApplicationContext context;
+    private EmailSender emailSender;
+    private TemplateEngine templateEngine;
+    private Locale locale;
+
+    @Setup(Level.Trial)
+    public void createEmailSender() {
+        final EmailSenderProperties emailSenderProperties = new EmailSenderProperties();
+        emailSenderProperties.setC2sUiRoute("/c2s-ui");
+        emailSenderProperties.setC2sUiVerificationRelativePath("/account/verification");
+        emailSenderProperties.setC2sUiVerificationEmailTokenArgName("emailToken");
+        emailSenderProperties.setC2sUiVerificationUserPreferredLocaleArgName("userPreferredLocale");
+        emailSenderProperties.setBrand("Consent2Share");
+        emailSenderProperties.setEmailTokenExpirationInDays(7);
+
+        final ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding(StandardCharsets.UTF_8.name());
+
+        final ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode("HTML5");
+        templateResolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        final SpringTemplateEngine springTemplateEngine = new SpringTemplateEngine();
+        springTemplateEngine.setTemplateResolver(templateResolver);
+
+        context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().registerSingleton("emailSenderProperties", emailSenderProperties);
+        context.getBeanFactory().registerSingleton("messageSource", messageSource);
+        context.getBeanFactory().registerSingleton("templateEngine", springTemplateEngine);
+        context.getBeanFactory().registerSingleton("javaMailSender", new NotSendingJavaMailSender());
+        context.register(EmailSenderImpl.class);
+        context.refresh();
+        emailSender = context.getBean(EmailSender.class);
+        templateEngine = springTemplateEngine;
+        locale = new Locale(language);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public void sendEmailWithVerificationLink() {
+        emailSender.sendEmailWithVerificationLink("https", "c2s.example.com", 443, "james.smith@example.com",
+                EMAIL_TOKEN, "James Smith", locale);
+    }
+
+    @Benchmark
+    public String processVerificationLinkTemplate() {
+        final Context ctx = new Context(locale);
+        ctx.setVariable("recipientName", "James Smith");
+        ctx.setVariable("linkUrl", "https://c2s.example.com/c2s-ui/account/verification#emailToken=" + EMAIL_TOKEN);
+        ctx.setVariable("brand", "Consent2Share");
+        ctx.setVariable("header", "Header");
+        ctx.setVariable("greeting", "Hello");
+        ctx.setVariable("message", "Message");
+        ctx.setVariable("createLoginlink", "Create login");
+        ctx.setVariable("signOff", "Sign off");
+        return templateEngine.process("verification-link-email", ctx);
+    }
+
+    private static class NotSendingJavaMailSender extends JavaMailSenderImpl {
+        @Override
+        public void send(MimeMessage mimeMessage) {
+            // The benchmark measures the rendering of the email, not the SMTP round trip
+        }
+    }
+}
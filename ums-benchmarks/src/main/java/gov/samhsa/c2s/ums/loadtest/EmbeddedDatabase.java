@@ -0,0 +1,91 @@
+package gov.samhsa.c2s.ums.loadtest;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A MariaDB server that runs from a temporary folder for the lifetime of the load test, so UMS runs its Flyway
+ * migrations and MySQL queries unchanged.
+ */
+public class EmbeddedDatabase implements AutoCloseable {
+    public static final String DATABASE_NAME = "ums";
+
+    // The reference data scripts of ums-db-sample, in the order of their foreign keys
+    private static final String[] SAMPLE_DATA_SCRIPTS = {
+            "insert_administrative_gender_code_lookup_data.sql",
+            "insert_country_code_lookup_data.sql",
+            "insert_state_code_lookup_data.sql",
+            "insert_locale_lookup_data.sql",
+            "insert_role_scopes_lookup_data.sql",
+            "insert_npi_identifier_system.sql",
+            "insert_i18n_messages.sql"
+    };
+
+    private final DBConfigurationBuilder configuration;
+    private DB db;
+
+    public EmbeddedDatabase(int maxConnections) {
+        this.configuration = DBConfigurationBuilder.newBuilder();
+        // A free port is chosen when the port is 0
+        this.configuration.setPort(0);
+        this.configuration.addArg("--character-set-server=utf8");
+        this.configuration.addArg("--collation-server=utf8_general_ci");
+        this.configuration.addArg("--max-connections=" + maxConnections);
+    }
+
+    public void start() throws ManagedProcessException {
+        db = DB.newEmbeddedDB(configuration.build());
+        db.start();
+        db.createDB(DATABASE_NAME);
+    }
+
+    /**
+     * @return the JDBC URL of the UMS database
+     */
+    public String getUrl() {
+        return configuration.getURL(DATABASE_NAME) + "?rewriteBatchedStatements=true&useSSL=false";
+    }
+
+    public String getUsername() {
+        return "root";
+    }
+
+    public String getPassword() {
+        return "";
+    }
+
+    /**
+     * Insert the reference data of ums-db-sample, unless it is already there. The tables must have been created by
+     * the Flyway migrations of UMS.
+     *
+     * @param dataSource         the data source of the UMS database
+     * @param sampleDataLocation the folder of the ums-db-sample scripts
+     */
+    public static void insertSampleData(DataSource dataSource, String sampleDataLocation) {
+        final Integer roleCount = new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM role", Integer.class);
+        if (roleCount > 0) {
+            return;
+        }
+        final ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+        populator.setSqlScriptEncoding(StandardCharsets.UTF_8.name());
+        for (String script : SAMPLE_DATA_SCRIPTS) {
+            populator.addScript(new FileSystemResource(new File(sampleDataLocation, script)));
+        }
+        populator.execute(dataSource);
+    }
+
+    @Override
+    public void close() throws ManagedProcessException {
+        if (db != null) {
+            db.stop();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package gov.samhsa.c2s.ums.loadtest;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.put;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * Stands in for the FIS <code>/patients</code> endpoint that UMS publishes the FHIR patients to. Each response is
+ * delayed by a log-normally distributed latency.
+ */
+public class FisStub implements AutoCloseable {
+    private static final String PATIENTS_PATH = "/patients";
+
+    private final WireMockServer server;
+    private final int medianLatencyMillis;
+    private final double latencySigma;
+    private final AtomicInteger publicationCount = new AtomicInteger();
+
+    public FisStub(int threads, int medianLatencyMillis, double latencySigma) {
+        this.server = new WireMockServer(options()
+                .dynamicPort()
+                .disableRequestJournal()
+                .containerThreads(threads)
+                .asynchronousResponseEnabled(true)
+                .asynchronousResponseThreads(threads));
+        this.medianLatencyMillis = medianLatencyMillis;
+        this.latencySigma = latencySigma;
+    }
+
+    public void start() {
+        server.addMockServiceRequestListener((request, response) -> publicationCount.incrementAndGet());
+        server.start();
+        server.stubFor(post(urlPathEqualTo(PATIENTS_PATH)).willReturn(delayedResponse()));
+        server.stubFor(put(urlPathEqualTo(PATIENTS_PATH)).willReturn(delayedResponse()));
+    }
+
+    /**
+     * @return the server of the <code>fis</code> Feign client, as configured in <code>fis.ribbon.listOfServers</code>
+     */
+    public String getServer() {
+        return "localhost:" + server.port();
+    }
+
+    /**
+     * @return the number of patients published or updated so far
+     */
+    public int getPublicationCount() {
+        return publicationCount.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop();
+    }
+
+    private ResponseDefinitionBuilder delayedResponse() {
+        return aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", "text/plain")
+                .withBody("OK")
+                .withLogNormalRandomDelay(medianLatencyMillis, latencySigma);
+    }
+}
@@ -0,0 +1,106 @@
+package gov.samhsa.c2s.ums.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.samhsa.c2s.ums.UmsApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.util.List;
+
+/**
+ * Runs UMS in this JVM against an embedded MariaDB database and stand-ins of UAA, FIS and the SMTP server, drives it
+ * with the closed workload of {@link Workload} and reports the throughput and latency percentiles of each scenario and
+ * request. The results are printed and written as JSON, so runs of two UMS versions can be compared.
+ * <p>
+ * Run from the ums-benchmarks folder with: ../ums/mvnw clean compile exec:exec -Pload-test
+ */
+@Slf4j
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        final LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        // Each virtual user holds at most one connection to UMS, so the stand-ins need as many threads
+        final int threads = settings.getVirtualUsers() * 2;
+        final File workDirectory = new File(settings.getWorkDirectory()).getAbsoluteFile();
+
+        try (EmbeddedDatabase database = new EmbeddedDatabase(threads + 50);
+             UaaStub uaa = new UaaStub(threads, settings.getUaaMedianLatencyMillis(), settings.getLatencySigma());
+             FisStub fis = new FisStub(threads, settings.getFisMedianLatencyMillis(), settings.getLatencySigma());
+             SmtpStub smtp = new SmtpStub(threads, settings.getSmtpMedianLatencyMillis(), settings.getLatencySigma(), settings.getSeed())) {
+            database.start();
+            uaa.start();
+            fis.start();
+            smtp.start();
+
+            // Command line arguments, so they take precedence over the configuration of UMS and its bootstrap
+            final ConfigurableApplicationContext ums = new SpringApplicationBuilder(UmsApplication.class).run(
+                    "--spring.profiles.active=load-test",
+                    "--spring.cloud.config.enabled=false",
+                    "--eureka.client.enabled=false",
+                    "--spring.datasource.url=" + database.getUrl(),
+                    "--spring.datasource.username=" + database.getUsername(),
+                    "--spring.datasource.password=" + database.getPassword(),
+                    "--spring.mail.port=" + smtp.getPort(),
+                    "--c2s.ums.scim.url=" + uaa.getBaseUrl(),
+                    "--security.oauth2.client.access-token-uri=" + uaa.getBaseUrl() + "/oauth/token",
+                    "--fis.ribbon.listOfServers=" + fis.getServer(),
+                    "--c2s.ums.avatars.storage.location=" + new File(workDirectory, "avatars"),
+                    "--logging.file=" + new File(workDirectory, "ums.log"));
+            try {
+                EmbeddedDatabase.insertSampleData(ums.getBean(DataSource.class), settings.getSampleDataLocation());
+                final String baseUrl = "http://localhost:" + ums.getEnvironment().getProperty("local.server.port");
+
+                try (UmsClient umsClient = new UmsClient(baseUrl, settings.getVirtualUsers())) {
+                    final LoadTestStatistics statistics = new LoadTestStatistics();
+                    final Workload workload = new Workload(umsClient, statistics, settings);
+                    log.info("Seeding {} users", settings.getSeedUsers());
+                    workload.seed();
+                    log.info("Warming up for {} seconds", settings.getWarmupSeconds());
+                    workload.run(settings.getWarmupSeconds());
+                    log.info("Measuring {} virtual users for {} seconds", settings.getVirtualUsers(), settings.getDurationSeconds());
+                    statistics.startRecording();
+                    workload.run(settings.getDurationSeconds());
+                    statistics.stopRecording();
+
+                    final LoadTestReport report = LoadTestReport.builder()
+                            .settings(settings)
+                            .results(statistics.getResults())
+                            .deliveredEmailCount(smtp.getDeliveredCount())
+                            .fisPublicationCount(fis.getPublicationCount())
+                            .build();
+                    printResults(report.getResults());
+                    writeReport(report, new File(settings.getResultFile()));
+                }
+            } finally {
+                ums.close();
+            }
+        }
+    }
+
+    private static void printResults(List<LoadTestResult> results) {
+        System.out.println();
+        System.out.printf("%-16s %-48s %8s %6s %9s %9s %9s %9s %9s %9s%n",
+                "Scenario", "Request", "Count", "Errors", "Req/s", "Mean ms", "p50 ms", "p99 ms", "p99.9 ms", "Max ms");
+        for (LoadTestResult result : results) {
+            System.out.printf("%-16s %-48s %8d %6d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    result.getScenario(), result.getRequest(), result.getCount(), result.getFailureCount(),
+                    result.getThroughputPerSecond(), result.getMeanMillis(), result.getP50Millis(),
+                    result.getP99Millis(), result.getP999Millis(), result.getMaxMillis());
+        }
+        System.out.println();
+    }
+
+    private static void writeReport(LoadTestReport report, File resultFile) throws Exception {
+        final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().indentOutput(true).build();
+        final File resultDirectory = resultFile.getAbsoluteFile().getParentFile();
+        if (!resultDirectory.isDirectory() && !resultDirectory.mkdirs()) {
+            throw new IllegalStateException("Unable to create the folder of the result file " + resultFile);
+        }
+        objectMapper.writeValue(resultFile, report);
+        log.info("The results are written to {}", resultFile.getAbsolutePath());
+    }
+}
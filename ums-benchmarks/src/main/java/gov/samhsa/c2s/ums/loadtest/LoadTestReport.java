@@ -0,0 +1,19 @@
+package gov.samhsa.c2s.ums.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoadTestReport {
+    private LoadTestSettings settings;
+    private List<LoadTestResult> results;
+    private int deliveredEmailCount;
+    private int fisPublicationCount;
+}
@@ -0,0 +1,24 @@
+package gov.samhsa.c2s.ums.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoadTestResult {
+    private String scenario;
+    private String request;
+    private long count;
+    private long failureCount;
+    private double throughputPerSecond;
+    private double meanMillis;
+    private double p50Millis;
+    private double p90Millis;
+    private double p99Millis;
+    private double p999Millis;
+    private double maxMillis;
+}
@@ -0,0 +1,55 @@
+package gov.samhsa.c2s.ums.loadtest;
+
+import lombok.Data;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The settings of the load test, read from the <code>loadtest.*</code> system properties, for example
+ * <code>-Dloadtest.virtual-users=32 -Dloadtest.fis.median-latency-millis=200 -Dloadtest.weight.search=10</code>.
+ */
+@Data
+public class LoadTestSettings {
+    private static final String PREFIX = "loadtest.";
+
+    private int virtualUsers;   // Number of concurrent users, each sending its next request as soon as the last one completes
+    private int warmupSeconds;   // Time the workload runs before the measurement, so the JIT compiler and the pools warm up
+    private int durationSeconds;   // Time the workload is measured
+    private long seed;   // Seed of the generated users and of the choices of the virtual users
+    private int seedUsers;   // Number of users registered, activated and given an avatar before the warmup
+    private int uaaMedianLatencyMillis;   // Median latency injected into each UAA SCIM and token response
+    private int fisMedianLatencyMillis;   // Median latency injected into each FIS response
+    private int smtpMedianLatencyMillis;   // Median latency injected into each email delivered to the SMTP server
+    private double latencySigma;   // Sigma of the log-normal distribution of the injected latencies; 0 injects the median exactly
+    private Map<Scenario, Integer> weights;   // Relative frequency of each scenario in the workload
+    private String sampleDataLocation;   // Folder of the ums-db-sample scripts that seed the reference data
+    private String workDirectory;   // Folder of the avatar files and logs of the load test
+    private String resultFile;   // JSON file that the results are written to
+
+    public static LoadTestSettings fromSystemProperties() {
+        final LoadTestSettings settings = new LoadTestSettings();
+        settings.setVirtualUsers(intProperty("virtual-users", 16));
+        settings.setWarmupSeconds(intProperty("warmup-seconds", 15));
+        settings.setDurationSeconds(intProperty("duration-seconds", 60));
+        settings.setSeed(Long.getLong(PREFIX + "seed", 42L));
+        settings.setSeedUsers(intProperty("seed-users", 100));
+        settings.setUaaMedianLatencyMillis(intProperty("uaa.median-latency-millis", 30));
+        settings.setFisMedianLatencyMillis(intProperty("fis.median-latency-millis", 80));
+        settings.setSmtpMedianLatencyMillis(intProperty("smtp.median-latency-millis", 150));
+        settings.setLatencySigma(Double.parseDouble(System.getProperty(PREFIX + "latency-sigma", "0.5")));
+        final Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : Scenario.values()) {
+            weights.put(scenario, intProperty("weight." + scenario.getName(), scenario.getDefaultWeight()));
+        }
+        settings.setWeights(weights);
+        settings.setSampleDataLocation(System.getProperty(PREFIX + "sample-data-location", "../ums-db-sample"));
+        settings.setWorkDirectory(System.getProperty(PREFIX + "work-directory", "target/load-test"));
+        settings.setResultFile(System.getProperty(PREFIX + "result-file", "target/load-test-result.json"));
+        return settings;
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.getInteger(PREFIX + name, defaultValue);
+    }
+}
@@ -0,0 +1,128 @@
+package gov.samhsa.c2s.ums.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Comparator.comparing;
+
+/**
+ * Records the latency of each request of each scenario in an HDR histogram, and the number of failed requests. Only
+ * the requests that complete while the statistics are recording are counted, so the warmup is left out.
+ */
+public class LoadTestStatistics {
+    /**
+     * The request of the results of whole scenario iterations, which sorts before the requests of the scenario
+     */
+    public static final String SCENARIO_REQUEST = "(scenario)";
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(5);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<RequestKey, RequestStatistics> requestStatistics = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    public void startRecording() {
+        requestStatistics.values().forEach(RequestStatistics::reset);
+        startNanos = System.nanoTime();
+        recording = true;
+    }
+
+    public void stopRecording() {
+        recording = false;
+        endNanos = System.nanoTime();
+    }
+
+    public void recordSuccess(Scenario scenario, String request, long latencyNanos) {
+        if (recording) {
+            statistics(scenario, request).recorder.recordValue(Math.min(latencyNanos, MAX_LATENCY_NANOS));
+        }
+    }
+
+    public void recordFailure(Scenario scenario, String request) {
+        if (recording) {
+            statistics(scenario, request).failureCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the results of the requests recorded between the start and the stop of the recording, ordered by scenario
+     */
+    public List<LoadTestResult> getResults() {
+        final double durationSeconds = (endNanos - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        final List<LoadTestResult> results = new ArrayList<>();
+        requestStatistics.entrySet().stream()
+                .sorted(comparing((Map.Entry<RequestKey, RequestStatistics> entry) -> entry.getKey().scenario)
+                        .thenComparing(entry -> entry.getKey().request))
+                .forEach(entry -> {
+                    final Histogram histogram = entry.getValue().recorder.getIntervalHistogram();
+                    results.add(LoadTestResult.builder()
+                            .scenario(entry.getKey().scenario.getName())
+                            .request(entry.getKey().request)
+                            .count(histogram.getTotalCount())
+                            .failureCount(entry.getValue().failureCount.get())
+                            .throughputPerSecond(histogram.getTotalCount() / durationSeconds)
+                            .meanMillis(histogram.getMean() / TimeUnit.MILLISECONDS.toNanos(1))
+                            .p50Millis(percentileMillis(histogram, 50))
+                            .p90Millis(percentileMillis(histogram, 90))
+                            .p99Millis(percentileMillis(histogram, 99))
+                            .p999Millis(percentileMillis(histogram, 99.9))
+                            .maxMillis(histogram.getMaxValue() / (double) TimeUnit.MILLISECONDS.toNanos(1))
+                            .build());
+                });
+        return results;
+    }
+
+    private RequestStatistics statistics(Scenario scenario, String request) {
+        return requestStatistics.computeIfAbsent(new RequestKey(scenario, request), key -> new RequestStatistics());
+    }
+
+    private static double percentileMillis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static class RequestStatistics {
+        private final Recorder recorder = new Recorder(MAX_LATENCY_NANOS, SIGNIFICANT_DIGITS);
+        private final AtomicLong failureCount = new AtomicLong();
+
+        private void reset() {
+            recorder.reset();
+            failureCount.set(0);
+        }
+    }
+
+    private static class RequestKey {
+        private final Scenario scenario;
+        private final String request;
+
+        private RequestKey(Scenario scenario, String request) {
+            this.scenario = scenario;
+            this.request = request;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RequestKey)) {
+                return false;
+            }
+            final RequestKey other = (RequestKey) o;
+            return scenario == other.scenario && request.equals(other.request);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * scenario.hashCode() + request.hashCode();
+        }
+    }
+}
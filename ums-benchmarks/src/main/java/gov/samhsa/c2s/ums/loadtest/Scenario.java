@@ -0,0 +1,43 @@
+package gov.samhsa.c2s.ums.loadtest;
+
+/**
+ * The scenarios of the load test workload, with their default relative frequency.
+ */
+public enum Scenario {
+    /**
+     * A staff member registers a patient
+     */
+    REGISTRATION("registration", 2),
+    /**
+     * A registered patient receives the verification email, verifies it and creates a login
+     */
+    ACTIVATION("activation", 2),
+    /**
+     * A provider searches for a patient by demographics, MRN or name
+     */
+    SEARCH("search", 6),
+    /**
+     * Another service asks whether a user may access the data of a patient
+     */
+    ACCESS_DECISION("accessDecision", 20),
+    /**
+     * A user uploads an avatar and the UI shows it
+     */
+    AVATAR("avatar", 3);
+
+    private final String name;
+    private final int defaultWeight;
+
+    Scenario(String name, int defaultWeight) {
+        this.name = name;
+        this.defaultWeight = defaultWeight;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDefaultWeight() {
+        return defaultWeight;
+    }
+}
@@ -0,0 +1,79 @@
+package gov.samhsa.c2s.ums.loadtest;
+
+import org.springframework.util.SocketUtils;
+import org.springframework.util.StreamUtils;
+import org.subethamail.smtp.helper.SimpleMessageListener;
+import org.subethamail.smtp.helper.SimpleMessageListenerAdapter;
+import org.subethamail.smtp.server.SMTPServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stands in for the SMTP server that UMS sends the verification emails through. Every email is accepted and
+ * discarded after a log-normally distributed latency, like the latency of a mail relay.
+ */
+public class SmtpStub implements AutoCloseable {
+    private final SMTPServer server;
+    private final int port = SocketUtils.findAvailableTcpPort();
+    private final int medianLatencyMillis;
+    private final double latencySigma;
+    private final Random random;
+    private final AtomicInteger deliveredCount = new AtomicInteger();
+
+    public SmtpStub(int threads, int medianLatencyMillis, double latencySigma, long seed) {
+        this.server = new SMTPServer(new SimpleMessageListenerAdapter(new DiscardingMessageListener()));
+        this.server.setPort(port);
+        this.server.setMaxConnections(threads);
+        this.medianLatencyMillis = medianLatencyMillis;
+        this.latencySigma = latencySigma;
+        this.random = new Random(seed);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @return the number of emails delivered so far
+     */
+    public int getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop();
+    }
+
+    private class DiscardingMessageListener implements SimpleMessageListener {
+        @Override
+        public boolean accept(String from, String recipient) {
+            return true;
+        }
+
+        @Override
+        public void deliver(String from, String recipient, InputStream data) throws IOException {
+            StreamUtils.drain(data);
+            final double latencyMillis;
+            synchronized (random) {
+                latencyMillis = medianLatencyMillis * Math.exp(latencySigma * random.nextGaussian());
+            }
+            try {
+                TimeUnit.MICROSECONDS.sleep((long) (latencyMillis * 1000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while delaying the delivery to " + recipient);
+            }
+            deliveredCount.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package gov.samhsa.c2s.ums.loadtest;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.extension.responsetemplating.ResponseTemplateTransformer;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.put;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * Stands in for the UAA token and SCIM endpoints that UMS calls to activate users. Created users get a random id,
+ * every user is found and every group exists, and each response is delayed by a log-normally distributed latency.
+ */
+public class UaaStub implements AutoCloseable {
+    private static final String CONTEXT_PATH = "/uaa";
+    private static final String SCIM_SCHEMAS = "\"schemas\":[\"urn:scim:schemas:core:1.0\"]";
+    private static final String SCIM_USER = "{\"id\":\"{{request.requestLine.pathSegments.[2]}}\",\"userName\":\"user\","
+            + "\"name\":{\"givenName\":\"Given\",\"familyName\":\"Family\"},\"emails\":[{\"value\":\"user@example.com\"}],"
+            + "\"active\":true,\"verified\":true,\"meta\":{\"version\":0}," + SCIM_SCHEMAS + "}";
+
+    private final WireMockServer server;
+    private final int medianLatencyMillis;
+    private final double latencySigma;
+
+    public UaaStub(int threads, int medianLatencyMillis, double latencySigma) {
+        this.server = new WireMockServer(options()
+                .dynamicPort()
+                .disableRequestJournal()
+                .containerThreads(threads)
+                .asynchronousResponseEnabled(true)
+                .asynchronousResponseThreads(threads)
+                .extensions(new ResponseTemplateTransformer(false)));
+        this.medianLatencyMillis = medianLatencyMillis;
+        this.latencySigma = latencySigma;
+    }
+
+    public void start() {
+        server.start();
+        server.stubFor(post(urlPathEqualTo(CONTEXT_PATH + "/oauth/token"))
+                .willReturn(delayedJson(200, "{\"access_token\":\"load-test\",\"token_type\":\"bearer\",\"expires_in\":43199,"
+                        + "\"scope\":\"scim.read scim.write\",\"jti\":\"load-test\"}")));
+        server.stubFor(post(urlPathEqualTo(CONTEXT_PATH + "/Users"))
+                .willReturn(delayedJson(201, "{\"id\":\"{{randomValue type='UUID'}}\","
+                        + "\"userName\":\"{{jsonPath request.body '$.userName'}}\",\"active\":true,\"verified\":true,"
+                        + "\"meta\":{\"version\":0}," + SCIM_SCHEMAS + "}")));
+        // The username availability check; no username is taken
+        server.stubFor(get(urlPathEqualTo(CONTEXT_PATH + "/Users"))
+                .willReturn(delayedJson(200, "{\"resources\":[],\"startIndex\":1,\"itemsPerPage\":100,\"totalResults\":0,"
+                        + SCIM_SCHEMAS + "}")));
+        server.stubFor(get(urlPathMatching(CONTEXT_PATH + "/Users/[^/]+"))
+                .willReturn(delayedJson(200, SCIM_USER)));
+        server.stubFor(put(urlPathMatching(CONTEXT_PATH + "/Users/[^/]+"))
+                .willReturn(delayedJson(200, SCIM_USER)));
+        server.stubFor(get(urlPathEqualTo(CONTEXT_PATH + "/Groups"))
+                .willReturn(delayedJson(200, "{\"resources\":[{\"id\":\"load-test-group\"}],\"startIndex\":1,"
+                        + "\"itemsPerPage\":100,\"totalResults\":1," + SCIM_SCHEMAS + "}")));
+        server.stubFor(post(urlPathMatching(CONTEXT_PATH + "/Groups/[^/]+/members"))
+                .willReturn(delayedJson(201, "{\"value\":\"{{jsonPath request.body '$.value'}}\",\"type\":\"USER\","
+                        + "\"origin\":\"uaa\"}")));
+    }
+
+    /**
+     * @return the base URL of UAA, as configured in <code>c2s.ums.scim.url</code>
+     */
+    public String getBaseUrl() {
+        return "http://localhost:" + server.port() + CONTEXT_PATH;
+    }
+
+    @Override
+    public void close() {
+        server.stop();
+    }
+
+    private ResponseDefinitionBuilder delayedJson(int status, String body) {
+        return aResponse()
+                .withStatus(status)
+                .withHeader("Content-Type", "application/json")
+                .withBody(body)
+                .withTransformers("response-template")
+                .withLogNormalRandomDelay(medianLatencyMillis, latencySigma);
+    }
+}
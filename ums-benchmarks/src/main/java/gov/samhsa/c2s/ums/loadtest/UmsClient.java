@@ -0,0 +1,133 @@
+package gov.samhsa.c2s.ums.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import gov.samhsa.c2s.ums.service.dto.UserDto;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Calls the UMS endpoints of the load test scenarios the way the C2S UI, the Provider UI and the edge server do,
+ * through a pooled HTTP client with a connection per virtual user.
+ */
+public class UmsClient implements AutoCloseable {
+    private static final String X_FORWARDED_PROTO = "X-Forwarded-Proto";
+    private static final String X_FORWARDED_HOST = "X-Forwarded-Host";
+    private static final String X_FORWARDED_PORT = "X-Forwarded-Port";
+
+    private final String baseUrl;
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate restTemplate;
+
+    public UmsClient(String baseUrl, int maxConnections) {
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClientBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .disableCookieManagement()
+                .build();
+        this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    public UserDto registerUser(UserDto userDto) {
+        return restTemplate.postForObject(baseUrl + "/users", userDto, UserDto.class);
+    }
+
+    public UserDto getUser(Long userId) {
+        return restTemplate.getForObject(baseUrl + "/users/{userId}", UserDto.class, userId);
+    }
+
+    /**
+     * @return the verification code, which the staff member gives to the patient
+     */
+    public String initiateUserActivation(Long userId) {
+        return restTemplate.exchange(baseUrl + "/users/{userId}/activation", HttpMethod.POST,
+                new HttpEntity<>(forwardedHeaders()), JsonNode.class, userId)
+                .getBody().path("verificationCode").asText();
+    }
+
+    /**
+     * @return the email token of the verification link in the email
+     */
+    public String getUserEmailToken(Long userId) {
+        return restTemplate.getForObject(baseUrl + "/users/{userId}/emailToken", JsonNode.class, userId)
+                .path("emailToken").asText();
+    }
+
+    public boolean verify(String emailToken, String verificationCode, LocalDate birthDate) {
+        final Map<String, Object> request = new HashMap<>();
+        request.put("emailToken", emailToken);
+        request.put("verificationCode", verificationCode);
+        request.put("birthDate", birthDate);
+        return restTemplate.postForObject(baseUrl + "/users/verification", request, JsonNode.class)
+                .path("verified").asBoolean();
+    }
+
+    public void activateUser(String emailToken, String verificationCode, LocalDate birthDate, String username, String password) {
+        final Map<String, Object> request = new HashMap<>();
+        request.put("emailToken", emailToken);
+        request.put("verificationCode", verificationCode);
+        request.put("birthDate", birthDate);
+        request.put("username", username);
+        request.put("password", password);
+        request.put("confirmPassword", password);
+        restTemplate.exchange(baseUrl + "/users/activation", HttpMethod.POST,
+                new HttpEntity<>(request, forwardedHeaders()), JsonNode.class);
+    }
+
+    public boolean accessDecision(String userAuthId, String patientMrn) {
+        return restTemplate.getForObject(baseUrl + "/users/accessDecision?userAuthId={userAuthId}&patientMRN={patientMrn}",
+                JsonNode.class, userAuthId, patientMrn)
+                .path("verified").asBoolean();
+    }
+
+    public JsonNode searchUsersByDemographic(String firstName, String lastName, LocalDate birthDate, int size) {
+        return restTemplate.getForObject(baseUrl + "/users/search/patientDemographic"
+                        + "?firstName={firstName}&lastName={lastName}&birthDate={birthDate}&page=0&size={size}",
+                JsonNode.class, firstName, lastName, birthDate, size);
+    }
+
+    public JsonNode searchUsersByIdentifier(String value, String system) {
+        return restTemplate.getForObject(baseUrl + "/users/search/identifier?value={value}&system={system}",
+                JsonNode.class, value, system);
+    }
+
+    public JsonNode searchUsersByFirstNameAndORLastName(String term) {
+        return restTemplate.getForObject(baseUrl + "/users/search?term={term}", JsonNode.class, term);
+    }
+
+    public void saveUserAvatarImage(Long userId, byte[] imageBytes) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.IMAGE_JPEG);
+        restTemplate.exchange(baseUrl + "/user-avatars/user/{userId}/avatar/image?fileName=avatar.jpg", HttpMethod.POST,
+                new HttpEntity<>(imageBytes, headers), JsonNode.class, userId);
+    }
+
+    public byte[] getUserAvatarImage(Long userId, int size) {
+        return restTemplate.getForObject(baseUrl + "/user-avatars/user/{userId}/avatar/image?size={size}",
+                byte[].class, userId, size);
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    private static HttpHeaders forwardedHeaders() {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(X_FORWARDED_PROTO, "https");
+        headers.set(X_FORWARDED_HOST, "c2s.example.com");
+        headers.set(X_FORWARDED_PORT, "443");
+        return headers;
+    }
+}
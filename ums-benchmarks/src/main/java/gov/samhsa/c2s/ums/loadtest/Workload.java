@@ -0,0 +1,254 @@
+package gov.samhsa.c2s.ums.loadtest;
+
+import gov.samhsa.c2s.ums.benchmark.UserFixtures;
+import gov.samhsa.c2s.ums.service.dto.UserDto;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * The closed workload of the load test: each virtual user runs one scenario after the other, chosen at random by the
+ * scenario weights, and starts the next one as soon as the last one completes. The registered patients flow from the
+ * registration scenario into the activation scenario, and the activated patients are searched, checked for access and
+ * given avatars by the other scenarios.
+ */
+@Slf4j
+public class Workload {
+    private static final String PASSWORD = "Load-test1";
+    private static final int AVATAR_SIZE_PIXELS = 200;
+    private static final int RENDITION_SIZE_PIXELS = 48;
+    private static final int SEARCH_PAGE_SIZE = 10;
+    // Only the first failures are logged with their cause, so a broken UMS does not flood the console
+    private static final int MAX_LOGGED_FAILURES = 20;
+
+    private final UmsClient umsClient;
+    private final LoadTestStatistics statistics;
+    private final LoadTestSettings settings;
+    private final byte[] avatarImage;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger loggedFailures = new AtomicInteger();
+    private final Queue<Patient> registeredPatients = new ConcurrentLinkedQueue<>();
+    private final List<Patient> activatedPatients = Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean running;
+
+    public Workload(UmsClient umsClient, LoadTestStatistics statistics, LoadTestSettings settings) throws Exception {
+        this.umsClient = umsClient;
+        this.statistics = statistics;
+        this.settings = settings;
+        this.avatarImage = UserFixtures.newAvatarImage(AVATAR_SIZE_PIXELS, "jpg");
+    }
+
+    /**
+     * Register, activate and give an avatar to the patients that the search, access decision and avatar scenarios
+     * start from. The seeding is not recorded.
+     */
+    public void seed() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(settings.getVirtualUsers());
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < settings.getSeedUsers(); i++) {
+                final UserFixtures userFixtures = new UserFixtures(settings.getSeed() - 1 - i);
+                futures.add(executor.submit(() -> {
+                    final Patient patient = register(Scenario.REGISTRATION, userFixtures);
+                    activate(Scenario.ACTIVATION, patient);
+                    timed(Scenario.AVATAR, "POST /user-avatars/user/{userId}/avatar/image", () -> {
+                        umsClient.saveUserAvatarImage(patient.userId, avatarImage);
+                        return null;
+                    });
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("Seeded {} activated patients", activatedPatients.size());
+    }
+
+    /**
+     * Run the virtual users for the given time.
+     */
+    public void run(long durationSeconds) throws InterruptedException {
+        running = true;
+        final List<Thread> virtualUsers = new ArrayList<>();
+        for (int i = 0; i < settings.getVirtualUsers(); i++) {
+            final Thread virtualUser = new Thread(new VirtualUser(settings.getSeed() + i), "virtual-user-" + i);
+            virtualUsers.add(virtualUser);
+            virtualUser.start();
+        }
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        running = false;
+        for (Thread virtualUser : virtualUsers) {
+            virtualUser.join();
+        }
+    }
+
+    private void runScenario(Scenario scenario, Random random, UserFixtures userFixtures) {
+        switch (scenario) {
+            case REGISTRATION:
+                registeredPatients.add(register(scenario, userFixtures));
+                break;
+            case ACTIVATION:
+                final Patient registeredPatient = registeredPatients.poll();
+                activate(scenario, registeredPatient != null ? registeredPatient : register(scenario, userFixtures));
+                break;
+            case SEARCH:
+                search(scenario, random);
+                break;
+            case ACCESS_DECISION:
+                final Patient patient = randomActivatedPatient(random);
+                timed(scenario, "GET /users/accessDecision",
+                        () -> umsClient.accessDecision(patient.userAuthId, patient.mrn));
+                break;
+            case AVATAR:
+                final Patient avatarPatient = randomActivatedPatient(random);
+                timed(scenario, "POST /user-avatars/user/{userId}/avatar/image", () -> {
+                    umsClient.saveUserAvatarImage(avatarPatient.userId, avatarImage);
+                    return null;
+                });
+                timed(scenario, "GET /user-avatars/user/{userId}/avatar/image",
+                        () -> umsClient.getUserAvatarImage(avatarPatient.userId, RENDITION_SIZE_PIXELS));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown scenario " + scenario);
+        }
+    }
+
+    private Patient register(Scenario scenario, UserFixtures userFixtures) {
+        final UserDto userDto = userFixtures.newPatientUserDto(sequence.incrementAndGet());
+        final UserDto registeredUser = timed(scenario, "POST /users", () -> umsClient.registerUser(userDto));
+        return new Patient(registeredUser.getId(), userDto);
+    }
+
+    private void activate(Scenario scenario, Patient patient) {
+        final String verificationCode = timed(scenario, "POST /users/{userId}/activation",
+                () -> umsClient.initiateUserActivation(patient.userId));
+        final String emailToken = timed(scenario, "GET /users/{userId}/emailToken",
+                () -> umsClient.getUserEmailToken(patient.userId));
+        timed(scenario, "POST /users/verification",
+                () -> umsClient.verify(emailToken, verificationCode, patient.userDto.getBirthDate()));
+        timed(scenario, "POST /users/activation", () -> {
+            umsClient.activateUser(emailToken, verificationCode, patient.userDto.getBirthDate(),
+                    "patient" + patient.userId, PASSWORD);
+            return null;
+        });
+        final UserDto activatedUser = timed(scenario, "GET /users/{userId}", () -> umsClient.getUser(patient.userId));
+        patient.userAuthId = activatedUser.getUserAuthId();
+        patient.mrn = activatedUser.getMrn();
+        activatedPatients.add(patient);
+    }
+
+    private void search(Scenario scenario, Random random) {
+        final Patient patient = randomActivatedPatient(random);
+        switch (random.nextInt(3)) {
+            case 0:
+                timed(scenario, "GET /users/search/patientDemographic", () -> umsClient.searchUsersByDemographic(
+                        patient.userDto.getFirstName(), patient.userDto.getLastName(), patient.userDto.getBirthDate(),
+                        SEARCH_PAGE_SIZE));
+                break;
+            case 1:
+                timed(scenario, "GET /users/search/identifier",
+                        () -> umsClient.searchUsersByIdentifier(patient.mrn, UserFixtures.MRN_SYSTEM));
+                break;
+            default:
+                timed(scenario, "GET /users/search",
+                        () -> umsClient.searchUsersByFirstNameAndORLastName(patient.userDto.getLastName()));
+                break;
+        }
+    }
+
+    private Patient randomActivatedPatient(Random random) {
+        synchronized (activatedPatients) {
+            return activatedPatients.get(random.nextInt(activatedPatients.size()));
+        }
+    }
+
+    /**
+     * Send a request and record its latency, or record its failure and rethrow, which ends the scenario.
+     */
+    private <T> T timed(Scenario scenario, String request, Supplier<T> call) {
+        final long startNanos = System.nanoTime();
+        try {
+            final T result = call.get();
+            statistics.recordSuccess(scenario, request, System.nanoTime() - startNanos);
+            return result;
+        } catch (RuntimeException e) {
+            statistics.recordFailure(scenario, request);
+            if (loggedFailures.incrementAndGet() <= MAX_LOGGED_FAILURES) {
+                log.warn("{} of the {} scenario failed: {}", request, scenario.getName(), e.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    private class VirtualUser implements Runnable {
+        private final Random random;
+        private final UserFixtures userFixtures;
+        private final Scenario[] scenarios;
+        private final int[] cumulativeWeights;
+
+        private VirtualUser(long seed) {
+            this.random = new Random(seed);
+            this.userFixtures = new UserFixtures(seed);
+            final Map<Scenario, Integer> weights = settings.getWeights();
+            this.scenarios = weights.keySet().toArray(new Scenario[0]);
+            this.cumulativeWeights = new int[scenarios.length];
+            int totalWeight = 0;
+            for (int i = 0; i < scenarios.length; i++) {
+                totalWeight += weights.get(scenarios[i]);
+                cumulativeWeights[i] = totalWeight;
+            }
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                final Scenario scenario = nextScenario();
+                final long startNanos = System.nanoTime();
+                try {
+                    runScenario(scenario, random, userFixtures);
+                    statistics.recordSuccess(scenario, LoadTestStatistics.SCENARIO_REQUEST, System.nanoTime() - startNanos);
+                } catch (RuntimeException e) {
+                    statistics.recordFailure(scenario, LoadTestStatistics.SCENARIO_REQUEST);
+                }
+            }
+        }
+
+        private Scenario nextScenario() {
+            final int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < scenarios.length; i++) {
+                if (value < cumulativeWeights[i]) {
+                    return scenarios[i];
+                }
+            }
+            throw new IllegalStateException("The scenario weights must be positive");
+        }
+    }
+
+    private static class Patient {
+        private final Long userId;
+        private final UserDto userDto;
+        private volatile String userAuthId;
+        private volatile String mrn;
+
+        private Patient(Long userId, UserDto userDto) {
+            this.userId = userId;
+            this.userDto = userDto;
+        }
+    }
+}
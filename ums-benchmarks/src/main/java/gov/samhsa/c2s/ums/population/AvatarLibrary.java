@@ -0,0 +1,111 @@
+package gov.samhsa.c2s.ums.population;
+
+import gov.samhsa.c2s.ums.benchmark.UserFixtures;
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.infrastructure.AvatarStorage;
+import gov.samhsa.c2s.ums.infrastructure.FileSystemAvatarStorage;
+import gov.samhsa.c2s.ums.service.ImageProcessingService;
+import gov.samhsa.c2s.ums.service.ImageProcessingServiceImpl;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A fixed set of distinct avatar images and their renditions, written once to the content-addressed avatar store of
+ * UMS. The generated users share these images, so millions of avatars need only a few files.
+ */
+public class AvatarLibrary {
+    public static final String FILE_EXTENSION = "jpg";
+    public static final String MEDIA_TYPE = "image/jpeg";
+    private static final int SIZE_PIXELS = 200;
+
+    private final List<Avatar> avatars = new ArrayList<>();
+
+    public AvatarLibrary(PopulationSettings settings) throws IOException {
+        final UmsProperties umsProperties = new UmsProperties();
+        final UmsProperties.Avatars avatarProperties = new UmsProperties.Avatars();
+        avatarProperties.getStorage().setLocation(settings.getAvatarStorageLocation());
+        umsProperties.setAvatars(avatarProperties);
+        final AvatarStorage avatarStorage = new FileSystemAvatarStorage(umsProperties);
+        final ImageProcessingService imageProcessingService = new ImageProcessingServiceImpl();
+
+        final SplittableRandom random = new SplittableRandom(settings.getSeed());
+        for (int i = 0; i < settings.getAvatarImages(); i++) {
+            final byte[] imageBytes = UserFixtures.newAvatarImage(SIZE_PIXELS, FILE_EXTENSION,
+                    new Color(random.nextInt(0x1000000)), new Color(random.nextInt(0x1000000)), random.nextLong());
+            final List<Rendition> renditions = new ArrayList<>();
+            for (Integer renditionSize : settings.getAvatarRenditionSizes()) {
+                // Like UMS, only renditions smaller than the original are generated
+                if (renditionSize < SIZE_PIXELS) {
+                    final byte[] renditionBytes = imageProcessingService.resizeImage(imageBytes, FILE_EXTENSION, renditionSize);
+                    renditions.add(new Rendition(renditionSize, renditionBytes.length, avatarStorage.save(renditionBytes)));
+                }
+            }
+            avatars.add(new Avatar(imageBytes.length, avatarStorage.save(imageBytes), renditions));
+        }
+    }
+
+    public Avatar pick(SplittableRandom random) {
+        return avatars.get(random.nextInt(avatars.size()));
+    }
+
+    public int maxRenditionsPerAvatar() {
+        return avatars.stream().mapToInt(avatar -> avatar.renditions.size()).max().orElse(0);
+    }
+
+    public static class Avatar {
+        private final long sizeBytes;
+        private final String contentHash;
+        private final List<Rendition> renditions;
+
+        private Avatar(long sizeBytes, String contentHash, List<Rendition> renditions) {
+            this.sizeBytes = sizeBytes;
+            this.contentHash = contentHash;
+            this.renditions = Collections.unmodifiableList(renditions);
+        }
+
+        public long getSizeBytes() {
+            return sizeBytes;
+        }
+
+        public long getSizePixels() {
+            return SIZE_PIXELS;
+        }
+
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        public List<Rendition> getRenditions() {
+            return renditions;
+        }
+    }
+
+    public static class Rendition {
+        private final int sizePixels;
+        private final long sizeBytes;
+        private final String contentHash;
+
+        private Rendition(int sizePixels, long sizeBytes, String contentHash) {
+            this.sizePixels = sizePixels;
+            this.sizeBytes = sizeBytes;
+            this.contentHash = contentHash;
+        }
+
+        public int getSizePixels() {
+            return sizePixels;
+        }
+
+        public long getSizeBytes() {
+            return sizeBytes;
+        }
+
+        public String getContentHash() {
+            return contentHash;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package gov.samhsa.c2s.ums.population;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.apache.tomcat.jdbc.pool.PoolProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates a synthetic population of users into a UMS database, so the performance of UMS can be measured against a
+ * database of a realistic size and shape: registered, pending and activated patients, providers, staff and guardians,
+ * with their demographics, identifiers, telecoms, addresses, roles, scopes and avatars.
+ * <p>
+ * The same settings and seed generate the same users; the ids are reserved from the database, so a population can be
+ * added to a database that UMS is running against, and several populations can be added to the same database. The
+ * audit tables and the FHIR publication outbox are not populated; run the FHIR backfill to publish the patients.
+ * <p>
+ * Run from the ums-benchmarks folder with: ../ums/mvnw clean compile exec:exec -Ppopulation
+ */
+@Slf4j
+public class GeneratePopulation {
+    private static final long PROGRESS_INTERVAL_USERS = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        final PopulationSettings settings = PopulationSettings.fromSystemProperties();
+        final DataSource dataSource = dataSource(settings);
+        try {
+            final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            final TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+            final ReferenceData referenceData = new ReferenceData(jdbcTemplate);
+            log.info("Writing {} avatar images to {}", settings.getAvatarImages(), settings.getAvatarStorageLocation());
+            final AvatarLibrary avatarLibrary = new AvatarLibrary(settings);
+            final IdReservation ids = IdReservation.reserve(transactionTemplate, jdbcTemplate,
+                    PopulationGenerator.idsPerUser(referenceData, avatarLibrary), settings.getUsers(),
+                    (long) Math.pow(10, settings.getMrnLength()));
+
+            log.info("Generating {} users with seed {} as of {}", settings.getUsers(), settings.getSeed(), settings.getAsOf());
+            final long startNanos = System.nanoTime();
+            final AtomicLong userCount = new AtomicLong();
+            final AtomicLong rowCount = new AtomicLong();
+            final PopulationWriter writer = new PopulationWriter(transactionTemplate, jdbcTemplate);
+            final ThreadLocal<PopulationGenerator> generators = ThreadLocal.withInitial(
+                    () -> new PopulationGenerator(settings, referenceData, ids, avatarLibrary));
+            final ExecutorService executorService = Executors.newFixedThreadPool(settings.getThreads());
+            try {
+                final List<Future<?>> chunks = new ArrayList<>();
+                for (long fromIndex = 0; fromIndex < settings.getUsers(); fromIndex += settings.getChunkSize()) {
+                    final long chunkFromIndex = fromIndex;
+                    final long chunkToIndex = Math.min(fromIndex + settings.getChunkSize(), settings.getUsers());
+                    chunks.add(executorService.submit(() -> {
+                        final PopulationChunk chunk = generators.get().generate(chunkFromIndex, chunkToIndex);
+                        rowCount.addAndGet(writer.write(chunk));
+                        final long users = userCount.addAndGet(chunk.getUserCount());
+                        if (users / PROGRESS_INTERVAL_USERS != (users - chunk.getUserCount()) / PROGRESS_INTERVAL_USERS) {
+                            log.info("Generated {} of {} users, {} users per second", users, settings.getUsers(),
+                                    perSecond(users, startNanos));
+                        }
+                    }));
+                }
+                // Fails on the first failed chunk; the chunks written before stay, and their ids stay reserved
+                for (Future<?> chunk : chunks) {
+                    chunk.get();
+                }
+            } finally {
+                executorService.shutdownNow();
+            }
+            log.info("Generated {} users and {} rows in {} seconds, {} users per second", userCount.get(), rowCount.get(),
+                    (System.nanoTime() - startNanos) / 1_000_000_000L, perSecond(userCount.get(), startNanos));
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    private static DataSource dataSource(PopulationSettings settings) {
+        final PoolProperties poolProperties = new PoolProperties();
+        poolProperties.setDriverClassName("com.mysql.jdbc.Driver");
+        poolProperties.setUrl(settings.getDatasourceUrl());
+        poolProperties.setUsername(settings.getDatasourceUsername());
+        poolProperties.setPassword(settings.getDatasourcePassword());
+        poolProperties.setMaxActive(settings.getThreads() + 1);
+        poolProperties.setMaxIdle(settings.getThreads() + 1);
+        // A guardian may refer to the patient of a chunk that is not written yet
+        poolProperties.setInitSQL("SET foreign_key_checks = 0");
+        return new DataSource(poolProperties);
+    }
+
+    private static long perSecond(long count, long startNanos) {
+        return count * 1_000_000_000L / Math.max(1, System.nanoTime() - startNanos);
+    }
+}
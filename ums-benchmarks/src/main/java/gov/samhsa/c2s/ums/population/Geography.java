@@ -0,0 +1,89 @@
+package gov.samhsa.c2s.ums.population;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Addresses spread over the states like the US population, with the first ZIP code digit of the state.
+ */
+public class Geography {
+    // The state code, the population in thousands and the first digit of the ZIP codes of the state
+    private static final Object[][] STATES = {{"AL", 4875, 3}, {"AK", 740, 9}, {"AZ", 7016, 8}, {"AR", 3004, 7},
+            {"CA", 39537, 9}, {"CO", 5607, 8}, {"CT", 3588, 0}, {"DE", 962, 1}, {"DC", 694, 2}, {"FL", 20984, 3},
+            {"GA", 10429, 3}, {"HI", 1428, 9}, {"ID", 1716, 8}, {"IL", 12802, 6}, {"IN", 6666, 4}, {"IA", 3145, 5},
+            {"KS", 2913, 6}, {"KY", 4454, 4}, {"LA", 4684, 7}, {"ME", 1335, 0}, {"MD", 6052, 2}, {"MA", 6859, 0},
+            {"MI", 9962, 4}, {"MN", 5576, 5}, {"MS", 2984, 3}, {"MO", 6113, 6}, {"MT", 1050, 5}, {"NE", 1920, 6},
+            {"NV", 2998, 8}, {"NH", 1342, 0}, {"NJ", 9005, 0}, {"NM", 2088, 8}, {"NY", 19849, 1}, {"NC", 10273, 2},
+            {"ND", 755, 5}, {"OH", 11658, 4}, {"OK", 3930, 7}, {"OR", 4142, 9}, {"PA", 12805, 1}, {"PR", 3337, 0},
+            {"RI", 1059, 0}, {"SC", 5024, 2}, {"SD", 869, 5}, {"TN", 6715, 3}, {"TX", 28304, 7}, {"UT", 3101, 8},
+            {"VT", 623, 0}, {"VA", 8470, 2}, {"WA", 7405, 9}, {"WV", 1815, 2}, {"WI", 5795, 5}, {"WY", 579, 8}};
+    // The weight of a seeded state code that is not in the table above, such as a territory
+    private static final int OTHER_STATE_POPULATION = 100;
+
+    private static final String[] CITIES = {"Springfield", "Franklin", "Greenville", "Clinton", "Madison",
+            "Georgetown", "Salem", "Fairview", "Riverside", "Arlington", "Ashland", "Burlington", "Manchester", "Oxford",
+            "Jackson", "Milton", "Auburn", "Dayton", "Lexington", "Marion", "Columbia", "Bristol", "Chester", "Dover",
+            "Hudson", "Kingston", "Newport", "Oakland", "Winchester", "Mount Vernon"};
+    private static final String[] STREETS = {"Main", "Oak", "Pine", "Maple", "Cedar", "Elm", "Washington", "Lake",
+            "Hill", "Park", "Walnut", "Spring", "North", "Ridge", "Church", "Willow", "Mill", "Sunset", "Jefferson",
+            "Lincoln", "Highland", "Meadow", "Forest", "River", "Chestnut", "Franklin", "Adams", "Madison"};
+    private static final String[] STREET_SUFFIXES = {"St", "Ave", "Rd", "Dr", "Ln", "Blvd", "Ct", "Way", "Pl", "Ter"};
+
+    private final WeightedValues<State> states = new WeightedValues<>();
+
+    /**
+     * @param stateCodeIds the ids of the seeded state codes by code; only these states are used
+     */
+    public Geography(Map<String, Long> stateCodeIds) {
+        final Map<String, Object[]> statesByCode = new HashMap<>();
+        for (Object[] state : STATES) {
+            statesByCode.put((String) state[0], state);
+        }
+        stateCodeIds.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(stateCodeId -> {
+                    final Object[] state = statesByCode.get(stateCodeId.getKey());
+                    states.add(new State(stateCodeId.getValue(), state != null ? (Integer) state[2] : 0),
+                            state != null ? (Integer) state[1] : OTHER_STATE_POPULATION);
+                });
+    }
+
+    public State pickState(SplittableRandom random) {
+        return states.pick(random);
+    }
+
+    public String line1(SplittableRandom random) {
+        return (1 + random.nextInt(9999)) + " " + pick(STREETS, random) + " " + pick(STREET_SUFFIXES, random);
+    }
+
+    public String line2(SplittableRandom random) {
+        return random.nextInt(5) == 0 ? "Apt " + (1 + random.nextInt(400)) : null;
+    }
+
+    public String city(SplittableRandom random) {
+        return pick(CITIES, random);
+    }
+
+    public String postalCode(State state, SplittableRandom random) {
+        return state.zipCodeFirstDigit + String.format("%04d", random.nextInt(10000));
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    public static class State {
+        private final Long stateCodeId;
+        private final int zipCodeFirstDigit;
+
+        private State(Long stateCodeId, int zipCodeFirstDigit) {
+            this.stateCodeId = stateCodeId;
+            this.zipCodeFirstDigit = zipCodeFirstDigit;
+        }
+
+        public Long getStateCodeId() {
+            return stateCodeId;
+        }
+    }
+}
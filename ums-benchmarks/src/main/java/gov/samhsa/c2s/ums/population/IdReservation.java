@@ -0,0 +1,80 @@
+package gov.samhsa.c2s.ums.population;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Reserves the ids of all generated rows up front, from the same <code>id_generator</code> rows that the pooled id
+ * generator of UMS reserves its blocks from, and the MRN sequence values from <code>identifier_sequence</code>. A
+ * running UMS therefore never assigns an id or an MRN that the generator uses.
+ * <p>
+ * Every user gets a fixed number of ids per table, so the ids of a user only depend on its index and the chunks can be
+ * written in any order. The ids of the rows that a user does not have are left unused, like the unused ids of a block.
+ */
+public class IdReservation {
+    private static final String MRN_SEQUENCE_NAME = "MRN";
+
+    private final Map<PopulationTable, Long> firstIds = new EnumMap<>(PopulationTable.class);
+    private final Map<PopulationTable, Integer> idsPerUser;
+    private long firstMrnSequenceValue;
+
+    private IdReservation(Map<PopulationTable, Integer> idsPerUser) {
+        this.idsPerUser = idsPerUser;
+    }
+
+    /**
+     * @param idsPerUser  the number of ids per user, by the tables with pooled ids
+     * @param mrnCapacity the number of MRN sequence values, 10 to the power of the MRN length
+     */
+    public static IdReservation reserve(TransactionTemplate transactionTemplate, JdbcTemplate jdbcTemplate,
+                                        Map<PopulationTable, Integer> idsPerUser, int users, long mrnCapacity) {
+        final IdReservation reservation = new IdReservation(idsPerUser);
+        transactionTemplate.execute(status -> {
+            idsPerUser.forEach((table, count) -> {
+                final Long firstId = jdbcTemplate.queryForObject(
+                        "SELECT next_val FROM id_generator WHERE sequence_name = ? FOR UPDATE", Long.class, table.getTableName());
+                jdbcTemplate.update("UPDATE id_generator SET next_val = ? WHERE sequence_name = ?",
+                        firstId + (long) users * count, table.getTableName());
+                reservation.firstIds.put(table, firstId);
+            });
+
+            final Long firstMrnSequenceValue = jdbcTemplate.queryForObject(
+                    "SELECT next_value FROM identifier_sequence WHERE name = ? FOR UPDATE", Long.class, MRN_SEQUENCE_NAME);
+            if (firstMrnSequenceValue + users > mrnCapacity) {
+                throw new IllegalStateException("Only " + (mrnCapacity - firstMrnSequenceValue) + " MRNs of the "
+                        + "configured length are left for " + users + " users; increase the MRN length of UMS and of the "
+                        + "generator (population.mrn.length)");
+            }
+            jdbcTemplate.update("UPDATE identifier_sequence SET next_value = ? WHERE name = ?",
+                    firstMrnSequenceValue + users, MRN_SEQUENCE_NAME);
+            reservation.firstMrnSequenceValue = firstMrnSequenceValue;
+            return null;
+        });
+        return reservation;
+    }
+
+    /**
+     * @param table the table
+     * @param index the index of the user
+     * @param ordinal the ordinal of the row among the rows of the user in the table
+     * @return the id of the row
+     */
+    public long id(PopulationTable table, long index, int ordinal) {
+        final int count = idsPerUser.get(table);
+        if (ordinal >= count) {
+            throw new IllegalArgumentException("Only " + count + " " + table.getTableName() + " ids are reserved per user");
+        }
+        return firstIds.get(table) + index * count + ordinal;
+    }
+
+    public long id(PopulationTable table, long index) {
+        return id(table, index, 0);
+    }
+
+    public long mrnSequenceValue(long index) {
+        return firstMrnSequenceValue + index;
+    }
+}
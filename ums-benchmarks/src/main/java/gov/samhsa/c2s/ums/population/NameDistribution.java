@@ -0,0 +1,109 @@
+package gov.samhsa.c2s.ums.population;
+
+import java.util.SplittableRandom;
+
+/**
+ * A name distribution with the skew of real populations: the most common names, weighted by their frequency in the
+ * US census and social security records, make up the head, and a long tail of rarer names, built from syllables,
+ * follows a Zipf-like (log-uniform rank) distribution. So a search for a common last name matches many users and a
+ * search for a rare one matches a few, as in production.
+ */
+public class NameDistribution {
+    private static final String[] SURNAME_SYLLABLES = {"al", "ash", "bar", "bel", "bran", "car", "dal", "dor", "el",
+            "fair", "gar", "gil", "hal", "har", "kel", "ken", "lan", "lin", "mar", "mor", "nor", "ol", "pen", "ran",
+            "ros", "sal", "sel", "stan", "tal", "tor", "van", "wal", "wes", "win", "york", "brook"};
+    private static final String[] SURNAME_ENDINGS = {"son", "ton", "ley", "man", "ford", "field", "wood", "well", "by",
+            "er", "en", "ez", "ski", "berg", "stein", "ard", "ett", "ham", "ridge", "ing"};
+    private static final String[] FIRST_NAME_SYLLABLES = {"a", "ba", "bri", "ca", "da", "de", "e", "fa", "ga", "ja",
+            "ka", "la", "le", "ma", "mi", "na", "no", "ra", "ri", "sa", "se", "ta", "ti", "va", "za"};
+    private static final String[] MALE_ENDINGS = {"n", "l", "r", "s", "x", "on", "an", "el", "ar", "us", "en", "o"};
+    private static final String[] FEMALE_ENDINGS = {"a", "na", "la", "ra", "lyn", "elle", "ia", "ie", "ine", "ette", "ee", "ah"};
+
+    // The frequencies are the number of people in thousands, rounded
+    private static final Object[][] COMMON_SURNAMES = {{"Smith", 2442}, {"Johnson", 1932}, {"Williams", 1625},
+            {"Brown", 1437}, {"Jones", 1425}, {"Garcia", 1166}, {"Miller", 1161}, {"Davis", 1116}, {"Rodriguez", 1094},
+            {"Martinez", 1060}, {"Hernandez", 1043}, {"Lopez", 874}, {"Gonzalez", 841}, {"Wilson", 801},
+            {"Anderson", 784}, {"Thomas", 756}, {"Taylor", 751}, {"Moore", 724}, {"Jackson", 708}, {"Martin", 702},
+            {"Lee", 693}, {"Perez", 681}, {"Thompson", 664}, {"White", 660}, {"Harris", 624}, {"Sanchez", 612},
+            {"Clark", 562}, {"Ramirez", 557}, {"Lewis", 531}, {"Robinson", 529}, {"Walker", 523}, {"Young", 484},
+            {"Allen", 482}, {"King", 465}, {"Wright", 458}, {"Scott", 439}, {"Torres", 437}, {"Nguyen", 437},
+            {"Hill", 434}, {"Flores", 433}, {"Green", 430}, {"Adams", 427}, {"Nelson", 424}, {"Baker", 420},
+            {"Hall", 407}, {"Rivera", 389}, {"Campbell", 386}, {"Mitchell", 384}, {"Carter", 376}, {"Roberts", 376}};
+    private static final Object[][] COMMON_MALE_NAMES = {{"James", 4764}, {"Robert", 4700}, {"John", 4590},
+            {"Michael", 4370}, {"David", 3600}, {"William", 3600}, {"Richard", 2560}, {"Joseph", 2600},
+            {"Thomas", 2300}, {"Charles", 2300}, {"Christopher", 2000}, {"Daniel", 1900}, {"Matthew", 1600},
+            {"George", 1470}, {"Anthony", 1400}, {"Mark", 1350}, {"Donald", 1300}, {"Steven", 1290}, {"Andrew", 1260},
+            {"Paul", 1250}, {"Joshua", 1230}, {"Kevin", 1170}, {"Brian", 1160}, {"Kenneth", 1120}, {"Edward", 1080},
+            {"Timothy", 1080}, {"Ronald", 1070}, {"Jason", 1040}, {"Jeffrey", 980}, {"Eric", 980}, {"Ryan", 950},
+            {"Jacob", 950}, {"Nicholas", 920}, {"Gary", 900}, {"Stephen", 840}, {"Scott", 840}, {"Jonathan", 820},
+            {"Larry", 800}, {"Justin", 780}, {"Brandon", 740}, {"Benjamin", 700}, {"Gregory", 700}, {"Samuel", 680},
+            {"Patrick", 680}, {"Alexander", 640}, {"Jack", 640}, {"Raymond", 630}, {"Dennis", 600}, {"Jerry", 600},
+            {"Frank", 590}};
+    private static final Object[][] COMMON_FEMALE_NAMES = {{"Mary", 3500}, {"Elizabeth", 1640}, {"Patricia", 1570},
+            {"Jennifer", 1470}, {"Linda", 1450}, {"Barbara", 1430}, {"Margaret", 1200}, {"Susan", 1120},
+            {"Dorothy", 1100}, {"Sarah", 1090}, {"Jessica", 1050}, {"Nancy", 1000}, {"Karen", 990}, {"Betty", 980},
+            {"Lisa", 970}, {"Sandra", 880}, {"Ashley", 850}, {"Emily", 850}, {"Kimberly", 840}, {"Donna", 830},
+            {"Michelle", 810}, {"Carol", 810}, {"Amanda", 780}, {"Melissa", 760}, {"Deborah", 740}, {"Stephanie", 730},
+            {"Rebecca", 700}, {"Sharon", 700}, {"Laura", 680}, {"Shirley", 670}, {"Cynthia", 660}, {"Angela", 660},
+            {"Amy", 650}, {"Kathleen", 650}, {"Emma", 650}, {"Anna", 650}, {"Katherine", 620}, {"Brenda", 610},
+            {"Pamela", 580}, {"Nicole", 580}, {"Helen", 580}, {"Maria", 580}, {"Samantha", 560}, {"Christine", 560},
+            {"Debra", 550}, {"Rachel", 550}, {"Carolyn", 540}, {"Janet", 540}, {"Catherine", 540}, {"Heather", 520}};
+
+    private final WeightedValues<String> commonNames = new WeightedValues<>();
+    private final double commonShare;
+    private final String[] syllables;
+    private final String[] endings;
+    private final int tailSize;
+
+    private NameDistribution(Object[][] commonNames, double commonShare, String[] syllables, String[] endings) {
+        for (Object[] commonName : commonNames) {
+            this.commonNames.add((String) commonName[0], (Integer) commonName[1]);
+        }
+        this.commonShare = commonShare;
+        this.syllables = syllables;
+        this.endings = endings;
+        // One or two syllables before the ending
+        this.tailSize = (syllables.length + syllables.length * syllables.length) * endings.length;
+    }
+
+    /**
+     * The 50 most common surnames are about a tenth of the population
+     */
+    public static NameDistribution surnames() {
+        return new NameDistribution(COMMON_SURNAMES, 0.1, SURNAME_SYLLABLES, SURNAME_ENDINGS);
+    }
+
+    /**
+     * The 50 most common first names are about a third of the population
+     */
+    public static NameDistribution maleNames() {
+        return new NameDistribution(COMMON_MALE_NAMES, 0.35, FIRST_NAME_SYLLABLES, MALE_ENDINGS);
+    }
+
+    public static NameDistribution femaleNames() {
+        return new NameDistribution(COMMON_FEMALE_NAMES, 0.35, FIRST_NAME_SYLLABLES, FEMALE_ENDINGS);
+    }
+
+    public String pick(SplittableRandom random) {
+        if (random.nextDouble() < commonShare) {
+            return commonNames.pick(random);
+        }
+        // Log-uniform ranks: the rank r is picked with a probability of about 1 / r
+        final int rank = (int) Math.exp(random.nextDouble() * Math.log(tailSize));
+        return tailName(rank - 1);
+    }
+
+    private String tailName(int rank) {
+        final StringBuilder name = new StringBuilder();
+        int remainder = rank / endings.length;
+        if (remainder < syllables.length) {
+            name.append(syllables[remainder]);
+        } else {
+            remainder -= syllables.length;
+            name.append(syllables[remainder / syllables.length]).append(syllables[remainder % syllables.length]);
+        }
+        name.append(endings[rank % endings.length]);
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+}
@@ -0,0 +1,43 @@
+package gov.samhsa.c2s.ums.population;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rows of a range of generated users, by table.
+ */
+public class PopulationChunk {
+    private final long fromIndex;
+    private final long toIndex;
+    private final Map<PopulationTable, List<Object[]>> rows = new EnumMap<>(PopulationTable.class);
+
+    public PopulationChunk(long fromIndex, long toIndex) {
+        this.fromIndex = fromIndex;
+        this.toIndex = toIndex;
+        for (PopulationTable table : PopulationTable.values()) {
+            rows.put(table, new ArrayList<>());
+        }
+    }
+
+    public void add(PopulationTable table, Object... row) {
+        rows.get(table).add(row);
+    }
+
+    public List<Object[]> getRows(PopulationTable table) {
+        return rows.get(table);
+    }
+
+    public long getFromIndex() {
+        return fromIndex;
+    }
+
+    public long getToIndex() {
+        return toIndex;
+    }
+
+    public int getUserCount() {
+        return (int) (toIndex - fromIndex);
+    }
+}
@@ -0,0 +1,399 @@
+package gov.samhsa.c2s.ums.population;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.domain.Address;
+import gov.samhsa.c2s.ums.domain.Telecom;
+import gov.samhsa.c2s.ums.service.EmailTokenSigner;
+import gov.samhsa.c2s.ums.service.EmailTokenSignerImpl;
+import gov.samhsa.c2s.ums.service.MrnBlockAllocator;
+import gov.samhsa.c2s.ums.service.MrnService;
+import gov.samhsa.c2s.ums.service.MrnServiceImpl;
+import gov.samhsa.c2s.ums.service.dto.MrnAllocationStatisticsDto;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Generates the rows of the users in a range of user indexes, as UMS would have written them when the users were
+ * registered, activated and given an avatar.
+ * <p>
+ * Each user is generated from its own random, seeded with the population seed and the user index, so the users do not
+ * depend on the chunk size, the number of threads or the order the chunks are generated in. Unique values, such as the
+ * MRN, SSN, NPI and email, are derived from the reserved ids instead of drawn at random, so they never collide.
+ */
+public class PopulationGenerator {
+    // The shares of the roles of the users; the guardians and parents are related to another user's patient
+    private static final double PATIENT_SHARE = 0.9;
+    private static final double PROVIDER_SHARE = 0.05;
+    private static final double STAFF_SHARE = 0.03;
+    private static final double GUARDIAN_SHARE = 0.01;
+    // The shares of the users that are activated, or whose activation email is sent but not yet used
+    private static final double ACTIVATED_SHARE = 0.6;
+    private static final double PENDING_ACTIVATION_SHARE = 0.15;
+    private static final double AVATAR_SHARE = 0.3;   // Of the activated users
+    private static final double DISABLED_SHARE = 0.01;
+    private static final double MALE_SHARE = 0.49;
+    private static final double MIDDLE_NAME_SHARE = 0.4;
+    private static final double SPANISH_LOCALE_SHARE = 0.13;
+    private static final double SSN_SHARE = 0.7;   // Of the patients
+    private static final double REGISTRATION_PURPOSE_EMAIL_SHARE = 0.05;   // Of the patients, who have no personal email
+    private static final double HOME_PHONE_SHARE = 0.85;
+    private static final double WORK_PHONE_SHARE = 0.3;
+    private static final double WORK_ADDRESS_SHARE = 0.15;
+    private static final int HISTORY_DAYS = 3 * 365;   // The users registered over the last three years
+    private static final int MAX_ACTIVATION_DELAY_DAYS = 30;
+    private static final int VERIFICATION_CODE_LENGTH = 7;
+    private static final Object[][] EMAIL_DOMAINS = {{"gmail.com", 40}, {"yahoo.com", 18}, {"hotmail.com", 9},
+            {"outlook.com", 9}, {"aol.com", 5}, {"icloud.com", 5}, {"comcast.net", 4}, {"example.com", 10}};
+    // The age of the patients in years; mostly adults in treatment
+    private static final int[][] PATIENT_AGES = {{12, 17, 4}, {18, 24, 14}, {25, 34, 26}, {35, 44, 21}, {45, 54, 17},
+            {55, 64, 12}, {65, 90, 6}};
+    private static final int[][] STAFF_AGES = {{25, 70, 1}};
+    // The 9 digit SSN space without the area numbers 000, 666 and 900 to 999, the groups 00 and the serials 0000
+    private static final long SSN_CAPACITY = 898L * 99 * 9999;
+    private static final long SSN_MULTIPLIER = 7_368_787L;
+    private static final long SSN_OFFSET = 4_721_393L;
+    private static final String NPI_PREFIX = "80840";
+    private static final ZoneId ZONE_ID = ZoneId.systemDefault();
+
+    private final PopulationSettings settings;
+    private final ReferenceData referenceData;
+    private final IdReservation ids;
+    private final AvatarLibrary avatarLibrary;
+    private final NameDistribution surnames = NameDistribution.surnames();
+    private final NameDistribution maleNames = NameDistribution.maleNames();
+    private final NameDistribution femaleNames = NameDistribution.femaleNames();
+    private final Geography geography;
+    private final WeightedValues<String> emailDomains = new WeightedValues<>();
+    private final WeightedValues<int[]> patientAges = new WeightedValues<>();
+    private final WeightedValues<int[]> staffAges = new WeightedValues<>();
+    private final SeededTokenGenerator tokenGenerator = new SeededTokenGenerator();
+    private final EmailTokenSigner emailTokenSigner;
+    private final UserIndexMrnAllocator mrnAllocator = new UserIndexMrnAllocator();
+    private final MrnService mrnService;
+
+    /**
+     * A generator is not thread safe; each thread needs its own.
+     */
+    public PopulationGenerator(PopulationSettings settings, ReferenceData referenceData, IdReservation ids,
+                               AvatarLibrary avatarLibrary) {
+        this.settings = settings;
+        this.referenceData = referenceData;
+        this.ids = ids;
+        this.avatarLibrary = avatarLibrary;
+        this.geography = new Geography(referenceData.getStateCodeIds());
+        for (Object[] emailDomain : EMAIL_DOMAINS) {
+            emailDomains.add((String) emailDomain[0], (Integer) emailDomain[1]);
+        }
+        for (int[] ages : PATIENT_AGES) {
+            patientAges.add(ages, ages[2]);
+        }
+        for (int[] ages : STAFF_AGES) {
+            staffAges.add(ages, ages[2]);
+        }
+
+        final UmsProperties umsProperties = new UmsProperties();
+        final UmsProperties.Tokens tokens = new UmsProperties.Tokens();
+        tokens.setEmailTokenSigningKey(settings.getEmailTokenSigningKey());
+        umsProperties.setTokens(tokens);
+        final UmsProperties.Mrn mrn = new UmsProperties.Mrn();
+        mrn.setCodeSystem(settings.getMrnCodeSystem());
+        mrn.setPrefix(settings.getMrnPrefix());
+        mrn.setLength(settings.getMrnLength());
+        umsProperties.setMrn(mrn);
+        this.emailTokenSigner = new EmailTokenSignerImpl(umsProperties, tokenGenerator);
+        this.mrnService = new MrnServiceImpl(umsProperties, mrnAllocator);
+    }
+
+    /**
+     * @return the number of ids each user needs, by the tables with pooled ids
+     */
+    public static Map<PopulationTable, Integer> idsPerUser(ReferenceData referenceData, AvatarLibrary avatarLibrary) {
+        final Map<PopulationTable, Integer> idsPerUser = new EnumMap<>(PopulationTable.class);
+        idsPerUser.put(PopulationTable.DEMOGRAPHICS, 1);
+        idsPerUser.put(PopulationTable.USER, 1);
+        // An email, a home phone and a work phone
+        idsPerUser.put(PopulationTable.TELECOM, 3);
+        // A home and a work address
+        idsPerUser.put(PopulationTable.ADDRESS, 2);
+        // An MRN and an SSN, or an NPI
+        idsPerUser.put(PopulationTable.IDENTIFIER, 2);
+        idsPerUser.put(PopulationTable.PATIENT, 1);
+        idsPerUser.put(PopulationTable.USER_ACTIVATION, 1);
+        idsPerUser.put(PopulationTable.USER_SCOPE_ASSIGNMENT, referenceData.maxScopesPerRole());
+        idsPerUser.put(PopulationTable.USER_AVATAR, 1);
+        idsPerUser.put(PopulationTable.USER_AVATAR_RENDITION, avatarLibrary.maxRenditionsPerAvatar());
+        return idsPerUser;
+    }
+
+    public PopulationChunk generate(long fromIndex, long toIndex) {
+        final PopulationChunk chunk = new PopulationChunk(fromIndex, toIndex);
+        for (long index = fromIndex; index < toIndex; index++) {
+            generateUser(chunk, index);
+        }
+        return chunk;
+    }
+
+    private void generateUser(PopulationChunk chunk, long index) {
+        final SplittableRandom random = userRandom(index);
+        final Role role = role(random);
+        tokenGenerator.use(random);
+        final long userId = ids.id(PopulationTable.USER, index);
+        final long demographicsId = ids.id(PopulationTable.DEMOGRAPHICS, index);
+
+        // Demographics
+        final boolean male = random.nextDouble() < MALE_SHARE;
+        final NameDistribution firstNames = male ? maleNames : femaleNames;
+        final String firstName = firstNames.pick(random);
+        final String middleName = random.nextDouble() < MIDDLE_NAME_SHARE ? firstNames.pick(random) : null;
+        final String lastName = surnames.pick(random);
+        final LocalDateTime registered = settings.getAsOf().atStartOfDay()
+                .minusDays(random.nextInt(HISTORY_DAYS))
+                .plusSeconds(random.nextInt(24 * 60 * 60));
+        final LocalDate birthDate = birthDate(role == Role.PATIENT ? patientAges : staffAges, registered, random);
+        chunk.add(PopulationTable.DEMOGRAPHICS, demographicsId, firstName, middleName, lastName,
+                Timestamp.valueOf(birthDate.atStartOfDay()), referenceData.genderCodeId(male ? "male" : "female"));
+
+        // Telecoms
+        final boolean personalEmail = role != Role.PATIENT || random.nextDouble() >= REGISTRATION_PURPOSE_EMAIL_SHARE;
+        final String email = email(firstName, lastName, userId, random);
+        if (personalEmail) {
+            chunk.add(PopulationTable.TELECOM, ids.id(PopulationTable.TELECOM, index, 0),
+                    Telecom.System.EMAIL.name(), Telecom.Use.HOME.name(), email, demographicsId);
+        }
+        if (random.nextDouble() < HOME_PHONE_SHARE) {
+            chunk.add(PopulationTable.TELECOM, ids.id(PopulationTable.TELECOM, index, 1),
+                    Telecom.System.PHONE.name(), Telecom.Use.HOME.name(), phoneNumber(random), demographicsId);
+        }
+        if (random.nextDouble() < WORK_PHONE_SHARE) {
+            chunk.add(PopulationTable.TELECOM, ids.id(PopulationTable.TELECOM, index, 2),
+                    Telecom.System.PHONE.name(), Telecom.Use.WORK.name(), phoneNumber(random), demographicsId);
+        }
+
+        // Addresses
+        addAddress(chunk, ids.id(PopulationTable.ADDRESS, index, 0), Address.Use.HOME, demographicsId, random);
+        if (random.nextDouble() < WORK_ADDRESS_SHARE) {
+            addAddress(chunk, ids.id(PopulationTable.ADDRESS, index, 1), Address.Use.WORK, demographicsId, random);
+        }
+
+        // User and role
+        final boolean disabled = random.nextDouble() < DISABLED_SHARE;
+        final String locale = random.nextDouble() < SPANISH_LOCALE_SHARE ? "es" : "en";
+        final double activation = random.nextDouble();
+        final boolean activated = activation < ACTIVATED_SHARE;
+        final boolean activationPending = !activated && activation < ACTIVATED_SHARE + PENDING_ACTIVATION_SHARE;
+        final LocalDateTime activationInitiated = min(registered.plusDays(random.nextInt(MAX_ACTIVATION_DELAY_DAYS + 1)),
+                settings.getAsOf().atStartOfDay());
+        final String userAuthId = activated ? tokenGenerator.generateUuid().toString() : null;
+        final LocalDateTime lastUpdated = activated || activationPending ? activationInitiated : registered;
+        chunk.add(PopulationTable.USER, userId, disabled, userAuthId, demographicsId, referenceData.localeId(locale),
+                null, Timestamp.valueOf(registered), null, Timestamp.valueOf(lastUpdated));
+        final Long roleId = referenceData.roleId(role.getCode());
+        chunk.add(PopulationTable.USER_ROLES, userId, roleId);
+
+        // Identifiers, patient and relationships
+        switch (role) {
+            case PATIENT:
+                mrnAllocator.value = ids.mrnSequenceValue(index);
+                addIdentifier(chunk, ids.id(PopulationTable.IDENTIFIER, index, 0), mrnService.generateMrn(),
+                        settings.getMrnCodeSystem(), demographicsId);
+                if (random.nextDouble() < SSN_SHARE) {
+                    addIdentifier(chunk, ids.id(PopulationTable.IDENTIFIER, index, 1), ssn(userId),
+                            settings.getSsnCodeSystem(), demographicsId);
+                }
+                final long patientId = ids.id(PopulationTable.PATIENT, index);
+                chunk.add(PopulationTable.PATIENT, patientId, personalEmail ? null : email, demographicsId);
+                chunk.add(PopulationTable.USER_PATIENT_RELATIONSHIP, userId, patientId,
+                        referenceData.relationshipRoleId(role.getCode()));
+                break;
+            case PROVIDER:
+                addIdentifier(chunk, ids.id(PopulationTable.IDENTIFIER, index, 0), npi(userId),
+                        settings.getNpiCodeSystem(), demographicsId);
+                break;
+            case GUARDIAN:
+            case PARENTS:
+                chunk.add(PopulationTable.USER_PATIENT_RELATIONSHIP, userId,
+                        ids.id(PopulationTable.PATIENT, relatedPatientIndex(random)),
+                        referenceData.relationshipRoleId(role.getCode()));
+                break;
+            default:
+                break;
+        }
+
+        // Activation, scopes and avatar
+        if (activated || activationPending) {
+            final long userActivationId = ids.id(PopulationTable.USER_ACTIVATION, index);
+            final LocalDateTime emailTokenExpiration = activationInitiated.plusDays(settings.getEmailTokenExpirationInDays());
+            chunk.add(PopulationTable.USER_ACTIVATION, userActivationId,
+                    emailTokenSigner.sign(userId, emailTokenExpiration.atZone(ZONE_ID).toInstant()),
+                    Timestamp.valueOf(emailTokenExpiration),
+                    tokenGenerator.generateToken(VERIFICATION_CODE_LENGTH), activated, userId);
+            if (activated) {
+                final List<Long> scopeIds = referenceData.scopeIds(roleId);
+                for (int i = 0; i < scopeIds.size(); i++) {
+                    chunk.add(PopulationTable.USER_SCOPE_ASSIGNMENT, ids.id(PopulationTable.USER_SCOPE_ASSIGNMENT, index, i),
+                            true, scopeIds.get(i), userActivationId);
+                }
+                if (random.nextDouble() < AVATAR_SHARE) {
+                    addAvatar(chunk, index, userId, activationInitiated, random);
+                }
+            }
+        }
+    }
+
+    private void addAddress(PopulationChunk chunk, long addressId, Address.Use use, long demographicsId, SplittableRandom random) {
+        final Geography.State state = geography.pickState(random);
+        chunk.add(PopulationTable.ADDRESS, addressId, geography.line1(random), geography.line2(random),
+                geography.city(random), state.getStateCodeId(), geography.postalCode(state, random),
+                referenceData.countryCodeId("US"), use.name(), demographicsId);
+    }
+
+    private void addIdentifier(PopulationChunk chunk, long identifierId, String value, String system, long demographicsId) {
+        chunk.add(PopulationTable.IDENTIFIER, identifierId, value, referenceData.identifierSystemId(system));
+        chunk.add(PopulationTable.DEMOGRAPHICS_IDENTIFIERS, demographicsId, identifierId);
+    }
+
+    private void addAvatar(PopulationChunk chunk, long index, long userId, LocalDateTime uploaded, SplittableRandom random) {
+        final AvatarLibrary.Avatar avatar = avatarLibrary.pick(random);
+        final long userAvatarId = ids.id(PopulationTable.USER_AVATAR, index);
+        chunk.add(PopulationTable.USER_AVATAR, userAvatarId, avatar.getContentHash(), AvatarLibrary.MEDIA_TYPE,
+                "avatar." + AvatarLibrary.FILE_EXTENSION, AvatarLibrary.FILE_EXTENSION, avatar.getSizeBytes(),
+                avatar.getSizePixels(), avatar.getSizePixels(), userId, Timestamp.valueOf(uploaded));
+        final List<AvatarLibrary.Rendition> renditions = avatar.getRenditions();
+        for (int i = 0; i < renditions.size(); i++) {
+            final AvatarLibrary.Rendition rendition = renditions.get(i);
+            chunk.add(PopulationTable.USER_AVATAR_RENDITION, ids.id(PopulationTable.USER_AVATAR_RENDITION, index, i),
+                    rendition.getSizePixels(), rendition.getSizePixels(), rendition.getSizePixels(),
+                    rendition.getSizeBytes(), rendition.getContentHash(), userAvatarId);
+        }
+    }
+
+    private SplittableRandom userRandom(long index) {
+        return new SplittableRandom(settings.getSeed() * 0x5DEECE66DL + index);
+    }
+
+    /**
+     * The role is the first draw of the random of a user, so the role of any user can be found without generating it
+     */
+    private static Role role(SplittableRandom random) {
+        double draw = random.nextDouble();
+        if ((draw -= PATIENT_SHARE) < 0) {
+            return Role.PATIENT;
+        }
+        if ((draw -= PROVIDER_SHARE) < 0) {
+            return Role.PROVIDER;
+        }
+        if ((draw -= STAFF_SHARE) < 0) {
+            return Role.STAFF;
+        }
+        return draw < GUARDIAN_SHARE ? Role.GUARDIAN : Role.PARENTS;
+    }
+
+    /**
+     * @return the index of a random patient user of the population
+     */
+    private long relatedPatientIndex(SplittableRandom random) {
+        long index = random.nextLong(settings.getUsers());
+        while (role(userRandom(index)) != Role.PATIENT) {
+            index = (index + 1) % settings.getUsers();
+        }
+        return index;
+    }
+
+    private static LocalDate birthDate(WeightedValues<int[]> ages, LocalDateTime registered, SplittableRandom random) {
+        final int[] ageRange = ages.pick(random);
+        final int ageDays = ageRange[0] * 365 + random.nextInt((ageRange[1] - ageRange[0] + 1) * 365);
+        return registered.toLocalDate().minusDays(ageDays);
+    }
+
+    private String email(String firstName, String lastName, long userId, SplittableRandom random) {
+        final String domain = emailDomains.pick(random);
+        final String localPart = random.nextBoolean() ?
+                firstName + "." + lastName + userId :
+                firstName.charAt(0) + lastName + userId;
+        return localPart.toLowerCase() + "@" + domain;
+    }
+
+    private static String phoneNumber(SplittableRandom random) {
+        return String.format("%03d-%03d-%04d", 201 + random.nextInt(789), 201 + random.nextInt(789), random.nextInt(10000));
+    }
+
+    /**
+     * @return the SSN of a user; a bijection of the user id into the SSN space, so the SSNs are unique
+     */
+    private static String ssn(long userId) {
+        final long number = Math.floorMod(userId * SSN_MULTIPLIER + SSN_OFFSET, SSN_CAPACITY);
+        int area = (int) (number / (99 * 9999)) + 1;
+        if (area >= 666) {
+            area++;
+        }
+        return String.format("%03d-%02d-%04d", area, number / 9999 % 99 + 1, number % 9999 + 1);
+    }
+
+    /**
+     * @return the NPI of a user, unique for the first 200 million user ids, with the Luhn check digit of an NPI
+     */
+    private static String npi(long userId) {
+        final String number = String.valueOf(100_000_000L + userId % 200_000_000L);
+        final String digits = NPI_PREFIX + number;
+        int sum = 0;
+        boolean doubleDigit = true;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int digit = digits.charAt(i) - '0';
+            if (doubleDigit) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubleDigit = !doubleDigit;
+        }
+        return number + (10 - sum % 10) % 10;
+    }
+
+    private static LocalDateTime min(LocalDateTime first, LocalDateTime second) {
+        return first.isBefore(second) ? first : second;
+    }
+
+    private enum Role {
+        PATIENT("patient"),
+        PROVIDER("provider"),
+        STAFF("staff"),
+        GUARDIAN("guardian"),
+        PARENTS("parents");
+
+        private final String code;
+
+        Role(String code) {
+            this.code = code;
+        }
+
+        public String getCode() {
+            return code;
+        }
+    }
+
+    /**
+     * Gives the MRN service the sequence value reserved for the user being generated
+     */
+    private static class UserIndexMrnAllocator implements MrnBlockAllocator {
+        private long value;
+
+        @Override
+        public long nextValue() {
+            return value;
+        }
+
+        @Override
+        public MrnAllocationStatisticsDto getStatistics() {
+            return null;
+        }
+    }
+}
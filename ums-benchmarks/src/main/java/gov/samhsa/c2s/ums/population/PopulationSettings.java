@@ -0,0 +1,75 @@
+package gov.samhsa.c2s.ums.population;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The settings of the population generator, read from the <code>population.*</code> system properties, for example
+ * <code>-Dpopulation.users=5000000 -Dpopulation.seed=7 -Dpopulation.threads=8</code>.
+ */
+@Data
+public class PopulationSettings {
+    private static final String PREFIX = "population.";
+
+    private String datasourceUrl;   // JDBC URL of a UMS database that UMS has migrated and ums-db-sample has seeded
+    private String datasourceUsername;
+    private String datasourcePassword;
+    private int users;   // Number of users to generate
+    private long seed;   // Seed of the generated users; the same seed generates the same users into the same database state
+    private LocalDate asOf;   // Date the generated history ends at; registrations, activations and token expirations are relative to it
+    private int chunkSize;   // Number of users written per transaction
+    private int threads;   // Number of chunks generated and written concurrently
+    private String mrnCodeSystem;   // Must match c2s.ums.mrn.codeSystem
+    private String mrnPrefix;   // Must match c2s.ums.mrn.prefix
+    private int mrnLength;   // Must match c2s.ums.mrn.length
+    private String ssnCodeSystem;   // Must match c2s.ums.ssn.codeSystem
+    private String npiCodeSystem;
+    private String emailTokenSigningKey;   // Must match c2s.ums.tokens.email-token-signing-key, so the pending activations can be completed
+    private int emailTokenExpirationInDays;   // Must match c2s.ums.email-sender.email-token-expiration-in-days
+    private String avatarStorageLocation;   // Must match c2s.ums.avatars.storage.location
+    private List<Integer> avatarRenditionSizes;   // Must match c2s.ums.avatars.renditions.sizes
+    private int avatarImages;   // Number of distinct avatar images; the avatar store is content-addressed, so users share them
+
+    public static PopulationSettings fromSystemProperties() {
+        final PopulationSettings settings = new PopulationSettings();
+        settings.setDatasourceUrl(System.getProperty(PREFIX + "datasource.url",
+                "jdbc:mysql://localhost:3306/ums?rewriteBatchedStatements=true&useSSL=false"));
+        settings.setDatasourceUsername(System.getProperty(PREFIX + "datasource.username", "root"));
+        settings.setDatasourcePassword(System.getProperty(PREFIX + "datasource.password", "admin"));
+        settings.setUsers(intProperty("users", 1_000_000));
+        settings.setSeed(Long.getLong(PREFIX + "seed", 42L));
+        settings.setAsOf(LocalDate.parse(System.getProperty(PREFIX + "as-of", LocalDate.now().toString())));
+        settings.setChunkSize(intProperty("chunk-size", 1000));
+        settings.setThreads(intProperty("threads", 4));
+        settings.setMrnCodeSystem(System.getProperty(PREFIX + "mrn.code-system", "https://bhits.github.io/consent2share"));
+        settings.setMrnPrefix(System.getProperty(PREFIX + "mrn.prefix", "C2S-DEV"));
+        settings.setMrnLength(intProperty("mrn.length", 6));
+        settings.setSsnCodeSystem(System.getProperty(PREFIX + "ssn.code-system", "http://hl7.org/fhir/sid/us-ssn"));
+        settings.setNpiCodeSystem(System.getProperty(PREFIX + "npi.code-system", "http://hl7.org/fhir/sid/us-npi"));
+        settings.setEmailTokenSigningKey(requiredProperty("email-token-signing-key"));
+        settings.setEmailTokenExpirationInDays(intProperty("email-token-expiration-in-days", 7));
+        settings.setAvatarStorageLocation(System.getProperty(PREFIX + "avatar-storage-location", "/java/C2S_DATA/ums/avatars"));
+        final List<Integer> renditionSizes = new ArrayList<>();
+        for (String size : System.getProperty(PREFIX + "avatar-rendition-sizes", "32,48,128").split(",")) {
+            renditionSizes.add(Integer.valueOf(size.trim()));
+        }
+        settings.setAvatarRenditionSizes(renditionSizes);
+        settings.setAvatarImages(intProperty("avatar-images", 64));
+        return settings;
+    }
+
+    private static String requiredProperty(String name) {
+        final String value = System.getProperty(PREFIX + name);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalStateException("The system property " + PREFIX + name + " is required");
+        }
+        return value;
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.getInteger(PREFIX + name, defaultValue);
+    }
+}
@@ -0,0 +1,68 @@
+package gov.samhsa.c2s.ums.population;
+
+/**
+ * The tables that the population generator writes, in the order of their foreign keys, with their insert statements.
+ */
+public enum PopulationTable {
+    DEMOGRAPHICS("demographics", true,
+            "INSERT INTO demographics (id, first_name, middle_name, last_name, birth_day, administrative_gender_code_id) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)"),
+    USER("user", true,
+            "INSERT INTO `user` (id, disabled, user_auth_id, demographics_id, locale_id, created_by, created_date, "
+                    + "last_updated_by, last_updated_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"),
+    USER_ROLES("user_roles", false,
+            "INSERT INTO user_roles (users_id, roles_id) VALUES (?, ?)"),
+    TELECOM("telecom", true,
+            "INSERT INTO telecom (id, system, `use`, value, demographics_id) VALUES (?, ?, ?, ?, ?)"),
+    ADDRESS("address", true,
+            "INSERT INTO address (id, line1, line2, city, state_code_id, postal_code, country_code_id, `use`, demographics_id) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"),
+    IDENTIFIER("identifier", true,
+            "INSERT INTO identifier (id, value, identifier_system_id) VALUES (?, ?, ?)"),
+    DEMOGRAPHICS_IDENTIFIERS("demographics_identifiers", false,
+            "INSERT INTO demographics_identifiers (demographics_id, identifiers_id) VALUES (?, ?)"),
+    PATIENT("patient", true,
+            "INSERT INTO patient (id, registration_purpose_email, demographics_id) VALUES (?, ?, ?)"),
+    USER_PATIENT_RELATIONSHIP("user_patient_relationship", false,
+            "INSERT INTO user_patient_relationship (user_id, patient_id, relationship_role_id) VALUES (?, ?, ?)"),
+    USER_ACTIVATION("user_activation", true,
+            "INSERT INTO user_activation (id, email_token, email_token_expiration, verification_code, verified, user_id) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)"),
+    USER_SCOPE_ASSIGNMENT("user_scope_assignment", true,
+            "INSERT INTO user_scope_assignment (id, assigned, scope_id, user_activation_id) VALUES (?, ?, ?, ?)"),
+    USER_AVATAR("user_avatar", true,
+            "INSERT INTO user_avatar (id, file_contents, content_hash, media_type, file_name, file_extension, "
+                    + "file_size_bytes, file_width_pixels, file_height_pixels, user_id, last_updated_date) "
+                    + "VALUES (?, NULL, ?, ?, ?, ?, ?, ?, ?, ?, ?)"),
+    USER_AVATAR_RENDITION("user_avatar_rendition", true,
+            "INSERT INTO user_avatar_rendition (id, size_pixels, file_width_pixels, file_height_pixels, file_size_bytes, "
+                    + "content_hash, user_avatar_id) VALUES (?, ?, ?, ?, ?, ?, ?)");
+
+    private final String tableName;
+    private final boolean pooledIds;
+    private final String insertSql;
+
+    PopulationTable(String tableName, boolean pooledIds, String insertSql) {
+        this.tableName = tableName;
+        this.pooledIds = pooledIds;
+        this.insertSql = insertSql;
+    }
+
+    /**
+     * @return the name of the table, which is also its segment of the pooled id generator
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * @return whether the ids of the table are assigned by the pooled id generator of UMS
+     */
+    public boolean hasPooledIds() {
+        return pooledIds;
+    }
+
+    public String getInsertSql() {
+        return insertSql;
+    }
+}
@@ -0,0 +1,38 @@
+package gov.samhsa.c2s.ums.population;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Writes the rows of a chunk in one transaction, with one JDBC batch per table in foreign key order. With
+ * <code>rewriteBatchedStatements=true</code> the MySQL driver sends each batch as a few multi-row inserts.
+ */
+public class PopulationWriter {
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    public PopulationWriter(TransactionTemplate transactionTemplate, JdbcTemplate jdbcTemplate) {
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return the number of rows written
+     */
+    public long write(PopulationChunk chunk) {
+        final Long rowCount = transactionTemplate.execute(status -> {
+            long count = 0;
+            for (PopulationTable table : PopulationTable.values()) {
+                final List<Object[]> rows = chunk.getRows(table);
+                if (!rows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(table.getInsertSql(), rows);
+                    count += rows.size();
+                }
+            }
+            return count;
+        });
+        return rowCount;
+    }
+}
@@ -0,0 +1,96 @@
+package gov.samhsa.c2s.ums.population;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ids of the reference data that the generated users refer to: the lookup codes and roles seeded by
+ * ums-db-sample, and the identifier systems that UMS inserts on startup.
+ */
+public class ReferenceData {
+    private final Map<String, Long> genderCodeIds;
+    private final Map<String, Long> stateCodeIds;
+    private final Map<String, Long> countryCodeIds;
+    private final Map<String, Long> localeIds;
+    private final Map<String, Long> roleIds;
+    private final Map<String, Long> relationshipRoleIds;
+    private final Map<String, Long> identifierSystemIds;
+    private final Map<Long, List<Long>> scopeIdsByRoleId = new HashMap<>();
+
+    public ReferenceData(JdbcTemplate jdbcTemplate) {
+        this.genderCodeIds = idsByCode(jdbcTemplate, "SELECT code, id FROM administrative_gender_code");
+        this.stateCodeIds = idsByCode(jdbcTemplate, "SELECT code, id FROM state_code");
+        this.countryCodeIds = idsByCode(jdbcTemplate, "SELECT code, id FROM country_code");
+        this.localeIds = idsByCode(jdbcTemplate, "SELECT code, id FROM locale");
+        this.roleIds = idsByCode(jdbcTemplate, "SELECT code, id FROM role");
+        this.relationshipRoleIds = idsByCode(jdbcTemplate,
+                "SELECT role.code, role.id FROM relationship JOIN role ON role.id = relationship.role_id");
+        this.identifierSystemIds = idsByCode(jdbcTemplate, "SELECT system, id FROM identifier_system");
+        jdbcTemplate.query("SELECT roles_id, scopes_id FROM role_scopes ORDER BY roles_id, scopes_id", resultSet -> {
+            scopeIdsByRoleId.computeIfAbsent(resultSet.getLong(1), roleId -> new ArrayList<>()).add(resultSet.getLong(2));
+        });
+        if (roleIds.isEmpty() || stateCodeIds.isEmpty()) {
+            throw new IllegalStateException("The reference data is missing; insert the ums-db-sample scripts first");
+        }
+    }
+
+    public Long genderCodeId(String code) {
+        return required(genderCodeIds, code, "administrative gender code");
+    }
+
+    public Map<String, Long> getStateCodeIds() {
+        return stateCodeIds;
+    }
+
+    public Long countryCodeId(String code) {
+        return required(countryCodeIds, code, "country code");
+    }
+
+    public Long localeId(String code) {
+        return required(localeIds, code, "locale");
+    }
+
+    public Long roleId(String code) {
+        return required(roleIds, code, "role");
+    }
+
+    public Long relationshipRoleId(String code) {
+        return required(relationshipRoleIds, code, "relationship role");
+    }
+
+    /**
+     * @param system the system of the identifier system; UMS inserts the MRN and SSN systems when it starts
+     */
+    public Long identifierSystemId(String system) {
+        return required(identifierSystemIds, system, "identifier system (start UMS once to insert it)");
+    }
+
+    public List<Long> scopeIds(Long roleId) {
+        return scopeIdsByRoleId.getOrDefault(roleId, Collections.emptyList());
+    }
+
+    public int maxScopesPerRole() {
+        return scopeIdsByRoleId.values().stream().mapToInt(List::size).max().orElse(0);
+    }
+
+    private static Map<String, Long> idsByCode(JdbcTemplate jdbcTemplate, String sql) {
+        final Map<String, Long> idsByCode = new HashMap<>();
+        jdbcTemplate.query(sql, resultSet -> {
+            idsByCode.put(resultSet.getString(1), resultSet.getLong(2));
+        });
+        return idsByCode;
+    }
+
+    private static Long required(Map<String, Long> idsByCode, String code, String description) {
+        final Long id = idsByCode.get(code);
+        if (id == null) {
+            throw new IllegalStateException("The " + description + " '" + code + "' does not exist in the database");
+        }
+        return id;
+    }
+}
@@ -0,0 +1,50 @@
+package gov.samhsa.c2s.ums.population;
+
+import gov.samhsa.c2s.ums.service.TokenGenerator;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * A {@link TokenGenerator} that draws from the random of the user being generated, so the email tokens, verification
+ * codes and UAA ids of the generated users are deterministic. Not for production use: the tokens are predictable.
+ */
+class SeededTokenGenerator implements TokenGenerator {
+    private static final String ALPHABET = "0123456789abcdefghijklmnopqrstuv";
+    private static final int LENGTH = 26;
+
+    private SplittableRandom random;
+
+    /**
+     * @param random the random of the user being generated
+     */
+    void use(SplittableRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public String generateToken() {
+        return generateToken(ALPHABET, LENGTH);
+    }
+
+    @Override
+    public String generateToken(int maxLength) {
+        return generateToken(ALPHABET, Integer.min(LENGTH, maxLength));
+    }
+
+    @Override
+    public String generateToken(String alphabet, int length) {
+        final char[] token = new char[length];
+        for (int i = 0; i < length; i++) {
+            token[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+        }
+        return new String(token);
+    }
+
+    @Override
+    public UUID generateUuid() {
+        final long mostSigBits = (random.nextLong() & 0xffffffffffff0fffL) | 0x0000000000004000L;  // version 4
+        final long leastSigBits = (random.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L;  // IETF variant
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
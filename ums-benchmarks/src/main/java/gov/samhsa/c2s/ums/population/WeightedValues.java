@@ -0,0 +1,42 @@
+package gov.samhsa.c2s.ums.population;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Values that are picked at random in proportion to their weights, with a binary search of the cumulative weights.
+ */
+public class WeightedValues<T> {
+    private final List<T> values = new ArrayList<>();
+    private double[] cumulativeWeights = new double[16];
+    private double totalWeight;
+
+    public WeightedValues<T> add(T value, double weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("The weight of " + value + " must be positive");
+        }
+        if (values.size() == cumulativeWeights.length) {
+            cumulativeWeights = Arrays.copyOf(cumulativeWeights, cumulativeWeights.length * 2);
+        }
+        totalWeight += weight;
+        cumulativeWeights[values.size()] = totalWeight;
+        values.add(value);
+        return this;
+    }
+
+    public T pick(SplittableRandom random) {
+        if (values.isEmpty()) {
+            throw new IllegalStateException("There are no values to pick from");
+        }
+        final int index = Arrays.binarySearch(cumulativeWeights, 0, values.size(), random.nextDouble() * totalWeight);
+        // The value i covers [cumulative weight i - 1, cumulative weight i); the draw is below the total weight, so an
+        // exact hit is never the last value. A miss returns (-insertion point - 1).
+        return values.get(index >= 0 ? index + 1 : -index - 1);
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+}
@@ -0,0 +1,91 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.benchmark.UserFixtures;
+import gov.samhsa.c2s.ums.domain.Identifier;
+import gov.samhsa.c2s.ums.domain.Telecom;
+import gov.samhsa.c2s.ums.domain.User;
+import gov.samhsa.c2s.ums.service.dto.IdentifierDto;
+import gov.samhsa.c2s.ums.service.dto.TelecomDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Measures the telecom and identifier comparisons of {@link UserServiceImpl#updateUser}, with the same keys, against
+ * the nested loop comparisons that they replaced. The request changes one telecom and adds one identifier, like a
+ * typical profile update.
+ * <p>
+ * Run from the ums-benchmarks folder with: ../ums/mvnw compile exec:exec -Dbenchmark.includes=CollectionDiffBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectionDiffBenchmark {
+    private List<Telecom> telecoms;
+    private List<TelecomDto> telecomDtos;
+    private List<Identifier> identifiers;
+    private List<IdentifierDto> identifierDtos;
+
+    @Setup(Level.Trial)
+    public void createUser() {
+        final UserFixtures userFixtures = new UserFixtures(42);
+        final User user = userFixtures.newPatientUser(1);
+        telecoms = user.getDemographics().getTelecoms();
+        telecomDtos = userFixtures.newUpdatedTelecomDtos(user);
+        // The MRN is system generated, so updateUser leaves it out of the comparison
+        identifiers = user.getDemographics().getIdentifiers().stream()
+                .filter(id -> !UserFixtures.MRN_SYSTEM.equals(id.getIdentifierSystem().getSystem()))
+                .collect(toList());
+        identifierDtos = userFixtures.newUpdatedIdentifierDtos(user).stream()
+                .filter(idDto -> !UserFixtures.MRN_SYSTEM.equals(idDto.getSystem()))
+                .collect(toList());
+    }
+
+    @Benchmark
+    public CollectionDiff<Telecom, TelecomDto> diffTelecoms() {
+        return CollectionDiff.of(
+                telecoms, telecom -> CollectionDiff.key(telecom.getSystem(), telecom.getValue(), telecom.getUse()),
+                telecomDtos, telecomDto -> CollectionDiff.key(telecomDto.getSystem(), telecomDto.getValue(), telecomDto.getUse()));
+    }
+
+    @Benchmark
+    public CollectionDiff<Identifier, IdentifierDto> diffIdentifiers() {
+        return CollectionDiff.of(
+                identifiers, id -> CollectionDiff.key(id.getIdentifierSystem().getSystem(), id.getValue()),
+                identifierDtos, idDto -> CollectionDiff.key(idDto.getSystem(), idDto.getValue()));
+    }
+
+    @Benchmark
+    public List<TelecomDto> diffTelecomsWithNestedLoops() {
+        return telecomDtos.stream()
+                .filter(telecomDto -> telecoms.stream().noneMatch(telecom ->
+                        telecom.getSystem().toString().equals(telecomDto.getSystem()) &&
+                                telecom.getValue().equals(telecomDto.getValue()) &&
+                                telecom.getUse().toString().equals(telecomDto.getUse())))
+                .collect(toList());
+    }
+
+    @Benchmark
+    public List<IdentifierDto> diffIdentifiersWithNestedLoops() {
+        return identifierDtos.stream()
+                .filter(idDto -> identifiers.stream().noneMatch(id ->
+                        id.getValue().equals(idDto.getValue()) && id.getIdentifierSystem().getSystem().equals(idDto.getSystem())))
+                .collect(toList());
+    }
+}
@@ -0,0 +1,85 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.benchmark.UserFixtures;
+import gov.samhsa.c2s.ums.service.dto.ImageHeaderDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.Dimension;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the decoding of an uploaded avatar: the dimension and file type checks of a base64 data URI, the header
+ * detection of an uploaded image stream and the scaling of a rendition. The avatar is a photo-like image with a
+ * gradient and noise, so it compresses like a real photo rather than like a flat color.
+ * <p>
+ * Run from the ums-benchmarks folder with: ../ums/mvnw compile exec:exec -Dbenchmark.includes=ImageProcessingServiceImplBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageProcessingServiceImplBenchmark {
+    private static final int RENDITION_SIZE_PIXELS = 128;
+
+    @Param({"png", "jpg"})
+    private String fileExtension;
+
+    /**
+     * The width and height of the uploaded avatar in pixels
+     */
+    @Param({"200", "1024"})
+    private int sizePixels;
+
+    private final ImageProcessingService imageProcessingService = new ImageProcessingServiceImpl();
+    private byte[] imageBytes;
+    private byte[] dataUri;
+
+    @Setup(Level.Trial)
+    public void createAvatar() throws IOException {
+        imageBytes = UserFixtures.newAvatarImage(sizePixels, fileExtension);
+        final String mediaType = "png".equals(fileExtension) ? "image/png" : "image/jpeg";
+        dataUri = ("data:" + mediaType + ";base64," + Base64.getEncoder().encodeToString(imageBytes))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Dimension getImageDimension() throws IOException {
+        return imageProcessingService.getImageDimension(dataUri, fileExtension);
+    }
+
+    @Benchmark
+    public String getImageFileType() throws IOException {
+        return imageProcessingService.getImageFileType(dataUri, fileExtension);
+    }
+
+    @Benchmark
+    public ImageHeaderDto getImageHeader() throws IOException {
+        try (ImageInputStream imageInputStream = new MemoryCacheImageInputStream(new ByteArrayInputStream(imageBytes))) {
+            return imageProcessingService.getImageHeader(imageInputStream);
+        }
+    }
+
+    @Benchmark
+    public byte[] resizeImage() throws IOException {
+        return imageProcessingService.resizeImage(imageBytes, fileExtension, RENDITION_SIZE_PIXELS);
+    }
+}
@@ -0,0 +1,56 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.benchmark.UserFixtures;
+import gov.samhsa.c2s.ums.service.dto.MrnAllocationStatisticsDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures MRN generation throughput (MRNs per second) under concurrent registrations: the scramble and check digit
+ * of a sequence value, and the whole generation with an in-memory block allocator, which leaves out the database
+ * round trip of each reserved block.
+ * <p>
+ * Run from the ums-benchmarks folder with: ../ums/mvnw compile exec:exec -Dbenchmark.includes=MrnServiceImplBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class MrnServiceImplBenchmark {
+    private final AtomicLong sequence = new AtomicLong();
+    private final MrnServiceImpl mrnService = new MrnServiceImpl(UserFixtures.umsProperties(), new MrnBlockAllocator() {
+        @Override
+        public long nextValue() {
+            return sequence.getAndIncrement();
+        }
+
+        @Override
+        public MrnAllocationStatisticsDto getStatistics() {
+            return null;
+        }
+    });
+
+    @Benchmark
+    public String generateMrnOfSequenceValue() {
+        return mrnService.generateMrn(1_234_567L);
+    }
+
+    @Benchmark
+    public String generateMrn() {
+        return mrnService.generateMrn();
+    }
+}
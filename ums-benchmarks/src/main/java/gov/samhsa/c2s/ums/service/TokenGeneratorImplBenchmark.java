@@ -0,0 +1,59 @@
+package gov.samhsa.c2s.ums.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures token generation throughput (tokens per second) under many concurrent threads, comparing the per-thread
+ * generator with the former SecureRandom per call generation and with {@link UUID#randomUUID()}.
+ * <p>
+ * Run from the ums-benchmarks folder with: ../ums/mvnw compile exec:exec -Dbenchmark.includes=TokenGeneratorImplBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(32)
+public class TokenGeneratorImplBenchmark {
+    private final TokenGenerator tokenGenerator = new TokenGeneratorImpl();
+
+    @Benchmark
+    public String generateToken() {
+        return tokenGenerator.generateToken();
+    }
+
+    @Benchmark
+    public String generateVerificationCode() {
+        return tokenGenerator.generateToken(7);
+    }
+
+    @Benchmark
+    public UUID generateUuid() {
+        return tokenGenerator.generateUuid();
+    }
+
+    @Benchmark
+    public String generateTokenWithSecureRandomPerCall() {
+        return new BigInteger(130, new SecureRandom()).toString(32);
+    }
+
+    @Benchmark
+    public UUID randomUuid() {
+        return UUID.randomUUID();
+    }
+}
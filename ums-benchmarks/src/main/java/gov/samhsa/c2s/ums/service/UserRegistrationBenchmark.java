@@ -0,0 +1,117 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.UmsApplication;
+import gov.samhsa.c2s.ums.service.dto.RoleDto;
+import gov.samhsa.c2s.ums.service.dto.TelecomDto;
+import gov.samhsa.c2s.ums.service.dto.UserDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures user registration throughput (users per second) against a real MySQL database, registering the users one
+ * by one and with a single batch registration, with and without JDBC batching.
+ * <p>
+ * The database must be a disposable UMS database that contains the reference data (roles, gender codes and locales);
+ * every invocation inserts new users. Run the benchmark on two commits against the same database to compare them.
+ * <p>
+ * Run from the ums-benchmarks folder with: ../ums/mvnw compile exec:exec -Dbenchmark.includes=UserRegistrationBenchmark -Dbenchmark.excludes=NONE
+ * "-Dbenchmark.jvmArgs=-Dbenchmark.datasource.url=jdbc:mysql://localhost:3306/ums_benchmark -Dbenchmark.datasource.username=root -Dbenchmark.datasource.password=admin"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserRegistrationBenchmark {
+    private static final int USERS_PER_INVOCATION = 50;
+
+    /**
+     * The Hibernate JDBC batch size; 1 disables JDBC batching
+     */
+    @Param({"1", "50"})
+    private int jdbcBatchSize;
+
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis());
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private List<UserDto> userDtos;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(UmsApplication.class)
+                .web(false)
+                .properties(
+                        "spring.datasource.url=" + System.getProperty("benchmark.datasource.url", "jdbc:mysql://localhost:3306/ums_benchmark") + "?rewriteBatchedStatements=true",
+                        "spring.datasource.username=" + System.getProperty("benchmark.datasource.username", "root"),
+                        "spring.datasource.password=" + System.getProperty("benchmark.datasource.password", "admin"),
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize,
+                        "spring.cloud.config.enabled=false",
+                        "eureka.client.enabled=false",
+                        "c2s.ums.fhir.publish.enabled=false",
+                        "logging.level.gov.samhsa.c2s.ums=warn",
+                        "logging.level.org.modelmapper=warn")
+                .run();
+        userService = context.getBean(UserService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void createUsers() {
+        userDtos = new ArrayList<>(USERS_PER_INVOCATION);
+        for (int i = 0; i < USERS_PER_INVOCATION; i++) {
+            final long number = sequence.incrementAndGet();
+            userDtos.add(UserDto.builder()
+                    .firstName("Benchmark")
+                    .lastName("User" + number)
+                    .birthDate(LocalDate.of(1980, 1, 1).plusDays(number % 10000))
+                    .genderCode(System.getProperty("benchmark.gender-code", "male"))
+                    .locale("en")
+                    .roles(Collections.singletonList(RoleDto.builder().code(System.getProperty("benchmark.role-code", "patient")).build()))
+                    .telecoms(Collections.singletonList(new TelecomDto("EMAIL", "user" + number + "@benchmark.example.com", "HOME")))
+                    .addresses(Collections.emptyList())
+                    .socialSecurityNumber(Optional.empty())
+                    .registrationPurposeEmail(Optional.empty())
+                    .identifiers(Optional.empty())
+                    .build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(USERS_PER_INVOCATION)
+    public void registerUser() {
+        userDtos.forEach(userService::registerUser);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(USERS_PER_INVOCATION)
+    public Object registerUsers() {
+        return userService.registerUsers(userDtos);
+    }
+}
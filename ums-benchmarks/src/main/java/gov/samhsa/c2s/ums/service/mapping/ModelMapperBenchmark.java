@@ -0,0 +1,86 @@
+package gov.samhsa.c2s.ums.service.mapping;
+
+import gov.samhsa.c2s.ums.benchmark.UserFixtures;
+import gov.samhsa.c2s.ums.config.ModelMapperConfig;
+import gov.samhsa.c2s.ums.domain.Patient;
+import gov.samhsa.c2s.ums.domain.User;
+import gov.samhsa.c2s.ums.service.dto.PatientDto;
+import gov.samhsa.c2s.ums.service.dto.UserDto;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link ModelMapper} mapping of the users and patients returned by the search and get endpoints, with
+ * the {@link UserToUserDtoMap} and {@link PatientToPatientDtoMap} property maps and their converters. Only the maps of
+ * these reads are registered, because the maps of the writes need the repositories of the reference data.
+ * <p>
+ * Run from the ums-benchmarks folder with: ../ums/mvnw compile exec:exec -Dbenchmark.includes=ModelMapperBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelMapperBenchmark {
+    private static final int USER_COUNT = 64;
+
+    private AnnotationConfigApplicationContext context;
+    private ModelMapper modelMapper;
+    private User[] users;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createModelMapper() {
+        context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().registerSingleton("umsProperties", UserFixtures.umsProperties());
+        context.register(ModelMapperConfig.class,
+                UserToUserDtoMap.class, PatientToPatientDtoMap.class,
+                UserToMrnConverter.class, UserToSsnConverter.class,
+                PatientToMrnConverter.class, PatientToSsnConverter.class,
+                IdentifierListToIdentifierDtoListConverter.class, OptionalStringWrapperConverter.class);
+        context.refresh();
+        modelMapper = context.getBean(ModelMapper.class);
+
+        final UserFixtures userFixtures = new UserFixtures(42);
+        users = new User[USER_COUNT];
+        for (int i = 0; i < USER_COUNT; i++) {
+            users[i] = userFixtures.newPatientUser(i + 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDto mapUserToUserDto() {
+        return modelMapper.map(nextUser(), UserDto.class);
+    }
+
+    @Benchmark
+    public PatientDto mapPatientToPatientDto() {
+        final Patient patient = nextUser().getDemographics().getPatient();
+        return modelMapper.map(patient, PatientDto.class);
+    }
+
+    private User nextUser() {
+        next = (next + 1) % USER_COUNT;
+        return users[next];
+    }
+}
@@ -0,0 +1,59 @@
+package gov.samhsa.c2s.ums.config;
+
+import gov.samhsa.c2s.ums.infrastructure.audit.ChangeAwareEnversPostUpdateEventListener;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.envers.boot.internal.EnversService;
+import org.hibernate.envers.event.spi.EnversPostUpdateEventListenerImpl;
+import org.hibernate.event.service.spi.EventListenerGroup;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class AuditConfig {
+
+    private final Logger logger = LoggerFactory.getLogger(AuditConfig.class);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Replaces the Envers update listener registered by Hibernate with the {@link ChangeAwareEnversPostUpdateEventListener},
+     * keeping the order of the other update listeners.
+     */
+    @PostConstruct
+    public void registerChangeAwareAuditListener() {
+        final SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        final EnversService enversService = sessionFactory.getServiceRegistry().getService(EnversService.class);
+        if (enversService == null || !enversService.isEnabled()) {
+            return;
+        }
+        final EventListenerGroup<PostUpdateEventListener> listenerGroup = sessionFactory.getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .getEventListenerGroup(EventType.POST_UPDATE);
+        final List<PostUpdateEventListener> listeners = new ArrayList<>();
+        boolean replaced = false;
+        for (PostUpdateEventListener listener : listenerGroup.listeners()) {
+            if (listener.getClass() == EnversPostUpdateEventListenerImpl.class) {
+                listeners.add(new ChangeAwareEnversPostUpdateEventListener(enversService));
+                replaced = true;
+            } else {
+                listeners.add(listener);
+            }
+        }
+        if (replaced) {
+            listenerGroup.clear();
+            listeners.forEach(listenerGroup::appendListener);
+            logger.info("Envers update listener replaced with " + ChangeAwareEnversPostUpdateEventListener.class.getSimpleName());
+        }
+    }
+}
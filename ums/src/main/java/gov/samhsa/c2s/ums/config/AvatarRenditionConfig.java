@@ -0,0 +1,31 @@
+package gov.samhsa.c2s.ums.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AvatarRenditionConfig {
+
+    private final Logger logger = LoggerFactory.getLogger(AvatarRenditionConfig.class);
+
+    /**
+     * A bounded executor for generating avatar renditions off the request thread. When the queue is full, new
+     * rendition requests are dropped and the original image is served until the avatar is uploaded again.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor avatarRenditionTaskExecutor(UmsProperties umsProperties) {
+        UmsProperties.Avatars.Renditions renditions = umsProperties.getAvatars().getRenditions();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(renditions.getExecutorPoolSize());
+        executor.setMaxPoolSize(renditions.getExecutorPoolSize());
+        executor.setQueueCapacity(renditions.getExecutorQueueCapacity());
+        executor.setThreadNamePrefix("avatar-rendition-");
+        executor.setRejectedExecutionHandler((runnable, threadPoolExecutor) ->
+                logger.warn("Avatar rendition queue is full, skipping avatar rendition generation"));
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
@@ -0,0 +1,45 @@
+package gov.samhsa.c2s.ums.config;
+
+import gov.samhsa.c2s.ums.service.UserAvatarStorageMigrationService;
+import gov.samhsa.c2s.ums.service.dto.AvatarStorageMigrationBatchDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+
+@Configuration
+@ConditionalOnProperty(name = "c2s.ums.avatars.storage.migrate-on-startup", havingValue = "true")
+public class AvatarStorageMigrationConfig {
+
+    private final Logger logger = LoggerFactory.getLogger(AvatarStorageMigrationConfig.class);
+
+    @Autowired
+    private UmsProperties umsProperties;
+
+    @Autowired
+    private UserAvatarStorageMigrationService userAvatarStorageMigrationService;
+
+    @PostConstruct
+    public void migrateUserAvatarContents() {
+        logger.info("Moving user avatar contents from database to avatar storage");
+        final int batchSize = umsProperties.getAvatars().getStorage().getMigrationBatchSize();
+        long migratedCount = 0;
+        long failedCount = 0;
+        Long lastUserAvatarId = 0L;
+        AvatarStorageMigrationBatchDto batch;
+        // Each avatar is committed in its own transaction; avatars that fail are skipped, so they do not stop the startup
+        while ((batch = userAvatarStorageMigrationService.migrateNextBatch(lastUserAvatarId, batchSize)).getLastUserAvatarId() != null) {
+            lastUserAvatarId = batch.getLastUserAvatarId();
+            migratedCount += batch.getMigratedCount();
+            failedCount += batch.getFailedCount();
+            logger.info("Moved " + migratedCount + " user avatar contents so far");
+        }
+        if (failedCount > 0) {
+            logger.warn("Unable to move " + failedCount + " user avatar contents; they stay in the database and are moved on the next startup");
+        }
+        logger.info("User avatar contents are moved to avatar storage: " + migratedCount);
+    }
+}
@@ -0,0 +1,103 @@
+package gov.samhsa.c2s.ums.config;
+
+import feign.Logger;
+import feign.codec.Encoder;
+import gov.samhsa.c2s.ums.infrastructure.feign.FeignClientMetrics;
+import gov.samhsa.c2s.ums.infrastructure.feign.FeignClientPublicMetrics;
+import gov.samhsa.c2s.ums.infrastructure.feign.GzipRequestEncoder;
+import gov.samhsa.c2s.ums.infrastructure.feign.MeteredFeignLogger;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.HttpMessageConverters;
+import org.springframework.cloud.netflix.feign.FeignLoggerFactory;
+import org.springframework.cloud.netflix.feign.support.SpringEncoder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configures the Feign clients, such as the {@link gov.samhsa.c2s.ums.infrastructure.FisClient}, with a pooled Apache
+ * HTTP client, metrics and optional request compression. The connect and read timeouts of each client are the
+ * '&lt;client&gt;.ribbon.ConnectTimeout' and '&lt;client&gt;.ribbon.ReadTimeout' properties.
+ */
+@Configuration
+public class FeignClientConfig {
+
+    @Bean
+    public PoolingHttpClientConnectionManager feignConnectionManager(UmsProperties umsProperties) {
+        final UmsProperties.Fhir.Client client = umsProperties.getFhir().getClient();
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                client.getConnectionTimeToLiveMillis(), TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(client.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(client.getMaxConnectionsPerRoute());
+        return connectionManager;
+    }
+
+    /**
+     * Used by Spring Cloud Netflix as the HTTP client of the load balanced Feign clients
+     */
+    @Bean
+    public CloseableHttpClient feignHttpClient(PoolingHttpClientConnectionManager feignConnectionManager, UmsProperties umsProperties) {
+        return HttpClientBuilder.create()
+                .setConnectionManager(feignConnectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(umsProperties.getFhir().getClient().getMaxIdleMillis(), TimeUnit.MILLISECONDS)
+                .disableCookieManagement()
+                .build();
+    }
+
+    @Bean
+    public FeignClientMetrics feignClientMetrics(MeterRegistry meterRegistry) {
+        return new FeignClientMetrics(meterRegistry);
+    }
+
+    @Bean
+    public FeignLoggerFactory feignLoggerFactory(FeignClientMetrics feignClientMetrics) {
+        return type -> new MeteredFeignLogger(type, feignClientMetrics);
+    }
+
+    /**
+     * Feign reports the latency of each request to the logger from this level on
+     */
+    @Bean
+    public Logger.Level feignLoggerLevel() {
+        return Logger.Level.BASIC;
+    }
+
+    @Bean
+    public FeignClientPublicMetrics feignClientPublicMetrics(FeignClientMetrics feignClientMetrics,
+                                                             PoolingHttpClientConnectionManager feignConnectionManager) {
+        return new FeignClientPublicMetrics(feignClientMetrics, feignConnectionManager);
+    }
+
+    /**
+     * A pool with pending requests is saturated; its requests wait for a connection
+     */
+    @Bean
+    public MeterBinder feignConnectionPoolMetrics(PoolingHttpClientConnectionManager feignConnectionManager) {
+        return meterRegistry -> {
+            Gauge.builder("ums.client.connections", feignConnectionManager, connectionManager -> connectionManager.getTotalStats().getLeased())
+                    .tag("pool", "feign").tag("state", "leased").register(meterRegistry);
+            Gauge.builder("ums.client.connections", feignConnectionManager, connectionManager -> connectionManager.getTotalStats().getAvailable())
+                    .tag("pool", "feign").tag("state", "available").register(meterRegistry);
+            Gauge.builder("ums.client.connections", feignConnectionManager, connectionManager -> connectionManager.getTotalStats().getPending())
+                    .tag("pool", "feign").tag("state", "pending").register(meterRegistry);
+            Gauge.builder("ums.client.connections.max", feignConnectionManager, connectionManager -> connectionManager.getTotalStats().getMax())
+                    .tag("pool", "feign").register(meterRegistry);
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "c2s.ums.fhir.client.request-compression-enabled", havingValue = "true")
+    public Encoder feignEncoder(ObjectFactory<HttpMessageConverters> messageConverters, UmsProperties umsProperties) {
+        return new GzipRequestEncoder(new SpringEncoder(messageConverters),
+                umsProperties.getFhir().getClient().getMinCompressedRequestSize());
+    }
+}
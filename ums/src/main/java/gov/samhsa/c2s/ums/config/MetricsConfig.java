@@ -0,0 +1,81 @@
+package gov.samhsa.c2s.ums.config;
+
+import gov.samhsa.c2s.ums.infrastructure.metrics.TimingAspect;
+import gov.samhsa.c2s.ums.service.LookupService;
+import gov.samhsa.c2s.ums.service.PatientService;
+import gov.samhsa.c2s.ums.service.UserActivationService;
+import gov.samhsa.c2s.ums.service.UserAvatarService;
+import gov.samhsa.c2s.ums.service.UserService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Configures the Micrometer metrics that are scraped from the '/prometheus' management endpoint: the request timers,
+ * the service, outbound call, repository and mapping timers of the {@link TimingAspect}, and the JDBC pool gauges.
+ */
+@Configuration
+public class MetricsConfig {
+    /**
+     * The request, service and outbound call timers. The repository and mapping timers are tagged per repository
+     * method and mapping destination, so histogram buckets for them would multiply the number of time series without
+     * serving an SLO; they keep their count, total and max.
+     */
+    private static final Set<String> PERCENTILES_HISTOGRAM_TIMERS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "http.server.requests", "ums.service", "ums.client.requests")));
+
+    @Bean
+    public TimingAspect timingAspect(MeterRegistry meterRegistry) {
+        return new TimingAspect(meterRegistry, UserService.class, UserActivationService.class, PatientService.class,
+                LookupService.class, UserAvatarService.class);
+    }
+
+    /**
+     * Publishes histogram buckets for the request, service and outbound call timers, so latency percentiles can be
+     * aggregated across instances in Prometheus
+     */
+    @Bean
+    public MeterFilter percentilesHistogramMeterFilter() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (PERCENTILES_HISTOGRAM_TIMERS.contains(id.getName())) {
+                    return DistributionStatisticConfig.builder()
+                            .percentilesHistogram(true)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        };
+    }
+
+    /**
+     * Adds the number of requests waiting for a connection to the JDBC pool gauges of Micrometer, which only report
+     * the active, min and max connections
+     */
+    @Bean
+    public MeterBinder tomcatJdbcPoolMetrics(Map<String, DataSource> dataSources) {
+        return meterRegistry -> dataSources.forEach((name, dataSource) -> {
+            if (dataSource instanceof org.apache.tomcat.jdbc.pool.DataSource) {
+                final org.apache.tomcat.jdbc.pool.DataSource pool = (org.apache.tomcat.jdbc.pool.DataSource) dataSource;
+                Gauge.builder("ums.jdbc.connections.waiting", pool, org.apache.tomcat.jdbc.pool.DataSource::getWaitCount)
+                        .tag("name", name).register(meterRegistry);
+                Gauge.builder("ums.jdbc.connections.idle", pool, org.apache.tomcat.jdbc.pool.DataSource::getIdle)
+                        .tag("name", name).register(meterRegistry);
+            }
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package gov.samhsa.c2s.ums.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.bind.PropertySourcesPropertyValues;
+import org.springframework.boot.bind.RelaxedDataBinder;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+/**
+ * Declares the pool of one connection to the primary database that reserves MRN blocks, so a reservation never waits
+ * for a connection of the pool that the registrations waiting for it hold connections of.
+ * <p>
+ * Spring Boot backs off its data source auto-configuration once another data source bean is declared, so the primary
+ * pool is declared here as well, unless the read replica routing data source replaces it.
+ */
+@Configuration
+public class MrnSequenceDataSourceConfig {
+    public static final String MRN_SEQUENCE_DATA_SOURCE = "mrnSequenceDataSource";
+
+    private static final String TOMCAT_POOL_PROPERTIES_PREFIX = "spring.datasource.tomcat";
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "c2s.ums.read-replicas.enabled", havingValue = "false", matchIfMissing = true)
+    @ConfigurationProperties(prefix = TOMCAT_POOL_PROPERTIES_PREFIX)
+    public org.apache.tomcat.jdbc.pool.DataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return (org.apache.tomcat.jdbc.pool.DataSource) dataSourceProperties.initializeDataSourceBuilder()
+                .type(org.apache.tomcat.jdbc.pool.DataSource.class)
+                .build();
+    }
+
+    /**
+     * Configured with the 'spring.datasource.tomcat' properties of the primary pool, such as the validation and the
+     * timeouts, but limited to one connection
+     */
+    @Bean(name = MRN_SEQUENCE_DATA_SOURCE)
+    public org.apache.tomcat.jdbc.pool.DataSource mrnSequenceDataSource(DataSourceProperties dataSourceProperties,
+                                                                        ConfigurableEnvironment environment) {
+        final org.apache.tomcat.jdbc.pool.DataSource dataSource = (org.apache.tomcat.jdbc.pool.DataSource) dataSourceProperties.initializeDataSourceBuilder()
+                .type(org.apache.tomcat.jdbc.pool.DataSource.class)
+                .build();
+        dataSource.setTestOnBorrow(true);
+        dataSource.setValidationQuery("SELECT 1");
+        new RelaxedDataBinder(dataSource, TOMCAT_POOL_PROPERTIES_PREFIX)
+                .bind(new PropertySourcesPropertyValues(environment.getPropertySources()));
+        dataSource.setName("mrn-sequence");
+        dataSource.setInitialSize(0);
+        dataSource.setMaxActive(1);
+        dataSource.setMaxIdle(1);
+        dataSource.setMinIdle(0);
+        return dataSource;
+    }
+}
@@ -0,0 +1,91 @@
+package gov.samhsa.c2s.ums.config;
+
+import gov.samhsa.c2s.ums.infrastructure.datasource.ReadReplicaPublicMetrics;
+import gov.samhsa.c2s.ums.infrastructure.datasource.ReadReplicaRoutingDataSource;
+import gov.samhsa.c2s.ums.infrastructure.datasource.ReadYourWritesTracker;
+import gov.samhsa.c2s.ums.infrastructure.datasource.ReplicaLagMonitor;
+import gov.samhsa.c2s.ums.infrastructure.datasource.ReplicaPool;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Replaces the auto-configured data source with one that sends read-only transactions to the configured read
+ * replicas. The primary pool is still configured with the 'spring.datasource' properties.
+ */
+@Configuration
+@ConditionalOnProperty(name = "c2s.ums.read-replicas.enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.tomcat")
+    public org.apache.tomcat.jdbc.pool.DataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return (org.apache.tomcat.jdbc.pool.DataSource) dataSourceProperties.initializeDataSourceBuilder()
+                .type(org.apache.tomcat.jdbc.pool.DataSource.class)
+                .build();
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(UmsProperties umsProperties) {
+        return new ReadYourWritesTracker(umsProperties.getReadReplicas().getReadYourWritesWindowMillis());
+    }
+
+    @Bean
+    public ReadReplicaRoutingDataSource readReplicaRoutingDataSource(org.apache.tomcat.jdbc.pool.DataSource primaryDataSource,
+                                                                     DataSourceProperties dataSourceProperties,
+                                                                     UmsProperties umsProperties,
+                                                                     ReadYourWritesTracker readYourWritesTracker) {
+        final List<ReplicaPool> replicaPools = umsProperties.getReadReplicas().getReplicas().stream()
+                .map(replica -> new ReplicaPool(replica.getName(), createReplicaDataSource(replica, dataSourceProperties)))
+                .collect(toList());
+        return new ReadReplicaRoutingDataSource(primaryDataSource, replicaPools, readYourWritesTracker);
+    }
+
+    /**
+     * The connection is fetched on the first statement of a transaction, when its read-only flag is known.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource readReplicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readReplicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReadReplicaRoutingDataSource readReplicaRoutingDataSource,
+                                               ReadYourWritesTracker readYourWritesTracker,
+                                               UmsProperties umsProperties) {
+        return new ReplicaLagMonitor(readReplicaRoutingDataSource.getReplicaPools(), readYourWritesTracker,
+                umsProperties.getReadReplicas().getMaxLagSeconds(),
+                umsProperties.getReadReplicas().getLagCheckIntervalMillis());
+    }
+
+    @Bean
+    public ReadReplicaPublicMetrics readReplicaPublicMetrics(ReadReplicaRoutingDataSource readReplicaRoutingDataSource,
+                                                             ReadYourWritesTracker readYourWritesTracker) {
+        return new ReadReplicaPublicMetrics(readReplicaRoutingDataSource, readYourWritesTracker);
+    }
+
+    private org.apache.tomcat.jdbc.pool.DataSource createReplicaDataSource(UmsProperties.ReadReplicas.Replica replica,
+                                                                           DataSourceProperties dataSourceProperties) {
+        final org.apache.tomcat.jdbc.pool.DataSource dataSource = new org.apache.tomcat.jdbc.pool.DataSource();
+        dataSource.setName(replica.getName());
+        dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        dataSource.setUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername());
+        dataSource.setPassword(replica.getPassword());
+        dataSource.setMaxActive(replica.getMaxActive());
+        dataSource.setDefaultReadOnly(true);
+        dataSource.setTestOnBorrow(true);
+        dataSource.setValidationQuery("SELECT 1");
+        return dataSource;
+    }
+}
@@ -0,0 +1,23 @@
+package gov.samhsa.c2s.ums.config;
+
+import gov.samhsa.c2s.ums.infrastructure.sql.SqlStatementBudgetFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(name = "c2s.ums.sql-statement-budget.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatementBudgetConfig {
+
+    /**
+     * Registered before the security filters, so the statements of the whole request are counted
+     */
+    @Bean
+    public FilterRegistrationBean sqlStatementBudgetFilter(UmsProperties umsProperties) {
+        final FilterRegistrationBean registration = new FilterRegistrationBean(new SqlStatementBudgetFilter(umsProperties.getSqlStatementBudget()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
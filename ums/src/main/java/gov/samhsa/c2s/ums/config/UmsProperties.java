@@ -7,8 +7,12 @@
 import org.springframework.context.annotation.Configuration;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +38,10 @@ public class UmsProperties {
     @Valid
     private Pagination pagination;
 
+    @NotNull
+    @Valid
+    private Tokens tokens = new Tokens();
+
     @NotNull
     @Valid
     private Fhir fhir;
@@ -41,6 +49,18 @@ public class UmsProperties {
     @Valid
     private Map<String, List<RequiredIdentifierSystem>> requiredIdentifierSystemsByRole = new HashMap<>();
 
+    @NotNull
+    @Valid
+    private ReadReplicas readReplicas = new ReadReplicas();
+
+    @NotNull
+    @Valid
+    private UserAuthIdCache userAuthIdCache = new UserAuthIdCache();
+
+    @NotNull
+    @Valid
+    private SqlStatementBudget sqlStatementBudget = new SqlStatementBudget();
+
     public enum Algorithm {
         NONE,
         UUID,
@@ -65,7 +85,11 @@ public static class Mrn extends Identifier {
         private String prefix;
 
         @Min(6)
-        private int length;
+        @Max(17)
+        private int length;   // Number of digits of the MRN number, not counting the check digit
+
+        @Min(1)
+        private int blockSize = 100;   // Number of MRN numbers each node reserves from the database sequence at a time
 
         private boolean updateInDatabaseOnStartup = true;
 
@@ -82,6 +106,19 @@ public static class Ssn extends Identifier {
     public static class Gender extends Identifier {
     }
 
+    @Data
+    public static class Tokens {
+        @NotBlank
+        private String alphabet = "0123456789abcdefghijklmnopqrstuv";   // Characters of generated tokens; at most 256 distinct characters
+
+        @Min(1)
+        private int length = 26;   // Length of generated tokens; 26 characters of the default base 32 alphabet carry 130 random bits
+
+        @NotBlank
+        @Size(min = 32)
+        private String emailTokenSigningKey;   // Secret key of the HMAC signature of email tokens; has no default and must be configured
+    }
+
     @Data
     public static class Pagination {
         @Min(1)
@@ -97,11 +134,82 @@ public static class Fhir {
 
         private Publish publish;
 
+        @NotNull
+        @Valid
+        private Outbox outbox = new Outbox();
+
+        @NotNull
+        @Valid
+        private Backfill backfill = new Backfill();
+
+        @NotNull
+        @Valid
+        private Client client = new Client();
+
         @Data
         public static class Publish {
             @NotBlank
             private boolean enabled;
         }
+
+        @Data
+        public static class Outbox {
+            @Min(1)
+            private int batchSize = 100;   // Max number of publications leased and delivered to FIS per batch
+
+            @Min(1)
+            private int concurrency = 4;   // Max number of concurrent deliveries to FIS
+
+            @Min(1)
+            private long pollIntervalMillis = 1000;
+
+            @Min(1)
+            private long leaseMillis = 600000;   // A leased publication that is not completed in this time is leased again
+
+            @Min(1)
+            private int maxAttempts = 10;   // A publication that failed this many times is dead until it is replayed
+
+            @Min(1)
+            private long initialBackoffMillis = 1000;
+
+            @Min(1)
+            private long maxBackoffMillis = 300000;
+        }
+
+        @Data
+        public static class Backfill {
+            @Min(1)
+            private int chunkSize = 500;   // Number of patients read and checkpointed at a time
+
+            @Min(1)
+            private int concurrency = 8;   // Max number of concurrent requests to FIS
+
+            @Min(1)
+            private double maxRequestsPerSecond = 50;   // Max rate of requests to FIS
+
+            @Min(1)
+            private long leaseMillis = 600000;   // A job whose lease is not renewed by a checkpoint in this time can be started by another instance
+        }
+
+        @Data
+        public static class Client {
+            @Min(1)
+            private int maxConnections = 50;   // Max number of pooled connections to FIS
+
+            @Min(1)
+            private int maxConnectionsPerRoute = 50;   // Max number of pooled connections to each FIS instance
+
+            @Min(1)
+            private long connectionTimeToLiveMillis = 300000;   // Pooled connections are not reused after this time
+
+            @Min(1)
+            private long maxIdleMillis = 30000;   // Idle pooled connections are closed after this time
+
+            private boolean requestCompressionEnabled;   // FIS must accept gzip request bodies
+
+            @Min(0)
+            private int minCompressedRequestSize = 1024;   // Smaller request bodies are not compressed
+        }
     }
 
     @Data
@@ -127,10 +235,123 @@ public static class Avatars {
 
         @NotNull
         @Min(1)
-        private Long requiredImageWidth;   // Required avatar image width in pixels
+        private Long requiredImageWidth;   // Min avatar image width in pixels; larger images are scaled down into renditions
+
+        @NotNull
+        @Min(1)
+        private Long requiredImageHeight;   // Min avatar image height in pixels; larger images are scaled down into renditions
 
         @NotNull
         @Min(1)
-        private Long requiredImageHeight;   // Required avatar image height in pixels
+        private Long maxImageWidth = 1024L;   // Max avatar image width in pixels
+
+        @NotNull
+        @Min(1)
+        private Long maxImageHeight = 1024L;   // Max avatar image height in pixels
+
+        @NotNull
+        @Valid
+        private Storage storage = new Storage();
+
+        @NotNull
+        @Valid
+        private Cache cache = new Cache();
+
+        @NotNull
+        @Valid
+        private Renditions renditions = new Renditions();
+
+        @Data
+        public static class Storage {
+            @NotBlank
+            private String location;   // Root directory of the content-addressed avatar file store
+
+            private boolean migrateOnStartup = false;   // Move avatar contents still stored in the database to the file store on startup
+
+            @Min(1)
+            private int migrationBatchSize = 100;
+
+            @Min(0)
+            private long unreferencedContentsGracePeriodSeconds = 600;   // Unreferenced contents are deleted only after this time, and only if not saved again in this time
+        }
+
+        @Data
+        public static class Cache {
+            private boolean enabled = true;
+
+            @Min(0)
+            private long maxContentsSizeBytes = 16 * 1024 * 1024;   // Max total size of the cached avatar image contents in bytes
+
+            @Min(0)
+            private int maxMetadataEntries = 10000;
+
+            @Min(1)
+            private long metadataTimeToLiveSeconds = 60;   // Bounds how long an avatar saved or deleted through another instance is served from this cache
+        }
+
+        @Data
+        public static class Renditions {
+            private List<Integer> sizes = new ArrayList<>(Arrays.asList(32, 48, 128));   // Square rendition sizes in pixels generated for each avatar
+
+            @Min(1)
+            private int executorPoolSize = 2;
+
+            @Min(0)
+            private int executorQueueCapacity = 100;
+        }
+    }
+
+    @Data
+    public static class UserAuthIdCache {
+        private boolean enabled = true;
+
+        @Min(0)
+        private int maxEntries = 100000;   // Max number of user ids cached by user auth id
+    }
+
+    @Data
+    public static class SqlStatementBudget {
+        private boolean enabled = true;
+
+        @Min(1)
+        private int maxStatementsPerRequest = 50;   // A request that executes more SQL statements is logged
+
+        @Min(2)
+        private int maxRepeatedStatements = 10;   // A request that executes a SQL statement more times is logged as a possible N+1
+
+        private boolean responseHeaderEnabled = false;   // Adds the X-SQL-Statement-Count response header; enabled by the dev profile
+    }
+
+    @Data
+    public static class ReadReplicas {
+        private boolean enabled = false;   // Route read-only transactions to the replicas below
+
+        @Valid
+        private List<Replica> replicas = new ArrayList<>();
+
+        @Min(0)
+        private long maxLagSeconds = 5;   // Replicas lagging behind the primary by more than this are not used
+
+        @Min(0)
+        private long readYourWritesWindowMillis = 5000;   // Reads of a caller are sent to the primary for this long after the caller's last write
+
+        @Min(100)
+        private long lagCheckIntervalMillis = 5000;
+
+        @Data
+        public static class Replica {
+            @NotBlank
+            private String name;
+
+            @NotBlank
+            private String url;
+
+            private String username;
+
+            private String password;
+
+            @Min(1)
+            private int maxActive = 20;   // Max number of connections of the replica pool
+        }
     }
 }
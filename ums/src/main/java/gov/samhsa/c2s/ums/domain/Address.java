@@ -8,6 +8,7 @@
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.envers.Audited;
 import org.hibernate.envers.NotAudited;
 
@@ -31,12 +32,13 @@
 @AllArgsConstructor
 @NoArgsConstructor
 @ToString(exclude = "demographics")
+@DynamicUpdate
 public class Address {
     /**
      * The id.
      */
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "pooled")
     private Long id;
 
     /**
@@ -0,0 +1,16 @@
+package gov.samhsa.c2s.ums.domain;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an audited property whose changes alone do not create an audit revision, such as bookkeeping columns that are
+ * updated on every save. The property is still audited, and its current value is written with the next revision of
+ * the entity.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AuditChangeIgnored {
+}
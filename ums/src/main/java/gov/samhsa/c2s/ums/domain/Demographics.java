@@ -5,6 +5,7 @@
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.envers.Audited;
 import org.hibernate.envers.NotAudited;
 import org.hibernate.validator.constraints.ScriptAssert;
@@ -36,13 +37,14 @@
         alias = "_",
         script = "!_.hasIllegalIdentifiers()",
         message = "this identifier system identifiers can only be assigned once")
+@DynamicUpdate
 public class Demographics {
 
     /**
      * The id.
      */
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "pooled")
     private Long id;
 
     /**
@@ -0,0 +1,61 @@
+package gov.samhsa.c2s.ums.domain;
+
+import lombok.Data;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+
+/**
+ * A job that publishes all patients to FIS, with the checkpoint to resume it from.
+ * <p>
+ * The lease columns of the job are not mapped, so saving a job never overwrites them; they are only written by the
+ * conditional updates of {@link FhirBackfillJobRepository}.
+ */
+@Entity
+@Data
+public class FhirBackfillJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private FhirPublication.Operation operation;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    /**
+     * The id of the last patient of the last completed chunk; the job resumes after this patient
+     */
+    private long lastPatientId;
+
+    /**
+     * The number of patients when the job started
+     */
+    private long totalCount;
+
+    private long processedCount;
+
+    private long failedCount;
+
+    @NotNull
+    private Date startedDate;
+
+    @NotNull
+    private Date lastUpdatedDate;
+
+    public enum Status {
+        RUNNING,
+        STOPPED,
+        FAILED,
+        COMPLETED
+    }
+}
@@ -0,0 +1,39 @@
+package gov.samhsa.c2s.ums.domain;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface FhirBackfillJobRepository extends JpaRepository<FhirBackfillJob, Long> {
+    Optional<FhirBackfillJob> findTopByOrderByIdDesc();
+
+    /**
+     * Leases the job, unless another instance holds an unexpired lease of it
+     *
+     * @return 1 if the job was leased
+     */
+    @Modifying
+    @Query(value = "UPDATE fhir_backfill_job SET lease_owner = :leaseOwner, lease_expires_at = DATE_ADD(NOW(3), INTERVAL :leaseMillis * 1000 MICROSECOND) " +
+            "WHERE id = :id AND (lease_expires_at IS NULL OR lease_expires_at < NOW(3))",
+            nativeQuery = true)
+    int lease(@Param("id") Long id, @Param("leaseOwner") String leaseOwner, @Param("leaseMillis") long leaseMillis);
+
+    /**
+     * Extends the lease of the job, unless it expired and was leased by another instance
+     *
+     * @return 1 if the lease was extended
+     */
+    @Modifying
+    @Query(value = "UPDATE fhir_backfill_job SET lease_expires_at = DATE_ADD(NOW(3), INTERVAL :leaseMillis * 1000 MICROSECOND) " +
+            "WHERE id = :id AND lease_owner = :leaseOwner",
+            nativeQuery = true)
+    int renewLease(@Param("id") Long id, @Param("leaseOwner") String leaseOwner, @Param("leaseMillis") long leaseMillis);
+
+    @Modifying
+    @Query(value = "UPDATE fhir_backfill_job SET lease_owner = NULL, lease_expires_at = NULL WHERE lease_owner = :leaseOwner",
+            nativeQuery = true)
+    int releaseLease(@Param("leaseOwner") String leaseOwner);
+}
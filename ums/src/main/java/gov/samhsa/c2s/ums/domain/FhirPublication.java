@@ -0,0 +1,77 @@
+package gov.samhsa.c2s.ums.domain;
+
+import lombok.Data;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+
+/**
+ * A pending publication of the FHIR patient of a user to FIS. There is at most one publication per user, so repeated
+ * changes of a user are delivered once with the latest state of the user.
+ * <p>
+ * The rows are written with native queries in {@link FhirPublicationRepository}, so that concurrent changes of the
+ * same user are merged by the database.
+ */
+@Entity
+@Data
+public class FhirPublication {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    private Long userId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private Operation operation;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    /**
+     * Incremented by every change of the user, so a delivery only completes the publication if the user did not
+     * change during the delivery
+     */
+    private long revision;
+
+    private int attempts;
+
+    @NotNull
+    private Date nextAttemptAt;
+
+    private String leaseOwner;
+
+    private Date leaseExpiresAt;
+
+    private String lastError;
+
+    @NotNull
+    private Date createdDate;
+
+    @NotNull
+    private Date lastUpdatedDate;
+
+    public enum Operation {
+        /**
+         * Creates the FHIR patient; a publish is not replaced by a later update, since the patient is not created yet
+         */
+        PUBLISH,
+        UPDATE
+    }
+
+    public enum Status {
+        PENDING,
+        /**
+         * Failed the max number of attempts; delivered again only when it is replayed or the user changes
+         */
+        DEAD
+    }
+}
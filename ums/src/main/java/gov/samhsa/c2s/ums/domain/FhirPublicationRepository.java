@@ -0,0 +1,88 @@
+package gov.samhsa.c2s.ums.domain;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface FhirPublicationRepository extends JpaRepository<FhirPublication, Long> {
+
+    /**
+     * Adds a pending publication for the user, or merges it into the existing publication of the user. The
+     * assignments are evaluated in order, so each assignment sees the values assigned before it.
+     *
+     * @return 1 if the publication was added, 2 if it was merged
+     */
+    @Modifying
+    @Query(value = "INSERT INTO fhir_publication (user_id, operation, status, revision, attempts, next_attempt_at, created_date, last_updated_date) " +
+            "VALUES (:userId, :operation, 'PENDING', 1, 0, NOW(3), NOW(3), NOW(3)) " +
+            "ON DUPLICATE KEY UPDATE " +
+            // keep the backoff of a publication that is failing, so a frequently changing user does not bypass it
+            "next_attempt_at = IF(status = 'PENDING' AND attempts > 0, next_attempt_at, VALUES(next_attempt_at)), " +
+            "attempts = IF(status = 'DEAD', 0, attempts), " +
+            "created_date = IF(status = 'DEAD', VALUES(created_date), created_date), " +
+            "status = 'PENDING', " +
+            "operation = IF(operation = 'PUBLISH', 'PUBLISH', VALUES(operation)), " +
+            "revision = revision + 1, " +
+            "last_updated_date = VALUES(last_updated_date)",
+            nativeQuery = true)
+    int upsert(@Param("userId") Long userId, @Param("operation") String operation);
+
+    /**
+     * Leases the pending publications that are due and not leased by another dispatcher, oldest first
+     *
+     * @return the number of leased publications
+     */
+    @Modifying
+    @Query(value = "UPDATE fhir_publication SET lease_owner = :leaseOwner, lease_expires_at = DATE_ADD(NOW(3), INTERVAL :leaseMillis * 1000 MICROSECOND) " +
+            "WHERE status = 'PENDING' AND next_attempt_at <= NOW(3) AND (lease_expires_at IS NULL OR lease_expires_at < NOW(3)) " +
+            "ORDER BY next_attempt_at LIMIT :maxCount",
+            nativeQuery = true)
+    int lease(@Param("leaseOwner") String leaseOwner, @Param("leaseMillis") long leaseMillis, @Param("maxCount") int maxCount);
+
+    List<FhirPublication> findAllByLeaseOwner(String leaseOwner);
+
+    /**
+     * Deletes the delivered publication, unless the user changed during the delivery
+     *
+     * @return 1 if the publication was deleted
+     */
+    @Modifying
+    @Query(value = "DELETE FROM fhir_publication WHERE id = :id AND revision = :revision", nativeQuery = true)
+    int deleteByIdAndRevision(@Param("id") Long id, @Param("revision") long revision);
+
+    /**
+     * Releases a delivered publication whose user changed during the delivery, so the latest state is delivered as an
+     * update of the delivered patient
+     */
+    @Modifying
+    @Query(value = "UPDATE fhir_publication SET operation = 'UPDATE', attempts = 0, lease_owner = NULL, lease_expires_at = NULL WHERE id = :id",
+            nativeQuery = true)
+    int releaseAsUpdate(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "UPDATE fhir_publication SET attempts = attempts + 1, " +
+            "status = IF(attempts >= :maxAttempts, 'DEAD', 'PENDING'), " +
+            "next_attempt_at = DATE_ADD(NOW(3), INTERVAL :backoffMillis * 1000 MICROSECOND), " +
+            "last_error = :lastError, lease_owner = NULL, lease_expires_at = NULL, last_updated_date = NOW(3) " +
+            "WHERE id = :id",
+            nativeQuery = true)
+    int recordFailure(@Param("id") Long id, @Param("maxAttempts") int maxAttempts, @Param("backoffMillis") long backoffMillis,
+                      @Param("lastError") String lastError);
+
+    @Modifying
+    @Query(value = "UPDATE fhir_publication SET status = 'PENDING', attempts = 0, next_attempt_at = NOW(3), created_date = NOW(3), last_updated_date = NOW(3) WHERE status = 'DEAD'",
+            nativeQuery = true)
+    int replayDead();
+
+    long countByStatus(FhirPublication.Status status);
+
+    /**
+     * @return the age in seconds of the oldest pending publication, which is the delivery lag of FHIR patients, or
+     * null if no publication is pending
+     */
+    @Query(value = "SELECT TIMESTAMPDIFF(SECOND, MIN(created_date), NOW(3)) FROM fhir_publication WHERE status = 'PENDING'", nativeQuery = true)
+    Long findOldestPendingAgeSeconds();
+}
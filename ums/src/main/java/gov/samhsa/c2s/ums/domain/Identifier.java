@@ -29,7 +29,7 @@
 public class Identifier {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "pooled")
     private Long id;
     @NotBlank
     private String value;
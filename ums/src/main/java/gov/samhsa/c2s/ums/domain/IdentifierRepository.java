@@ -2,10 +2,14 @@
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface IdentifierRepository extends JpaRepository<Identifier, Long> {
     Optional<Identifier> findByValueAndIdentifierSystem(String value, IdentifierSystem system);
 
     Optional<Identifier> findByValueAndIdentifierSystemSystem(String value, String system);
+
+    List<Identifier> findAllByIdentifierSystemSystemInAndValueIn(Collection<String> systems, Collection<String> values);
 }
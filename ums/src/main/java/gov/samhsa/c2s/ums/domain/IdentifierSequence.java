@@ -0,0 +1,22 @@
+package gov.samhsa.c2s.ums.domain;
+
+import lombok.Data;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * A named database sequence that nodes reserve blocks of values from
+ */
+@Entity
+@Data
+public class IdentifierSequence {
+    @Id
+    private String name;
+
+    @NotNull
+    @Min(0)
+    private Long nextValue;
+}
@@ -2,9 +2,13 @@
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface IdentifierSystemRepository extends JpaRepository<IdentifierSystem, Long> {
 
     Optional<IdentifierSystem> findBySystem(String system);
+
+    List<IdentifierSystem> findAllBySystemIn(Collection<String> systems);
 }
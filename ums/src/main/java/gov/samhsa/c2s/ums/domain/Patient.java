@@ -1,6 +1,7 @@
 package gov.samhsa.c2s.ums.domain;
 
 import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -10,12 +11,13 @@
 
 @Entity
 @Data
+@DynamicUpdate
 public class Patient {
     /**
      * The id.
      */
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "pooled")
     private Long id;
 
     @OneToOne
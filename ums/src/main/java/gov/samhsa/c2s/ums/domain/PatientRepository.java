@@ -1,9 +1,19 @@
 package gov.samhsa.c2s.ums.domain;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     List<Patient> findAll();
+
+    /**
+     * Finds the next patients after the given patient id, in patient id order, as pairs of patient id and user id. The
+     * patient id works as a cursor, so the patients can be read in chunks without holding a connection between them.
+     */
+    @Query("select p.id, u.id from Patient p join p.demographics d join d.user u where p.id > :patientId order by p.id")
+    List<Object[]> findPatientAndUserIdsAfter(@Param("patientId") Long patientId, Pageable pageable);
 }
@@ -33,7 +33,7 @@ public class Telecom {
      * The id.
      */
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "pooled")
     private Long id;
 
     /**
@@ -2,6 +2,7 @@
 
 
 import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.envers.Audited;
 import org.hibernate.envers.NotAudited;
 import org.springframework.data.annotation.CreatedDate;
@@ -24,12 +25,13 @@
 @Data
 @Audited
 @EntityListeners(AuditingEntityListener.class)
+@DynamicUpdate
 public class User {
     /**
      * The id.
      */
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "pooled")
     private Long id;
 
     @CreatedDate
@@ -38,8 +40,10 @@ public class User {
     private String createdBy;
 
     @LastModifiedDate
+    @AuditChangeIgnored
     private Date lastUpdatedDate;
 
+    @AuditChangeIgnored
     private String lastUpdatedBy;
 
     private String userAuthId;
@@ -24,7 +24,7 @@
 @Audited
 public class UserActivation {
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "pooled")
     private Long id;
 
     @NotNull
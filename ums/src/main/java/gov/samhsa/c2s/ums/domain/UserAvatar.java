@@ -2,28 +2,47 @@
 
 import lombok.Data;
 import org.hibernate.validator.constraints.NotEmpty;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.Lob;
+import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 
 @Entity
 @Data
+@EntityListeners(AuditingEntityListener.class)
 public class UserAvatar {
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "pooled")
     private Long id;
 
+    /**
+     * Legacy avatar contents stored in the database as a Data URI; null once the contents are moved to the
+     * {@link gov.samhsa.c2s.ums.infrastructure.AvatarStorage}
+     */
     @Lob
-    @NotEmpty
     private byte[] fileContents;
 
+    /**
+     * SHA-256 hash of the decoded image bytes, used as the key in the
+     * {@link gov.samhsa.c2s.ums.infrastructure.AvatarStorage}
+     */
+    private String contentHash;
+
+    private String mediaType;
+
     @NotEmpty
     private String fileName;
 
@@ -42,7 +61,13 @@ public class UserAvatar {
     @Min(1)
     private Long fileHeightPixels;
 
+    @LastModifiedDate
+    private Date lastUpdatedDate;
+
     @NotNull
     @OneToOne(fetch = FetchType.LAZY)
     private User user;
+
+    @OneToMany(mappedBy = "userAvatar", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<UserAvatarRendition> renditions = new ArrayList<>();
 }
@@ -0,0 +1,50 @@
+package gov.samhsa.c2s.ums.domain;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * A scaled down, square copy of a {@link UserAvatar} image
+ */
+@Entity
+@Data
+@ToString(exclude = "userAvatar")
+@EqualsAndHashCode(exclude = "userAvatar")
+public class UserAvatarRendition {
+    @Id
+    @GeneratedValue(generator = "pooled")
+    private Long id;
+
+    @NotNull
+    @Min(1)
+    private Integer sizePixels;
+
+    @NotNull
+    @Min(1)
+    private Long fileWidthPixels;
+
+    @NotNull
+    @Min(1)
+    private Long fileHeightPixels;
+
+    @NotNull
+    @Min(1)
+    private Long fileSizeBytes;
+
+    @NotEmpty
+    private String contentHash;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    private UserAvatar userAvatar;
+}
@@ -0,0 +1,7 @@
+package gov.samhsa.c2s.ums.domain;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface UserAvatarRenditionRepository extends JpaRepository<UserAvatarRendition, Long> {
+    long countByContentHash(String contentHash);
+}
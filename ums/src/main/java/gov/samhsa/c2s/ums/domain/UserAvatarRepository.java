@@ -1,11 +1,35 @@
 package gov.samhsa.c2s.ums.domain;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserAvatarRepository extends JpaRepository<UserAvatar, Long> {
+    @EntityGraph(attributePaths = "renditions")
     Optional<UserAvatar> findByUserId(Long userId);
 
+    /**
+     * Finds the avatars of the given users with their renditions, as pairs of avatar and user id. The user id is read
+     * from the user_id column, so the lazy users are not loaded. An avatar is returned once per rendition, because the
+     * renditions are fetched in the same query.
+     */
+    @Query("select ua, ua.user.id from UserAvatar ua left join fetch ua.renditions where ua.user.id in :userIds")
+    List<Object[]> findUserAvatarAndUserIdsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
     void deleteByUserId(Long userId);
+
+    long countByContentHash(String contentHash);
+
+    /**
+     * Finds the ids of the avatars whose contents are still stored in the database, after the given avatar id and in id
+     * order. The id works as a cursor, so avatars that cannot be migrated are skipped instead of being read again.
+     */
+    @Query("select ua.id from UserAvatar ua where ua.contentHash is null and ua.id > :userAvatarId order by ua.id")
+    List<Long> findIdsByContentHashIsNullAndIdGreaterThan(@Param("userAvatarId") Long userAvatarId, Pageable pageable);
 }
@@ -16,7 +16,7 @@
 @Audited
 public class UserScopeAssignment {
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "pooled")
     private Long id;
 
     @ManyToOne
@@ -0,0 +1,22 @@
+/**
+ * The pooled identifier generator used by the entities that UMS writes at a high rate.
+ * <p>
+ * Ids are reserved from the {@code id_generator} table in blocks of 50, using one
+ * row per entity table. Unlike {@code IDENTITY} ids, the ids are known before the rows are inserted, so Hibernate can
+ * batch the inserts. Unused ids of a block are skipped when an instance stops.
+ */
+@GenericGenerator(
+        name = "pooled",
+        strategy = "org.hibernate.id.enhanced.TableGenerator",
+        parameters = {
+                @Parameter(name = "table_name", value = "id_generator"),
+                @Parameter(name = "segment_column_name", value = "sequence_name"),
+                @Parameter(name = "value_column_name", value = "next_val"),
+                @Parameter(name = "prefer_entity_table_as_segment_value", value = "true"),
+                @Parameter(name = "increment_size", value = "50"),
+                @Parameter(name = "optimizer", value = "pooled-lo")
+        })
+package gov.samhsa.c2s.ums.domain;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
@@ -0,0 +1,35 @@
+package gov.samhsa.c2s.ums.infrastructure;
+
+import java.time.Instant;
+
+/**
+ * Storage backend for avatar image contents.
+ * <p>
+ * Contents are content-addressed: they are saved and looked up by the hash of the image bytes, so identical images
+ * are only stored once.
+ */
+public interface AvatarStorage {
+    /**
+     * Saves the image bytes if they are not already stored, and records the time of the save either way, so that
+     * contents saved for a transaction that has not committed yet are not deleted by
+     * {@link #deleteIfNotSavedSince(String, Instant)}.
+     *
+     * @param imageDataBytes - the decoded image bytes
+     * @return the content hash under which the image bytes are stored
+     */
+    String save(byte[] imageDataBytes);
+
+    byte[] load(String contentHash);
+
+    boolean exists(String contentHash);
+
+    /**
+     * Deletes the stored contents unless they were saved at or after the given time. The check and the deletion are
+     * atomic with respect to {@link #save(byte[])} of the same contents.
+     *
+     * @param contentHash - the content hash of the contents
+     * @param since       - the earliest save time that keeps the contents
+     * @return true if the contents were deleted
+     */
+    boolean deleteIfNotSavedSince(String contentHash, Instant since);
+}
@@ -0,0 +1,154 @@
+package gov.samhsa.c2s.ums.infrastructure;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.infrastructure.exception.AvatarStorageException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed {@link AvatarStorage} on the local file system.
+ * <p>
+ * Each image is written once to {@code <location>/<hash[0..2]>/<hash[2..4]>/<hash>}, where hash is the hex encoded
+ * SHA-256 digest of the image bytes. Files are written to a temporary file and atomically moved into place. The last
+ * modified time of a file is the time it was last saved, and saving and deleting the same contents are serialized, so
+ * a save of contents that are about to be deleted either keeps them or writes them again.
+ */
+@Service
+@Slf4j
+public class FileSystemAvatarStorage implements AvatarStorage {
+    private static final Pattern CONTENT_HASH_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
+    private static final String TEMP_FILE_PREFIX = "avatar-";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path rootLocation;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    @Autowired
+    public FileSystemAvatarStorage(UmsProperties umsProperties) {
+        String location = umsProperties.getAvatars().getStorage().getLocation();
+        Assert.hasText(location, "Missing avatar storage location");
+        this.rootLocation = Paths.get(location).toAbsolutePath().normalize();
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public String save(byte[] imageDataBytes) {
+        Assert.notNull(imageDataBytes, "imageDataBytes must not be null");
+        String contentHash = DigestUtils.sha256Hex(imageDataBytes);
+        Path target = resolve(contentHash);
+
+        synchronized (lockFor(contentHash)) {
+            if (touch(target)) {
+                log.debug("Avatar contents already stored, skipping write: " + contentHash);
+                return contentHash;
+            }
+
+            Path tempFile = null;
+            try {
+                Files.createDirectories(target.getParent());
+                tempFile = Files.createTempFile(target.getParent(), TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+                Files.write(tempFile, imageDataBytes);
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Another instance sharing the location stored the same contents concurrently
+                log.debug("Avatar contents stored concurrently: " + contentHash);
+            } catch (IOException e) {
+                log.error("An IOException occurred while attempting to store avatar contents", e);
+                throw new AvatarStorageException("Unable to store avatar contents", e);
+            } finally {
+                deleteQuietly(tempFile);
+            }
+        }
+        return contentHash;
+    }
+
+    @Override
+    public byte[] load(String contentHash) {
+        Path target = resolve(contentHash);
+        try {
+            return Files.readAllBytes(target);
+        } catch (IOException e) {
+            log.error("An IOException occurred while attempting to load avatar contents: " + contentHash, e);
+            throw new AvatarStorageException("Unable to load avatar contents", e);
+        }
+    }
+
+    @Override
+    public boolean exists(String contentHash) {
+        return Files.exists(resolve(contentHash));
+    }
+
+    @Override
+    public boolean deleteIfNotSavedSince(String contentHash, Instant since) {
+        Path target = resolve(contentHash);
+        synchronized (lockFor(contentHash)) {
+            try {
+                if (!Files.getLastModifiedTime(target).toInstant().isBefore(since)) {
+                    return false;
+                }
+                Files.delete(target);
+                return true;
+            } catch (NoSuchFileException e) {
+                return false;
+            } catch (IOException e) {
+                log.error("An IOException occurred while attempting to delete avatar contents: " + contentHash, e);
+                throw new AvatarStorageException("Unable to delete avatar contents", e);
+            }
+        }
+    }
+
+    /**
+     * @return true if the file exists and its last modified time is now the current time
+     */
+    private boolean touch(Path target) {
+        try {
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            log.error("An IOException occurred while attempting to store avatar contents", e);
+            throw new AvatarStorageException("Unable to store avatar contents", e);
+        }
+    }
+
+    private Object lockFor(String contentHash) {
+        return locks[Math.floorMod(contentHash.hashCode(), locks.length)];
+    }
+
+    private Path resolve(String contentHash) {
+        Assert.isTrue(contentHash != null && CONTENT_HASH_PATTERN.matcher(contentHash).matches(), "Invalid avatar content hash");
+        return rootLocation
+                .resolve(contentHash.substring(0, 2))
+                .resolve(contentHash.substring(2, 4))
+                .resolve(contentHash);
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Unable to delete temporary avatar file: " + path, e);
+        }
+    }
+}
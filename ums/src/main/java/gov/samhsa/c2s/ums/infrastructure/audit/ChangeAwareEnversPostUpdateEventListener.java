@@ -0,0 +1,73 @@
+package gov.samhsa.c2s.ums.infrastructure.audit;
+
+import gov.samhsa.c2s.ums.domain.AuditChangeIgnored;
+import org.hibernate.envers.Audited;
+import org.hibernate.envers.NotAudited;
+import org.hibernate.envers.boot.internal.EnversService;
+import org.hibernate.envers.event.spi.EnversPostUpdateEventListenerImpl;
+import org.hibernate.event.spi.PostUpdateEvent;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Envers update listener that does not audit updates which only change properties annotated with
+ * {@link AuditChangeIgnored} or properties that Envers does not audit, so that saving an entity without an audited
+ * change does not write a revision. Without the unaudited properties, an update of only a {@link NotAudited} property
+ * would still write a revision, because JPA auditing also changes the ignored last updated date.
+ */
+public class ChangeAwareEnversPostUpdateEventListener extends EnversPostUpdateEventListenerImpl {
+    private final Map<Class<?>, Set<String>> ignoredPropertyNamesByClass = new ConcurrentHashMap<>();
+
+    public ChangeAwareEnversPostUpdateEventListener(EnversService enversService) {
+        super(enversService);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!onlyIgnoredPropertiesChanged(event)) {
+            super.onPostUpdate(event);
+        }
+    }
+
+    boolean onlyIgnoredPropertiesChanged(PostUpdateEvent event) {
+        final int[] dirtyProperties = event.getDirtyProperties();
+        // Hibernate could not determine the dirty properties, so the update is audited as usual
+        if (dirtyProperties == null || dirtyProperties.length == 0) {
+            return false;
+        }
+        final Set<String> ignoredPropertyNames = ignoredPropertyNamesByClass.computeIfAbsent(
+                event.getPersister().getMappedClass(), ChangeAwareEnversPostUpdateEventListener::findIgnoredPropertyNames);
+        final String[] propertyNames = event.getPersister().getPropertyNames();
+        for (int dirtyProperty : dirtyProperties) {
+            if (!ignoredPropertyNames.contains(propertyNames[dirtyProperty])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the names of the properties annotated with {@link AuditChangeIgnored} and of the properties that Envers
+     * does not audit: properties annotated with {@link NotAudited}, and properties of a class that is not
+     * {@link Audited} unless the property itself is
+     */
+    private static Set<String> findIgnoredPropertyNames(Class<?> mappedClass) {
+        final Set<String> ignoredPropertyNames = new HashSet<>();
+        for (Class<?> type = mappedClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            final boolean typeAudited = type.isAnnotationPresent(Audited.class);
+            for (Field field : type.getDeclaredFields()) {
+                final boolean audited = (typeAudited || field.isAnnotationPresent(Audited.class))
+                        && !field.isAnnotationPresent(NotAudited.class);
+                if (!audited || field.isAnnotationPresent(AuditChangeIgnored.class)) {
+                    ignoredPropertyNames.add(field.getName());
+                }
+            }
+        }
+        return ignoredPropertyNames.isEmpty() ? Collections.emptySet() : ignoredPropertyNames;
+    }
+}
@@ -0,0 +1,44 @@
+package gov.samhsa.c2s.ums.infrastructure.datasource;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Exposes the routing counts and the replication state of each replica pool on the actuator metrics endpoint.
+ */
+public class ReadReplicaPublicMetrics implements PublicMetrics {
+    private static final String PREFIX = "ums.datasource.";
+
+    private final ReadReplicaRoutingDataSource readReplicaRoutingDataSource;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public ReadReplicaPublicMetrics(ReadReplicaRoutingDataSource readReplicaRoutingDataSource,
+                                    ReadYourWritesTracker readYourWritesTracker) {
+        this.readReplicaRoutingDataSource = readReplicaRoutingDataSource;
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>();
+        metrics.add(new Metric<>("counter." + PREFIX + ReadReplicaRoutingDataSource.PRIMARY + ".routed", readReplicaRoutingDataSource.getPrimaryRoutedTransactionCount()));
+        metrics.add(new Metric<>("gauge." + PREFIX + "read-your-writes.callers", readYourWritesTracker.getTrackedCallerCount()));
+        for (ReplicaPool replicaPool : readReplicaRoutingDataSource.getReplicaPools()) {
+            final String poolPrefix = PREFIX + replicaPool.getName() + ".";
+            metrics.add(new Metric<>("counter." + poolPrefix + "routed", replicaPool.getRoutedTransactionCount()));
+            metrics.add(new Metric<>("gauge." + poolPrefix + "available", replicaPool.isAvailable() ? 1 : 0));
+            metrics.add(new Metric<>("gauge." + poolPrefix + "lag-seconds", replicaPool.getLagSeconds()));
+            if (replicaPool.getDataSource() instanceof org.apache.tomcat.jdbc.pool.DataSource) {
+                final org.apache.tomcat.jdbc.pool.DataSource pool = (org.apache.tomcat.jdbc.pool.DataSource) replicaPool.getDataSource();
+                metrics.add(new Metric<>("gauge." + poolPrefix + "active", pool.getActive()));
+                metrics.add(new Metric<>("gauge." + poolPrefix + "idle", pool.getIdle()));
+                metrics.add(new Metric<>("gauge." + poolPrefix + "max-active", pool.getMaxActive()));
+            }
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,86 @@
+package gov.samhsa.c2s.ums.infrastructure.datasource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends the connections of read-only transactions to an available replica, in round robin order, and all other
+ * connections to the primary.
+ * <p>
+ * The read-only flag of a transaction is only known once the transaction has started, so this data source must be
+ * wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} that fetches the connection
+ * on the first statement.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+    static final String PRIMARY = "primary";
+
+    private final List<ReplicaPool> replicaPools;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final AtomicInteger nextReplicaIndex = new AtomicInteger();
+    private final LongAdder primaryRoutedTransactionCount = new LongAdder();
+
+    public ReadReplicaRoutingDataSource(DataSource primaryDataSource, List<ReplicaPool> replicaPools,
+                                        ReadYourWritesTracker readYourWritesTracker) {
+        this.replicaPools = replicaPools;
+        this.readYourWritesTracker = readYourWritesTracker;
+        final Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primaryDataSource);
+        replicaPools.forEach(replicaPool -> targetDataSources.put(replicaPool.getName(), replicaPool.getDataSource()));
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primaryDataSource);
+        setLenientFallback(false);
+    }
+
+    public List<ReplicaPool> getReplicaPools() {
+        return replicaPools;
+    }
+
+    public long getPrimaryRoutedTransactionCount() {
+        return primaryRoutedTransactionCount.sum();
+    }
+
+    /**
+     * Closes the replica pools; the primary data source is managed by the application context.
+     */
+    @Override
+    public void destroy() {
+        replicaPools.forEach(ReplicaPool::close);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                readYourWritesTracker.recordWrite();
+            }
+            return routeToPrimary();
+        }
+        if (readYourWritesTracker.isWithinWindow()) {
+            return routeToPrimary();
+        }
+        final int replicaCount = replicaPools.size();
+        final int startIndex = Math.floorMod(nextReplicaIndex.getAndIncrement(), Math.max(replicaCount, 1));
+        for (int i = 0; i < replicaCount; i++) {
+            final ReplicaPool replicaPool = replicaPools.get((startIndex + i) % replicaCount);
+            if (replicaPool.isAvailable()) {
+                replicaPool.recordRoutedTransaction();
+                return replicaPool.getName();
+            }
+        }
+        // No replica is in sync, so the read goes to the primary
+        return routeToPrimary();
+    }
+
+    private String routeToPrimary() {
+        primaryRoutedTransactionCount.increment();
+        return PRIMARY;
+    }
+}
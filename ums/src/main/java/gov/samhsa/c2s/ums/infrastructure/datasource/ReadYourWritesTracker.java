@@ -0,0 +1,60 @@
+package gov.samhsa.c2s.ums.infrastructure.datasource;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers when each caller last wrote to the primary, so that the caller's reads within the configured window are
+ * not sent to a replica that may not have replicated the write yet. Callers are identified by the name of the
+ * authenticated principal; reads without an authenticated principal are not tracked.
+ */
+public class ReadYourWritesTracker {
+    private final long windowMillis;
+    private final LongSupplier clock;
+    private final Map<String, Long> lastWriteMillisByCaller = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(long windowMillis) {
+        this(windowMillis, System::currentTimeMillis);
+    }
+
+    ReadYourWritesTracker(long windowMillis, LongSupplier clock) {
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+    }
+
+    public void recordWrite() {
+        if (windowMillis > 0) {
+            currentCaller().ifPresent(caller -> lastWriteMillisByCaller.put(caller, clock.getAsLong()));
+        }
+    }
+
+    public boolean isWithinWindow() {
+        return windowMillis > 0 && currentCaller()
+                .map(lastWriteMillisByCaller::get)
+                .filter(lastWriteMillis -> clock.getAsLong() - lastWriteMillis < windowMillis)
+                .isPresent();
+    }
+
+    /**
+     * Forgets the callers whose window has passed.
+     */
+    public void purgeExpired() {
+        final long now = clock.getAsLong();
+        lastWriteMillisByCaller.values().removeIf(lastWriteMillis -> now - lastWriteMillis >= windowMillis);
+    }
+
+    public int getTrackedCallerCount() {
+        return lastWriteMillisByCaller.size();
+    }
+
+    private Optional<String> currentCaller() {
+        return Optional.ofNullable(SecurityContextHolder.getContext().getAuthentication())
+                .filter(Authentication::isAuthenticated)
+                .map(Authentication::getName);
+    }
+}
@@ -0,0 +1,85 @@
+package gov.samhsa.c2s.ums.infrastructure.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically checks the replication lag of each replica and marks the replicas that are too far behind the primary,
+ * or whose lag cannot be determined, as unavailable.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements InitializingBean, DisposableBean {
+    private final List<ReplicaPool> replicaPools;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final long maxLagSeconds;
+    private final long checkIntervalMillis;
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(List<ReplicaPool> replicaPools, ReadYourWritesTracker readYourWritesTracker,
+                             long maxLagSeconds, long checkIntervalMillis) {
+        this.replicaPools = replicaPools;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.maxLagSeconds = maxLagSeconds;
+        this.checkIntervalMillis = checkIntervalMillis;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkReplicas, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    void checkReplicas() {
+        for (ReplicaPool replicaPool : replicaPools) {
+            try {
+                final long lagSeconds = queryLagSeconds(replicaPool);
+                final boolean available = lagSeconds >= 0 && lagSeconds <= maxLagSeconds;
+                if (available != replicaPool.isAvailable()) {
+                    log.info("Replica " + replicaPool.getName() + " is now " + (available ? "available" : "unavailable") + ", lag in seconds: " + lagSeconds);
+                }
+                replicaPool.updateReplicationState(available, lagSeconds);
+            } catch (SQLException | RuntimeException e) {
+                if (replicaPool.isAvailable()) {
+                    log.warn("Replica " + replicaPool.getName() + " is now unavailable", e);
+                }
+                replicaPool.updateReplicationState(false, -1);
+            }
+        }
+        readYourWritesTracker.purgeExpired();
+    }
+
+    /**
+     * @return the MySQL replica lag in seconds, or -1 if replication is stopped or the database is not a replica
+     */
+    private long queryLagSeconds(ReplicaPool replicaPool) throws SQLException {
+        try (Connection connection = replicaPool.getDataSource().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SHOW SLAVE STATUS")) {
+            // A database that is not configured as a replica, or whose replication was reset, reports no status at all
+            if (!resultSet.next()) {
+                return -1;
+            }
+            final long secondsBehindMaster = resultSet.getLong("Seconds_Behind_Master");
+            return resultSet.wasNull() ? -1 : secondsBehindMaster;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package gov.samhsa.c2s.ums.infrastructure.datasource;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A read replica connection pool and its last known replication state.
+ */
+public class ReplicaPool {
+    private final String name;
+    private final DataSource dataSource;
+    private final LongAdder routedTransactionCount = new LongAdder();
+    private volatile boolean available = false;
+    private volatile long lagSeconds = -1;
+
+    public ReplicaPool(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * @return true if the last lag check succeeded and the replica lag was within the allowed threshold
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * @return the replica lag in seconds measured by the last lag check, or -1 if it could not be determined
+     */
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+
+    public long getRoutedTransactionCount() {
+        return routedTransactionCount.sum();
+    }
+
+    void updateReplicationState(boolean available, long lagSeconds) {
+        this.available = available;
+        this.lagSeconds = lagSeconds;
+    }
+
+    void recordRoutedTransaction() {
+        routedTransactionCount.increment();
+    }
+
+    void close() {
+        if (dataSource instanceof org.apache.tomcat.jdbc.pool.DataSource) {
+            ((org.apache.tomcat.jdbc.pool.DataSource) dataSource).close();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package gov.samhsa.c2s.ums.infrastructure.exception;
+
+public class AvatarStorageException extends RuntimeException {
+    public AvatarStorageException() {
+    }
+
+    public AvatarStorageException(String message) {
+        super(message);
+    }
+
+    public AvatarStorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public AvatarStorageException(Throwable cause) {
+        super(cause);
+    }
+
+    public AvatarStorageException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
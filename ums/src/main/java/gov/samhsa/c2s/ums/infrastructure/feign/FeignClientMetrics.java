@@ -0,0 +1,97 @@
+package gov.samhsa.c2s.ums.infrastructure.feign;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the requests, errors and latency of each Feign client method. A request is an error when it fails with an I/O
+ * error, including a timeout, or the server responds with an error status. The latency is also recorded in the
+ * 'ums.client.requests' timer, like the other outbound calls.
+ */
+public class FeignClientMetrics {
+    private static final String CLIENT_TIMER = "ums.client.requests";
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, MethodMetrics> methodMetrics = new ConcurrentHashMap<>();
+
+    public FeignClientMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param exception the simple name of the exception of a failed request, or null if the request succeeded
+     */
+    public void record(String configKey, long elapsedMillis, String exception) {
+        final String methodName = methodName(configKey);
+        final MethodMetrics metrics = methodMetrics.computeIfAbsent(methodName, name -> new MethodMetrics());
+        metrics.requestCount.increment();
+        metrics.totalMillis.add(elapsedMillis);
+        if (exception != null) {
+            metrics.errorCount.increment();
+        }
+        final int methodIndex = methodName.lastIndexOf('.');
+        Timer.builder(CLIENT_TIMER)
+                .tag("client", clientName(methodIndex < 0 ? methodName : methodName.substring(0, methodIndex)))
+                .tag("method", methodName.substring(methodIndex + 1))
+                .tag("exception", exception == null ? NONE : exception)
+                .register(meterRegistry)
+                .record(elapsedMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the metrics by method name, for example 'FisClient.publishFhirPatient'
+     */
+    public Map<String, MethodMetrics> getMethodMetrics() {
+        return Collections.unmodifiableMap(new TreeMap<>(methodMetrics));
+    }
+
+    /**
+     * Converts a Feign config key, for example 'FisClient#publishFhirPatient(UserDto)', to a method name
+     */
+    static String methodName(String configKey) {
+        final int parametersIndex = configKey.indexOf('(');
+        return (parametersIndex < 0 ? configKey : configKey.substring(0, parametersIndex)).replace('#', '.');
+    }
+
+    /**
+     * Converts a Feign client interface name, for example 'FisClient', to a client name, for example 'fis'
+     */
+    static String clientName(String clientInterfaceName) {
+        final String suffix = "Client";
+        return clientInterfaceName.endsWith(suffix) && clientInterfaceName.length() > suffix.length()
+                ? clientInterfaceName.substring(0, clientInterfaceName.length() - suffix.length()).toLowerCase()
+                : clientInterfaceName;
+    }
+
+    public static class MethodMetrics {
+        private final LongAdder requestCount = new LongAdder();
+        private final LongAdder errorCount = new LongAdder();
+        private final LongAdder totalMillis = new LongAdder();
+
+        public long getRequestCount() {
+            return requestCount.sum();
+        }
+
+        public long getErrorCount() {
+            return errorCount.sum();
+        }
+
+        public long getTotalMillis() {
+            return totalMillis.sum();
+        }
+
+        public long getMeanMillis() {
+            final long requests = getRequestCount();
+            return requests == 0 ? 0 : getTotalMillis() / requests;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package gov.samhsa.c2s.ums.infrastructure.feign;
+
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Exposes the request, error and latency metrics of the Feign client methods, and the connection pool usage, on the
+ * actuator metrics endpoint.
+ */
+public class FeignClientPublicMetrics implements PublicMetrics {
+    private static final String PREFIX = "gauge.ums.feign.";
+
+    private final FeignClientMetrics feignClientMetrics;
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    public FeignClientPublicMetrics(FeignClientMetrics feignClientMetrics, PoolingHttpClientConnectionManager connectionManager) {
+        this.feignClientMetrics = feignClientMetrics;
+        this.connectionManager = connectionManager;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>();
+        feignClientMetrics.getMethodMetrics().forEach((methodName, methodMetrics) -> {
+            metrics.add(new Metric<>(PREFIX + methodName + ".requests", methodMetrics.getRequestCount()));
+            metrics.add(new Metric<>(PREFIX + methodName + ".errors", methodMetrics.getErrorCount()));
+            metrics.add(new Metric<>(PREFIX + methodName + ".total-millis", methodMetrics.getTotalMillis()));
+            metrics.add(new Metric<>(PREFIX + methodName + ".mean-millis", methodMetrics.getMeanMillis()));
+        });
+        PoolStats poolStats = connectionManager.getTotalStats();
+        metrics.add(new Metric<>(PREFIX + "connections.leased", poolStats.getLeased()));
+        metrics.add(new Metric<>(PREFIX + "connections.available", poolStats.getAvailable()));
+        metrics.add(new Metric<>(PREFIX + "connections.pending", poolStats.getPending()));
+        metrics.add(new Metric<>(PREFIX + "connections.max", poolStats.getMax()));
+        return metrics;
+    }
+}
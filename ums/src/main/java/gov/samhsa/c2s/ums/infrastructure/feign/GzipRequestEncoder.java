@@ -0,0 +1,45 @@
+package gov.samhsa.c2s.ums.infrastructure.feign;
+
+import feign.RequestTemplate;
+import feign.codec.EncodeException;
+import feign.codec.Encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzips the request bodies encoded by the delegate encoder that are at least the min size. The Feign request
+ * compression properties only add the 'Content-Encoding' header, so the body is compressed here.
+ */
+public class GzipRequestEncoder implements Encoder {
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+    private static final String GZIP = "gzip";
+
+    private final Encoder delegate;
+    private final int minRequestSize;
+
+    public GzipRequestEncoder(Encoder delegate, int minRequestSize) {
+        this.delegate = delegate;
+        this.minRequestSize = minRequestSize;
+    }
+
+    @Override
+    public void encode(Object object, Type bodyType, RequestTemplate template) {
+        delegate.encode(object, bodyType, template);
+        final byte[] body = template.body();
+        if (body == null || body.length < minRequestSize) {
+            return;
+        }
+        final ByteArrayOutputStream compressedBody = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressedBody)) {
+            gzipOutputStream.write(body);
+        } catch (IOException e) {
+            throw new EncodeException("Unable to gzip the request body", e);
+        }
+        // A null charset keeps the compressed body binary
+        template.body(compressedBody.toByteArray(), null);
+        template.header(CONTENT_ENCODING, GZIP);
+    }
+}
@@ -0,0 +1,34 @@
+package gov.samhsa.c2s.ums.infrastructure.feign;
+
+import feign.Response;
+import feign.slf4j.Slf4jLogger;
+
+import java.io.IOException;
+
+/**
+ * Records the latency and outcome of each Feign request, which Feign reports to its logger. The logger level must be
+ * at least {@link feign.Logger.Level#BASIC} for Feign to report them.
+ */
+public class MeteredFeignLogger extends Slf4jLogger {
+    // Feign throws a FeignException for an error status once the response is decoded
+    private static final String ERROR_STATUS = "FeignException";
+
+    private final FeignClientMetrics feignClientMetrics;
+
+    public MeteredFeignLogger(Class<?> clazz, FeignClientMetrics feignClientMetrics) {
+        super(clazz);
+        this.feignClientMetrics = feignClientMetrics;
+    }
+
+    @Override
+    protected Response logAndRebufferResponse(String configKey, Level logLevel, Response response, long elapsedTime) throws IOException {
+        feignClientMetrics.record(configKey, elapsedTime, response.status() >= 400 ? ERROR_STATUS : null);
+        return super.logAndRebufferResponse(configKey, logLevel, response, elapsedTime);
+    }
+
+    @Override
+    protected IOException logIOException(String configKey, Level logLevel, IOException ioe, long elapsedTime) {
+        feignClientMetrics.record(configKey, elapsedTime, ioe.getClass().getSimpleName());
+        return super.logIOException(configKey, logLevel, ioe, elapsedTime);
+    }
+}
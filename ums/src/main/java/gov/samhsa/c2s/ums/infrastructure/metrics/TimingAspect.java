@@ -0,0 +1,109 @@
+package gov.samhsa.c2s.ums.infrastructure.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times the service methods, the outbound calls to SCIM and SMTP, the repository methods and the ModelMapper mappings,
+ * so the time of a request can be broken down by where it is spent. Each timer is tagged with the called component,
+ * the method and the exception, or 'none'.
+ */
+@Aspect
+public class TimingAspect {
+    static final String SERVICE_TIMER = "ums.service";
+    static final String CLIENT_TIMER = "ums.client.requests";
+    static final String REPOSITORY_TIMER = "ums.repository";
+    static final String MAPPING_TIMER = "ums.mapping";
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final List<Class<?>> timedInterfaces;
+    private final Map<Class<?>, String> componentNames = new ConcurrentHashMap<>();
+
+    public TimingAspect(MeterRegistry meterRegistry, Class<?>... timedInterfaces) {
+        this.meterRegistry = meterRegistry;
+        this.timedInterfaces = Arrays.asList(timedInterfaces);
+    }
+
+    @Around("execution(public * gov.samhsa.c2s.ums.service.UserService+.*(..)) || " +
+            "execution(public * gov.samhsa.c2s.ums.service.UserActivationService+.*(..)) || " +
+            "execution(public * gov.samhsa.c2s.ums.service.PatientService+.*(..)) || " +
+            "execution(public * gov.samhsa.c2s.ums.service.LookupService+.*(..)) || " +
+            "execution(public * gov.samhsa.c2s.ums.service.UserAvatarService+.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, SERVICE_TIMER, "service", componentName(joinPoint.getTarget()));
+    }
+
+    @Around("execution(public * gov.samhsa.c2s.ums.infrastructure.ScimService+.*(..))")
+    public Object timeScim(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, CLIENT_TIMER, "client", "scim");
+    }
+
+    @Around("execution(public * gov.samhsa.c2s.ums.infrastructure.EmailSender+.*(..))")
+    public Object timeSmtp(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, CLIENT_TIMER, "client", "smtp");
+    }
+
+    @Around("execution(public * org.springframework.data.repository.Repository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, REPOSITORY_TIMER, "repository", repositoryName(joinPoint.getThis()));
+    }
+
+    @Around("execution(public * org.modelmapper.ModelMapper.map(..))")
+    public Object timeMapping(ProceedingJoinPoint joinPoint) throws Throwable {
+        final Object[] args = joinPoint.getArgs();
+        final Object destination = args.length > 1 ? args[1] : null;
+        final String destinationName = destination instanceof Class ? ((Class<?>) destination).getSimpleName()
+                : destination == null ? NONE : destination.getClass().getSimpleName();
+        return time(joinPoint, Timer.builder(MAPPING_TIMER).tag("destination", destinationName));
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String timerName, String componentTag, String componentName) throws Throwable {
+        return time(joinPoint, Timer.builder(timerName)
+                .tag(componentTag, componentName)
+                .tag("method", joinPoint.getSignature().getName()));
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, Timer.Builder timer) throws Throwable {
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = NONE;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(timer.tag("exception", exception).register(meterRegistry));
+        }
+    }
+
+    /**
+     * @return the simple name of the timed interface implemented by the target, rather than its implementation class
+     */
+    String componentName(Object target) {
+        return componentNames.computeIfAbsent(target.getClass(), targetClass -> timedInterfaces.stream()
+                .filter(timedInterface -> timedInterface.isAssignableFrom(targetClass))
+                .findFirst()
+                .map(Class::getSimpleName)
+                .orElseGet(targetClass::getSimpleName));
+    }
+
+    /**
+     * @return the simple name of the repository interface implemented by the repository proxy
+     */
+    private String repositoryName(Object repositoryProxy) {
+        return componentNames.computeIfAbsent(repositoryProxy.getClass(), proxyClass -> {
+            final Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(repositoryProxy);
+            return interfaces.length > 0 ? interfaces[0].getSimpleName() : proxyClass.getSimpleName();
+        });
+    }
+}
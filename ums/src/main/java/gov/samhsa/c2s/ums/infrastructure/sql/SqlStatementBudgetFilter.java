@@ -0,0 +1,121 @@
+package gov.samhsa.c2s.ums.infrastructure.sql;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements of each request, and logs a warning when a request executes more statements than its
+ * budget, or repeats a statement more times than allowed, which usually means an N+1 query.
+ * <p>
+ * The count is also added as the {@value #STATEMENT_COUNT_HEADER} response header. Headers cannot be added once the
+ * response body is written, so the header counts the statements executed before the body is written.
+ */
+@Slf4j
+public class SqlStatementBudgetFilter extends OncePerRequestFilter {
+    public static final String STATEMENT_COUNT_HEADER = "X-SQL-Statement-Count";
+    private static final int MAX_LOGGED_SQL_LENGTH = 500;
+
+    private final UmsProperties.SqlStatementBudget budget;
+
+    public SqlStatementBudgetFilter(UmsProperties.SqlStatementBudget budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (SqlStatementCounter.Counter counter = SqlStatementCounter.start()) {
+            final HttpServletResponse countedResponse = budget.isResponseHeaderEnabled()
+                    ? new StatementCountHeaderResponseWrapper(response, counter)
+                    : response;
+            filterChain.doFilter(request, countedResponse);
+            if (budget.isResponseHeaderEnabled() && !response.isCommitted()) {
+                response.setIntHeader(STATEMENT_COUNT_HEADER, counter.getCount());
+            }
+            checkBudget(request, counter);
+        }
+    }
+
+    private void checkBudget(HttpServletRequest request, SqlStatementCounter.Counter counter) {
+        if (counter.getCount() > budget.getMaxStatementsPerRequest()) {
+            log.warn(request.getMethod() + " " + request.getRequestURI() + " executed " + counter.getCount()
+                    + " SQL statements, more than the budget of " + budget.getMaxStatementsPerRequest());
+        }
+        counter.getMostRepeatedStatement()
+                .filter(statement -> statement.getValue() > budget.getMaxRepeatedStatements())
+                .ifPresent(statement -> log.warn(request.getMethod() + " " + request.getRequestURI() + " executed the same SQL statement "
+                        + statement.getValue() + " times, a possible N+1 query: " + abbreviate(statement)));
+    }
+
+    private static String abbreviate(Map.Entry<String, Integer> statement) {
+        final String sql = statement.getKey();
+        return sql.length() > MAX_LOGGED_SQL_LENGTH ? sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "..." : sql;
+    }
+
+    /**
+     * Adds the statement count header just before the response body is written or the response is committed
+     */
+    private static class StatementCountHeaderResponseWrapper extends HttpServletResponseWrapper {
+        private final SqlStatementCounter.Counter counter;
+        private boolean headerAdded;
+
+        StatementCountHeaderResponseWrapper(HttpServletResponse response, SqlStatementCounter.Counter counter) {
+            super(response);
+            this.counter = counter;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addHeader();
+            super.sendRedirect(location);
+        }
+
+        private void addHeader() {
+            if (!headerAdded && !isCommitted()) {
+                setIntHeader(STATEMENT_COUNT_HEADER, counter.getCount());
+                headerAdded = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package gov.samhsa.c2s.ums.infrastructure.sql;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Counts the SQL statements executed by the current thread between {@link #start()} and {@link Counter#close()}.
+ * Counters can be nested; a statement is counted by every open counter of the thread. The statements are reported by
+ * the {@link SqlStatementCountingInspector}, so only the statements executed through Hibernate are counted.
+ */
+public final class SqlStatementCounter {
+    private static final ThreadLocal<Counter> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    public static Counter start() {
+        final Counter counter = new Counter(CURRENT.get());
+        CURRENT.set(counter);
+        return counter;
+    }
+
+    static void record(String sql) {
+        for (Counter counter = CURRENT.get(); counter != null; counter = counter.parent) {
+            counter.record(sql);
+        }
+    }
+
+    public static final class Counter implements AutoCloseable {
+        private final Counter parent;
+        private final Map<String, Integer> countsBySql = new HashMap<>();
+        private int count;
+
+        private Counter(Counter parent) {
+            this.parent = parent;
+        }
+
+        private void record(String sql) {
+            count++;
+            countsBySql.merge(sql, 1, Integer::sum);
+        }
+
+        /**
+         * @return the number of SQL statements executed since the counter was started
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * @return the SQL statement that was executed the most times, if any
+         */
+        public Optional<Map.Entry<String, Integer>> getMostRepeatedStatement() {
+            return countsBySql.entrySet().stream().max(Map.Entry.comparingByValue());
+        }
+
+        /**
+         * Stops counting; the enclosing counter, if any, becomes the current counter again
+         */
+        @Override
+        public void close() {
+            if (parent == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(parent);
+            }
+        }
+    }
+}
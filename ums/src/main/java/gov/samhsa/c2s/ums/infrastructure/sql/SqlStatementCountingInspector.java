@@ -0,0 +1,16 @@
+package gov.samhsa.c2s.ums.infrastructure.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Reports each SQL statement prepared by Hibernate to the {@link SqlStatementCounter} of the current thread. It is
+ * configured with the 'hibernate.session_factory.statement_inspector' property, so Hibernate instantiates it.
+ */
+public class SqlStatementCountingInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        SqlStatementCounter.record(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,117 @@
+package gov.samhsa.c2s.ums.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The difference between the existing elements of a collection and the requested elements, matched by a key.
+ * <p>
+ * An existing element is removed when no requested element has its key, and a requested element is added when no
+ * existing element has its key; requested elements with the key of an existing element are matched to the first
+ * existing element with that key. The difference is computed in linear time using hash lookups.
+ *
+ * @param <E> the type of the existing elements
+ * @param <R> the type of the requested elements
+ */
+public final class CollectionDiff<E, R> {
+    private final List<E> removed;
+    private final List<R> added;
+    private final List<Match<E, R>> matched;
+
+    private CollectionDiff(List<E> removed, List<R> added, List<Match<E, R>> matched) {
+        this.removed = removed;
+        this.added = added;
+        this.matched = matched;
+    }
+
+    public static <E, R, K> CollectionDiff<E, R> of(Collection<E> existing, Function<? super E, K> existingKey,
+                                                  Collection<R> requested, Function<? super R, K> requestedKey) {
+        final Map<K, E> existingByKey = new HashMap<>();
+        for (E element : existing) {
+            existingByKey.putIfAbsent(existingKey.apply(element), element);
+        }
+        final Set<K> requestedKeys = new HashSet<>();
+        final List<R> added = new ArrayList<>();
+        final List<Match<E, R>> matched = new ArrayList<>();
+        for (R element : requested) {
+            final K key = requestedKey.apply(element);
+            requestedKeys.add(key);
+            final E existingElement = existingByKey.get(key);
+            if (existingElement == null) {
+                added.add(element);
+            } else {
+                matched.add(new Match<>(existingElement, element));
+            }
+        }
+        final List<E> removed = new ArrayList<>();
+        for (E element : existing) {
+            if (!requestedKeys.contains(existingKey.apply(element))) {
+                removed.add(element);
+            }
+        }
+        return new CollectionDiff<>(removed, added, matched);
+    }
+
+    /**
+     * Builds a key from the given components, so that keys with equal components are equal. Enum components are
+     * normalized to their names, so an entity key equals the key of a DTO that holds the enum name as a string.
+     */
+    public static List<Object> key(Object... components) {
+        final Object[] normalizedComponents = new Object[components.length];
+        for (int i = 0; i < components.length; i++) {
+            normalizedComponents[i] = components[i] instanceof Enum ? ((Enum<?>) components[i]).name() : components[i];
+        }
+        return Collections.unmodifiableList(Arrays.asList(normalizedComponents));
+    }
+
+    /**
+     * @return the existing elements whose key is not requested
+     */
+    public List<E> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * @return the requested elements whose key does not exist
+     */
+    public List<R> getAdded() {
+        return added;
+    }
+
+    /**
+     * @return the requested elements whose key exists, with the existing element they match
+     */
+    public List<Match<E, R>> getMatched() {
+        return matched;
+    }
+
+    public boolean isEmpty() {
+        return removed.isEmpty() && added.isEmpty();
+    }
+
+    public static final class Match<E, R> {
+        private final E existing;
+        private final R requested;
+
+        private Match(E existing, R requested) {
+            this.existing = existing;
+            this.requested = requested;
+        }
+
+        public E getExisting() {
+            return existing;
+        }
+
+        public R getRequested() {
+            return requested;
+        }
+    }
+}
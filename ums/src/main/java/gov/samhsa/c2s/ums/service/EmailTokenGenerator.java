@@ -1,5 +1,7 @@
 package gov.samhsa.c2s.ums.service;
 
+import java.time.Instant;
+
 public interface EmailTokenGenerator {
-    String generateEmailToken();
+    String generateEmailToken(Long userId, Instant expiration);
 }
\ No newline at end of file
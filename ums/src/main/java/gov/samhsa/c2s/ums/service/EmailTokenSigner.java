@@ -0,0 +1,14 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.service.dto.SignedEmailTokenDto;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface EmailTokenSigner {
+    String sign(Long userId, Instant expiration);
+
+    boolean isSigned(String emailToken);
+
+    Optional<SignedEmailTokenDto> verify(String emailToken);
+}
@@ -0,0 +1,121 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.service.dto.SignedEmailTokenDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Signs email tokens with HMAC-SHA256, so the validity and expiration of a token can be checked without a database
+ * lookup.
+ * <p>
+ * A signed token has the form {@code v1.<userId>.<expirationEpochSeconds>.<nonce>.<signature>}. The random nonce makes
+ * every token unique, so no uniqueness check against the stored tokens is needed. Tokens without the version prefix
+ * are opaque tokens generated before tokens were signed.
+ */
+@Service
+@Slf4j
+public class EmailTokenSignerImpl implements EmailTokenSigner {
+    private static final String SIGNED_TOKEN_VERSION = "v1";
+    private static final String SEPARATOR = ".";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int SIGNED_TOKEN_PARTS = 5;
+    // The nonce alphabet is fixed, so a configured token alphabet can never contain the separator
+    private static final String NONCE_ALPHABET = "0123456789abcdefghijklmnopqrstuv";
+    private static final int NONCE_LENGTH = 26;
+    // The signing key that used to be the default in application.yml, and that is therefore known
+    private static final String PLACEHOLDER_SIGNING_KEY = "change-me";
+    private static final int MIN_SIGNING_KEY_LENGTH = 32;
+
+    private final TokenGenerator tokenGenerator;
+    private final SecretKeySpec signingKey;
+    private final ThreadLocal<Mac> mac;
+
+    @Autowired
+    public EmailTokenSignerImpl(UmsProperties umsProperties, TokenGenerator tokenGenerator) {
+        this.tokenGenerator = tokenGenerator;
+        final String emailTokenSigningKey = umsProperties.getTokens().getEmailTokenSigningKey();
+        // Anyone who knows the key can forge email tokens, so a missing, known or short key fails the startup
+        if (emailTokenSigningKey == null || emailTokenSigningKey.trim().length() < MIN_SIGNING_KEY_LENGTH ||
+                emailTokenSigningKey.contains(PLACEHOLDER_SIGNING_KEY)) {
+            throw new IllegalStateException("c2s.ums.tokens.email-token-signing-key must be configured with a random value of at least " +
+                    MIN_SIGNING_KEY_LENGTH + " characters");
+        }
+        this.signingKey = new SecretKeySpec(emailTokenSigningKey.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.mac = ThreadLocal.withInitial(this::createMac);
+    }
+
+    @Override
+    public String sign(Long userId, Instant expiration) {
+        String payload = SIGNED_TOKEN_VERSION + SEPARATOR + userId + SEPARATOR + expiration.getEpochSecond() +
+                SEPARATOR + tokenGenerator.generateToken(NONCE_ALPHABET, NONCE_LENGTH);
+        return payload + SEPARATOR + signatureOf(payload);
+    }
+
+    @Override
+    public boolean isSigned(String emailToken) {
+        return emailToken != null && emailToken.startsWith(SIGNED_TOKEN_VERSION + SEPARATOR);
+    }
+
+    /**
+     * Verify the signature of an email token and read its claims
+     *
+     * @param emailToken - the email token
+     * @return the claims of the token, or empty if the token is not a signed token or its signature does not match
+     */
+    @Override
+    public Optional<SignedEmailTokenDto> verify(String emailToken) {
+        if (!isSigned(emailToken)) {
+            return Optional.empty();
+        }
+
+        String[] parts = emailToken.split("\\.");
+        if (parts.length != SIGNED_TOKEN_PARTS) {
+            return Optional.empty();
+        }
+
+        String payload = emailToken.substring(0, emailToken.lastIndexOf(SEPARATOR));
+        byte[] expectedSignature = signatureOf(payload).getBytes(StandardCharsets.US_ASCII);
+        byte[] actualSignature = parts[SIGNED_TOKEN_PARTS - 1].getBytes(StandardCharsets.US_ASCII);
+        // Constant time comparison, so the response time does not reveal how much of a forged signature matches
+        if (!MessageDigest.isEqual(expectedSignature, actualSignature)) {
+            log.debug("Email token signature does not match");
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(SignedEmailTokenDto.builder()
+                    .userId(Long.valueOf(parts[1]))
+                    .expiration(Instant.ofEpochSecond(Long.parseLong(parts[2])))
+                    .build());
+        } catch (NumberFormatException e) {
+            log.warn("Email token with a valid signature has malformed claims", e);
+            return Optional.empty();
+        }
+    }
+
+    private String signatureOf(String payload) {
+        byte[] signature = mac.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    private Mac createMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize email token signature algorithm: " + HMAC_ALGORITHM, e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.domain.FhirPublication;
+import gov.samhsa.c2s.ums.service.dto.FhirBackfillJobDto;
+
+/**
+ * Publishes all patients to FIS in the background, for example when FIS is rebuilt or FHIR publishing is enabled for
+ * an existing deployment. The job runs on the instance that starts it, and manages its own transactions so that no
+ * transaction is held while FIS is called. Only one job runs at a time across all instances.
+ */
+public interface FhirBackfillService {
+
+    /**
+     * Starts the backfill job, or resumes the last job from its checkpoint if it did not complete. Refused while a job
+     * runs on any instance, or while FHIR publishing is disabled.
+     *
+     * @param restart   if true, a new job is started even if the last job did not complete
+     * @param operation the FIS operation of a new job
+     */
+    FhirBackfillJobDto start(boolean restart, FhirPublication.Operation operation);
+
+    /**
+     * Stops the running job after its current chunk, so it can be resumed from the checkpoint
+     */
+    FhirBackfillJobDto stop();
+
+    /**
+     * @return the progress of the last job, with the throughput and ETA while it runs
+     */
+    FhirBackfillJobDto getStatus();
+}
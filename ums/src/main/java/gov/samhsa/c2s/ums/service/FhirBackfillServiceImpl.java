@@ -0,0 +1,312 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.domain.FhirBackfillJob;
+import gov.samhsa.c2s.ums.domain.FhirBackfillJobRepository;
+import gov.samhsa.c2s.ums.domain.FhirPublication;
+import gov.samhsa.c2s.ums.domain.PatientRepository;
+import gov.samhsa.c2s.ums.infrastructure.FisClient;
+import gov.samhsa.c2s.ums.service.dto.FhirBackfillJobDto;
+import gov.samhsa.c2s.ums.service.dto.UserDto;
+import gov.samhsa.c2s.ums.service.exception.FhirBackfillAlreadyRunningException;
+import gov.samhsa.c2s.ums.service.exception.FhirBackfillJobNotFoundException;
+import gov.samhsa.c2s.ums.service.exception.FhirPublishingDisabledException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Reads the patients in chunks with the patient id as a cursor, and pushes each chunk to FIS in parallel on a fixed pool
+ * of as many threads as the configured concurrency, at the configured rate. The users are loaded by the parallel tasks, each in its own
+ * transaction, because a persistence context must not be shared between threads. The job is checkpointed after each
+ * chunk, so a stopped, failed or interrupted job is resumed after its last complete chunk. A patient that cannot be
+ * pushed is enqueued to the FHIR publication outbox, which retries it.
+ * <p>
+ * The last job is leased in the database when it is started, and the lease is renewed by each checkpoint, so a second
+ * instance cannot start a backfill while one runs. The lease of a job whose instance died expires, and the job can
+ * then be resumed by another instance. A chunk must take well less than the lease at the configured rate, so a
+ * configuration whose chunk would outlast half of the lease fails the startup.
+ */
+@Service
+@Slf4j
+public class FhirBackfillServiceImpl implements FhirBackfillService, DisposableBean {
+    private final FhirBackfillJobRepository fhirBackfillJobRepository;
+    private final PatientRepository patientRepository;
+    private final FhirPublicationService fhirPublicationService;
+    private final FisClient fisClient;
+    private final UmsProperties umsProperties;
+    private final UmsProperties.Fhir.Backfill backfill;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ExecutorService jobExecutor;
+    private volatile RunningJob runningJob;
+
+    @Autowired
+    public FhirBackfillServiceImpl(FhirBackfillJobRepository fhirBackfillJobRepository,
+                                   PatientRepository patientRepository,
+                                   FhirPublicationService fhirPublicationService,
+                                   FisClient fisClient,
+                                   UmsProperties umsProperties,
+                                   PlatformTransactionManager transactionManager) {
+        this.fhirBackfillJobRepository = fhirBackfillJobRepository;
+        this.patientRepository = patientRepository;
+        this.fhirPublicationService = fhirPublicationService;
+        this.fisClient = fisClient;
+        this.umsProperties = umsProperties;
+        this.backfill = umsProperties.getFhir().getBackfill();
+        // The lease is renewed only by the checkpoint after each chunk, so it must not expire while a chunk is pushed
+        final long chunkMillis = (long) Math.ceil(backfill.getChunkSize() * 1000 / backfill.getMaxRequestsPerSecond());
+        if (chunkMillis > backfill.getLeaseMillis() / 2) {
+            throw new IllegalStateException("c2s.ums.fhir.backfill.lease-millis (" + backfill.getLeaseMillis() +
+                    ") must be at least twice the " + chunkMillis + " milliseconds that a chunk of " + backfill.getChunkSize() +
+                    " patients takes at " + backfill.getMaxRequestsPerSecond() + " requests per second");
+        }
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "fhir-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public synchronized FhirBackfillJobDto start(boolean restart, FhirPublication.Operation operation) {
+        if (!umsProperties.getFhir().getPublish().isEnabled()) {
+            throw new FhirPublishingDisabledException("FHIR publishing is disabled, so no FHIR backfill job can be started");
+        }
+        if (runningJob != null) {
+            throw new FhirBackfillAlreadyRunningException("FHIR backfill job " + runningJob.job.getId() + " is already running");
+        }
+        final String leaseOwner = UUID.randomUUID().toString();
+        final FhirBackfillJob job = transactionTemplate.execute(status -> {
+            final Optional<FhirBackfillJob> lastJob = fhirBackfillJobRepository.findTopByOrderByIdDesc();
+            // Leasing the last job first serializes concurrent starts, also of a new job that replaces the last job
+            if (lastJob.isPresent() && fhirBackfillJobRepository.lease(lastJob.get().getId(), leaseOwner, backfill.getLeaseMillis()) == 0) {
+                throw new FhirBackfillAlreadyRunningException("FHIR backfill job " + lastJob.get().getId() + " is already running on another instance");
+            }
+            final Optional<FhirBackfillJob> resumedJob = lastJob
+                    .filter(previousJob -> !restart && previousJob.getStatus() != FhirBackfillJob.Status.COMPLETED);
+            final FhirBackfillJob resumedOrNewJob = resumedJob.orElseGet(() -> newJob(operation));
+            resumedOrNewJob.setStatus(FhirBackfillJob.Status.RUNNING);
+            resumedOrNewJob.setLastUpdatedDate(new Date());
+            final FhirBackfillJob savedJob = fhirBackfillJobRepository.save(resumedOrNewJob);
+            if (!resumedJob.isPresent()) {
+                // The new job is the last job now, so its lease is what keeps other instances from starting
+                fhirBackfillJobRepository.lease(savedJob.getId(), leaseOwner, backfill.getLeaseMillis());
+            }
+            return savedJob;
+        });
+        log.info("Starting FHIR backfill job " + job.getId() + " after patient " + job.getLastPatientId());
+        final RunningJob newRunningJob = new RunningJob(job, leaseOwner, new PermitRateLimiter(backfill.getMaxRequestsPerSecond()));
+        runningJob = newRunningJob;
+        jobExecutor.execute(() -> run(newRunningJob));
+        return toDto(newRunningJob);
+    }
+
+    @Override
+    public FhirBackfillJobDto stop() {
+        final RunningJob job = runningJob;
+        if (job == null) {
+            throw new FhirBackfillJobNotFoundException("No FHIR backfill job is running");
+        }
+        job.stopRequested = true;
+        return toDto(job);
+    }
+
+    @Override
+    public FhirBackfillJobDto getStatus() {
+        final RunningJob job = runningJob;
+        if (job != null) {
+            return toDto(job);
+        }
+        return readOnlyTransactionTemplate.execute(status -> fhirBackfillJobRepository.findTopByOrderByIdDesc())
+                .map(this::toDto)
+                .orElseThrow(() -> new FhirBackfillJobNotFoundException("No FHIR backfill job has been started"));
+    }
+
+    @Override
+    public void destroy() {
+        // The interrupted job is checkpointed STOPPED and is resumed from its last checkpoint when it is started again
+        Optional.ofNullable(runningJob).ifPresent(job -> job.stopRequested = true);
+        jobExecutor.shutdownNow();
+    }
+
+    void run(RunningJob job) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ExecutorService pushExecutor = Executors.newFixedThreadPool(backfill.getConcurrency(), runnable -> {
+            final Thread thread = new Thread(runnable, "fhir-backfill-push-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long lastPatientId = job.job.getLastPatientId();
+        FhirBackfillJob.Status finalStatus = FhirBackfillJob.Status.FAILED;
+        try {
+            List<Object[]> chunk;
+            do {
+                final long cursor = lastPatientId;
+                chunk = readOnlyTransactionTemplate.execute(status ->
+                        patientRepository.findPatientAndUserIdsAfter(cursor, new PageRequest(0, backfill.getChunkSize())));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                final List<Callable<Void>> pushes = chunk.stream()
+                        .map(row -> (Long) row[1])
+                        .map(userId -> (Callable<Void>) () -> {
+                            push(job, userId);
+                            return null;
+                        })
+                        .collect(toList());
+                for (Future<Void> pushed : pushExecutor.invokeAll(pushes)) {
+                    pushed.get();
+                }
+                lastPatientId = (Long) chunk.get(chunk.size() - 1)[0];
+                checkpoint(job, lastPatientId, FhirBackfillJob.Status.RUNNING);
+            } while (chunk.size() == backfill.getChunkSize() && !job.stopRequested);
+            finalStatus = chunk.size() < backfill.getChunkSize() ? FhirBackfillJob.Status.COMPLETED : FhirBackfillJob.Status.STOPPED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finalStatus = FhirBackfillJob.Status.STOPPED;
+        } catch (ExecutionException | RuntimeException e) {
+            log.error("FHIR backfill job " + job.job.getId() + " failed after patient " + lastPatientId, e);
+        } finally {
+            pushExecutor.shutdownNow();
+            try {
+                checkpoint(job, lastPatientId, finalStatus);
+                log.info("FHIR backfill job " + job.job.getId() + " is " + finalStatus + " after " + job.processedCount.get()
+                        + " patients, " + job.failedCount.get() + " of them enqueued for retry");
+            } catch (RuntimeException e) {
+                log.error("Unable to record the status of FHIR backfill job " + job.job.getId(), e);
+            } finally {
+                releaseLease(job);
+                runningJob = null;
+            }
+        }
+    }
+
+    private void push(RunningJob job, Long userId) {
+        try {
+            final Optional<UserDto> userDto = fhirPublicationService.getPatientUser(userId);
+            if (userDto.isPresent()) {
+                job.rateLimiter.acquire();
+                if (job.job.getOperation() == FhirPublication.Operation.PUBLISH) {
+                    fisClient.publishFhirPatient(userDto.get());
+                } else {
+                    fisClient.updateFhirPatient(userDto.get());
+                }
+            }
+        } catch (RuntimeException e) {
+            job.failedCount.incrementAndGet();
+            log.warn("Unable to push the FHIR patient of user " + userId + " to FIS, enqueuing it for retry", e);
+            try {
+                transactionTemplate.execute(status -> {
+                    fhirPublicationService.enqueue(userId, job.job.getOperation());
+                    return null;
+                });
+            } catch (RuntimeException enqueueException) {
+                log.error("Unable to enqueue the FHIR patient of user " + userId + " for retry", enqueueException);
+            }
+        } finally {
+            job.processedCount.incrementAndGet();
+        }
+    }
+
+    private void checkpoint(RunningJob job, long lastPatientId, FhirBackfillJob.Status status) {
+        job.job = transactionTemplate.execute(transactionStatus -> {
+            if (fhirBackfillJobRepository.renewLease(job.job.getId(), job.leaseOwner, backfill.getLeaseMillis()) == 0) {
+                throw new IllegalStateException("The lease of FHIR backfill job " + job.job.getId() + " expired and the job was started by another instance");
+            }
+            final FhirBackfillJob fhirBackfillJob = fhirBackfillJobRepository.findOne(job.job.getId());
+            fhirBackfillJob.setLastPatientId(lastPatientId);
+            fhirBackfillJob.setProcessedCount(job.processedCount.get());
+            fhirBackfillJob.setFailedCount(job.failedCount.get());
+            fhirBackfillJob.setStatus(status);
+            fhirBackfillJob.setLastUpdatedDate(new Date());
+            return fhirBackfillJobRepository.save(fhirBackfillJob);
+        });
+    }
+
+    private void releaseLease(RunningJob job) {
+        try {
+            transactionTemplate.execute(status -> fhirBackfillJobRepository.releaseLease(job.leaseOwner));
+        } catch (RuntimeException e) {
+            log.error("Unable to release the lease of FHIR backfill job " + job.job.getId() + ", it can be started again when the lease expires", e);
+        }
+    }
+
+    private FhirBackfillJob newJob(FhirPublication.Operation operation) {
+        final FhirBackfillJob job = new FhirBackfillJob();
+        job.setOperation(operation);
+        job.setTotalCount(patientRepository.count());
+        job.setStartedDate(new Date());
+        return job;
+    }
+
+    private FhirBackfillJobDto toDto(FhirBackfillJob job) {
+        return FhirBackfillJobDto.builder()
+                .id(job.getId())
+                .operation(job.getOperation().name())
+                .status(job.getStatus().name())
+                .lastPatientId(job.getLastPatientId())
+                .totalCount(job.getTotalCount())
+                .processedCount(job.getProcessedCount())
+                .failedCount(job.getFailedCount())
+                .startedDate(job.getStartedDate())
+                .lastUpdatedDate(job.getLastUpdatedDate())
+                .build();
+    }
+
+    private FhirBackfillJobDto toDto(RunningJob job) {
+        final FhirBackfillJobDto dto = toDto(job.job);
+        final long processedCount = job.processedCount.get();
+        dto.setProcessedCount(processedCount);
+        dto.setFailedCount(job.failedCount.get());
+        final double elapsedSeconds = (System.nanoTime() - job.startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        final double throughputPerSecond = elapsedSeconds > 0 ? (processedCount - job.processedCountAtStart) / elapsedSeconds : 0;
+        dto.setThroughputPerSecond(throughputPerSecond);
+        if (throughputPerSecond > 0) {
+            dto.setEtaSeconds((long) Math.ceil(Math.max(0, job.job.getTotalCount() - processedCount) / throughputPerSecond));
+        }
+        return dto;
+    }
+
+    static class RunningJob {
+        private volatile FhirBackfillJob job;
+        private final String leaseOwner;
+        private final PermitRateLimiter rateLimiter;
+        private final AtomicLong processedCount;
+        private final AtomicLong failedCount;
+        private final long processedCountAtStart;
+        private final long startNanos = System.nanoTime();
+        private volatile boolean stopRequested;
+
+        RunningJob(FhirBackfillJob job, String leaseOwner, PermitRateLimiter rateLimiter) {
+            this.job = job;
+            this.leaseOwner = leaseOwner;
+            this.rateLimiter = rateLimiter;
+            this.processedCount = new AtomicLong(job.getProcessedCount());
+            this.failedCount = new AtomicLong(job.getFailedCount());
+            this.processedCountAtStart = job.getProcessedCount();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.domain.FhirPublication;
+import gov.samhsa.c2s.ums.infrastructure.FisClient;
+import gov.samhsa.c2s.ums.service.dto.UserDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Periodically delivers the due FHIR patient publications to FIS, in batches with a bounded number of concurrent
+ * deliveries. FIS has no batch endpoint, so each patient of a batch is a separate request. A failed delivery is retried
+ * with an exponential backoff by {@link FhirPublicationService#markFailed}.
+ */
+@Component
+@ConditionalOnProperty(name = "c2s.ums.fhir.publish.enabled", havingValue = "true")
+@Slf4j
+public class FhirPublicationDispatcher implements InitializingBean, DisposableBean {
+    private final FhirPublicationService fhirPublicationService;
+    private final FisClient fisClient;
+    private final UmsProperties.Fhir.Outbox outbox;
+    private ScheduledExecutorService scheduler;
+    private ExecutorService deliveryExecutor;
+
+    @Autowired
+    public FhirPublicationDispatcher(FhirPublicationService fhirPublicationService, FisClient fisClient, UmsProperties umsProperties) {
+        this.fhirPublicationService = fhirPublicationService;
+        this.fisClient = fisClient;
+        this.outbox = umsProperties.getFhir().getOutbox();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "fhir-publication-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final AtomicInteger threadNumber = new AtomicInteger();
+        deliveryExecutor = Executors.newFixedThreadPool(outbox.getConcurrency(), runnable -> {
+            final Thread thread = new Thread(runnable, "fhir-publication-delivery-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::dispatch, outbox.getPollIntervalMillis(), outbox.getPollIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        deliveryExecutor.shutdownNow();
+    }
+
+    /**
+     * Delivers batches until no full batch is due
+     */
+    void dispatch() {
+        try {
+            List<FhirPublication> batch;
+            do {
+                batch = fhirPublicationService.lease(outbox.getBatchSize(), outbox.getLeaseMillis());
+                final List<Callable<Void>> deliveries = batch.stream()
+                        .map(publication -> (Callable<Void>) () -> {
+                            deliver(publication);
+                            return null;
+                        })
+                        .collect(toList());
+                deliveryExecutor.invokeAll(deliveries);
+            } while (batch.size() == outbox.getBatchSize() && !Thread.currentThread().isInterrupted());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // The leased publications are leased again when the lease expires
+            log.error("Unable to dispatch FHIR patient publications", e);
+        }
+    }
+
+    void deliver(FhirPublication publication) {
+        try {
+            final Optional<UserDto> userDto = fhirPublicationService.getPatientUser(publication.getUserId());
+            if (!userDto.isPresent()) {
+                fhirPublicationService.discard(publication);
+                return;
+            }
+            if (publication.getOperation() == FhirPublication.Operation.PUBLISH) {
+                fisClient.publishFhirPatient(userDto.get());
+            } else {
+                fisClient.updateFhirPatient(userDto.get());
+            }
+            fhirPublicationService.markDelivered(publication);
+        } catch (RuntimeException e) {
+            log.warn("Unable to deliver FHIR patient publication of user " + publication.getUserId() + ", attempt " + (publication.getAttempts() + 1), e);
+            try {
+                fhirPublicationService.markFailed(publication, e);
+            } catch (RuntimeException markFailedException) {
+                log.error("Unable to record the failed FHIR patient publication of user " + publication.getUserId(), markFailedException);
+            }
+        }
+    }
+}
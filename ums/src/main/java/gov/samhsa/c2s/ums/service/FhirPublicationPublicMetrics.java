@@ -0,0 +1,40 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.service.dto.FhirPublicationStatisticsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Exposes the FHIR patient publication outbox statistics, including the delivery lag, on the actuator metrics endpoint.
+ */
+@Component
+public class FhirPublicationPublicMetrics implements PublicMetrics {
+    private static final String PREFIX = "gauge.ums.fhir.outbox.";
+
+    private final FhirPublicationService fhirPublicationService;
+
+    @Autowired
+    public FhirPublicationPublicMetrics(FhirPublicationService fhirPublicationService) {
+        this.fhirPublicationService = fhirPublicationService;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        FhirPublicationStatisticsDto statistics = fhirPublicationService.getStatistics();
+        List<Metric<?>> metrics = new ArrayList<>();
+        metrics.add(new Metric<>(PREFIX + "pending", statistics.getPendingCount()));
+        metrics.add(new Metric<>(PREFIX + "dead", statistics.getDeadCount()));
+        metrics.add(new Metric<>(PREFIX + "lag-seconds", statistics.getOldestPendingAgeSeconds()));
+        metrics.add(new Metric<>(PREFIX + "enqueued", statistics.getEnqueuedCount()));
+        metrics.add(new Metric<>(PREFIX + "merged", statistics.getMergedCount()));
+        metrics.add(new Metric<>(PREFIX + "delivered", statistics.getDeliveredCount()));
+        metrics.add(new Metric<>(PREFIX + "failed", statistics.getFailedCount()));
+        return metrics;
+    }
+}
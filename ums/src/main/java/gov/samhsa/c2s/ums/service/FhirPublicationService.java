@@ -0,0 +1,54 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.domain.FhirPublication;
+import gov.samhsa.c2s.ums.service.dto.FhirPublicationReplayDto;
+import gov.samhsa.c2s.ums.service.dto.FhirPublicationStatisticsDto;
+import gov.samhsa.c2s.ums.service.dto.UserDto;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The outbox of FHIR patient publications to FIS. Publications are added in the transaction that changes the user, and
+ * delivered after the transaction by {@link FhirPublicationDispatcher}.
+ */
+public interface FhirPublicationService {
+
+    /**
+     * Adds a publication of the latest state of the user, merged with the pending publication of the user if any
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    void enqueue(Long userId, FhirPublication.Operation operation);
+
+    /**
+     * Leases the due publications for delivery by the caller
+     */
+    @Transactional
+    List<FhirPublication> lease(int maxCount, long leaseMillis);
+
+    /**
+     * @return the latest state of the user to publish, or empty if the user is not a patient
+     */
+    @Transactional
+    Optional<UserDto> getPatientUser(Long userId);
+
+    @Transactional
+    void markDelivered(FhirPublication publication);
+
+    @Transactional
+    void markFailed(FhirPublication publication, Exception cause);
+
+    @Transactional
+    void discard(FhirPublication publication);
+
+    /**
+     * Delivers the given users again, or all dead publications if no users are given
+     */
+    @Transactional
+    FhirPublicationReplayDto replay(Optional<List<Long>> userIds);
+
+    @Transactional(readOnly = true)
+    FhirPublicationStatisticsDto getStatistics();
+}
@@ -0,0 +1,124 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.domain.Demographics;
+import gov.samhsa.c2s.ums.domain.FhirPublication;
+import gov.samhsa.c2s.ums.domain.FhirPublicationRepository;
+import gov.samhsa.c2s.ums.domain.User;
+import gov.samhsa.c2s.ums.domain.UserRepository;
+import gov.samhsa.c2s.ums.service.dto.FhirPublicationReplayDto;
+import gov.samhsa.c2s.ums.service.dto.FhirPublicationStatisticsDto;
+import gov.samhsa.c2s.ums.service.dto.UserDto;
+import lombok.extern.slf4j.Slf4j;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+public class FhirPublicationServiceImpl implements FhirPublicationService {
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int MERGED = 2;
+
+    private final FhirPublicationRepository fhirPublicationRepository;
+    private final UserRepository userRepository;
+    private final ModelMapper modelMapper;
+    private final UmsProperties.Fhir.Outbox outbox;
+
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong mergedCount = new AtomicLong();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    @Autowired
+    public FhirPublicationServiceImpl(FhirPublicationRepository fhirPublicationRepository, UserRepository userRepository,
+                                      ModelMapper modelMapper, UmsProperties umsProperties) {
+        this.fhirPublicationRepository = fhirPublicationRepository;
+        this.userRepository = userRepository;
+        this.modelMapper = modelMapper;
+        this.outbox = umsProperties.getFhir().getOutbox();
+    }
+
+    @Override
+    public void enqueue(Long userId, FhirPublication.Operation operation) {
+        final int result = fhirPublicationRepository.upsert(userId, operation.name());
+        enqueuedCount.incrementAndGet();
+        if (result == MERGED) {
+            mergedCount.incrementAndGet();
+        }
+    }
+
+    @Override
+    public List<FhirPublication> lease(int maxCount, long leaseMillis) {
+        final String leaseOwner = UUID.randomUUID().toString();
+        if (fhirPublicationRepository.lease(leaseOwner, leaseMillis, maxCount) == 0) {
+            return Collections.emptyList();
+        }
+        return fhirPublicationRepository.findAllByLeaseOwner(leaseOwner);
+    }
+
+    @Override
+    public Optional<UserDto> getPatientUser(Long userId) {
+        return Optional.ofNullable(userRepository.findOne(userId))
+                .filter(user -> Optional.of(user).map(User::getDemographics).map(Demographics::getPatient).isPresent())
+                .map(user -> modelMapper.map(user, UserDto.class));
+    }
+
+    @Override
+    public void markDelivered(FhirPublication publication) {
+        deliveredCount.incrementAndGet();
+        if (fhirPublicationRepository.deleteByIdAndRevision(publication.getId(), publication.getRevision()) == 0) {
+            // The user changed during the delivery, so its latest state is delivered again
+            fhirPublicationRepository.releaseAsUpdate(publication.getId());
+        }
+    }
+
+    @Override
+    public void markFailed(FhirPublication publication, Exception cause) {
+        failedCount.incrementAndGet();
+        final long backoffMillis = Math.min(outbox.getMaxBackoffMillis(),
+                outbox.getInitialBackoffMillis() << Math.min(publication.getAttempts(), 30));
+        final String lastError = Optional.ofNullable(cause.getMessage())
+                .map(message -> cause.getClass().getSimpleName() + ": " + message)
+                .orElseGet(() -> cause.getClass().getSimpleName());
+        fhirPublicationRepository.recordFailure(publication.getId(), outbox.getMaxAttempts(), backoffMillis,
+                lastError.length() > MAX_ERROR_LENGTH ? lastError.substring(0, MAX_ERROR_LENGTH) : lastError);
+        if (publication.getAttempts() + 1 >= outbox.getMaxAttempts()) {
+            log.error("FHIR patient publication of user " + publication.getUserId() + " failed " + outbox.getMaxAttempts() + " times and is dead until it is replayed");
+        }
+    }
+
+    @Override
+    public void discard(FhirPublication publication) {
+        log.info("Discarded FHIR patient publication of user " + publication.getUserId() + ", because the user is not a patient");
+        fhirPublicationRepository.deleteByIdAndRevision(publication.getId(), publication.getRevision());
+    }
+
+    @Override
+    public FhirPublicationReplayDto replay(Optional<List<Long>> userIds) {
+        if (userIds.isPresent()) {
+            userIds.get().forEach(userId -> enqueue(userId, FhirPublication.Operation.UPDATE));
+            return new FhirPublicationReplayDto(userIds.get().size());
+        }
+        return new FhirPublicationReplayDto(fhirPublicationRepository.replayDead());
+    }
+
+    @Override
+    public FhirPublicationStatisticsDto getStatistics() {
+        return FhirPublicationStatisticsDto.builder()
+                .pendingCount(fhirPublicationRepository.countByStatus(FhirPublication.Status.PENDING))
+                .deadCount(fhirPublicationRepository.countByStatus(FhirPublication.Status.DEAD))
+                .oldestPendingAgeSeconds(Optional.ofNullable(fhirPublicationRepository.findOldestPendingAgeSeconds()).orElse(0L))
+                .enqueuedCount(enqueuedCount.get())
+                .mergedCount(mergedCount.get())
+                .deliveredCount(deliveredCount.get())
+                .failedCount(failedCount.get())
+                .build();
+    }
+}
@@ -1,9 +1,12 @@
 package gov.samhsa.c2s.ums.service;
 
+import gov.samhsa.c2s.ums.service.dto.ImageHeaderDto;
 import gov.samhsa.c2s.ums.service.exception.checkedexceptions.NoImageReaderForFileTypeException;
 import org.springframework.stereotype.Service;
 
+import javax.imageio.stream.ImageInputStream;
 import java.awt.Dimension;
+import java.io.IOException;
 
 @Service
 public interface ImageProcessingService {
@@ -12,4 +15,14 @@ public interface ImageProcessingService {
     Long getImageFileSizeBytes(byte[] imageFileBytes);
 
     String getImageFileType(byte[] imageFileBytes, String fileExtension) throws NoImageReaderForFileTypeException;
+
+    byte[] getImageDataBytes(byte[] imageFileBytes);
+
+    String getImageMediaType(byte[] imageFileBytes, String fileExtension);
+
+    String getImageContentHash(byte[] imageDataBytes);
+
+    ImageHeaderDto getImageHeader(ImageInputStream imageInputStream) throws IOException;
+
+    byte[] resizeImage(byte[] imageDataBytes, String fileExtension, int sizePixels) throws IOException;
 }
@@ -1,22 +1,35 @@
 package gov.samhsa.c2s.ums.service;
 
+import gov.samhsa.c2s.ums.service.dto.ImageHeaderDto;
 import gov.samhsa.c2s.ums.service.exception.checkedexceptions.NoImageReaderForFileTypeException;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 
 import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
+import javax.imageio.spi.ImageReaderSpi;
 import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.MemoryCacheImageInputStream;
 import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collections;
 import java.util.Iterator;
 
 @Service
 @Slf4j
 public class ImageProcessingServiceImpl implements ImageProcessingService {
+    private static final String DATA_URI_SCHEME = "data:";
+    private static final String DATA_URI_BASE64_MARKER = ";base64,";
+
     @Override
     public Dimension getImageDimension(byte[] imageFileBytes, String fileExtension) throws NoImageReaderForFileTypeException {
         Dimension imageDimension = null;
@@ -86,6 +99,147 @@ public String getImageFileType(byte[] imageFileBytes, String fileExtension) thro
         return imageFileType;
     }
 
+    @Override
+    public byte[] getImageDataBytes(byte[] imageFileBytes) {
+        return extractDataPartOfDataURI(imageFileBytes);
+    }
+
+    /**
+     * Determine the media type of an image stored as a base64 encoded Data URI
+     * <p>
+     * Uses the media type declared in the Data URI header when present, otherwise falls back to the first MIME type
+     * registered by an ImageReader for the given file extension
+     *
+     * @param imageFileBytes - the full Data URI of the image
+     * @param fileExtension  - the image file extension used when the Data URI does not declare a media type
+     * @return the media type of the image, or application/octet-stream if it cannot be determined
+     */
+    @Override
+    public String getImageMediaType(byte[] imageFileBytes, String fileExtension) {
+        String avatarFileBytesAsString = new String(imageFileBytes);
+        int indexOfBase64Marker = avatarFileBytesAsString.indexOf(DATA_URI_BASE64_MARKER);
+
+        if (avatarFileBytesAsString.startsWith(DATA_URI_SCHEME) && indexOfBase64Marker > DATA_URI_SCHEME.length()) {
+            return avatarFileBytesAsString.substring(DATA_URI_SCHEME.length(), indexOfBase64Marker);
+        }
+
+        Iterator<ImageReader> iter = ImageIO.getImageReadersBySuffix(fileExtension);
+        while (iter.hasNext()) {
+            String[] mimeTypes = iter.next().getOriginatingProvider().getMIMETypes();
+            if (mimeTypes != null && mimeTypes.length > 0) {
+                return mimeTypes[0];
+            }
+        }
+
+        log.warn("Unable to determine the media type of an image file with the following file extension: " + fileExtension);
+        return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+
+    /**
+     * Compute a content hash of the decoded image bytes
+     *
+     * @param imageDataBytes - the decoded image bytes (not the Data URI)
+     * @return the hex encoded SHA-256 digest of the image bytes
+     */
+    @Override
+    public String getImageContentHash(byte[] imageDataBytes) {
+        return DigestUtils.sha256Hex(imageDataBytes);
+    }
+
+    /**
+     * Determine the format and dimensions of an image from the leading header bytes of an image stream
+     * <p>
+     * The image format is detected from the image contents, not from a file extension. Only the bytes needed to
+     * decode the image header are read, and the stream is positioned back to its start before returning, so the
+     * caller can go on to read the whole image from the same stream.
+     *
+     * @param imageInputStream - a stream positioned at the start of the image file
+     * @return the format and dimensions of the image
+     * @throws NoImageReaderForFileTypeException if no ImageReader recognizes the image format
+     * @throws IOException                       if the image header cannot be read
+     */
+    @Override
+    public ImageHeaderDto getImageHeader(ImageInputStream imageInputStream) throws IOException {
+        Iterator<ImageReader> iter = ImageIO.getImageReaders(imageInputStream);
+        if (!iter.hasNext()) {
+            log.warn("No ImageReader compatible with the uploaded image could be found");
+            throw new NoImageReaderForFileTypeException("Not a known image file type");
+        }
+
+        ImageReader reader = iter.next();
+        try {
+            // Allow seeking backwards so the stream can be read again from its start once the header is known
+            reader.setInput(imageInputStream, false, true);
+            ImageReaderSpi readerSpi = reader.getOriginatingProvider();
+            String[] mimeTypes = readerSpi.getMIMETypes();
+            String[] fileSuffixes = readerSpi.getFileSuffixes();
+
+            return ImageHeaderDto.builder()
+                    .formatName(reader.getFormatName())
+                    .mediaType(mimeTypes != null && mimeTypes.length > 0 ? mimeTypes[0] : MediaType.APPLICATION_OCTET_STREAM_VALUE)
+                    .fileExtensions(fileSuffixes != null ? Arrays.asList(fileSuffixes) : Collections.emptyList())
+                    .widthPixels(reader.getWidth(reader.getMinIndex()))
+                    .heightPixels(reader.getHeight(reader.getMinIndex()))
+                    .build();
+        } finally {
+            reader.dispose();  // ImageReader must be disposed of in finally block because try-with-resources only works with classes that implement Closeable
+            imageInputStream.seek(0);
+        }
+    }
+
+    /**
+     * Scale an image down to a square rendition
+     * <p>
+     * Non-square images are center cropped to a square first, so the rendition is never distorted. The rendition is
+     * encoded in the same format as the original image.
+     *
+     * @param imageDataBytes - the decoded image bytes (not the Data URI)
+     * @param fileExtension  - the image file extension, used as the format name of the rendition
+     * @param sizePixels     - the width and height of the rendition in pixels
+     * @return the encoded image bytes of the rendition
+     * @throws IOException if the image cannot be decoded or no ImageWriter exists for the file extension
+     */
+    @Override
+    public byte[] resizeImage(byte[] imageDataBytes, String fileExtension, int sizePixels) throws IOException {
+        BufferedImage originalImage = ImageIO.read(new ByteArrayInputStream(imageDataBytes));
+        if (originalImage == null) {
+            log.error("No ImageReader could decode the image to resize with the following file extension: " + fileExtension);
+            throw new NoImageReaderForFileTypeException("Not a known image file extension: " + fileExtension);
+        }
+
+        int cropSize = Math.min(originalImage.getWidth(), originalImage.getHeight());
+        int cropX = (originalImage.getWidth() - cropSize) / 2;
+        int cropY = (originalImage.getHeight() - cropSize) / 2;
+
+        // JPEG cannot store an alpha channel, so only keep it for the formats that can
+        int imageType = originalImage.getColorModel().hasAlpha() && !isJpeg(fileExtension) ?
+                BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage resizedImage = new BufferedImage(sizePixels, sizePixels, imageType);
+        Graphics2D graphics = resizedImage.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.drawImage(originalImage,
+                    0, 0, sizePixels, sizePixels,
+                    cropX, cropY, cropX + cropSize, cropY + cropSize,
+                    null);
+        } finally {
+            graphics.dispose();
+        }
+
+        ByteArrayOutputStream resizedImageBytes = new ByteArrayOutputStream();
+        if (!ImageIO.write(resizedImage, fileExtension, resizedImageBytes)) {
+            log.error("No ImageWriter compatible with the following file extension type could be found: " + fileExtension);
+            throw new IOException("No image writer for file extension: " + fileExtension);
+        }
+        return resizedImageBytes.toByteArray();
+    }
+
+    private boolean isJpeg(String fileExtension) {
+        return "jpg".equalsIgnoreCase(fileExtension) || "jpeg".equalsIgnoreCase(fileExtension);
+    }
+
     /**
      * Extract only the data part of a base64 encoded Data URI represented as a byte[]
      * <p>
@@ -97,7 +251,7 @@ public String getImageFileType(byte[] imageFileBytes, String fileExtension) thro
     private byte[] extractDataPartOfDataURI(byte[] inDataURI) {
         // Extract only the image data part of the Data URI
         String avatarFileBytesAsString = new String(inDataURI);
-        int indexOfDataBytesStart = avatarFileBytesAsString.indexOf(";base64,") + 8;  // Add 8 to the returned index value to offset from the start of the ";base64," substring
+        int indexOfDataBytesStart = avatarFileBytesAsString.indexOf(DATA_URI_BASE64_MARKER) + 8;  // Add 8 to the returned index value to offset from the start of the ";base64," substring
         byte[] avatarFileProcessedBytes = avatarFileBytesAsString.substring(indexOfDataBytesStart).getBytes();
         return Base64.getDecoder().decode(avatarFileProcessedBytes);
     }
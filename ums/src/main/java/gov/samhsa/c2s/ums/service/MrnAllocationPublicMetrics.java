@@ -0,0 +1,41 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.service.dto.MrnAllocationStatisticsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Exposes the {@link MrnBlockAllocator} statistics on the actuator metrics endpoint.
+ */
+@Component
+public class MrnAllocationPublicMetrics implements PublicMetrics {
+    private static final String PREFIX = "gauge.ums.mrn.allocation.";
+
+    private final MrnBlockAllocator mrnBlockAllocator;
+
+    @Autowired
+    public MrnAllocationPublicMetrics(MrnBlockAllocator mrnBlockAllocator) {
+        this.mrnBlockAllocator = mrnBlockAllocator;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        MrnAllocationStatisticsDto statistics = mrnBlockAllocator.getStatistics();
+        List<Metric<?>> metrics = new ArrayList<>();
+        metrics.add(new Metric<>(PREFIX + "block-size", statistics.getBlockSize()));
+        metrics.add(new Metric<>(PREFIX + "blocks", statistics.getAllocatedBlockCount()));
+        metrics.add(new Metric<>(PREFIX + "mrns", statistics.getAllocatedMrnCount()));
+        metrics.add(new Metric<>(PREFIX + "current-block-remaining", statistics.getCurrentBlockRemaining()));
+        metrics.add(new Metric<>(PREFIX + "last-block-duration-millis", statistics.getLastBlockDurationMillis()));
+        metrics.add(new Metric<>(PREFIX + "rate-per-second", statistics.getAllocationRatePerSecond()));
+        metrics.add(new Metric<>(PREFIX + "sequence-capacity", statistics.getSequenceCapacity()));
+        metrics.add(new Metric<>(PREFIX + "sequence-used-ratio", statistics.getSequenceUsedRatio()));
+        return metrics;
+    }
+}
@@ -0,0 +1,9 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.service.dto.MrnAllocationStatisticsDto;
+
+public interface MrnBlockAllocator {
+    long nextValue();
+
+    MrnAllocationStatisticsDto getStatistics();
+}
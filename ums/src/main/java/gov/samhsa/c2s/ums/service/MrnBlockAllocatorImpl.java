@@ -0,0 +1,177 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.config.MrnSequenceDataSourceConfig;
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.service.dto.MrnAllocationStatisticsDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+
+/**
+ * Hands out unique MRN sequence values from blocks reserved in the identifier_sequence table.
+ * <p>
+ * Each block is reserved in its own transaction with a row lock, so every node gets disjoint blocks and a value is
+ * never handed out twice, without a lookup per MRN. Values of a reserved block that are not used before the node stops,
+ * or that belong to a rolled back registration, are skipped.
+ * <p>
+ * The blocks are reserved by a background thread on the dedicated connection of the
+ * {@link MrnSequenceDataSourceConfig#MRN_SEQUENCE_DATA_SOURCE} pool, and the next block is reserved once half
+ * of the current block is used. A registration that runs out of values waits for the reservation without holding a
+ * lock, and the reservation never needs a connection from the pool that the waiting registrations hold connections
+ * of, so a burst of registrations cannot exhaust the pool and deadlock on the reservation.
+ */
+@Service
+@Slf4j
+public class MrnBlockAllocatorImpl implements MrnBlockAllocator, DisposableBean {
+    static final String MRN_SEQUENCE_NAME = "MRN";
+
+    private final UmsProperties umsProperties;
+    private final LongSupplier blockReservation;
+    private final ExecutorService reservationExecutor;
+
+    private long nextValue;
+    private long blockEnd;
+    private CompletableFuture<Long> nextBlockStart;
+    private long blockStartedAt;
+    private long allocatedBlockCount;
+    private long allocatedMrnCount;
+    private long lastBlockDurationMillis;
+    private long sequenceNextValue;
+
+    @Autowired
+    public MrnBlockAllocatorImpl(UmsProperties umsProperties,
+                                 @Qualifier(MrnSequenceDataSourceConfig.MRN_SEQUENCE_DATA_SOURCE) DataSource sequenceDataSource) {
+        this(umsProperties, sequenceBlockReservation(umsProperties, sequenceDataSource));
+    }
+
+    /**
+     * @param blockReservation reserves the next block of the sequence and returns its first value
+     */
+    MrnBlockAllocatorImpl(UmsProperties umsProperties, LongSupplier blockReservation) {
+        this.umsProperties = umsProperties;
+        this.blockReservation = blockReservation;
+        this.reservationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "mrn-block-reservation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public long nextValue() {
+        while (true) {
+            final CompletableFuture<Long> reservation;
+            synchronized (this) {
+                if (nextValue < blockEnd) {
+                    if (nextBlockStart == null && blockEnd - nextValue <= umsProperties.getMrn().getBlockSize() / 2) {
+                        nextBlockStart = reserveBlock();
+                    }
+                    allocatedMrnCount++;
+                    return nextValue++;
+                }
+                if (nextBlockStart == null) {
+                    nextBlockStart = reserveBlock();
+                }
+                reservation = nextBlockStart;
+            }
+
+            final long blockStart;
+            try {
+                blockStart = reservation.join();
+            } catch (CompletionException e) {
+                synchronized (this) {
+                    // The next caller retries the reservation
+                    if (nextBlockStart == reservation) {
+                        nextBlockStart = null;
+                    }
+                }
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+
+            synchronized (this) {
+                // Only the first of the waiting callers starts the reserved block
+                if (nextBlockStart == reservation) {
+                    nextBlockStart = null;
+                    startBlock(blockStart);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized MrnAllocationStatisticsDto getStatistics() {
+        return MrnAllocationStatisticsDto.builder()
+                .blockSize(umsProperties.getMrn().getBlockSize())
+                .allocatedBlockCount(allocatedBlockCount)
+                .allocatedMrnCount(allocatedMrnCount)
+                .currentBlockRemaining(blockEnd - nextValue)
+                .lastBlockDurationMillis(lastBlockDurationMillis)
+                .sequenceCapacity(getSequenceCapacity())
+                .sequenceNextValue(sequenceNextValue)
+                .build();
+    }
+
+    @Override
+    public void destroy() {
+        reservationExecutor.shutdownNow();
+    }
+
+    private CompletableFuture<Long> reserveBlock() {
+        return CompletableFuture.supplyAsync(blockReservation::getAsLong, reservationExecutor);
+    }
+
+    private static LongSupplier sequenceBlockReservation(UmsProperties umsProperties, DataSource sequenceDataSource) {
+        final JdbcTemplate jdbcTemplate = new JdbcTemplate(sequenceDataSource);
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(sequenceDataSource));
+        return () -> transactionTemplate.execute(status -> {
+            final int blockSize = umsProperties.getMrn().getBlockSize();
+            final long sequenceCapacity = getSequenceCapacity(umsProperties);
+            final Long start = jdbcTemplate.queryForObject(
+                    "SELECT next_value FROM identifier_sequence WHERE name = ? FOR UPDATE", Long.class, MRN_SEQUENCE_NAME);
+            if (start >= sequenceCapacity) {
+                throw new IllegalStateException("All MRNs of length " + umsProperties.getMrn().getLength() + " are allocated; increase c2s.ums.mrn.length");
+            }
+            jdbcTemplate.update("UPDATE identifier_sequence SET next_value = ? WHERE name = ?",
+                    Math.min(start + blockSize, sequenceCapacity), MRN_SEQUENCE_NAME);
+            return start;
+        });
+    }
+
+    // Must be called while holding the lock of this allocator
+    private void startBlock(long blockStart) {
+        final long sequenceCapacity = getSequenceCapacity();
+        long now = System.currentTimeMillis();
+        if (allocatedBlockCount > 0) {
+            lastBlockDurationMillis = now - blockStartedAt;
+        }
+        blockStartedAt = now;
+        nextValue = blockStart;
+        blockEnd = Math.min(nextValue + umsProperties.getMrn().getBlockSize(), sequenceCapacity);
+        sequenceNextValue = blockEnd;
+        allocatedBlockCount++;
+
+        log.info("Reserved MRN block [" + nextValue + ", " + blockEnd + ") of " + sequenceCapacity +
+                "; the previous block was used up in " + lastBlockDurationMillis + " ms");
+    }
+
+    private long getSequenceCapacity() {
+        return getSequenceCapacity(umsProperties);
+    }
+
+    private static long getSequenceCapacity(UmsProperties umsProperties) {
+        return BigInteger.TEN.pow(umsProperties.getMrn().getLength()).longValueExact();
+    }
+}
@@ -2,27 +2,33 @@
 
 
 import gov.samhsa.c2s.ums.config.UmsProperties;
-import org.apache.commons.lang.RandomStringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.math.BigInteger;
+
 /**
  * The Class MrnServiceImpl.
  */
 @Service
 public class MrnServiceImpl implements MrnService {
 
+    // Multiplier of the scramble; it must have no common factor with 10, so the scramble is a bijection
+    private static final BigInteger SCRAMBLE_MULTIPLIER = BigInteger.valueOf(7_368_787L);
+    private static final BigInteger SCRAMBLE_OFFSET = BigInteger.valueOf(4_721_393L);
+
     private final UmsProperties umsProperties;
+    private final MrnBlockAllocator mrnBlockAllocator;
 
     @Autowired
-    public MrnServiceImpl(UmsProperties umsProperties) {
+    public MrnServiceImpl(UmsProperties umsProperties, MrnBlockAllocator mrnBlockAllocator) {
         this.umsProperties = umsProperties;
+        this.mrnBlockAllocator = mrnBlockAllocator;
     }
 
     @Override
     public String generateMrn() {
-        //TODO: Make sure the randomly generating MRN does not exist in UMS database
-        return generateRandomMrn();
+        return generateMrn(mrnBlockAllocator.nextValue());
     }
 
     @Override
@@ -31,19 +37,51 @@ public String getCodeSystem() {
     }
 
     /**
-     * Generate random mrn.
+     * Generate the MRN of a unique sequence value.
+     * <p>
+     * The sequence value is scrambled with a bijection, so consecutive MRNs do not look consecutive while distinct
+     * sequence values still always give distinct MRNs, and a Luhn check digit is appended to catch typing errors. The
+     * check digit makes these MRNs one character longer than the randomly generated MRNs issued before, so they never
+     * collide with them.
      *
-     * @return the string
+     * @param sequenceValue a sequence value in the range [0, 10^length)
+     * @return the MRN
      */
-    private String generateRandomMrn() {
-        //TODO:Based on Tao's comment, this method should be moved to domain of ums.
+    String generateMrn(long sequenceValue) {
+        int length = umsProperties.getMrn().getLength();
+        BigInteger capacity = BigInteger.TEN.pow(length);
+        String number = String.valueOf(BigInteger.valueOf(sequenceValue)
+                .multiply(SCRAMBLE_MULTIPLIER)
+                .add(SCRAMBLE_OFFSET)
+                .mod(capacity));
+
         StringBuilder localIdIdBuilder = new StringBuilder();
         if (null != umsProperties.getMrn().getPrefix()) {
             localIdIdBuilder.append(umsProperties.getMrn().getPrefix());
             localIdIdBuilder.append("-");
         }
-        localIdIdBuilder.append(RandomStringUtils
-                .randomAlphanumeric((umsProperties.getMrn().getLength())));
+        for (int i = number.length(); i < length; i++) {
+            localIdIdBuilder.append('0');
+        }
+        localIdIdBuilder.append(number);
+        localIdIdBuilder.append(luhnCheckDigit(localIdIdBuilder.substring(localIdIdBuilder.length() - length)));
         return localIdIdBuilder.toString().toUpperCase();
     }
-}
\ No newline at end of file
+
+    private char luhnCheckDigit(String digits) {
+        int sum = 0;
+        boolean doubleDigit = true;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int digit = digits.charAt(i) - '0';
+            if (doubleDigit) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubleDigit = !doubleDigit;
+        }
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+}
@@ -8,7 +8,6 @@
 import gov.samhsa.c2s.ums.domain.User;
 import gov.samhsa.c2s.ums.domain.UserPatientRelationship;
 import gov.samhsa.c2s.ums.domain.UserPatientRelationshipRepository;
-import gov.samhsa.c2s.ums.domain.UserRepository;
 import gov.samhsa.c2s.ums.service.dto.IdentifierSystemDto;
 import gov.samhsa.c2s.ums.service.dto.PatientDto;
 import gov.samhsa.c2s.ums.service.exception.PatientNotFoundException;
@@ -32,7 +31,7 @@ public class PatientServiceImpl implements PatientService {
     @Autowired
     private ModelMapper modelMapper;
     @Autowired
-    private UserRepository userRepository;
+    private UserAuthIdCache userAuthIdCache;
     @Autowired
     private UserPatientRelationshipRepository userPatientRelationshipRepository;
     @Autowired
@@ -48,7 +47,7 @@ public PatientDto getPatientByPatientId(String patientId, Optional<String> userA
 
         if (userAuthId.isPresent()) {
             //Validate if the given userAuthId has access to the given MRN/PatientID
-            final User user = userRepository.findByUserAuthIdAndDisabled(userAuthId.get(), false)
+            final User user = userAuthIdCache.findEnabledUser(userAuthId.get())
                     .orElseThrow(() -> new UserNotFoundException("User Not Found!"));
             List<UserPatientRelationship> userPatientRelationshipList = userPatientRelationshipRepository.findAllByIdUserIdAndIdPatientId(user.getId(), patient.getId());
 
@@ -78,7 +77,7 @@ public PatientDto getPatientByIdentifierValueAndIdentifierSystem(String identifi
     @Override
     @Transactional(readOnly = true)
     public List<PatientDto> getPatientByUserAuthId(String userAuthId) {
-        User user = userRepository.findByUserAuthIdAndDisabled(userAuthId, false).orElseThrow(() -> new UserNotFoundException("User Not Found!"));
+        User user = userAuthIdCache.findEnabledUser(userAuthId).orElseThrow(() -> new UserNotFoundException("User Not Found!"));
         List<UserPatientRelationship> userPatientRelationshipList = userPatientRelationshipRepository.findAllByIdUserId(user.getId());
         List<PatientDto> patientDtos = new ArrayList<>();
         userPatientRelationshipList.stream().forEach(userPatientRelationship -> {
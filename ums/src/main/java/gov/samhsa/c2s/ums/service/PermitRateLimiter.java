@@ -0,0 +1,33 @@
+package gov.samhsa.c2s.ums.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces permits evenly at a max rate. A caller that acquires a permit before its time waits until then.
+ */
+class PermitRateLimiter {
+    private final long intervalNanos;
+    private long nextPermitNanos;
+
+    PermitRateLimiter(double permitsPerSecond) {
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.nextPermitNanos = System.nanoTime();
+    }
+
+    void acquire() {
+        final long waitNanos;
+        synchronized (this) {
+            final long nowNanos = System.nanoTime();
+            final long permitNanos = Math.max(nowNanos, nextPermitNanos);
+            nextPermitNanos = permitNanos + intervalNanos;
+            waitNanos = permitNanos - nowNanos;
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
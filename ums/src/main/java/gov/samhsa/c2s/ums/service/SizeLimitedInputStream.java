@@ -0,0 +1,58 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.service.exception.checkedexceptions.AvatarFileSizeLimitExceededException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An InputStream that fails as soon as more than a maximum number of bytes is read from the underlying stream, so
+ * an oversized upload is rejected without reading the rest of it.
+ */
+class SizeLimitedInputStream extends FilterInputStream {
+    private final long maxSizeBytes;
+    private long readSizeBytes;
+
+    SizeLimitedInputStream(InputStream in, long maxSizeBytes) {
+        super(in);
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int result = super.read();
+        if (result != -1) {
+            count(1);
+        }
+        return result;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int result = super.read(b, off, len);
+        if (result > 0) {
+            count(result);
+        }
+        return result;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long result = super.skip(n);
+        count(result);
+        return result;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void count(long sizeBytes) throws AvatarFileSizeLimitExceededException {
+        readSizeBytes += sizeBytes;
+        if (readSizeBytes > maxSizeBytes) {
+            throw new AvatarFileSizeLimitExceededException("The input is larger than the allowed maximum size in bytes: " + maxSizeBytes);
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package gov.samhsa.c2s.ums.service;
 
+import java.util.UUID;
+
 public interface TokenGenerator {
     String generateToken();
 
     String generateToken(int maxLength);
-}
\ No newline at end of file
+
+    String generateToken(String alphabet, int length);
+
+    UUID generateUuid();
+}
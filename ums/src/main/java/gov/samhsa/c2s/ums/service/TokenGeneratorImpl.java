@@ -1,21 +1,143 @@
 package gov.samhsa.c2s.ums.service;
 
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
 
-import java.math.BigInteger;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.UUID;
 
+/**
+ * Generates random tokens from per-thread SecureRandom instances, so token generation neither seeds a new
+ * SecureRandom per call nor contends on a shared one.
+ */
 @Service
+@Slf4j
 public class TokenGeneratorImpl implements TokenGenerator {
+    private static final String DEFAULT_ALPHABET = "0123456789abcdefghijklmnopqrstuv";
+    private static final int DEFAULT_LENGTH = 26;
+    private static final int MAX_ALPHABET_LENGTH = 256;
+    private static final String THREAD_RANDOM_ALGORITHM = "SHA1PRNG";
+    private static final int THREAD_RANDOM_SEED_BYTES = 32;
+    private static final int RANDOM_BYTES_BUFFER_SIZE = 64;
+
+    // Only used to seed the per-thread generators, once per thread
+    private static final SecureRandom SEED_RANDOM = new SecureRandom();
+    private static final ThreadLocal<ThreadRandom> THREAD_RANDOM = ThreadLocal.withInitial(ThreadRandom::new);
+
+    private final char[] alphabet;
+    private final int length;
+
+    public TokenGeneratorImpl() {
+        this(DEFAULT_ALPHABET, DEFAULT_LENGTH);
+    }
+
+    @Autowired
+    public TokenGeneratorImpl(UmsProperties umsProperties) {
+        this(umsProperties.getTokens().getAlphabet(), umsProperties.getTokens().getLength());
+    }
+
+    private TokenGeneratorImpl(String alphabet, int length) {
+        assertAlphabetAllowed(alphabet);
+        this.alphabet = alphabet.toCharArray();
+        this.length = length;
+    }
+
     @Override
     public String generateToken() {
-        SecureRandom random = new SecureRandom();
-        return new BigInteger(130, random).toString(32);
+        return generateToken(alphabet, length);
     }
 
     @Override
     public String generateToken(int maxLength) {
-        final String token = generateToken();
-        return token.substring(0, Integer.min(token.length(), maxLength));
+        return generateToken(alphabet, Integer.min(length, maxLength));
+    }
+
+    @Override
+    public String generateToken(String alphabet, int length) {
+        assertAlphabetAllowed(alphabet);
+        return generateToken(alphabet.toCharArray(), length);
+    }
+
+    /**
+     * Generate a random (version 4) UUID from the per-thread generator instead of the shared generator used by
+     * {@link UUID#randomUUID()}
+     *
+     * @return a random UUID
+     */
+    @Override
+    public UUID generateUuid() {
+        ThreadRandom threadRandom = THREAD_RANDOM.get();
+        long mostSigBits = 0;
+        long leastSigBits = 0;
+        for (int i = 0; i < 8; i++) {
+            mostSigBits = (mostSigBits << 8) | threadRandom.nextByte();
+        }
+        for (int i = 0; i < 8; i++) {
+            leastSigBits = (leastSigBits << 8) | threadRandom.nextByte();
+        }
+        mostSigBits = (mostSigBits & 0xffffffffffff0fffL) | 0x0000000000004000L;  // version 4
+        leastSigBits = (leastSigBits & 0x3fffffffffffffffL) | 0x8000000000000000L;  // IETF variant
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private String generateToken(char[] alphabet, int length) {
+        // Mask each random byte down to the smallest power of two covering the alphabet, and reject out of range
+        // values, so every character of the alphabet is equally likely
+        int mask = (Integer.highestOneBit(alphabet.length - 1) << 1) - 1;
+        ThreadRandom threadRandom = THREAD_RANDOM.get();
+        char[] token = new char[length];
+        int i = 0;
+        while (i < length) {
+            int index = threadRandom.nextByte() & mask;
+            if (index < alphabet.length) {
+                token[i++] = alphabet[index];
+            }
+        }
+        return new String(token);
+    }
+
+    private static void assertAlphabetAllowed(String alphabet) {
+        Assert.isTrue(alphabet != null && alphabet.length() >= 2 && alphabet.length() <= MAX_ALPHABET_LENGTH,
+                "The token alphabet must have between 2 and " + MAX_ALPHABET_LENGTH + " characters");
+    }
+
+    /**
+     * A SecureRandom owned by a single thread, with a buffer of random bytes so that short tokens do not cost a
+     * generator call per character
+     */
+    private static class ThreadRandom {
+        private final SecureRandom secureRandom;
+        private final byte[] buffer = new byte[RANDOM_BYTES_BUFFER_SIZE];
+        private int position = RANDOM_BYTES_BUFFER_SIZE;
+
+        private ThreadRandom() {
+            this.secureRandom = createSecureRandom();
+        }
+
+        private int nextByte() {
+            if (position == buffer.length) {
+                secureRandom.nextBytes(buffer);
+                position = 0;
+            }
+            return buffer[position++] & 0xff;
+        }
+
+        private static SecureRandom createSecureRandom() {
+            byte[] seed = new byte[THREAD_RANDOM_SEED_BYTES];
+            SEED_RANDOM.nextBytes(seed);
+            try {
+                // Seeding before the first use replaces the self-seeding, so creating an instance never waits on entropy
+                SecureRandom secureRandom = SecureRandom.getInstance(THREAD_RANDOM_ALGORITHM);
+                secureRandom.setSeed(seed);
+                return secureRandom;
+            } catch (NoSuchAlgorithmException e) {
+                log.warn("SecureRandom algorithm is not available, falling back to the default SecureRandom: " + THREAD_RANDOM_ALGORITHM);
+                return new SecureRandom(seed);
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,100 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.domain.UserAvatarRenditionRepository;
+import gov.samhsa.c2s.ums.domain.UserAvatarRepository;
+import gov.samhsa.c2s.ums.infrastructure.AvatarStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes stored avatar contents that are no longer referenced, after a grace period.
+ * <p>
+ * The avatar store is shared by all avatars with the same contents, and a concurrent upload of the same contents
+ * reuses the stored file before its avatar row is committed. The contents are therefore only deleted when they are
+ * still unreferenced after the grace period and were not saved again within it. Releases that are pending when the
+ * instance stops are lost, which leaves the contents stored but never loses referenced contents.
+ */
+@Component
+@Slf4j
+public class UnreferencedAvatarContentsCleaner implements InitializingBean, DisposableBean {
+    private final UserAvatarRepository userAvatarRepository;
+    private final UserAvatarRenditionRepository userAvatarRenditionRepository;
+    private final AvatarStorage avatarStorage;
+    private final long gracePeriodSeconds;
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public UnreferencedAvatarContentsCleaner(UserAvatarRepository userAvatarRepository,
+                                             UserAvatarRenditionRepository userAvatarRenditionRepository,
+                                             AvatarStorage avatarStorage,
+                                             UmsProperties umsProperties) {
+        this.userAvatarRepository = userAvatarRepository;
+        this.userAvatarRenditionRepository = userAvatarRenditionRepository;
+        this.avatarStorage = avatarStorage;
+        this.gracePeriodSeconds = umsProperties.getAvatars().getStorage().getUnreferencedContentsGracePeriodSeconds();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "unreferenced-avatar-contents-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Deletes stored avatar contents after the grace period that follows the commit of the current transaction, unless
+     * they are still referenced by an avatar or an avatar rendition, or were saved again. Deferring the deletion keeps
+     * the contents available if the transaction rolls back.
+     *
+     * @param contentHash - the content hash of the avatar contents that are no longer referenced by the caller
+     */
+    public void releaseAfterCommit(String contentHash) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    scheduleRelease(contentHash);
+                }
+            });
+        } else {
+            scheduleRelease(contentHash);
+        }
+    }
+
+    private void scheduleRelease(String contentHash) {
+        scheduler.schedule(() -> {
+            try {
+                release(contentHash, Instant.now().minusSeconds(gracePeriodSeconds));
+            } catch (RuntimeException e) {
+                log.warn("Unable to release unreferenced avatar contents: " + contentHash, e);
+            }
+        }, gracePeriodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param savedSince - contents saved at or after this time are kept, because their avatar may not be committed yet
+     */
+    boolean release(String contentHash, Instant savedSince) {
+        return userAvatarRepository.countByContentHash(contentHash) == 0 &&
+                userAvatarRenditionRepository.countByContentHash(contentHash) == 0 &&
+                avatarStorage.deleteIfNotSavedSince(contentHash, savedSince);
+    }
+}
@@ -26,6 +26,13 @@ public interface UserActivationService {
     @Transactional
     UserActivationResponseDto activateUser(UserActivationRequestDto userActivationRequest, String xForwardedProto, String xForwardedHost, String xForwardedPort);
 
+    /**
+     * Verify an email token, or an email token with its verification code and the birth date of the user.
+     * <p>
+     * A forged or expired signed email token is rejected from its signature and expiration alone. A valid signed
+     * token still costs one lookup of the stored activation, which rejects a token superseded by a later activation
+     * email and a user who is already verified.
+     */
     @Transactional(readOnly = true)
     VerificationResponseDto verify(UserVerificationRequestDto userVerificationRequest);
 
@@ -17,6 +17,7 @@
 import gov.samhsa.c2s.ums.service.dto.EmailTokenDto;
 import gov.samhsa.c2s.ums.service.dto.ScopeAssignmentRequestDto;
 import gov.samhsa.c2s.ums.service.dto.ScopeAssignmentResponseDto;
+import gov.samhsa.c2s.ums.service.dto.SignedEmailTokenDto;
 import gov.samhsa.c2s.ums.service.dto.UserActivationRequestDto;
 import gov.samhsa.c2s.ums.service.dto.UserActivationResponseDto;
 import gov.samhsa.c2s.ums.service.dto.UserVerificationRequestDto;
@@ -68,6 +69,9 @@ public class UserActivationServiceImpl implements UserActivationService {
     @Autowired
     private EmailTokenGenerator emailTokenGenerator;
 
+    @Autowired
+    private EmailTokenSigner emailTokenSigner;
+
     @Autowired
     private EmailSender emailSender;
 
@@ -83,13 +87,16 @@ public class UserActivationServiceImpl implements UserActivationService {
     @Autowired
     private UserScopeAssignmentRepository userScopeAssignmentRepository;
 
+    @Autowired
+    private UserAuthIdCache userAuthIdCache;
+
     @Override
     public UserActivationResponseDto initiateUserActivation(Long userId, String xForwardedProto, String xForwardedHost, String xForwardedPort, Optional<String> lastUpdatedBy) {
         // Find user
         final User user = userRepository.findById(userId).orElse(null);
 
-        String emailToken = emailTokenGenerator.generateEmailToken();
         final Instant emailTokenExpirationDate = Instant.now().plus(Period.ofDays(emailSenderProperties.getEmailTokenExpirationInDays()));
+        String emailToken = emailTokenGenerator.generateEmailToken(userId, emailTokenExpirationDate);
         final UserActivation userActivation = userActivationRepository.findOneByUserId(userId)
                 .orElseGet(UserActivation::new);
         assertNotAlreadyVerified(userActivation);
@@ -162,11 +169,19 @@ public VerificationResponseDto verify(UserVerificationRequestDto userVerificatio
         final Instant now = Instant.now();
         // Only emailToken is available
         if (!verificationCode.isPresent() && !birthDate.isPresent()) {
+            if (emailTokenSigner.isSigned(emailToken)) {
+                // Forged and expired signed tokens are rejected by the signature and expiration without a database lookup
+                emailTokenSigner.verify(emailToken)
+                        .map(SignedEmailTokenDto::getExpiration)
+                        .filter(expiration -> expiration.isAfter(now))
+                        .orElseThrow(VerificationFailedException::new);
+            }
+            // One lookup per valid token remains: the stored token rejects superseded tokens and verified users
             final Optional<UserActivation> userActivationOptional = userActivationRepository.findOneByEmailToken(emailToken);
             if (userActivationOptional.filter(uc -> uc.isVerified() == true).isPresent()) {
                 throw new UserIsAlreadyVerifiedException();
             }
-            final Boolean verified = userActivationRepository.findOneByEmailToken(emailToken)
+            final Boolean verified = userActivationOptional
                     .map(UserActivation::getEmailTokenExpirationAsInstant)
                     .map(expiration -> expiration.isAfter(now))
                     .filter(Boolean.TRUE::equals)
@@ -177,8 +192,9 @@ public VerificationResponseDto verify(UserVerificationRequestDto userVerificatio
             final String verificationCodeNullSafe = verificationCode.filter(StringUtils::hasText).orElseThrow(VerificationFailedException::new);
             final LocalDate birthDateNullSafe = birthDate.filter(Objects::nonNull).orElseThrow(VerificationFailedException::new);
             // Assert user activation email token
-            assertEmailTokenNotExpired(userActivationRepository.findOneByEmailToken(emailToken).get());
-            User user = userActivationRepository.findOneByEmailToken(emailToken).get().getUser();
+            final UserActivation userActivation = userActivationRepository.findOneByEmailToken(emailToken).get();
+            assertEmailTokenNotExpired(userActivation);
+            User user = userActivation.getUser();
             final Long userId = userActivationRepository
                     .findOneByEmailTokenAndVerificationCode(emailToken, verificationCodeNullSafe)
                     .filter(uc -> uc.getEmailTokenExpirationAsInstant().isAfter(now))
@@ -262,6 +278,7 @@ public UserActivationResponseDto activateUser(UserActivationRequestDto userActiv
         // Save userId in userActivation
         user.setUserAuthId(userId);
         userActivationRepository.save(userActivation);
+        userAuthIdCache.evict(userId);
         // Add user to groups
         scimService.addUserToGroups(userActivation);
 
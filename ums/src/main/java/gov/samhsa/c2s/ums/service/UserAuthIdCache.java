@@ -0,0 +1,26 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.domain.User;
+import gov.samhsa.c2s.ums.service.dto.UserAuthIdCacheStatisticsDto;
+
+import java.util.Optional;
+
+/**
+ * In-memory read-through cache of user ids keyed by user auth id, so that users are loaded by primary key instead of
+ * being searched by user auth id.
+ * <p>
+ * A user auth id is assigned once when the user account is activated and never changes, so a cached user id is
+ * never stale; the disabled flag is always checked on the loaded user. Entries must still be evicted when a user is
+ * disabled, enabled or activated so that instances do not keep entries they no longer need.
+ */
+public interface UserAuthIdCache {
+    /**
+     * @param userAuthId - the user auth id assigned by the authorization server
+     * @return the user that is not disabled with the given user auth id
+     */
+    Optional<User> findEnabledUser(String userAuthId);
+
+    void evict(String userAuthId);
+
+    UserAuthIdCacheStatisticsDto getStatistics();
+}
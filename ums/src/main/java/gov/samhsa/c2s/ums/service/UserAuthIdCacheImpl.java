@@ -0,0 +1,93 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.domain.User;
+import gov.samhsa.c2s.ums.domain.UserRepository;
+import gov.samhsa.c2s.ums.service.dto.UserAuthIdCacheStatisticsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link UserAuthIdCache} that keeps the least recently used entries, bounded by number of entries. Only found users
+ * are cached, since a user auth id that is not found yet can be assigned by a later activation.
+ */
+@Service
+public class UserAuthIdCacheImpl implements UserAuthIdCache {
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final Map<String, Long> userIdByUserAuthId;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    @Autowired
+    public UserAuthIdCacheImpl(UserRepository userRepository, UmsProperties umsProperties) {
+        this.userRepository = userRepository;
+        this.enabled = umsProperties.getUserAuthIdCache().isEnabled();
+        this.maxEntries = umsProperties.getUserAuthIdCache().getMaxEntries();
+        this.userIdByUserAuthId = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public Optional<User> findEnabledUser(String userAuthId) {
+        if (!enabled) {
+            return userRepository.findByUserAuthIdAndDisabled(userAuthId, false);
+        }
+        Long userId;
+        synchronized (userIdByUserAuthId) {
+            userId = userIdByUserAuthId.get(userAuthId);
+        }
+        if (userId != null) {
+            // Loaded by primary key, so the user is taken from the persistence context when it is already loaded
+            final User user = userRepository.findOne(userId);
+            if (user != null && userAuthId.equals(user.getUserAuthId())) {
+                hitCount.incrementAndGet();
+                return Optional.of(user).filter(u -> !u.isDisabled());
+            }
+            evict(userAuthId);
+        }
+        missCount.incrementAndGet();
+        final Optional<User> user = userRepository.findByUserAuthIdAndDisabled(userAuthId, false);
+        user.ifPresent(u -> {
+            synchronized (userIdByUserAuthId) {
+                userIdByUserAuthId.put(userAuthId, u.getId());
+            }
+        });
+        return user;
+    }
+
+    @Override
+    public void evict(String userAuthId) {
+        if (userAuthId == null) {
+            return;
+        }
+        synchronized (userIdByUserAuthId) {
+            userIdByUserAuthId.remove(userAuthId);
+        }
+    }
+
+    @Override
+    public UserAuthIdCacheStatisticsDto getStatistics() {
+        long entryCount;
+        synchronized (userIdByUserAuthId) {
+            entryCount = userIdByUserAuthId.size();
+        }
+        return UserAuthIdCacheStatisticsDto.builder()
+                .hitCount(hitCount.get())
+                .missCount(missCount.get())
+                .entryCount(entryCount)
+                .maxEntries(maxEntries)
+                .build();
+    }
+}
@@ -0,0 +1,38 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.service.dto.UserAuthIdCacheStatisticsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Exposes the {@link UserAuthIdCache} statistics on the actuator metrics endpoint.
+ */
+@Component
+public class UserAuthIdCachePublicMetrics implements PublicMetrics {
+    private static final String PREFIX = "gauge.ums.users.auth-id-cache.";
+
+    private final UserAuthIdCache userAuthIdCache;
+
+    @Autowired
+    public UserAuthIdCachePublicMetrics(UserAuthIdCache userAuthIdCache) {
+        this.userAuthIdCache = userAuthIdCache;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        UserAuthIdCacheStatisticsDto statistics = userAuthIdCache.getStatistics();
+        List<Metric<?>> metrics = new ArrayList<>();
+        metrics.add(new Metric<>(PREFIX + "hit-ratio", statistics.getHitRatio()));
+        metrics.add(new Metric<>(PREFIX + "hits", statistics.getHitCount()));
+        metrics.add(new Metric<>(PREFIX + "misses", statistics.getMissCount()));
+        metrics.add(new Metric<>(PREFIX + "entries", statistics.getEntryCount()));
+        metrics.add(new Metric<>(PREFIX + "max-entries", statistics.getMaxEntries()));
+        return metrics;
+    }
+}
@@ -0,0 +1,45 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.service.dto.UserAvatarCacheStatisticsDto;
+import gov.samhsa.c2s.ums.service.dto.UserAvatarMetadataDto;
+
+import java.util.Optional;
+
+/**
+ * In-memory cache of user avatars.
+ * <p>
+ * Avatar metadata is keyed by user id and must be evicted whenever a user's avatar is saved or deleted. Since the
+ * eviction only reaches the cache of this instance, metadata also expires after a configured time to live, which
+ * bounds how long another instance serves the metadata of a replaced avatar. Avatar image contents are keyed by content
+ * hash; since contents never change under a given hash they are only ever evicted to keep the cache within its size
+ * bound.
+ */
+public interface UserAvatarCache {
+    Optional<UserAvatarMetadataDto> getMetadata(Long userId);
+
+    /**
+     * Returns the current metadata generation, which must be read before the metadata to cache is loaded from the
+     * database.
+     */
+    long currentMetadataGeneration();
+
+    /**
+     * Caches the metadata unless the user's avatar was evicted after the given generation, in which case the metadata
+     * may have been loaded from before the change that caused the eviction.
+     *
+     * @param userAvatarMetadata - the metadata to cache
+     * @param loadedGeneration   - the generation read before the metadata was loaded
+     */
+    void putMetadata(UserAvatarMetadataDto userAvatarMetadata, long loadedGeneration);
+
+    /**
+     * Returns the cached contents without copying them, so the returned array is shared and must not be modified.
+     */
+    Optional<byte[]> getContents(String contentHash);
+
+    void putContents(String contentHash, byte[] imageDataBytes);
+
+    void evict(Long userId);
+
+    UserAvatarCacheStatisticsDto getStatistics();
+}
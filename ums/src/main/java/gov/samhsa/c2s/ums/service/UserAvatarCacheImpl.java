@@ -0,0 +1,204 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.service.dto.UserAvatarCacheStatisticsDto;
+import gov.samhsa.c2s.ums.service.dto.UserAvatarMetadataDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link UserAvatarCache} that keeps avatar image contents bounded by their total size in bytes rather than by number
+ * of entries, and evicts the least recently used contents first. The contents are served from the cached arrays
+ * without copying, and evicted contents are reclaimed with the rest of the heap.
+ * <p>
+ * The metadata entries are small and are bounded by number of entries and by their time to live. Every eviction of a
+ * user's metadata advances the metadata generation, so metadata loaded before a concurrent save or delete committed is
+ * not cached after the eviction that follows the commit.
+ */
+@Service
+@Slf4j
+public class UserAvatarCacheImpl implements UserAvatarCache {
+    private final boolean enabled;
+    private final long maxContentsSizeBytes;
+    private final int maxMetadataEntries;
+    private final long metadataTimeToLiveMillis;
+    private final LongSupplier clock;
+
+    private final Map<Long, MetadataEntry> metadataByUserId;
+    // The generation of the last eviction of each recently evicted user, guarded by the metadataByUserId lock
+    private final Map<Long, Long> evictedGenerationByUserId;
+    private long metadataGeneration = 0;
+    private long forgottenEvictedGeneration = 0;
+
+    private final LinkedHashMap<String, byte[]> contentsByContentHash = new LinkedHashMap<>(16, 0.75f, true);
+    private long contentsSizeBytes = 0;
+
+    private final AtomicLong metadataHitCount = new AtomicLong();
+    private final AtomicLong metadataMissCount = new AtomicLong();
+    private final AtomicLong contentsHitCount = new AtomicLong();
+    private final AtomicLong contentsMissCount = new AtomicLong();
+    private final AtomicLong contentsEvictionCount = new AtomicLong();
+
+    @Autowired
+    public UserAvatarCacheImpl(UmsProperties umsProperties) {
+        this(umsProperties, System::currentTimeMillis);
+    }
+
+    UserAvatarCacheImpl(UmsProperties umsProperties, LongSupplier clock) {
+        UmsProperties.Avatars.Cache cache = umsProperties.getAvatars().getCache();
+        this.enabled = cache.isEnabled();
+        this.maxContentsSizeBytes = cache.getMaxContentsSizeBytes();
+        this.maxMetadataEntries = cache.getMaxMetadataEntries();
+        this.metadataTimeToLiveMillis = TimeUnit.SECONDS.toMillis(cache.getMetadataTimeToLiveSeconds());
+        this.clock = clock;
+        this.metadataByUserId = new LinkedHashMap<Long, MetadataEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, MetadataEntry> eldest) {
+                return size() > maxMetadataEntries;
+            }
+        };
+        this.evictedGenerationByUserId = new LinkedHashMap<Long, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                if (size() > maxMetadataEntries) {
+                    // Treat the users that are no longer tracked as evicted at the latest forgotten generation
+                    forgottenEvictedGeneration = Math.max(forgottenEvictedGeneration, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Optional<UserAvatarMetadataDto> getMetadata(Long userId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        UserAvatarMetadataDto userAvatarMetadata = null;
+        synchronized (metadataByUserId) {
+            MetadataEntry metadataEntry = metadataByUserId.get(userId);
+            if (metadataEntry != null) {
+                if (metadataEntry.expiresAtMillis > clock.getAsLong()) {
+                    userAvatarMetadata = metadataEntry.userAvatarMetadata;
+                } else {
+                    metadataByUserId.remove(userId);
+                }
+            }
+        }
+        (userAvatarMetadata != null ? metadataHitCount : metadataMissCount).incrementAndGet();
+        return Optional.ofNullable(userAvatarMetadata);
+    }
+
+    @Override
+    public long currentMetadataGeneration() {
+        synchronized (metadataByUserId) {
+            return metadataGeneration;
+        }
+    }
+
+    @Override
+    public void putMetadata(UserAvatarMetadataDto userAvatarMetadata, long loadedGeneration) {
+        if (!enabled) {
+            return;
+        }
+        Long userId = userAvatarMetadata.getUserId();
+        synchronized (metadataByUserId) {
+            if (evictedGenerationByUserId.getOrDefault(userId, forgottenEvictedGeneration) > loadedGeneration) {
+                return;
+            }
+            metadataByUserId.put(userId, new MetadataEntry(userAvatarMetadata, clock.getAsLong() + metadataTimeToLiveMillis));
+        }
+    }
+
+    @Override
+    public Optional<byte[]> getContents(String contentHash) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        byte[] imageDataBytes;
+        synchronized (contentsByContentHash) {
+            imageDataBytes = contentsByContentHash.get(contentHash);
+        }
+        (imageDataBytes != null ? contentsHitCount : contentsMissCount).incrementAndGet();
+        return Optional.ofNullable(imageDataBytes);
+    }
+
+    @Override
+    public void putContents(String contentHash, byte[] imageDataBytes) {
+        if (!enabled || imageDataBytes.length > maxContentsSizeBytes) {
+            return;
+        }
+        synchronized (contentsByContentHash) {
+            byte[] previous = contentsByContentHash.put(contentHash, imageDataBytes);
+            if (previous != null) {
+                contentsSizeBytes -= previous.length;
+            }
+            contentsSizeBytes += imageDataBytes.length;
+            evictContentsOverSizeBound();
+        }
+    }
+
+    @Override
+    public void evict(Long userId) {
+        synchronized (metadataByUserId) {
+            metadataGeneration++;
+            evictedGenerationByUserId.put(userId, metadataGeneration);
+            metadataByUserId.remove(userId);
+        }
+    }
+
+    @Override
+    public UserAvatarCacheStatisticsDto getStatistics() {
+        long metadataEntryCount;
+        synchronized (metadataByUserId) {
+            metadataEntryCount = metadataByUserId.size();
+        }
+        long contentsEntryCount;
+        long currentContentsSizeBytes;
+        synchronized (contentsByContentHash) {
+            contentsEntryCount = contentsByContentHash.size();
+            currentContentsSizeBytes = contentsSizeBytes;
+        }
+        return UserAvatarCacheStatisticsDto.builder()
+                .metadataHitCount(metadataHitCount.get())
+                .metadataMissCount(metadataMissCount.get())
+                .metadataEntryCount(metadataEntryCount)
+                .contentsHitCount(contentsHitCount.get())
+                .contentsMissCount(contentsMissCount.get())
+                .contentsEntryCount(contentsEntryCount)
+                .contentsEvictionCount(contentsEvictionCount.get())
+                .contentsSizeBytes(currentContentsSizeBytes)
+                .maxContentsSizeBytes(maxContentsSizeBytes)
+                .build();
+    }
+
+    // Must be called while holding the contentsByContentHash lock
+    private void evictContentsOverSizeBound() {
+        Iterator<byte[]> leastRecentlyUsed = contentsByContentHash.values().iterator();
+        while (contentsSizeBytes > maxContentsSizeBytes && leastRecentlyUsed.hasNext()) {
+            contentsSizeBytes -= leastRecentlyUsed.next().length;
+            leastRecentlyUsed.remove();
+            contentsEvictionCount.incrementAndGet();
+        }
+    }
+
+    private static class MetadataEntry {
+        private final UserAvatarMetadataDto userAvatarMetadata;
+        private final long expiresAtMillis;
+
+        private MetadataEntry(UserAvatarMetadataDto userAvatarMetadata, long expiresAtMillis) {
+            this.userAvatarMetadata = userAvatarMetadata;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.service.dto.UserAvatarCacheStatisticsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Exposes the {@link UserAvatarCache} statistics on the actuator metrics endpoint.
+ */
+@Component
+public class UserAvatarCachePublicMetrics implements PublicMetrics {
+    private static final String PREFIX = "gauge.ums.avatars.cache.";
+
+    private final UserAvatarCache userAvatarCache;
+
+    @Autowired
+    public UserAvatarCachePublicMetrics(UserAvatarCache userAvatarCache) {
+        this.userAvatarCache = userAvatarCache;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        UserAvatarCacheStatisticsDto statistics = userAvatarCache.getStatistics();
+        List<Metric<?>> metrics = new ArrayList<>();
+        metrics.add(new Metric<>(PREFIX + "metadata.hit-ratio", statistics.getMetadataHitRatio()));
+        metrics.add(new Metric<>(PREFIX + "metadata.hits", statistics.getMetadataHitCount()));
+        metrics.add(new Metric<>(PREFIX + "metadata.misses", statistics.getMetadataMissCount()));
+        metrics.add(new Metric<>(PREFIX + "metadata.entries", statistics.getMetadataEntryCount()));
+        metrics.add(new Metric<>(PREFIX + "contents.hit-ratio", statistics.getContentsHitRatio()));
+        metrics.add(new Metric<>(PREFIX + "contents.hits", statistics.getContentsHitCount()));
+        metrics.add(new Metric<>(PREFIX + "contents.misses", statistics.getContentsMissCount()));
+        metrics.add(new Metric<>(PREFIX + "contents.entries", statistics.getContentsEntryCount()));
+        metrics.add(new Metric<>(PREFIX + "contents.evictions", statistics.getContentsEvictionCount()));
+        metrics.add(new Metric<>(PREFIX + "contents.size-bytes", statistics.getContentsSizeBytes()));
+        metrics.add(new Metric<>(PREFIX + "contents.max-size-bytes", statistics.getMaxContentsSizeBytes()));
+        return metrics;
+    }
+}
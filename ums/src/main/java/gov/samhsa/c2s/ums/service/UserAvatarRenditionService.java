@@ -0,0 +1,10 @@
+package gov.samhsa.c2s.ums.service;
+
+import org.springframework.stereotype.Service;
+
+@Service
+public interface UserAvatarRenditionService {
+    void generateRenditionsAfterCommit(Long userId, String contentHash);
+
+    void generateRenditions(Long userId, String contentHash);
+}
@@ -0,0 +1,184 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.domain.UserAvatar;
+import gov.samhsa.c2s.ums.domain.UserAvatarRendition;
+import gov.samhsa.c2s.ums.domain.UserAvatarRepository;
+import gov.samhsa.c2s.ums.infrastructure.AvatarStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toMap;
+
+@Service
+@Slf4j
+public class UserAvatarRenditionServiceImpl implements UserAvatarRenditionService {
+    private final UmsProperties umsProperties;
+    private final ImageProcessingService imageProcessingService;
+    private final UserAvatarRepository userAvatarRepository;
+    private final AvatarStorage avatarStorage;
+    private final UserAvatarCache userAvatarCache;
+    private final UnreferencedAvatarContentsCleaner unreferencedAvatarContentsCleaner;
+    private final TaskExecutor avatarRenditionTaskExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    @Autowired
+    public UserAvatarRenditionServiceImpl(UmsProperties umsProperties,
+                                          ImageProcessingService imageProcessingService,
+                                          UserAvatarRepository userAvatarRepository,
+                                          AvatarStorage avatarStorage,
+                                          UserAvatarCache userAvatarCache,
+                                          UnreferencedAvatarContentsCleaner unreferencedAvatarContentsCleaner,
+                                          @Qualifier("avatarRenditionTaskExecutor") TaskExecutor avatarRenditionTaskExecutor,
+                                          PlatformTransactionManager transactionManager) {
+        this.umsProperties = umsProperties;
+        this.imageProcessingService = imageProcessingService;
+        this.userAvatarRepository = userAvatarRepository;
+        this.avatarStorage = avatarStorage;
+        this.userAvatarCache = userAvatarCache;
+        this.unreferencedAvatarContentsCleaner = unreferencedAvatarContentsCleaner;
+        this.avatarRenditionTaskExecutor = avatarRenditionTaskExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Generates the renditions of an avatar in the background once the current transaction commits, so the
+     * background task always sees the saved avatar.
+     *
+     * @param userId      - the id of the user whose avatar is saved
+     * @param contentHash - the content hash of the saved avatar image
+     */
+    @Override
+    public void generateRenditionsAfterCommit(Long userId, String contentHash) {
+        Runnable generate = () -> avatarRenditionTaskExecutor.execute(() -> {
+            try {
+                generateRenditions(userId, contentHash);
+            } catch (RuntimeException e) {
+                log.warn("Unable to generate avatar renditions for user: " + userId, e);
+            }
+        });
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    generate.run();
+                }
+            });
+        } else {
+            generate.run();
+        }
+    }
+
+    @Override
+    public void generateRenditions(Long userId, String contentHash) {
+        UserAvatar userAvatar = readOnlyTransactionTemplate.execute(status -> userAvatarRepository.findByUserId(userId)
+                .filter(currentUserAvatar -> contentHash.equals(currentUserAvatar.getContentHash()))
+                .orElse(null));
+        if (userAvatar == null) {
+            log.debug("Skipping avatar rendition generation because the avatar was changed or deleted: " + userId);
+            return;
+        }
+
+        // Resize outside of a transaction so no database connection is held while scaling the images
+        byte[] originalImageBytes = avatarStorage.load(contentHash);
+        long originalSizePixels = Math.min(userAvatar.getFileWidthPixels(), userAvatar.getFileHeightPixels());
+        List<UserAvatarRendition> renditions = new ArrayList<>();
+        try {
+            umsProperties.getAvatars().getRenditions().getSizes().stream()
+                    .distinct()
+                    .filter(sizePixels -> sizePixels < originalSizePixels)
+                    .sorted()
+                    .forEach(sizePixels -> createRendition(originalImageBytes, userAvatar.getFileExtension(), sizePixels)
+                            .ifPresent(renditions::add));
+
+            transactionTemplate.execute(status -> {
+                Optional<UserAvatar> currentUserAvatar = userAvatarRepository.findByUserId(userId)
+                        .filter(avatar -> contentHash.equals(avatar.getContentHash()));
+                if (currentUserAvatar.isPresent()) {
+                    replaceRenditions(currentUserAvatar.get(), renditions);
+                } else {
+                    // The avatar was changed while resizing, so the new renditions are not referenced by anything
+                    renditions.forEach(rendition -> unreferencedAvatarContentsCleaner.releaseAfterCommit(rendition.getContentHash()));
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // The renditions saved before a failed save or a rolled back transaction are not referenced by anything
+            renditions.forEach(rendition -> unreferencedAvatarContentsCleaner.releaseAfterCommit(rendition.getContentHash()));
+            throw e;
+        }
+        userAvatarCache.evict(userId);
+    }
+
+    private void replaceRenditions(UserAvatar userAvatar, List<UserAvatarRendition> renditions) {
+        // Update the existing renditions in place, so no two renditions of an avatar have the same size at flush time
+        Map<Integer, UserAvatarRendition> existingRenditionsBySize = userAvatar.getRenditions().stream()
+                .collect(toMap(UserAvatarRendition::getSizePixels, Function.identity()));
+        List<String> replacedContentHashes = new ArrayList<>();
+
+        for (UserAvatarRendition rendition : renditions) {
+            UserAvatarRendition existingRendition = existingRenditionsBySize.get(rendition.getSizePixels());
+            if (existingRendition == null) {
+                rendition.setUserAvatar(userAvatar);
+                userAvatar.getRenditions().add(rendition);
+            } else {
+                if (!existingRendition.getContentHash().equals(rendition.getContentHash())) {
+                    replacedContentHashes.add(existingRendition.getContentHash());
+                }
+                existingRendition.setFileWidthPixels(rendition.getFileWidthPixels());
+                existingRendition.setFileHeightPixels(rendition.getFileHeightPixels());
+                existingRendition.setFileSizeBytes(rendition.getFileSizeBytes());
+                existingRendition.setContentHash(rendition.getContentHash());
+            }
+        }
+
+        Iterator<UserAvatarRendition> iterator = userAvatar.getRenditions().iterator();
+        while (iterator.hasNext()) {
+            UserAvatarRendition existingRendition = iterator.next();
+            if (renditions.stream().noneMatch(rendition -> rendition.getSizePixels().equals(existingRendition.getSizePixels()))) {
+                replacedContentHashes.add(existingRendition.getContentHash());
+                iterator.remove();
+            }
+        }
+
+        userAvatarRepository.save(userAvatar);
+        replacedContentHashes.forEach(unreferencedAvatarContentsCleaner::releaseAfterCommit);
+    }
+
+    private Optional<UserAvatarRendition> createRendition(byte[] originalImageBytes, String fileExtension, int sizePixels) {
+        byte[] renditionBytes;
+        try {
+            renditionBytes = imageProcessingService.resizeImage(originalImageBytes, fileExtension, sizePixels);
+        } catch (IOException e) {
+            log.warn("Unable to resize avatar image to " + sizePixels + " pixels", e);
+            return Optional.empty();
+        }
+
+        UserAvatarRendition rendition = new UserAvatarRendition();
+        rendition.setSizePixels(sizePixels);
+        rendition.setFileWidthPixels((long) sizePixels);
+        rendition.setFileHeightPixels((long) sizePixels);
+        rendition.setFileSizeBytes((long) renditionBytes.length);
+        rendition.setContentHash(avatarStorage.save(renditionBytes));
+        return Optional.of(rendition);
+    }
+}
@@ -2,17 +2,46 @@
 
 import gov.samhsa.c2s.ums.service.dto.AvatarBytesAndMetaDto;
 import gov.samhsa.c2s.ums.service.dto.UserAvatarDto;
+import gov.samhsa.c2s.ums.service.dto.UserAvatarImageDto;
+import gov.samhsa.c2s.ums.service.dto.UserAvatarMetadataDto;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.InputStream;
+import java.util.List;
+
 @Service
 public interface UserAvatarService {
     @Transactional(readOnly = true)
     UserAvatarDto getUserAvatarByUserId(Long userId);
 
+    /**
+     * Get the metadata of the avatar image served for the requested size, so a conditional request can be answered
+     * from the persisted content hash. The image bytes are only included for an avatar whose contents are still
+     * stored in the database, because its content hash is computed from the image bytes.
+     */
+    @Transactional(readOnly = true)
+    UserAvatarImageDto getUserAvatarImageMetadataByUserId(Long userId, Integer sizePixels);
+
+    /**
+     * Get the image bytes of avatar image metadata, loading them from the avatar storage unless they are included
+     */
+    byte[] getUserAvatarImageBytes(UserAvatarImageDto userAvatarImage);
+
+    @Transactional(readOnly = true)
+    List<UserAvatarDto> getUserAvatarsByUserIds(List<Long> userIds);
+
+    @Transactional(readOnly = true)
+    List<UserAvatarMetadataDto> getUserAvatarMetadataByUserIds(List<Long> userIds);
+
     @Transactional
     UserAvatarDto saveUserAvatar(Long userId, AvatarBytesAndMetaDto avatarFile);
 
+    /**
+     * Not transactional, so the upload is read and stored before a database connection is taken for the avatar row
+     */
+    UserAvatarDto saveUserAvatar(Long userId, InputStream avatarInputStream, String fileName);
+
     @Transactional
     void deleteUserAvatar(Long userId);
 }
@@ -3,70 +3,287 @@
 import gov.samhsa.c2s.ums.config.UmsProperties;
 import gov.samhsa.c2s.ums.domain.User;
 import gov.samhsa.c2s.ums.domain.UserAvatar;
+import gov.samhsa.c2s.ums.domain.UserAvatarRendition;
 import gov.samhsa.c2s.ums.domain.UserAvatarRepository;
 import gov.samhsa.c2s.ums.domain.UserRepository;
+import gov.samhsa.c2s.ums.infrastructure.AvatarStorage;
 import gov.samhsa.c2s.ums.service.dto.AvatarBytesAndMetaDto;
+import gov.samhsa.c2s.ums.service.dto.ImageHeaderDto;
 import gov.samhsa.c2s.ums.service.dto.UserAvatarDto;
+import gov.samhsa.c2s.ums.service.dto.UserAvatarImageDto;
+import gov.samhsa.c2s.ums.service.dto.UserAvatarMetadataDto;
+import gov.samhsa.c2s.ums.service.dto.UserAvatarRenditionDto;
 import gov.samhsa.c2s.ums.service.exception.InvalidAvatarInputException;
 import gov.samhsa.c2s.ums.service.exception.UserAvatarDeleteException;
 import gov.samhsa.c2s.ums.service.exception.UserAvatarNotFoundException;
 import gov.samhsa.c2s.ums.service.exception.UserAvatarSaveException;
 import gov.samhsa.c2s.ums.service.exception.UserNotFoundException;
+import gov.samhsa.c2s.ums.service.exception.checkedexceptions.AvatarFileSizeLimitExceededException;
 import gov.samhsa.c2s.ums.service.exception.checkedexceptions.NoImageReaderForFileTypeException;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 import java.awt.Dimension;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.BiFunction;
+
+import static java.util.stream.Collectors.toList;
 
 @Service
 @Slf4j
 public class UserAvatarServiceImpl implements UserAvatarService {
     private final UmsProperties umsProperties;
-    private final ModelMapper modelMapper;
     private final ImageProcessingService imageProcessingService;
     private final UserAvatarRepository userAvatarRepository;
     private final UserRepository userRepository;
+    private final AvatarStorage avatarStorage;
+    private final UserAvatarCache userAvatarCache;
+    private final UserAvatarRenditionService userAvatarRenditionService;
+    private final UnreferencedAvatarContentsCleaner unreferencedAvatarContentsCleaner;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
     public UserAvatarServiceImpl(UmsProperties umsProperties,
-                                 ModelMapper modelMapper,
                                  ImageProcessingService imageProcessingService,
                                  UserAvatarRepository userAvatarRepository,
-                                 UserRepository userRepository) {
+                                 UserRepository userRepository,
+                                 AvatarStorage avatarStorage,
+                                 UserAvatarCache userAvatarCache,
+                                 UserAvatarRenditionService userAvatarRenditionService,
+                                 UnreferencedAvatarContentsCleaner unreferencedAvatarContentsCleaner,
+                                 PlatformTransactionManager transactionManager) {
         this.umsProperties = umsProperties;
-        this.modelMapper = modelMapper;
         this.imageProcessingService = imageProcessingService;
         this.userAvatarRepository = userAvatarRepository;
         this.userRepository = userRepository;
+        this.avatarStorage = avatarStorage;
+        this.userAvatarCache = userAvatarCache;
+        this.userAvatarRenditionService = userAvatarRenditionService;
+        this.unreferencedAvatarContentsCleaner = unreferencedAvatarContentsCleaner;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
     @Transactional(readOnly = true)
     public UserAvatarDto getUserAvatarByUserId(Long userId) {
-        return modelMapper.map(
-                userAvatarRepository.findByUserId(userId)
-                        .orElseThrow(UserAvatarNotFoundException::new),
-                UserAvatarDto.class
-        );
+        Optional<UserAvatarMetadataDto> cachedMetadata = userAvatarCache.getMetadata(userId);
+        if (cachedMetadata.isPresent()) {
+            return toUserAvatarDto(cachedMetadata.get());
+        }
+
+        long metadataGeneration = userAvatarCache.currentMetadataGeneration();
+        UserAvatar userAvatar = userAvatarRepository.findByUserId(userId)
+                .orElseThrow(UserAvatarNotFoundException::new);
+        if (userAvatar.getContentHash() == null) {
+            // Avatar contents that have not been moved out of the database yet
+            return toUnmigratedUserAvatarDto(userAvatar, userId);
+        }
+        return toUserAvatarDto(cacheMetadata(userAvatar, userId, metadataGeneration));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserAvatarImageDto getUserAvatarImageMetadataByUserId(Long userId, Integer sizePixels) {
+        Optional<UserAvatarMetadataDto> cachedMetadata = userAvatarCache.getMetadata(userId);
+        if (cachedMetadata.isPresent()) {
+            return toUserAvatarImageDto(cachedMetadata.get(), sizePixels);
+        }
+
+        long metadataGeneration = userAvatarCache.currentMetadataGeneration();
+        UserAvatar userAvatar = userAvatarRepository.findByUserId(userId)
+                .orElseThrow(UserAvatarNotFoundException::new);
+        if (userAvatar.getContentHash() == null) {
+            // Avatar contents that have not been moved out of the database yet, so there are no renditions to serve
+            byte[] imageBytes = imageProcessingService.getImageDataBytes(userAvatar.getFileContents());
+            return UserAvatarImageDto.builder()
+                    .imageBytes(imageBytes)
+                    .mediaType(imageProcessingService.getImageMediaType(userAvatar.getFileContents(), userAvatar.getFileExtension()))
+                    .contentHash(imageProcessingService.getImageContentHash(imageBytes))
+                    .lastUpdatedDate(userAvatar.getLastUpdatedDate())
+                    .userId(userId)
+                    .build();
+        }
+        return toUserAvatarImageDto(cacheMetadata(userAvatar, userId, metadataGeneration), sizePixels);
+    }
+
+    @Override
+    public byte[] getUserAvatarImageBytes(UserAvatarImageDto userAvatarImage) {
+        return userAvatarImage.getImageBytes() != null ?
+                userAvatarImage.getImageBytes() :
+                loadContents(userAvatarImage.getContentHash());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserAvatarDto> getUserAvatarsByUserIds(List<Long> userIds) {
+        assertBatchSizeAllowed(userIds);
+
+        Map<Long, UserAvatarDto> userAvatarsByUserId = new HashMap<>();
+        List<Long> uncachedUserIds = new ArrayList<>();
+        userIds.stream().distinct().forEach(userId -> {
+            Optional<UserAvatarMetadataDto> cachedMetadata = userAvatarCache.getMetadata(userId);
+            if (cachedMetadata.isPresent()) {
+                userAvatarsByUserId.put(userId, toUserAvatarDto(cachedMetadata.get()));
+            } else {
+                uncachedUserIds.add(userId);
+            }
+        });
+
+        if (!uncachedUserIds.isEmpty()) {
+            long metadataGeneration = userAvatarCache.currentMetadataGeneration();
+            userAvatarRepository.findUserAvatarAndUserIdsByUserIdIn(uncachedUserIds).forEach(userAvatarAndUserId -> {
+                UserAvatar userAvatar = (UserAvatar) userAvatarAndUserId[0];
+                // An avatar is returned once per rendition
+                userAvatarsByUserId.computeIfAbsent((Long) userAvatarAndUserId[1], userId ->
+                        userAvatar.getContentHash() == null ?
+                                toUnmigratedUserAvatarDto(userAvatar, userId) :
+                                toUserAvatarDto(cacheMetadata(userAvatar, userId, metadataGeneration)));
+            });
+        }
+
+        return inRequestOrder(userIds, userAvatarsByUserId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserAvatarMetadataDto> getUserAvatarMetadataByUserIds(List<Long> userIds) {
+        assertBatchSizeAllowed(userIds);
+
+        Map<Long, UserAvatarMetadataDto> userAvatarMetadataByUserId = new HashMap<>();
+        List<Long> uncachedUserIds = new ArrayList<>();
+        userIds.stream().distinct().forEach(userId -> {
+            Optional<UserAvatarMetadataDto> cachedMetadata = userAvatarCache.getMetadata(userId);
+            if (cachedMetadata.isPresent()) {
+                userAvatarMetadataByUserId.put(userId, cachedMetadata.get());
+            } else {
+                uncachedUserIds.add(userId);
+            }
+        });
+
+        if (!uncachedUserIds.isEmpty()) {
+            long metadataGeneration = userAvatarCache.currentMetadataGeneration();
+            userAvatarRepository.findUserAvatarAndUserIdsByUserIdIn(uncachedUserIds).forEach(userAvatarAndUserId -> {
+                UserAvatar userAvatar = (UserAvatar) userAvatarAndUserId[0];
+                // An avatar is returned once per rendition
+                userAvatarMetadataByUserId.computeIfAbsent((Long) userAvatarAndUserId[1], userId ->
+                        userAvatar.getContentHash() == null ?
+                                toUnmigratedUserAvatarMetadataDto(userAvatar, userId) :
+                                cacheMetadata(userAvatar, userId, metadataGeneration));
+            });
+        }
+
+        // Return copies so callers cannot modify the cached metadata
+        return inRequestOrder(userIds, userAvatarMetadataByUserId).stream()
+                .map(this::copyOf)
+                .collect(toList());
     }
 
     @Override
     @Transactional
     public UserAvatarDto saveUserAvatar(Long userId, AvatarBytesAndMetaDto avatarFile) {
+        return saveUserAvatar(userId, (userAvatar, user) -> buildUserAvatar(userAvatar, avatarFile, user));
+    }
+
+    /**
+     * Save an avatar image read from a binary stream.
+     * <p>
+     * The stream is read through a size limited stream, so an oversized upload is rejected as soon as the limit is
+     * exceeded. The image format and dimensions are checked from the leading header bytes, before the rest of the
+     * image is read.
+     * <p>
+     * The upload is read at the speed of the client, so it is read, checked and stored without a transaction, and only
+     * the update of the avatar row runs in a short transaction afterwards.
+     *
+     * @param userId            - the id of the user whose avatar is saved
+     * @param avatarInputStream - the binary image file contents
+     * @param fileName          - the name of the uploaded image file
+     * @return the saved avatar
+     */
+    @Override
+    public UserAvatarDto saveUserAvatar(Long userId, InputStream avatarInputStream, String fileName) {
+        Long maxImageFileSize = umsProperties.getAvatars().getMaxFileSize();
+        ImageHeaderDto imageHeader;
+        byte[] imageDataBytes;
+
+        try (ImageInputStream imageInputStream = new MemoryCacheImageInputStream(new SizeLimitedInputStream(avatarInputStream, maxImageFileSize))) {
+            imageHeader = imageProcessingService.getImageHeader(imageInputStream);
+            assertImageFileTypeAllowed(imageHeader.getFormatName());
+            assertImageDimensionsAllowed(new Dimension(imageHeader.getWidthPixels(), imageHeader.getHeightPixels()));
+            imageDataBytes = readFully(imageInputStream);
+        } catch (AvatarFileSizeLimitExceededException e) {
+            log.warn("Unable to generate a new UserAvatar object because the uploaded image file's size is greater than the max allowed file size (Max Size: " + maxImageFileSize + ")");
+            throw new InvalidAvatarInputException("The avatar file's size is greater than the allowed maximum");
+        } catch (NoImageReaderForFileTypeException e) {
+            log.warn("Unable to generate a new UserAvatar object because the uploaded image file's type is not recognized");
+            throw new InvalidAvatarInputException("The avatar file's type is not allowed or not recognized");
+        } catch (IOException e) {
+            log.error("An exception occurred while attempting to read the uploaded avatar image file", e);
+            throw new UserAvatarSaveException("Unable to process avatar image file");
+        }
+
+        if (imageDataBytes.length <= 0) {
+            log.error("Unable to generate a new UserAvatar object because the uploaded image file is empty");
+            throw new InvalidAvatarInputException("The avatar file cannot be null");
+        }
+
+        String contentHash = avatarStorage.save(imageDataBytes);
+        try {
+            return transactionTemplate.execute(status -> saveUserAvatar(userId, (userAvatar, user) -> {
+                userAvatar.setFileContents(null);
+                userAvatar.setContentHash(contentHash);
+                userAvatar.setMediaType(imageHeader.getMediaType());
+                userAvatar.setFileExtension(toFileExtension(fileName, imageHeader));
+                userAvatar.setFileName(fileName);
+                userAvatar.setFileSizeBytes((long) imageDataBytes.length);
+                userAvatar.setFileHeightPixels((long) imageHeader.getHeightPixels());
+                userAvatar.setFileWidthPixels((long) imageHeader.getWidthPixels());
+                userAvatar.setUser(user);
+                return userAvatar;
+            }));
+        } catch (RuntimeException e) {
+            // The stored contents are not referenced by the avatar that failed to save
+            unreferencedAvatarContentsCleaner.releaseAfterCommit(contentHash);
+            throw e;
+        }
+    }
+
+    private UserAvatarDto saveUserAvatar(Long userId, BiFunction<UserAvatar, User, UserAvatar> userAvatarBuilder) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User Not Found!"));
 
         UserAvatar savedUserAvatar;
         Optional<UserAvatar> currentUserAvatar = userAvatarRepository.findByUserId(userId);
+        Optional<String> currentContentHash = currentUserAvatar.map(UserAvatar::getContentHash);
+        List<String> currentRenditionContentHashes = currentUserAvatar
+                .map(this::getRenditionContentHashes)
+                .orElseGet(ArrayList::new);
+
+        UserAvatar newUserAvatar = userAvatarBuilder.apply(currentUserAvatar.orElseGet(UserAvatar::new), user);
 
-        UserAvatar newUserAvatar = currentUserAvatar
-                .map(userAvatar -> buildUserAvatar(userAvatar, avatarFile, user))
-                .orElseGet(() -> buildUserAvatar(new UserAvatar(), avatarFile, user));
+        boolean contentsChanged = !currentContentHash.filter(newUserAvatar.getContentHash()::equals).isPresent();
+        if (contentsChanged) {
+            // The renditions of the previous image are stale; new ones are generated once this transaction commits
+            newUserAvatar.getRenditions().clear();
+        }
 
         try {
             savedUserAvatar = userAvatarRepository.save(newUserAvatar);
@@ -75,18 +292,252 @@ public UserAvatarDto saveUserAvatar(Long userId, AvatarBytesAndMetaDto avatarFil
             throw new UserAvatarSaveException("Unable to save user avatar");
         }
 
-        return modelMapper.map(savedUserAvatar, UserAvatarDto.class);
+        if (contentsChanged) {
+            currentContentHash.ifPresent(unreferencedAvatarContentsCleaner::releaseAfterCommit);
+            currentRenditionContentHashes.forEach(unreferencedAvatarContentsCleaner::releaseAfterCommit);
+        }
+        if (contentsChanged || savedUserAvatar.getRenditions().isEmpty()) {
+            userAvatarRenditionService.generateRenditionsAfterCommit(userId, savedUserAvatar.getContentHash());
+        }
+        evictFromCache(userId);
+
+        return toUserAvatarDto(toUserAvatarMetadataDto(savedUserAvatar, userId));
     }
 
     @Override
     @Transactional
     public void deleteUserAvatar(Long userId) {
+        Optional<UserAvatar> currentUserAvatar = userAvatarRepository.findByUserId(userId);
+        Optional<String> currentContentHash = currentUserAvatar.map(UserAvatar::getContentHash);
+        List<String> currentRenditionContentHashes = currentUserAvatar
+                .map(this::getRenditionContentHashes)
+                .orElseGet(ArrayList::new);
+
         try {
             userAvatarRepository.deleteByUserId(userId);
         } catch (RuntimeException e) {
             log.error("A RuntimeException occurred while attempting to delete a user's avatar", e);
             throw new UserAvatarDeleteException("Unable to delete user's avatar");
         }
+
+        currentContentHash.ifPresent(unreferencedAvatarContentsCleaner::releaseAfterCommit);
+        currentRenditionContentHashes.forEach(unreferencedAvatarContentsCleaner::releaseAfterCommit);
+        evictFromCache(userId);
+    }
+
+    private UserAvatarMetadataDto cacheMetadata(UserAvatar userAvatar, Long userId, long metadataGeneration) {
+        UserAvatarMetadataDto userAvatarMetadata = toUserAvatarMetadataDto(userAvatar, userId);
+        userAvatarCache.putMetadata(userAvatarMetadata, metadataGeneration);
+        return userAvatarMetadata;
+    }
+
+    /**
+     * The user id is passed in rather than read from the avatar, because reading it from the lazy user loads the user
+     */
+    private UserAvatarMetadataDto toUserAvatarMetadataDto(UserAvatar userAvatar, Long userId) {
+        return UserAvatarMetadataDto.builder()
+                .id(userAvatar.getId())
+                .fileName(userAvatar.getFileName())
+                .fileExtension(userAvatar.getFileExtension())
+                .fileSizeBytes(userAvatar.getFileSizeBytes())
+                .fileWidthPixels(userAvatar.getFileWidthPixels())
+                .fileHeightPixels(userAvatar.getFileHeightPixels())
+                .contentHash(userAvatar.getContentHash())
+                .mediaType(userAvatar.getMediaType())
+                .lastUpdatedDate(userAvatar.getLastUpdatedDate())
+                .renditions(userAvatar.getRenditions().stream()
+                        .map(this::toUserAvatarRenditionDto)
+                        .sorted(Comparator.comparing(UserAvatarRenditionDto::getSizePixels))
+                        .collect(toList()))
+                .userId(userId)
+                .build();
+    }
+
+    private UserAvatarRenditionDto toUserAvatarRenditionDto(UserAvatarRendition userAvatarRendition) {
+        return UserAvatarRenditionDto.builder()
+                .sizePixels(userAvatarRendition.getSizePixels())
+                .fileWidthPixels(userAvatarRendition.getFileWidthPixels())
+                .fileHeightPixels(userAvatarRendition.getFileHeightPixels())
+                .fileSizeBytes(userAvatarRendition.getFileSizeBytes())
+                .contentHash(userAvatarRendition.getContentHash())
+                .build();
+    }
+
+    private List<String> getRenditionContentHashes(UserAvatar userAvatar) {
+        return userAvatar.getRenditions().stream()
+                .map(UserAvatarRendition::getContentHash)
+                .collect(toList());
+    }
+
+    /**
+     * Build the metadata of an avatar whose contents have not been moved out of the database yet
+     */
+    private UserAvatarMetadataDto toUnmigratedUserAvatarMetadataDto(UserAvatar userAvatar, Long userId) {
+        UserAvatarMetadataDto userAvatarMetadata = toUserAvatarMetadataDto(userAvatar, userId);
+        userAvatarMetadata.setContentHash(imageProcessingService.getImageContentHash(
+                imageProcessingService.getImageDataBytes(userAvatar.getFileContents())));
+        userAvatarMetadata.setMediaType(imageProcessingService.getImageMediaType(userAvatar.getFileContents(), userAvatar.getFileExtension()));
+        return userAvatarMetadata;
+    }
+
+    /**
+     * Build the avatar whose contents have not been moved out of the database yet, with the stored Data URI contents
+     */
+    private UserAvatarDto toUnmigratedUserAvatarDto(UserAvatar userAvatar, Long userId) {
+        return UserAvatarDto.builder()
+                .id(userAvatar.getId())
+                .fileContents(userAvatar.getFileContents())
+                .fileName(userAvatar.getFileName())
+                .fileExtension(userAvatar.getFileExtension())
+                .fileSizeBytes(userAvatar.getFileSizeBytes())
+                .fileWidthPixels(userAvatar.getFileWidthPixels())
+                .fileHeightPixels(userAvatar.getFileHeightPixels())
+                .userId(userId)
+                .build();
+    }
+
+    private UserAvatarMetadataDto copyOf(UserAvatarMetadataDto userAvatarMetadata) {
+        return UserAvatarMetadataDto.builder()
+                .id(userAvatarMetadata.getId())
+                .fileName(userAvatarMetadata.getFileName())
+                .fileExtension(userAvatarMetadata.getFileExtension())
+                .fileSizeBytes(userAvatarMetadata.getFileSizeBytes())
+                .fileWidthPixels(userAvatarMetadata.getFileWidthPixels())
+                .fileHeightPixels(userAvatarMetadata.getFileHeightPixels())
+                .contentHash(userAvatarMetadata.getContentHash())
+                .mediaType(userAvatarMetadata.getMediaType())
+                .lastUpdatedDate(userAvatarMetadata.getLastUpdatedDate())
+                .imageUrl(userAvatarMetadata.getImageUrl())
+                .renditions(userAvatarMetadata.getRenditions().stream()
+                        .map(userAvatarRendition -> UserAvatarRenditionDto.builder()
+                                .sizePixels(userAvatarRendition.getSizePixels())
+                                .fileWidthPixels(userAvatarRendition.getFileWidthPixels())
+                                .fileHeightPixels(userAvatarRendition.getFileHeightPixels())
+                                .fileSizeBytes(userAvatarRendition.getFileSizeBytes())
+                                .contentHash(userAvatarRendition.getContentHash())
+                                .build())
+                        .collect(toList()))
+                .userId(userAvatarMetadata.getUserId())
+                .build();
+    }
+
+    private <T> List<T> inRequestOrder(List<Long> userIds, Map<Long, T> valuesByUserId) {
+        return userIds.stream()
+                .distinct()
+                .map(valuesByUserId::get)
+                .filter(Objects::nonNull)
+                .collect(toList());
+    }
+
+    private void assertBatchSizeAllowed(List<Long> userIds) {
+        int maxBatchSize = umsProperties.getPagination().getMaxSize();
+        if (userIds.size() > maxBatchSize) {
+            log.warn("Unable to get user avatars because the number of requested user ids is greater than the max allowed (Max: " + maxBatchSize + "): " + userIds.size());
+            throw new InvalidAvatarInputException("The number of requested user ids is greater than the allowed maximum");
+        }
+    }
+
+    private UserAvatarDto toUserAvatarDto(UserAvatarMetadataDto userAvatarMetadata) {
+        return UserAvatarDto.builder()
+                .id(userAvatarMetadata.getId())
+                // Rebuild the Data URI representation expected by the API from the stored image bytes
+                .fileContents(toDataURI(userAvatarMetadata.getMediaType(), loadContents(userAvatarMetadata.getContentHash())))
+                .fileName(userAvatarMetadata.getFileName())
+                .fileExtension(userAvatarMetadata.getFileExtension())
+                .fileSizeBytes(userAvatarMetadata.getFileSizeBytes())
+                .fileWidthPixels(userAvatarMetadata.getFileWidthPixels())
+                .fileHeightPixels(userAvatarMetadata.getFileHeightPixels())
+                .userId(userAvatarMetadata.getUserId())
+                .build();
+    }
+
+    private UserAvatarImageDto toUserAvatarImageDto(UserAvatarMetadataDto userAvatarMetadata, Integer sizePixels) {
+        String contentHash = selectContentHash(userAvatarMetadata, sizePixels);
+        return UserAvatarImageDto.builder()
+                .mediaType(userAvatarMetadata.getMediaType())
+                .contentHash(contentHash)
+                .lastUpdatedDate(userAvatarMetadata.getLastUpdatedDate())
+                .userId(userAvatarMetadata.getUserId())
+                .build();
+    }
+
+    /**
+     * Selects the smallest image that is at least as large as the requested size, so a client downloads only the
+     * bytes it needs without scaling an image up. Falls back to the original image when no size is requested or no
+     * image is large enough.
+     *
+     * @param userAvatarMetadata - the metadata of the avatar, including its renditions
+     * @param sizePixels         - the requested width and height in pixels, or null for the original image
+     * @return the content hash of the selected image
+     */
+    private String selectContentHash(UserAvatarMetadataDto userAvatarMetadata, Integer sizePixels) {
+        if (sizePixels == null) {
+            return userAvatarMetadata.getContentHash();
+        }
+        return userAvatarMetadata.getRenditions().stream()
+                .filter(userAvatarRendition -> userAvatarRendition.getSizePixels() >= sizePixels)
+                .min(Comparator.comparing(UserAvatarRenditionDto::getSizePixels))
+                .map(UserAvatarRenditionDto::getContentHash)
+                .orElse(userAvatarMetadata.getContentHash());
+    }
+
+    private byte[] loadContents(String contentHash) {
+        return userAvatarCache.getContents(contentHash)
+                .orElseGet(() -> {
+                    byte[] imageDataBytes = avatarStorage.load(contentHash);
+                    userAvatarCache.putContents(contentHash, imageDataBytes);
+                    return imageDataBytes;
+                });
+    }
+
+    /**
+     * Evicts the cached avatar metadata of a user now and again once the current transaction completes, so a
+     * concurrent read cannot leave the cache holding the metadata from before this transaction.
+     *
+     * @param userId - the id of the user whose avatar is saved or deleted
+     */
+    private void evictFromCache(Long userId) {
+        userAvatarCache.evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    userAvatarCache.evict(userId);
+                }
+            });
+        }
+    }
+
+    private byte[] toDataURI(String mediaType, byte[] imageDataBytes) {
+        String dataURI = "data:" + mediaType + ";base64," + Base64.getEncoder().encodeToString(imageDataBytes);
+        return dataURI.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private byte[] readFully(ImageInputStream imageInputStream) throws IOException {
+        ByteArrayOutputStream imageDataBytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int length;
+        while ((length = imageInputStream.read(buffer)) != -1) {
+            imageDataBytes.write(buffer, 0, length);
+        }
+        return imageDataBytes.toByteArray();
+    }
+
+    /**
+     * Use the extension of the uploaded file name when it matches the detected image format, otherwise the default
+     * extension of the detected image format
+     */
+    private String toFileExtension(String fileName, ImageHeaderDto imageHeader) {
+        int indexOfExtension = fileName == null ? -1 : fileName.lastIndexOf('.');
+        if (indexOfExtension >= 0) {
+            String fileExtension = fileName.substring(indexOfExtension + 1);
+            if (imageHeader.getFileExtensions().stream().anyMatch(fileExtension::equalsIgnoreCase)) {
+                return fileExtension;
+            }
+        }
+        return imageHeader.getFileExtensions().isEmpty() ?
+                imageHeader.getFormatName().toLowerCase() :
+                imageHeader.getFileExtensions().get(0);
     }
 
     private UserAvatar buildUserAvatar(UserAvatar userAvatar, AvatarBytesAndMetaDto avatarFile, User user) {
@@ -101,7 +552,11 @@ private UserAvatar buildUserAvatar(UserAvatar userAvatar, AvatarBytesAndMetaDto
         // Ensure avatar image's height and width are valid
         Dimension imageDimension = checkImageDimensions(avatarFile);
 
-        userAvatar.setFileContents(avatarFile.getFileContents());
+        String contentHash = avatarStorage.save(imageProcessingService.getImageDataBytes(avatarFile.getFileContents()));
+
+        userAvatar.setFileContents(null);
+        userAvatar.setContentHash(contentHash);
+        userAvatar.setMediaType(imageProcessingService.getImageMediaType(avatarFile.getFileContents(), avatarFile.getFileExtension()));
         userAvatar.setFileExtension(avatarFile.getFileExtension());
         userAvatar.setFileName(avatarFile.getFileName());
         userAvatar.setFileSizeBytes(imageFileSize);
@@ -113,9 +568,6 @@ private UserAvatar buildUserAvatar(UserAvatar userAvatar, AvatarBytesAndMetaDto
     }
 
     private Dimension checkImageDimensions(AvatarBytesAndMetaDto avatarFile) {
-        Long requiredImageWidth = umsProperties.getAvatars().getRequiredImageWidth();
-        Long requiredImageHeight = umsProperties.getAvatars().getRequiredImageHeight();
-
         Dimension imageDimension;
 
         try {
@@ -125,17 +577,25 @@ private Dimension checkImageDimensions(AvatarBytesAndMetaDto avatarFile) {
             throw new UserAvatarSaveException("Unable to process avatar image file");
         }
 
-        if (imageDimension.width != requiredImageWidth) {
-            log.warn("Unable to generate a new UserAvatar object because the uploaded image's width is not equal to required value (" + requiredImageWidth + "): " + imageDimension.width);
+        assertImageDimensionsAllowed(imageDimension);
+        return imageDimension;
+    }
+
+    private void assertImageDimensionsAllowed(Dimension imageDimension) {
+        Long minImageWidth = umsProperties.getAvatars().getRequiredImageWidth();
+        Long minImageHeight = umsProperties.getAvatars().getRequiredImageHeight();
+        Long maxImageWidth = umsProperties.getAvatars().getMaxImageWidth();
+        Long maxImageHeight = umsProperties.getAvatars().getMaxImageHeight();
+
+        if (imageDimension.width < minImageWidth || imageDimension.width > maxImageWidth) {
+            log.warn("Unable to generate a new UserAvatar object because the uploaded image's width is not within the allowed range (" + minImageWidth + " - " + maxImageWidth + "): " + imageDimension.width);
             throw new InvalidAvatarInputException("The avatar file image's width is not valid");
         }
 
-        if (imageDimension.height != requiredImageHeight) {
-            log.warn("Unable to generate a new UserAvatar object because the uploaded image's height is not equal to required value (" + requiredImageHeight + "): " + imageDimension.height);
+        if (imageDimension.height < minImageHeight || imageDimension.height > maxImageHeight) {
+            log.warn("Unable to generate a new UserAvatar object because the uploaded image's height is not within the allowed range (" + minImageHeight + " - " + maxImageHeight + "): " + imageDimension.height);
             throw new InvalidAvatarInputException("The avatar file image's height is not valid");
         }
-
-        return imageDimension;
     }
 
     private Long checkImageFileSize(AvatarBytesAndMetaDto avatarFile) {
@@ -160,6 +620,10 @@ private void assertImageFileTypeAllowed(AvatarBytesAndMetaDto avatarFile) {
             throw new InvalidAvatarInputException("The avatar file's type is not allowed or not recognized");
         }
 
+        assertImageFileTypeAllowed(imageFileType);
+    }
+
+    private void assertImageFileTypeAllowed(String imageFileType) {
         List<String> allowedFileTypesList = umsProperties.getAvatars().getAllowedFileTypesList();
 
         if (allowedFileTypesList.parallelStream().noneMatch(fileType -> fileType.equalsIgnoreCase(imageFileType))) {
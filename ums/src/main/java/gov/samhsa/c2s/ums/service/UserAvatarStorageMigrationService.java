@@ -0,0 +1,17 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.service.dto.AvatarStorageMigrationBatchDto;
+
+public interface UserAvatarStorageMigrationService {
+    /**
+     * Moves the contents of up to batchSize avatars that are still stored in the database to the avatar storage.
+     * <p>
+     * Each avatar is moved in its own transaction. An avatar whose contents cannot be moved is logged and skipped, so
+     * its contents stay in the database.
+     *
+     * @param afterUserAvatarId - the id of the last avatar of the previous batch, or 0 for the first batch
+     * @param batchSize         - the max number of avatars to migrate
+     * @return the outcome of the batch; its last avatar id is null when there is nothing left to migrate
+     */
+    AvatarStorageMigrationBatchDto migrateNextBatch(Long afterUserAvatarId, int batchSize);
+}
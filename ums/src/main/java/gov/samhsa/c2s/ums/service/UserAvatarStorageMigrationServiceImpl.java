@@ -0,0 +1,86 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.domain.UserAvatar;
+import gov.samhsa.c2s.ums.domain.UserAvatarRepository;
+import gov.samhsa.c2s.ums.infrastructure.AvatarStorage;
+import gov.samhsa.c2s.ums.service.dto.AvatarStorageMigrationBatchDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+@Slf4j
+public class UserAvatarStorageMigrationServiceImpl implements UserAvatarStorageMigrationService {
+    private final UserAvatarRepository userAvatarRepository;
+    private final ImageProcessingService imageProcessingService;
+    private final AvatarStorage avatarStorage;
+    private final UnreferencedAvatarContentsCleaner unreferencedAvatarContentsCleaner;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public UserAvatarStorageMigrationServiceImpl(UserAvatarRepository userAvatarRepository,
+                                                 ImageProcessingService imageProcessingService,
+                                                 AvatarStorage avatarStorage,
+                                                 UnreferencedAvatarContentsCleaner unreferencedAvatarContentsCleaner,
+                                                 PlatformTransactionManager transactionManager) {
+        this.userAvatarRepository = userAvatarRepository;
+        this.imageProcessingService = imageProcessingService;
+        this.avatarStorage = avatarStorage;
+        this.unreferencedAvatarContentsCleaner = unreferencedAvatarContentsCleaner;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public AvatarStorageMigrationBatchDto migrateNextBatch(Long afterUserAvatarId, int batchSize) {
+        List<Long> userAvatarIds = userAvatarRepository.findIdsByContentHashIsNullAndIdGreaterThan(afterUserAvatarId,
+                new PageRequest(0, batchSize));
+
+        int migratedCount = 0;
+        for (Long userAvatarId : userAvatarIds) {
+            if (migrate(userAvatarId)) {
+                migratedCount++;
+            }
+        }
+
+        log.debug("Moved the contents of " + migratedCount + " of " + userAvatarIds.size() + " user avatars to the avatar storage");
+        return AvatarStorageMigrationBatchDto.builder()
+                .lastUserAvatarId(userAvatarIds.isEmpty() ? null : userAvatarIds.get(userAvatarIds.size() - 1))
+                .migratedCount(migratedCount)
+                .failedCount(userAvatarIds.size() - migratedCount)
+                .build();
+    }
+
+    private boolean migrate(Long userAvatarId) {
+        AtomicReference<String> storedContentHash = new AtomicReference<>();
+        try {
+            transactionTemplate.execute(status -> {
+                UserAvatar userAvatar = userAvatarRepository.findOne(userAvatarId);
+                if (userAvatar == null || userAvatar.getContentHash() != null) {
+                    // Deleted or saved again since the batch was read
+                    return null;
+                }
+                byte[] dataURI = userAvatar.getFileContents();
+                String mediaType = imageProcessingService.getImageMediaType(dataURI, userAvatar.getFileExtension());
+                storedContentHash.set(avatarStorage.save(imageProcessingService.getImageDataBytes(dataURI)));
+                userAvatar.setContentHash(storedContentHash.get());
+                userAvatar.setMediaType(mediaType);
+                userAvatar.setFileContents(null);
+                return userAvatarRepository.save(userAvatar);
+            });
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Unable to move the contents of user avatar " + userAvatarId + " to the avatar storage; its contents stay in the database", e);
+            if (storedContentHash.get() != null) {
+                // The stored contents are not referenced by the avatar that failed to save
+                unreferencedAvatarContentsCleaner.releaseAfterCommit(storedContentHash.get());
+            }
+            return false;
+        }
+    }
+}
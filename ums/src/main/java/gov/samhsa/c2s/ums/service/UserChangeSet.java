@@ -0,0 +1,44 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.domain.User;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The values of the downstream relevant fields of a user before it is changed, captured by
+ * {@link UserChangeTracker#track(User)}.
+ */
+public final class UserChangeSet {
+    private final User user;
+    private final Map<Field, Object> originalValues;
+
+    UserChangeSet(User user, Map<Field, Object> originalValues) {
+        this.user = user;
+        this.originalValues = Collections.unmodifiableMap(originalValues);
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public Map<Field, Object> getOriginalValues() {
+        return originalValues;
+    }
+
+    /**
+     * The user fields that are synchronized with a downstream system
+     */
+    public enum Field {
+        NAME,
+        BIRTH_DATE,
+        GENDER,
+        EMAIL,
+        PHONE,
+        ADDRESS,
+        MRN,
+        IDENTIFIERS,
+        LOCALE,
+        REGISTRATION_PURPOSE_EMAIL
+    }
+}
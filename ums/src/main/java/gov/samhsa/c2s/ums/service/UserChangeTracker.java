@@ -0,0 +1,38 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.domain.User;
+import gov.samhsa.c2s.ums.service.dto.UserSyncStatisticsDto;
+
+import java.util.Set;
+
+/**
+ * Tracks the changes of the downstream relevant fields of a user, so that a downstream synchronization is only sent
+ * when its projection of the user changed.
+ */
+public interface UserChangeTracker {
+
+    /**
+     * Captures the downstream relevant fields of the user. Must be called before the user is changed.
+     */
+    UserChangeSet track(User user);
+
+    /**
+     * Captures only the given fields of the user, so that the associations of the other fields are not loaded. The
+     * other fields are never reported as changed.
+     */
+    UserChangeSet track(User user, Set<UserChangeSet.Field> fields);
+
+    /**
+     * @return the fields of the user that changed since it was tracked
+     */
+    Set<UserChangeSet.Field> getChangedFields(UserChangeSet changeSet);
+
+    /**
+     * Decides whether the synchronization must be sent, and counts it as sent or suppressed.
+     *
+     * @return true if a field of the synchronization projection changed since the user was tracked
+     */
+    boolean shouldSync(UserChangeSet changeSet, UserSyncTarget syncTarget);
+
+    UserSyncStatisticsDto getStatistics();
+}
@@ -0,0 +1,150 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.domain.Address;
+import gov.samhsa.c2s.ums.domain.Demographics;
+import gov.samhsa.c2s.ums.domain.Patient;
+import gov.samhsa.c2s.ums.domain.Telecom;
+import gov.samhsa.c2s.ums.domain.User;
+import gov.samhsa.c2s.ums.domain.reference.AbstractLocalDBLookupCodedConcept;
+import gov.samhsa.c2s.ums.service.UserChangeSet.Field;
+import gov.samhsa.c2s.ums.service.dto.UserSyncStatisticsDto;
+import gov.samhsa.c2s.ums.service.mapping.UserToMrnConverter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * {@link UserChangeTracker} that compares the downstream relevant fields of the user when it is tracked with their
+ * current values. Collections are compared as sets, so reordering telecoms, addresses or identifiers is not a change.
+ */
+@Service
+@Slf4j
+public class UserChangeTrackerImpl implements UserChangeTracker {
+    private final UserToMrnConverter userToMrnConverter;
+    private final Map<UserSyncTarget, AtomicLong> sentCounts = new EnumMap<>(UserSyncTarget.class);
+    private final Map<UserSyncTarget, AtomicLong> suppressedCounts = new EnumMap<>(UserSyncTarget.class);
+
+    @Autowired
+    public UserChangeTrackerImpl(UserToMrnConverter userToMrnConverter) {
+        this.userToMrnConverter = userToMrnConverter;
+        for (UserSyncTarget syncTarget : UserSyncTarget.values()) {
+            sentCounts.put(syncTarget, new AtomicLong());
+            suppressedCounts.put(syncTarget, new AtomicLong());
+        }
+    }
+
+    @Override
+    public UserChangeSet track(User user) {
+        return track(user, EnumSet.allOf(Field.class));
+    }
+
+    @Override
+    public UserChangeSet track(User user, Set<Field> fields) {
+        return new UserChangeSet(user, capture(user, fields));
+    }
+
+    @Override
+    public Set<Field> getChangedFields(UserChangeSet changeSet) {
+        final Map<Field, Object> originalValues = changeSet.getOriginalValues();
+        final Map<Field, Object> currentValues = capture(changeSet.getUser(), originalValues.keySet());
+        final Set<Field> changedFields = EnumSet.noneOf(Field.class);
+        for (Field field : originalValues.keySet()) {
+            if (!Objects.equals(originalValues.get(field), currentValues.get(field))) {
+                changedFields.add(field);
+            }
+        }
+        return changedFields;
+    }
+
+    @Override
+    public boolean shouldSync(UserChangeSet changeSet, UserSyncTarget syncTarget) {
+        final boolean changed = !Collections.disjoint(getChangedFields(changeSet), syncTarget.getFields());
+        if (changed) {
+            sentCounts.get(syncTarget).incrementAndGet();
+        } else {
+            suppressedCounts.get(syncTarget).incrementAndGet();
+            log.debug("Suppressed {} synchronization of user {}, because its projection did not change", syncTarget, changeSet.getUser().getId());
+        }
+        return changed;
+    }
+
+    @Override
+    public UserSyncStatisticsDto getStatistics() {
+        return UserSyncStatisticsDto.builder()
+                .sentCounts(toMetricCounts(sentCounts))
+                .suppressedCounts(toMetricCounts(suppressedCounts))
+                .build();
+    }
+
+    private Map<Field, Object> capture(User user, Set<Field> fields) {
+        final Map<Field, Object> values = new EnumMap<>(Field.class);
+        fields.forEach(field -> values.put(field, valueOf(user, field)));
+        return values;
+    }
+
+    private Object valueOf(User user, Field field) {
+        final Optional<Demographics> demographics = Optional.ofNullable(user.getDemographics());
+        switch (field) {
+            case NAME:
+                return demographics.map(d -> CollectionDiff.key(d.getFirstName(), d.getMiddleName(), d.getLastName())).orElse(null);
+            case BIRTH_DATE:
+                return demographics.map(Demographics::getBirthDay).orElse(null);
+            case GENDER:
+                return demographics.map(Demographics::getAdministrativeGenderCode).map(AbstractLocalDBLookupCodedConcept::getCode).orElse(null);
+            case EMAIL:
+                return telecomKeys(demographics, Telecom.System.EMAIL);
+            case PHONE:
+                return telecomKeys(demographics, Telecom.System.PHONE);
+            case ADDRESS:
+                return keys(demographics.map(Demographics::getAddresses).orElseGet(Collections::emptyList), address -> CollectionDiff.key(
+                        address.getUse(), address.getLine1(), address.getLine2(), address.getCity(),
+                        codeOf(address.getStateCode()), address.getPostalCode(), codeOf(address.getCountryCode())));
+            case MRN:
+                return userToMrnConverter.convertAsOptional(user).orElse(null);
+            case IDENTIFIERS:
+                return keys(demographics.map(Demographics::getIdentifiers).orElseGet(Collections::emptyList),
+                        identifier -> CollectionDiff.key(identifier.getIdentifierSystem().getSystem(), identifier.getValue()));
+            case LOCALE:
+                return codeOf(user.getLocale());
+            case REGISTRATION_PURPOSE_EMAIL:
+                return demographics.map(Demographics::getPatient).map(Patient::getRegistrationPurposeEmail).orElse(null);
+            default:
+                throw new IllegalArgumentException("Unknown field: " + field);
+        }
+    }
+
+    private static Set<Object> telecomKeys(Optional<Demographics> demographics, Telecom.System system) {
+        return demographics.map(Demographics::getTelecoms).orElseGet(Collections::emptyList).stream()
+                .filter(telecom -> system.equals(telecom.getSystem()))
+                .map(telecom -> CollectionDiff.key(telecom.getValue(), telecom.getUse()))
+                .collect(toSet());
+    }
+
+    private static <T> Set<Object> keys(Collection<T> elements, Function<T, Object> key) {
+        return elements.stream().map(key).collect(toSet());
+    }
+
+    private static String codeOf(AbstractLocalDBLookupCodedConcept codedConcept) {
+        return codedConcept == null ? null : codedConcept.getCode();
+    }
+
+    private static Map<String, Long> toMetricCounts(Map<UserSyncTarget, AtomicLong> counts) {
+        final Map<String, Long> metricCounts = new LinkedHashMap<>();
+        counts.forEach((syncTarget, count) -> metricCounts.put(syncTarget.getMetricName(), count.get()));
+        return metricCounts;
+    }
+}
@@ -3,6 +3,8 @@
 import gov.samhsa.c2s.ums.service.dto.AccessDecisionDto;
 import gov.samhsa.c2s.ums.service.dto.UpdateUserLimitedFieldsDto;
 import gov.samhsa.c2s.ums.service.dto.UserDto;
+import gov.samhsa.c2s.ums.service.dto.UserPatchDto;
+import gov.samhsa.c2s.ums.service.dto.UserRegistrationResultDto;
 import org.springframework.data.domain.Page;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,6 +17,9 @@ public interface UserService {
     @Transactional
     UserDto registerUser(UserDto consentDto);
 
+    @Transactional
+    List<UserRegistrationResultDto> registerUsers(List<UserDto> userDtos);
+
     @Transactional
     void disableUser(Long userId, Optional<String> lastUpdatedBy);
 
@@ -24,6 +29,9 @@ public interface UserService {
     @Transactional
     UserDto updateUser(Long userId, UserDto userDto);
 
+    @Transactional
+    UserDto patchUser(Long userId, UserPatchDto userPatchDto);
+
     @Transactional
     UserDto updateUserLimitedFields(Long userId, UpdateUserLimitedFieldsDto updateUserLimitedFieldsDto);
 
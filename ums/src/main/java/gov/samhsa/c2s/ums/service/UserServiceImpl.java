@@ -2,8 +2,10 @@
 
 import gov.samhsa.c2s.ums.config.UmsProperties;
 import gov.samhsa.c2s.ums.domain.Address;
+import gov.samhsa.c2s.ums.domain.AddressRepository;
 import gov.samhsa.c2s.ums.domain.Demographics;
 import gov.samhsa.c2s.ums.domain.DemographicsRepository;
+import gov.samhsa.c2s.ums.domain.FhirPublication;
 import gov.samhsa.c2s.ums.domain.Identifier;
 import gov.samhsa.c2s.ums.domain.IdentifierRepository;
 import gov.samhsa.c2s.ums.domain.IdentifierSystem;
@@ -24,7 +26,6 @@
 import gov.samhsa.c2s.ums.domain.reference.CountryCodeRepository;
 import gov.samhsa.c2s.ums.domain.reference.StateCodeRepository;
 import gov.samhsa.c2s.ums.domain.valueobject.UserPatientRelationshipId;
-import gov.samhsa.c2s.ums.infrastructure.FisClient;
 import gov.samhsa.c2s.ums.infrastructure.ScimService;
 import gov.samhsa.c2s.ums.service.dto.AccessDecisionDto;
 import gov.samhsa.c2s.ums.service.dto.AddressDto;
@@ -33,14 +34,16 @@
 import gov.samhsa.c2s.ums.service.dto.TelecomDto;
 import gov.samhsa.c2s.ums.service.dto.UpdateUserLimitedFieldsDto;
 import gov.samhsa.c2s.ums.service.dto.UserDto;
+import gov.samhsa.c2s.ums.service.dto.UserPatchDto;
+import gov.samhsa.c2s.ums.service.dto.UserRegistrationResultDto;
 import gov.samhsa.c2s.ums.service.exception.InvalidIdentifierSystemException;
+import gov.samhsa.c2s.ums.service.exception.InvalidUserPatchException;
 import gov.samhsa.c2s.ums.service.exception.MissingEmailException;
 import gov.samhsa.c2s.ums.service.exception.PatientNotFoundException;
 import gov.samhsa.c2s.ums.service.exception.UnassignableIdentifierException;
+import gov.samhsa.c2s.ums.service.exception.UserBatchSizeLimitExceededException;
 import gov.samhsa.c2s.ums.service.exception.UserActivationNotFoundException;
 import gov.samhsa.c2s.ums.service.exception.UserNotFoundException;
-import gov.samhsa.c2s.ums.service.mapping.PatientToMrnConverter;
-import gov.samhsa.c2s.ums.service.mapping.UserToMrnConverter;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.TypeToken;
@@ -53,19 +56,30 @@
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.StringTokenizer;
-import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 
 
@@ -102,86 +116,86 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private TelecomRepository telecomRepository;
     @Autowired
-    private IdentifierRepository identifierRepository;
-    @Autowired
-    private UserToMrnConverter userToMrnConverter;
+    private AddressRepository addressRepository;
     @Autowired
-    private PatientToMrnConverter patientToMrnConverter;
+    private IdentifierRepository identifierRepository;
     @Autowired
     private LocaleRepository localeRepository;
     @Autowired
     private ScimService scimService;
+    @Autowired
+    private TokenGenerator tokenGenerator;
+    @Autowired
+    private UserAuthIdCache userAuthIdCache;
+    @Autowired
+    private UserChangeTracker userChangeTracker;
 
     @Autowired
-    private FisClient fisClient;
+    private FhirPublicationService fhirPublicationService;
+    @Autowired
+    private Validator validator;
 
     @Override
     @Transactional
     public UserDto registerUser(UserDto userDto) {
+        final PendingRegistration registration = prepareRegistration(0, userDto);
+        final List<PendingRegistration> registrations = Collections.singletonList(registration);
+        final List<Identifier> newIdentifiers = assignIdentifiers(registration, lookUpIdentifiers(registrations));
+        saveRegistrations(registrations, newIdentifiers);
+        return modelMapper.map(registration.user, UserDto.class);
+    }
 
-        // Step 1: Create User Record and User Role Mapping in UMS
-
-        /* Get User Entity from UserDto */
-        final User user = modelMapper.map(userDto, User.class);
-
-        // Identifiers
-        final Set<UmsProperties.RequiredIdentifierSystem> allRequiredIdentifierSystems = getAllRequiredIdentifierSystems(user);
-        final Set<UmsProperties.RequiredIdentifierSystem> systemGeneratedIdentifierSystems = getRequiredAndSystemGeneratedIdentifierSystems(allRequiredIdentifierSystems);
-        final List<IdentifierDto> consolidatedIdentifierDtos = getConsolidatedIdentifierDtos(userDto, systemGeneratedIdentifierSystems);
-        // Find or create the identifiers and save them to identifierRepository
-        final Stream<Identifier> nonSystemGeneratedIdentifiers = consolidatedIdentifierDtos.stream()
-                .map(idDto -> identifierRepository
-                        .findByValueAndIdentifierSystemSystem(idDto.getValue(), idDto.getSystem())
-                        .orElseGet(() -> createIdentifier(idDto, systemGeneratedIdentifierSystems)));
-        final Stream<Identifier> systemGeneratedIdentifiers = systemGeneratedIdentifierSystems.stream()
-                .map(requiredIdentifierSystem -> {
-                    final IdentifierSystem identifierSystem = identifierSystemRepository.findBySystem(requiredIdentifierSystem.getSystem()).orElseThrow(InvalidIdentifierSystemException::new);
-                    final String identifierValue = generateIdentifier(requiredIdentifierSystem.getAlgorithm());
-                    return Identifier.of(identifierValue, identifierSystem);
-                });
-        final List<Identifier> identifiers = Stream.concat(systemGeneratedIdentifiers, nonSystemGeneratedIdentifiers).collect(toList());
-        assertAllRequiredIdentifiersExist(identifiers, allRequiredIdentifierSystems);
-        identifierRepository.save(identifiers);
-        // Assign these identifiers to the user
-        user.getDemographics().setIdentifiers(identifiers);
-
-        // Add user contact details to Telecom Table
-        user.getDemographics().setTelecoms(modelMapper.map(userDto.getTelecoms(), new TypeToken<List<Telecom>>() {
-        }.getType()));
-        for (Telecom telecom : user.getDemographics().getTelecoms())
-            telecom.setDemographics(user.getDemographics());
-
-        user.getDemographics().setAddresses(modelMapper.map(userDto.getAddresses(), new TypeToken<List<Address>>() {
-        }.getType()));
-        for (Address address : user.getDemographics().getAddresses())
-            address.setDemographics(user.getDemographics());
-
-        userRepository.save(user);
-
-        /*
-        Step 2: Create User Patient Record in UMS  if User is a Patient
-        Add User Patient Record if the role is patient
-        TODO remove the hardcoding with FHIR enum value
-        */
-        if (userDto.getRoles().stream().anyMatch(roleDto -> roleDto.getCode().equalsIgnoreCase("patient"))) {
-            // Assert that the patient has at least one email OR a registrationPurposeEmail
-            final boolean patientHasEmail = user.getDemographics().getTelecoms().stream().map(Telecom::getSystem).anyMatch(Telecom.System.EMAIL::equals);
-            if (!patientHasEmail && !userDto.getRegistrationPurposeEmail().filter(StringUtils::hasText).isPresent()) {
-                throw new MissingEmailException("At least one of personal email OR a registration purpose email is required");
+    /**
+     * Registers the users of a batch in one transaction. A record that is invalid, or whose identifiers cannot be
+     * resolved, is reported as failed without affecting the other records. The valid records are saved together, so a
+     * database error while saving them, such as a duplicate key, fails the whole batch and none of the records is
+     * saved.
+     */
+    @Override
+    @Transactional
+    public List<UserRegistrationResultDto> registerUsers(List<UserDto> userDtos) {
+        if (userDtos.size() > umsProperties.getPagination().getMaxSize()) {
+            throw new UserBatchSizeLimitExceededException("A batch registration request cannot contain more than " + umsProperties.getPagination().getMaxSize() + " users");
+        }
+        final UserRegistrationResultDto[] results = new UserRegistrationResultDto[userDtos.size()];
+
+        // Step 1: Validate all records and map them to User entities before anything is written
+        final List<PendingRegistration> registrations = new ArrayList<>();
+        for (int index = 0; index < userDtos.size(); index++) {
+            final UserDto userDto = userDtos.get(index);
+            try {
+                assertValid(userDto);
+                registrations.add(prepareRegistration(index, userDto));
+            } catch (RuntimeException e) {
+                results[index] = registrationFailed(index, userDto, e);
             }
+        }
 
-            Patient patient = createPatient(user, userDto.getRegistrationPurposeEmail());
-            // Step 2.1: Create User Patient Relationship Mapping in UMS
-            // Add User patient relationship if User is a Patient
-            createUserPatientRelationship(user.getId(), patient.getId(), "patient");
-            // Publish FHIR Patient to FHir Service
-            if (umsProperties.getFhir().getPublish().isEnabled()) {
-                userDto.setMrn(patientToMrnConverter.convert(patient));
-                fisClient.publishFhirPatient(modelMapper.map(user, UserDto.class));
+        // Step 2: Resolve the identifier systems and the existing identifiers of all records with one query each
+        final IdentifierLookup identifierLookup = lookUpIdentifiers(registrations);
+
+        // Step 3: Assign the identifiers; records sharing a new identifier share the same Identifier entity
+        final List<Identifier> newIdentifiers = new ArrayList<>();
+        final List<PendingRegistration> validRegistrations = new ArrayList<>();
+        for (PendingRegistration registration : registrations) {
+            try {
+                newIdentifiers.addAll(assignIdentifiers(registration, identifierLookup));
+                validRegistrations.add(registration);
+            } catch (RuntimeException e) {
+                results[registration.index] = registrationFailed(registration.index, registration.userDto, e);
             }
         }
 
-        return modelMapper.map(user, UserDto.class);
+        // Step 4: Save the entities of all valid records, one entity type at a time
+        saveRegistrations(validRegistrations, newIdentifiers);
+
+        validRegistrations.forEach(registration -> results[registration.index] = UserRegistrationResultDto.builder()
+                .index(registration.index)
+                .status(UserRegistrationResultDto.Status.CREATED)
+                .user(modelMapper.map(registration.user, UserDto.class))
+                .build());
+
+        return Arrays.asList(results);
     }
 
     @Override
@@ -202,6 +216,7 @@ public void disableUser(Long userId, Optional<String> lastUpdatedBy) {
          */
         scimService.inactivateUser(user.getUserAuthId());
         User save = userRepository.save(user);
+        userAuthIdCache.evict(user.getUserAuthId());
     }
 
     @Override
@@ -221,6 +236,7 @@ public void enableUser(Long userId, Optional<String> lastUpdatedBy) {
          */
         scimService.activateUser(user.getUserAuthId());
         User save = userRepository.save(user);
+        userAuthIdCache.evict(user.getUserAuthId());
     }
 
     @Override
@@ -230,6 +246,7 @@ public UserDto updateUser(Long userId, UserDto userDto) {
         /* Get User Entity from UserDto */
 
         final User user = userRepository.findById(userId).orElseThrow(UserNotFoundException::new);
+        final UserChangeSet changeSet = userChangeTracker.track(user);
 
         user.setLastUpdatedBy(userDto.getLastUpdatedBy());
         user.setLocale(localeRepository.findByCode(userDto.getLocale()));
@@ -248,57 +265,25 @@ public UserDto updateUser(Long userId, UserDto userDto) {
         final Set<UmsProperties.RequiredIdentifierSystem> allRequiredIdentifierSystems = getAllRequiredIdentifierSystems(user);
         final Set<UmsProperties.RequiredIdentifierSystem> systemGeneratedIdentifierSystems = getRequiredAndSystemGeneratedIdentifierSystems(allRequiredIdentifierSystems);
         final List<IdentifierDto> consolidatedIdentifierDtos = getConsolidatedIdentifierDtos(userDto, systemGeneratedIdentifierSystems);
-        // Find the non-system-generated identifiers that have different values in the request to remove them
-        final List<Identifier> identifiersToRemove = Optional.of(user)
-                .map(User::getDemographics)
-                .map(Demographics::getIdentifiers)
-                .orElseGet(Collections::emptyList)
-                .stream()
-                .filter(id -> systemGeneratedIdentifierSystems.stream()
-                        .map(UmsProperties.RequiredIdentifierSystem::getSystem)
-                        .noneMatch(id.getIdentifierSystem().getSystem()::equals))
-                .filter(id -> consolidatedIdentifierDtos.stream()
-                        .noneMatch(idDto -> deepEquals(id, idDto)))
-                .collect(toList());
-        // Remove the different non-system-generated identifiers from the user
-        Optional.of(user)
-                .map(User::getDemographics)
-                .map(Demographics::getIdentifiers)
-                .ifPresent(identifiers -> identifiers.removeAll(identifiersToRemove));
-        // Find the different and non-system-generated identifiers from the request
-        final List<Identifier> identifiersToAdd = consolidatedIdentifierDtos.stream()
-                .filter(idDto -> Optional.of(user)
-                        .map(User::getDemographics)
-                        .map(Demographics::getIdentifiers)
-                        .orElseGet(Collections::emptyList).stream()
-                        .noneMatch(id -> deepEquals(id, idDto)))
-                .filter(idDto -> systemGeneratedIdentifierSystems.stream()
-                        .map(UmsProperties.RequiredIdentifierSystem::getSystem)
-                        .noneMatch(system -> system.equals(idDto.getSystem())))
-                .map(idDto -> identifierRepository.findByValueAndIdentifierSystemSystem(idDto.getValue(), idDto.getSystem())
-                        .orElseGet(() -> createIdentifier(idDto, systemGeneratedIdentifierSystems)))
-                .collect(toList());
-        // Save the different and non-system-generated identifiers and add them to the user
-        identifierRepository.save(identifiersToAdd);
-        // Assert the new identifiers to add does not contain unassignable identifiers
-        assertDoesNotContainUnassignableIdentifiers(user, identifiersToAdd);
-        // Add new identifiers
-        user.getDemographics().getIdentifiers().addAll(identifiersToAdd);
-        assertAllRequiredIdentifiersExist(user.getDemographics().getIdentifiers(), allRequiredIdentifierSystems);
+        updateIdentifiers(user, consolidatedIdentifierDtos, allRequiredIdentifierSystems, systemGeneratedIdentifierSystems);
 
         user.getDemographics().setAdministrativeGenderCode(administrativeGenderCodeRepository.findByCode(userDto.getGenderCode()));
 
         //update address
         List<Address> addresses = user.getDemographics().getAddresses();
         if (userDto.getAddresses() != null) {
-            userDto.getAddresses().stream().forEach(addressDto -> {
-                Optional<Address> tempAddress = addresses.stream().filter(address -> address.getUse().toString().equals(addressDto.getUse())).findFirst();
-                if (tempAddress.isPresent()) {
-                    mapAddressDtoToAddress(tempAddress.get(), addressDto);
+            // Update the address with the same use, or add a new address
+            final Map<List<Object>, Address> addressesByUse = new HashMap<>();
+            addresses.forEach(address -> addressesByUse.putIfAbsent(CollectionDiff.key(address.getUse()), address));
+            userDto.getAddresses().forEach(addressDto -> {
+                final Address tempAddress = addressesByUse.get(CollectionDiff.key(addressDto.getUse()));
+                if (tempAddress != null) {
+                    mapAddressDtoToAddress(tempAddress, addressDto);
                 } else {
                     Address address = mapAddressDtoToAddress(new Address(), addressDto);
                     address.setDemographics(user.getDemographics());
                     addresses.add(address);
+                    addressesByUse.put(CollectionDiff.key(addressDto.getUse()), address);
                 }
             });
         }
@@ -313,18 +298,15 @@ public UserDto updateUser(Long userId, UserDto userDto) {
                 .map(Demographics::getPatient);
         assertEmails(userDto, patientOptional.isPresent());
 
-        // Find telecoms to remove
-        final List<Telecom> telecomsToRemove = telecoms.stream()
-                .filter(telecom -> telecomDtos.stream()
-                        .noneMatch(telecomDto -> deepEquals(telecom, telecomDto)))
-                .collect(toList());
+        // Compare the telecoms of the user with the telecoms in the request
+        final CollectionDiff<Telecom, TelecomDto> telecomDiff = CollectionDiff.of(
+                telecoms, telecom -> CollectionDiff.key(telecom.getSystem(), telecom.getValue(), telecom.getUse()),
+                telecomDtos, telecomDto -> CollectionDiff.key(telecomDto.getSystem(), telecomDto.getValue(), telecomDto.getUse()));
 
-        telecomRepository.deleteInBatch(telecomsToRemove);
+        removeAllByIdentity(telecoms, telecomDiff.getRemoved());
+        telecomRepository.deleteInBatch(telecomDiff.getRemoved());
 
-        // Find telecoms to add
-        final List<Telecom> telecomsToAdd = telecomDtos.stream()
-                .filter(telecomDto -> telecoms.stream()
-                        .noneMatch(telecom -> deepEquals(telecom, telecomDto)))
+        final List<Telecom> telecomsToAdd = telecomDiff.getAdded().stream()
                 .map(telecomDto -> mapTelecomDtoToTelcom(new Telecom(), telecomDto))
                 .collect(toList());
 
@@ -339,23 +321,151 @@ public UserDto updateUser(Long userId, UserDto userDto) {
                 .ifPresent(patient -> {
                     userDto.getRegistrationPurposeEmail().ifPresent(patient::setRegistrationPurposeEmail);
                     patientRepository.save(patient);
-                    if (umsProperties.getFhir().getPublish().isEnabled()) {
-                        userDto.setMrn(userToMrnConverter.convert(user));
-                        fisClient.updateFhirPatient(modelMapper.map(user, UserDto.class));
+                    if (umsProperties.getFhir().getPublish().isEnabled() && userChangeTracker.shouldSync(changeSet, UserSyncTarget.FHIR_PATIENT)) {
+                        fhirPublicationService.enqueue(user.getId(), FhirPublication.Operation.UPDATE);
                     }
                 });
 
         // If system account exists, also update basic user info in authorization server
         Optional.of(user)
                 .map(User::getUserAuthId)
+                .filter(userAuthId -> userChangeTracker.shouldSync(changeSet, UserSyncTarget.UAA_BASIC_INFO))
                 .ifPresent(userAuthId -> scimService.updateUserBasicInfo(userAuthId, userDto));
         return modelMapper.map(updatedUser, UserDto.class);
     }
 
+    @Override
+    @Transactional
+    public UserDto patchUser(Long userId, UserPatchDto userPatchDto) {
+        final User user = userRepository.findById(userId).orElseThrow(UserNotFoundException::new);
+        // Only the properties in the patch are read and changed, so the associations that the patch does not touch are
+        // not loaded, and only the changed columns are written
+        final UserChangeSet changeSet = userChangeTracker.track(user, getPatchedFields(userPatchDto));
+        applyPatchValue(userPatchDto.getLastUpdatedBy(), user::getLastUpdatedBy, user::setLastUpdatedBy);
+        final Optional<String> localeCode = requirePatchValue(userPatchDto.getLocale(), "locale");
+        if (localeCode != null) {
+            applyPatchValue(localeCode.map(localeRepository::findByCode), user::getLocale, user::setLocale);
+        }
+
+        final Demographics demographics = user.getDemographics();
+        applyPatchValue(requirePatchValue(userPatchDto.getFirstName(), "firstName"), demographics::getFirstName, demographics::setFirstName);
+        applyPatchValue(requirePatchValue(userPatchDto.getLastName(), "lastName"), demographics::getLastName, demographics::setLastName);
+        applyPatchValue(userPatchDto.getMiddleName(), demographics::getMiddleName, demographics::setMiddleName);
+        applyPatchValue(requirePatchValue(userPatchDto.getBirthDate(), "birthDate"), demographics::getBirthDay, demographics::setBirthDay);
+        final Optional<String> genderCode = requirePatchValue(userPatchDto.getGenderCode(), "genderCode");
+        if (genderCode != null) {
+            applyPatchValue(genderCode.map(administrativeGenderCodeRepository::findByCode),
+                    demographics::getAdministrativeGenderCode, demographics::setAdministrativeGenderCode);
+        }
+
+        if (userPatchDto.getRegistrationPurposeEmail() != null) {
+            final Patient patient = Optional.ofNullable(demographics.getPatient())
+                    .orElseThrow(() -> new InvalidUserPatchException("registrationPurposeEmail can only be patched for a patient"));
+            applyPatchValue(userPatchDto.getRegistrationPurposeEmail().filter(StringUtils::hasText).map(String::trim),
+                    patient::getRegistrationPurposeEmail, patient::setRegistrationPurposeEmail);
+        }
+
+        // Identifiers
+        if (userPatchDto.getIdentifiers() != null || userPatchDto.getSocialSecurityNumber() != null) {
+            final Set<UmsProperties.RequiredIdentifierSystem> allRequiredIdentifierSystems = getAllRequiredIdentifierSystems(user);
+            final Set<UmsProperties.RequiredIdentifierSystem> systemGeneratedIdentifierSystems = getRequiredAndSystemGeneratedIdentifierSystems(allRequiredIdentifierSystems);
+            final Set<String> systemGeneratedSystems = systemGeneratedIdentifierSystems.stream()
+                    .map(UmsProperties.RequiredIdentifierSystem::getSystem)
+                    .collect(toSet());
+            final String ssnSystem = umsProperties.getSsn().getCodeSystem();
+            // The identifiers in the patch replace the non-system-generated identifiers of the user
+            List<IdentifierDto> identifierDtos = userPatchDto.getIdentifiers() != null ?
+                    userPatchDto.getIdentifiers().orElseGet(Collections::emptyList) :
+                    demographics.getIdentifiers().stream()
+                            .filter(id -> !systemGeneratedSystems.contains(id.getIdentifierSystem().getSystem()))
+                            .map(id -> IdentifierDto.of(id.getValue(), id.getIdentifierSystem().getSystem()))
+                            .collect(toList());
+            // The SSN property replaces the SSN identifier, unless the identifiers in the patch contain an SSN
+            final boolean hasSsnInIdentifiers = userPatchDto.getIdentifiers() != null &&
+                    identifierDtos.stream().anyMatch(identifierDto -> ssnSystem.equals(identifierDto.getSystem()));
+            if (userPatchDto.getSocialSecurityNumber() != null && !hasSsnInIdentifiers) {
+                identifierDtos = Stream.concat(
+                        identifierDtos.stream().filter(identifierDto -> !ssnSystem.equals(identifierDto.getSystem())),
+                        userPatchDto.getSocialSecurityNumber()
+                                .filter(StringUtils::hasText)
+                                .map(ssnValue -> IdentifierDto.of(ssnValue, ssnSystem))
+                                .map(Stream::of)
+                                .orElseGet(Stream::empty))
+                        .collect(toList());
+            }
+            identifierDtos.forEach(identifierDto -> assertIdentifierSystemIsNotSystemGenerated(identifierDto, systemGeneratedIdentifierSystems));
+            updateIdentifiers(user, identifierDtos, allRequiredIdentifierSystems, systemGeneratedIdentifierSystems);
+        }
+
+        // Addresses, matched by use
+        if (userPatchDto.getAddresses() != null) {
+            final CollectionDiff<Address, AddressDto> addressDiff = CollectionDiff.of(
+                    demographics.getAddresses(), address -> CollectionDiff.key(address.getUse()),
+                    userPatchDto.getAddresses().orElseGet(Collections::emptyList), addressDto -> CollectionDiff.key(addressDto.getUse()));
+            addressDiff.getMatched().forEach(match -> mapAddressDtoToAddress(match.getExisting(), match.getRequested()));
+            if (!addressDiff.isEmpty()) {
+                removeAllByIdentity(demographics.getAddresses(), addressDiff.getRemoved());
+                addressRepository.delete(addressDiff.getRemoved());
+                addressDiff.getAdded().forEach(addressDto -> {
+                    final Address address = mapAddressDtoToAddress(new Address(), addressDto);
+                    address.setDemographics(demographics);
+                    demographics.getAddresses().add(address);
+                });
+            }
+        }
+
+        // Telecoms
+        if (userPatchDto.getTelecoms() != null) {
+            final CollectionDiff<Telecom, TelecomDto> telecomDiff = CollectionDiff.of(
+                    demographics.getTelecoms(), telecom -> CollectionDiff.key(telecom.getSystem(), telecom.getValue(), telecom.getUse()),
+                    userPatchDto.getTelecoms().orElseGet(Collections::emptyList), telecomDto -> CollectionDiff.key(telecomDto.getSystem(), telecomDto.getValue(), telecomDto.getUse()));
+            if (!telecomDiff.isEmpty()) {
+                removeAllByIdentity(demographics.getTelecoms(), telecomDiff.getRemoved());
+                telecomRepository.delete(telecomDiff.getRemoved());
+                final List<Telecom> telecomsToAdd = telecomDiff.getAdded().stream()
+                        .map(telecomDto -> mapTelecomDtoToTelcom(new Telecom(), telecomDto))
+                        .collect(toList());
+                telecomsToAdd.forEach(telecom -> telecom.setDemographics(demographics));
+                telecomRepository.save(telecomsToAdd);
+                demographics.getTelecoms().addAll(telecomsToAdd);
+            }
+        }
+
+        // Assert that a patient still has at least one email OR a registration purpose email
+        if (userPatchDto.getTelecoms() != null || userPatchDto.getRegistrationPurposeEmail() != null) {
+            Optional.ofNullable(demographics.getPatient()).ifPresent(patient -> {
+                final boolean patientHasEmail = demographics.getTelecoms().stream().map(Telecom::getSystem).anyMatch(Telecom.System.EMAIL::equals);
+                if (!patientHasEmail && !StringUtils.hasText(patient.getRegistrationPurposeEmail())) {
+                    throw new MissingEmailException("At least one of personal email OR a registration purpose email is required");
+                }
+            });
+        }
+
+        // Update the patient in fhir only if the patient changed
+        if (demographics.getPatient() != null && umsProperties.getFhir().getPublish().isEnabled() &&
+                userChangeTracker.shouldSync(changeSet, UserSyncTarget.FHIR_PATIENT)) {
+            fhirPublicationService.enqueue(user.getId(), FhirPublication.Operation.UPDATE);
+        }
+
+        // If system account exists, also update basic user info in authorization server if it changed
+        if (user.getUserAuthId() != null && userChangeTracker.shouldSync(changeSet, UserSyncTarget.UAA_BASIC_INFO)) {
+            final UserDto basicInfo = UserDto.builder()
+                    .firstName(demographics.getFirstName())
+                    .lastName(demographics.getLastName())
+                    .telecoms(demographics.getTelecoms().stream()
+                            .map(telecom -> new TelecomDto(telecom.getSystem().toString(), telecom.getValue(), telecom.getUse().toString()))
+                            .collect(toList()))
+                    .build();
+            scimService.updateUserBasicInfo(user.getUserAuthId(), basicInfo);
+        }
+        return modelMapper.map(user, UserDto.class);
+    }
+
     @Override
     public UserDto updateUserLimitedFields(Long userId, UpdateUserLimitedFieldsDto updateUserLimitedFieldsDto) {
         // Get user from database as UserDto object
         User user = userRepository.findOne(userId);
+        final UserChangeSet changeSet = userChangeTracker.track(user);
 
         // Update address
         List<Address> addresses = user.getDemographics().getAddresses();
@@ -433,7 +543,9 @@ public UserDto updateUserLimitedFields(Long userId, UpdateUserLimitedFieldsDto u
                 .map(Demographics::getPatient);
 
         //Update in uaa
-        scimService.updateUserLimitedInfo(user.getUserAuthId(), updateUserLimitedFieldsDto);
+        if (userChangeTracker.shouldSync(changeSet, UserSyncTarget.UAA_LIMITED_INFO)) {
+            scimService.updateUserLimitedInfo(user.getUserAuthId(), updateUserLimitedFieldsDto);
+        }
 
         //Update last updated by
         user.setLastUpdatedBy(updateUserLimitedFieldsDto.getLastUpdatedBy());
@@ -442,8 +554,8 @@ public UserDto updateUserLimitedFields(Long userId, UpdateUserLimitedFieldsDto u
 
         patientOptional
                 .ifPresent((patient) -> {
-                    if (umsProperties.getFhir().getPublish().isEnabled()) {
-                        fisClient.updateFhirPatient(modelMapper.map(user, UserDto.class));
+                    if (umsProperties.getFhir().getPublish().isEnabled() && userChangeTracker.shouldSync(changeSet, UserSyncTarget.FHIR_PATIENT)) {
+                        fhirPublicationService.enqueue(user.getId(), FhirPublication.Operation.UPDATE);
                     }
                 });
 
@@ -465,7 +577,7 @@ public void updateUserLocale(Long userId, String localeCode) {
     public void updateUserLocaleByUserAuthId(String userAuthId, String localeCode) {
 
         /* Get User Entity from UserDto */
-        User user = userRepository.findByUserAuthIdAndDisabled(userAuthId, false).orElseThrow(() -> new UserNotFoundException("User Not Found!"));
+        User user = userAuthIdCache.findEnabledUser(userAuthId).orElseThrow(() -> new UserNotFoundException("User Not Found!"));
         user.setLocale(localeRepository.findByCode(localeCode));
         user = userRepository.save(user);
     }
@@ -473,7 +585,7 @@ public void updateUserLocaleByUserAuthId(String userAuthId, String localeCode) {
     @Override
     @Transactional(readOnly = true)
     public AccessDecisionDto accessDecision(String userAuthId, String patientMrn) {
-        final User user = userRepository.findByUserAuthIdAndDisabled(userAuthId, false).orElseThrow(() -> new UserNotFoundException("User Not Found!"));
+        final User user = userAuthIdCache.findEnabledUser(userAuthId).orElseThrow(() -> new UserNotFoundException("User Not Found!"));
         final Patient patient = demographicsRepository.findOneByIdentifiersValueAndIdentifiersIdentifierSystemSystem(patientMrn, umsProperties.getMrn().getCodeSystem())
                 .map(Demographics::getPatient)
                 .orElseThrow(() -> new PatientNotFoundException("Patient Not Found!"));
@@ -495,7 +607,7 @@ public UserDto getUser(Long userId) {
     @Override
     @Transactional(readOnly = true)
     public UserDto getUserByUserAuthId(String userAuthId) {
-        final User user = userRepository.findByUserAuthIdAndDisabled(userAuthId, false)
+        final User user = userAuthIdCache.findEnabledUser(userAuthId)
                 .orElseThrow(() -> new UserNotFoundException("User Not Found!"));
         return modelMapper.map(user, UserDto.class);
     }
@@ -610,6 +722,126 @@ private List<IdentifierDto> getConsolidatedIdentifierDtos(UserDto userDto, Set<U
                 .collect(toList());
     }
 
+    /**
+     * Applies a merge patch value to a property. A <code>null</code> patch value leaves the property unchanged, and an
+     * empty patch value removes the value of the property. An unchanged value is not set, so that it is not dirty.
+     */
+    private static <T> void applyPatchValue(Optional<T> patchValue, Supplier<T> getter, Consumer<T> setter) {
+        if (patchValue != null) {
+            final T value = patchValue.orElse(null);
+            if (!Objects.equals(value, getter.get())) {
+                setter.accept(value);
+            }
+        }
+    }
+
+    /**
+     * @return the downstream relevant fields that the patch can change
+     */
+    private static Set<UserChangeSet.Field> getPatchedFields(UserPatchDto userPatchDto) {
+        final Set<UserChangeSet.Field> fields = EnumSet.noneOf(UserChangeSet.Field.class);
+        if (userPatchDto.getFirstName() != null || userPatchDto.getMiddleName() != null || userPatchDto.getLastName() != null) {
+            fields.add(UserChangeSet.Field.NAME);
+        }
+        if (userPatchDto.getBirthDate() != null) {
+            fields.add(UserChangeSet.Field.BIRTH_DATE);
+        }
+        if (userPatchDto.getGenderCode() != null) {
+            fields.add(UserChangeSet.Field.GENDER);
+        }
+        if (userPatchDto.getTelecoms() != null) {
+            fields.add(UserChangeSet.Field.EMAIL);
+            fields.add(UserChangeSet.Field.PHONE);
+        }
+        if (userPatchDto.getAddresses() != null) {
+            fields.add(UserChangeSet.Field.ADDRESS);
+        }
+        if (userPatchDto.getIdentifiers() != null || userPatchDto.getSocialSecurityNumber() != null) {
+            fields.add(UserChangeSet.Field.MRN);
+            fields.add(UserChangeSet.Field.IDENTIFIERS);
+        }
+        if (userPatchDto.getLocale() != null) {
+            fields.add(UserChangeSet.Field.LOCALE);
+        }
+        if (userPatchDto.getRegistrationPurposeEmail() != null) {
+            fields.add(UserChangeSet.Field.REGISTRATION_PURPOSE_EMAIL);
+        }
+        return fields;
+    }
+
+    private static <T> Optional<T> requirePatchValue(Optional<T> patchValue, String property) {
+        if (patchValue != null && !patchValue.isPresent()) {
+            throw new InvalidUserPatchException(property + " cannot be removed");
+        }
+        return patchValue;
+    }
+
+    private static <T> void removeAllByIdentity(List<T> elements, List<T> elementsToRemove) {
+        // The entities reference each other in equals, so the elements are compared by identity
+        final Set<T> identitySet = Collections.newSetFromMap(new IdentityHashMap<>());
+        identitySet.addAll(elementsToRemove);
+        elements.removeIf(identitySet::contains);
+    }
+
+    /**
+     * Replaces the non-system-generated identifiers of the user with the given identifiers, keeping the identifiers
+     * that did not change
+     */
+    private void updateIdentifiers(User user, List<IdentifierDto> consolidatedIdentifierDtos,
+                                   Set<UmsProperties.RequiredIdentifierSystem> allRequiredIdentifierSystems,
+                                   Set<UmsProperties.RequiredIdentifierSystem> systemGeneratedIdentifierSystems) {
+        // Compare the non-system-generated identifiers of the user with the identifiers in the request
+        final Set<String> systemGeneratedSystems = systemGeneratedIdentifierSystems.stream()
+                .map(UmsProperties.RequiredIdentifierSystem::getSystem)
+                .collect(toSet());
+        final CollectionDiff<Identifier, IdentifierDto> identifierDiff = CollectionDiff.of(
+                Optional.of(user)
+                        .map(User::getDemographics)
+                        .map(Demographics::getIdentifiers)
+                        .orElseGet(Collections::emptyList)
+                        .stream()
+                        .filter(id -> !systemGeneratedSystems.contains(id.getIdentifierSystem().getSystem()))
+                        .collect(toList()),
+                id -> CollectionDiff.key(id.getIdentifierSystem().getSystem(), id.getValue()),
+                consolidatedIdentifierDtos,
+                idDto -> CollectionDiff.key(idDto.getSystem(), idDto.getValue()));
+        // Remove the different non-system-generated identifiers from the user
+        Optional.of(user)
+                .map(User::getDemographics)
+                .map(Demographics::getIdentifiers)
+                .ifPresent(identifiers -> identifiers.removeAll(identifierDiff.getRemoved()));
+        // Find or create the different and non-system-generated identifiers from the request
+        final List<Identifier> identifiersToAdd = findOrCreateIdentifiers(identifierDiff.getAdded(), systemGeneratedIdentifierSystems);
+        // Save the different and non-system-generated identifiers and add them to the user
+        identifierRepository.save(identifiersToAdd);
+        // Assert the new identifiers to add does not contain unassignable identifiers
+        assertDoesNotContainUnassignableIdentifiers(user, identifiersToAdd);
+        // Add new identifiers
+        user.getDemographics().getIdentifiers().addAll(identifiersToAdd);
+        assertAllRequiredIdentifiersExist(user.getDemographics().getIdentifiers(), allRequiredIdentifierSystems);
+    }
+
+    /**
+     * Finds the identifiers of the given identifier DTOs with one query, and creates the identifiers that do not exist
+     */
+    private List<Identifier> findOrCreateIdentifiers(List<IdentifierDto> identifierDtos, Set<UmsProperties.RequiredIdentifierSystem> systemGeneratedIdentifierSystems) {
+        if (identifierDtos.isEmpty()) {
+            return new ArrayList<>();
+        }
+        final Set<String> systems = identifierDtos.stream().map(IdentifierDto::getSystem).collect(toSet());
+        final Set<String> values = identifierDtos.stream().map(IdentifierDto::getValue).collect(toSet());
+        // The query matches systems and values independently, so the identifiers are looked up by exact (system, value) pairs
+        final Map<List<Object>, Identifier> identifiersByKey = new HashMap<>();
+        identifierRepository.findAllByIdentifierSystemSystemInAndValueIn(systems, values)
+                .forEach(identifier -> identifiersByKey.put(CollectionDiff.key(identifier.getIdentifierSystem().getSystem(), identifier.getValue()), identifier));
+        final List<Identifier> identifiers = new ArrayList<>(identifierDtos.size());
+        for (IdentifierDto idDto : identifierDtos) {
+            identifiers.add(identifiersByKey.computeIfAbsent(CollectionDiff.key(idDto.getSystem(), idDto.getValue()),
+                    key -> createIdentifier(idDto, systemGeneratedIdentifierSystems)));
+        }
+        return identifiers;
+    }
+
     private Identifier createIdentifier(IdentifierDto idDto, Set<UmsProperties.RequiredIdentifierSystem> systemGeneratedIdentifierSystems) {
         return Identifier.of(idDto.getValue(), identifierSystemRepository
                 .findBySystem(idDto.getSystem())
@@ -642,7 +874,146 @@ private void assertDoesNotContainUnassignableIdentifiers(User user, List<Identif
         }
     }
 
-    private Patient createPatient(User user, Optional<String> registrationPurposeEmail) {
+    private void assertValid(UserDto userDto) {
+        final Set<ConstraintViolation<UserDto>> violations = validator.validate(userDto);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(joining(", ")), violations);
+        }
+    }
+
+    /**
+     * Maps a registration to its User entity and checks the rules that do not need the database
+     */
+    private PendingRegistration prepareRegistration(int index, UserDto userDto) {
+        final User user = modelMapper.map(userDto, User.class);
+        final Set<UmsProperties.RequiredIdentifierSystem> allRequiredIdentifierSystems = getAllRequiredIdentifierSystems(user);
+        final Set<UmsProperties.RequiredIdentifierSystem> systemGeneratedIdentifierSystems = getRequiredAndSystemGeneratedIdentifierSystems(allRequiredIdentifierSystems);
+        final List<IdentifierDto> identifierDtos = getConsolidatedIdentifierDtos(userDto, systemGeneratedIdentifierSystems);
+
+        final List<TelecomDto> telecomDtos = Optional.ofNullable(userDto.getTelecoms()).orElseGet(Collections::emptyList);
+        user.getDemographics().setTelecoms(modelMapper.map(telecomDtos, new TypeToken<List<Telecom>>() {
+        }.getType()));
+        for (Telecom telecom : user.getDemographics().getTelecoms())
+            telecom.setDemographics(user.getDemographics());
+
+        final List<AddressDto> addressDtos = Optional.ofNullable(userDto.getAddresses()).orElseGet(Collections::emptyList);
+        user.getDemographics().setAddresses(modelMapper.map(addressDtos, new TypeToken<List<Address>>() {
+        }.getType()));
+        for (Address address : user.getDemographics().getAddresses())
+            address.setDemographics(user.getDemographics());
+
+        // TODO remove the hardcoding with FHIR enum value
+        final boolean patient = Optional.ofNullable(userDto.getRoles()).orElseGet(Collections::emptyList).stream()
+                .anyMatch(roleDto -> "patient".equalsIgnoreCase(roleDto.getCode()));
+        if (patient) {
+            // Assert that the patient has at least one email OR a registrationPurposeEmail
+            final boolean patientHasEmail = user.getDemographics().getTelecoms().stream().map(Telecom::getSystem).anyMatch(Telecom.System.EMAIL::equals);
+            if (!patientHasEmail && !userDto.getRegistrationPurposeEmail().filter(StringUtils::hasText).isPresent()) {
+                throw new MissingEmailException("At least one of personal email OR a registration purpose email is required");
+            }
+        }
+        return new PendingRegistration(index, userDto, user, patient, allRequiredIdentifierSystems, systemGeneratedIdentifierSystems, identifierDtos);
+    }
+
+    private IdentifierLookup lookUpIdentifiers(List<PendingRegistration> registrations) {
+        final Set<String> systems = registrations.stream()
+                .flatMap(registration -> Stream.concat(
+                        registration.identifierDtos.stream().map(IdentifierDto::getSystem),
+                        registration.systemGeneratedIdentifierSystems.stream().map(UmsProperties.RequiredIdentifierSystem::getSystem)))
+                .collect(toSet());
+        final Set<String> values = registrations.stream()
+                .flatMap(registration -> registration.identifierDtos.stream())
+                .map(IdentifierDto::getValue)
+                .collect(toSet());
+        final Map<String, IdentifierSystem> identifierSystemsBySystem = systems.isEmpty() ?
+                Collections.emptyMap() :
+                identifierSystemRepository.findAllBySystemIn(systems).stream()
+                        .collect(toMap(IdentifierSystem::getSystem, Function.identity()));
+        // The query matches systems and values independently, so only the exact (system, value) pairs are kept
+        final Map<String, Map<String, Identifier>> identifiersBySystemAndValue = new HashMap<>();
+        if (!systems.isEmpty() && !values.isEmpty()) {
+            identifierRepository.findAllByIdentifierSystemSystemInAndValueIn(systems, values)
+                    .forEach(identifier -> identifiersBySystemAndValue
+                            .computeIfAbsent(identifier.getIdentifierSystem().getSystem(), system -> new HashMap<>())
+                            .put(identifier.getValue(), identifier));
+        }
+        return new IdentifierLookup(identifierSystemsBySystem, identifiersBySystemAndValue);
+    }
+
+    /**
+     * Assigns the existing identifiers, new identifiers and system generated identifiers to the user of the
+     * registration. The new identifiers are added to the lookup, so following registrations share them.
+     *
+     * @return the identifiers that are new and must be saved
+     */
+    private List<Identifier> assignIdentifiers(PendingRegistration registration, IdentifierLookup identifierLookup) {
+        final List<Identifier> resolvedIdentifiers = new ArrayList<>();
+        final List<Identifier> createdIdentifiers = new ArrayList<>();
+        for (IdentifierDto idDto : registration.identifierDtos) {
+            final Identifier existingIdentifier = identifierLookup.identifiersBySystemAndValue
+                    .getOrDefault(idDto.getSystem(), Collections.emptyMap())
+                    .get(idDto.getValue());
+            if (existingIdentifier != null) {
+                resolvedIdentifiers.add(existingIdentifier);
+            } else {
+                final IdentifierSystem identifierSystem = Optional.ofNullable(identifierLookup.identifierSystemsBySystem.get(idDto.getSystem()))
+                        .orElseThrow(() -> new InvalidIdentifierSystemException("Identifier System '" + idDto.getSystem() + "' is not found or it can be only generated by the system"));
+                final Identifier identifier = Identifier.of(idDto.getValue(), identifierSystem);
+                resolvedIdentifiers.add(identifier);
+                createdIdentifiers.add(identifier);
+            }
+        }
+        for (UmsProperties.RequiredIdentifierSystem requiredIdentifierSystem : registration.systemGeneratedIdentifierSystems) {
+            final IdentifierSystem identifierSystem = Optional.ofNullable(identifierLookup.identifierSystemsBySystem.get(requiredIdentifierSystem.getSystem()))
+                    .orElseThrow(InvalidIdentifierSystemException::new);
+            final Identifier identifier = Identifier.of(generateIdentifier(requiredIdentifierSystem.getAlgorithm()), identifierSystem);
+            resolvedIdentifiers.add(identifier);
+            createdIdentifiers.add(identifier);
+        }
+        assertAllRequiredIdentifiersExist(resolvedIdentifiers, registration.allRequiredIdentifierSystems);
+        // Make the identifiers created for this record visible to the following records
+        createdIdentifiers.forEach(identifier -> identifierLookup.identifiersBySystemAndValue
+                .computeIfAbsent(identifier.getIdentifierSystem().getSystem(), system -> new HashMap<>())
+                .put(identifier.getValue(), identifier));
+        registration.user.getDemographics().setIdentifiers(resolvedIdentifiers);
+        return createdIdentifiers;
+    }
+
+    private void saveRegistrations(List<PendingRegistration> registrations, List<Identifier> newIdentifiers) {
+        identifierRepository.save(newIdentifiers);
+        userRepository.save(registrations.stream().map(registration -> registration.user).collect(toList()));
+        final List<PendingRegistration> patientRegistrations = registrations.stream()
+                .filter(registration -> registration.patient)
+                .collect(toList());
+        final List<Patient> patients = patientRepository.save(patientRegistrations.stream()
+                .map(registration -> newPatient(registration.user, registration.userDto.getRegistrationPurposeEmail()))
+                .collect(toList()));
+        final List<UserPatientRelationship> userPatientRelationships = new ArrayList<>();
+        for (int i = 0; i < patients.size(); i++) {
+            userPatientRelationships.add(newUserPatientRelationship(patientRegistrations.get(i).user.getId(), patients.get(i).getId(), "patient"));
+        }
+        userPatientRelationshipRepository.save(userPatientRelationships);
+
+        // Publish FHIR Patients to FHIR Service after the users are committed
+        if (!patientRegistrations.isEmpty() && umsProperties.getFhir().getPublish().isEnabled()) {
+            patientRegistrations.forEach(registration -> fhirPublicationService.enqueue(registration.user.getId(), FhirPublication.Operation.PUBLISH));
+        }
+    }
+
+    private UserRegistrationResultDto registrationFailed(int index, UserDto userDto, RuntimeException e) {
+        log.debug("Unable to register user at index " + index + " of the batch", e);
+        return UserRegistrationResultDto.builder()
+                .index(index)
+                .status(UserRegistrationResultDto.Status.FAILED)
+                .user(userDto)
+                .errorMessage(Optional.ofNullable(e.getMessage()).orElseGet(() -> e.getClass().getSimpleName()))
+                .build();
+    }
+
+    private Patient newPatient(User user, Optional<String> registrationPurposeEmail) {
         //set the patient object
         Patient patient = new Patient();
         final Demographics demographics = user.getDemographics();
@@ -651,18 +1022,14 @@ private Patient createPatient(User user, Optional<String> registrationPurposeEma
                 .filter(StringUtils::hasText)
                 .map(String::trim)
                 .ifPresent(patient::setRegistrationPurposeEmail);
-        return patientRepository.save(patient);
+        return patient;
     }
 
-    private void createUserPatientRelationship(long userId, long patientId, String role) {
+    private UserPatientRelationship newUserPatientRelationship(long userId, long patientId, String role) {
         RelationDto relationDto = new RelationDto(userId, patientId, role);
         UserPatientRelationship userPatientRelationship = new UserPatientRelationship();
         userPatientRelationship.setId(modelMapper.map(relationDto, UserPatientRelationshipId.class));
-        userPatientRelationshipRepository.save(userPatientRelationship);
-    }
-
-    private boolean deepEquals(Identifier id, IdentifierDto idDto) {
-        return id.getValue().equals(idDto.getValue()) && id.getIdentifierSystem().getSystem().equals(idDto.getSystem());
+        return userPatientRelationship;
     }
 
     private Address mapAddressDtoToAddress(Address address, AddressDto addressDto) {
@@ -742,7 +1109,7 @@ private String generateIdentifier(UmsProperties.Algorithm algorithm) {
             case MRN:
                 return mrnService.generateMrn();
             case UUID:
-                return UUID.randomUUID().toString();
+                return tokenGenerator.generateUuid().toString();
             case NONE:
             default:
                 throw new InvalidIdentifierSystemException("This identifier system is not configured with an algorithm, the identifier cannot be generated");
@@ -758,9 +1125,37 @@ private void assertEmails(UserDto userDto, boolean patientPresent) {
         }
     }
 
-    private boolean deepEquals(Telecom telecom, TelecomDto telecomDto) {
-        return telecom.getSystem().toString().equals(telecomDto.getSystem()) &&
-                telecom.getValue().equals(telecomDto.getValue()) &&
-                telecom.getUse().toString().equals(telecomDto.getUse());
+    private static class IdentifierLookup {
+        private final Map<String, IdentifierSystem> identifierSystemsBySystem;
+        private final Map<String, Map<String, Identifier>> identifiersBySystemAndValue;
+
+        private IdentifierLookup(Map<String, IdentifierSystem> identifierSystemsBySystem,
+                                 Map<String, Map<String, Identifier>> identifiersBySystemAndValue) {
+            this.identifierSystemsBySystem = identifierSystemsBySystem;
+            this.identifiersBySystemAndValue = identifiersBySystemAndValue;
+        }
+    }
+
+    private static class PendingRegistration {
+        private final int index;
+        private final UserDto userDto;
+        private final User user;
+        private final boolean patient;
+        private final Set<UmsProperties.RequiredIdentifierSystem> allRequiredIdentifierSystems;
+        private final Set<UmsProperties.RequiredIdentifierSystem> systemGeneratedIdentifierSystems;
+        private final List<IdentifierDto> identifierDtos;
+
+        private PendingRegistration(int index, UserDto userDto, User user, boolean patient,
+                                    Set<UmsProperties.RequiredIdentifierSystem> allRequiredIdentifierSystems,
+                                    Set<UmsProperties.RequiredIdentifierSystem> systemGeneratedIdentifierSystems,
+                                    List<IdentifierDto> identifierDtos) {
+            this.index = index;
+            this.userDto = userDto;
+            this.user = user;
+            this.patient = patient;
+            this.allRequiredIdentifierSystems = allRequiredIdentifierSystems;
+            this.systemGeneratedIdentifierSystems = systemGeneratedIdentifierSystems;
+            this.identifierDtos = identifierDtos;
+        }
     }
 }
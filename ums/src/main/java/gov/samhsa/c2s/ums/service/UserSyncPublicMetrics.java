@@ -0,0 +1,35 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.service.dto.UserSyncStatisticsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Exposes the number of sent and suppressed downstream synchronizations of users on the actuator metrics endpoint.
+ */
+@Component
+public class UserSyncPublicMetrics implements PublicMetrics {
+    private static final String PREFIX = "gauge.ums.users.sync.";
+
+    private final UserChangeTracker userChangeTracker;
+
+    @Autowired
+    public UserSyncPublicMetrics(UserChangeTracker userChangeTracker) {
+        this.userChangeTracker = userChangeTracker;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        UserSyncStatisticsDto statistics = userChangeTracker.getStatistics();
+        List<Metric<?>> metrics = new ArrayList<>();
+        statistics.getSentCounts().forEach((name, count) -> metrics.add(new Metric<>(PREFIX + name + ".sent", count)));
+        statistics.getSuppressedCounts().forEach((name, count) -> metrics.add(new Metric<>(PREFIX + name + ".suppressed", count)));
+        return metrics;
+    }
+}
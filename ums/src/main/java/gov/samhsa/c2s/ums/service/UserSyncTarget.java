@@ -0,0 +1,41 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.service.UserChangeSet.Field;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A downstream synchronization of a user, with the fields of its projection.
+ */
+public enum UserSyncTarget {
+    /**
+     * {@link gov.samhsa.c2s.ums.infrastructure.ScimService#updateUserBasicInfo}
+     */
+    UAA_BASIC_INFO("uaa.basic-info", EnumSet.of(Field.NAME, Field.EMAIL)),
+    /**
+     * {@link gov.samhsa.c2s.ums.infrastructure.ScimService#updateUserLimitedInfo}
+     */
+    UAA_LIMITED_INFO("uaa.limited-info", EnumSet.of(Field.EMAIL, Field.PHONE)),
+    /**
+     * {@link gov.samhsa.c2s.ums.infrastructure.FisClient#updateFhirPatient}
+     */
+    FHIR_PATIENT("fhir.patient", EnumSet.allOf(Field.class));
+
+    private final String metricName;
+    private final Set<Field> fields;
+
+    UserSyncTarget(String metricName, Set<Field> fields) {
+        this.metricName = metricName;
+        this.fields = Collections.unmodifiableSet(fields);
+    }
+
+    public String getMetricName() {
+        return metricName;
+    }
+
+    public Set<Field> getFields() {
+        return fields;
+    }
+}
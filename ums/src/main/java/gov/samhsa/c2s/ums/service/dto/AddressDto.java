@@ -4,6 +4,9 @@
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.validator.constraints.NotBlank;
+
+import javax.validation.constraints.Pattern;
 
 @Data
 @EqualsAndHashCode(callSuper = true)
@@ -37,5 +40,7 @@ public AddressDto(AddressDto addressDto) {
         this.use = addressDto.getUse();
     }
 
+    @NotBlank
+    @Pattern(regexp = "HOME|WORK")
     private String use;
 }
@@ -0,0 +1,22 @@
+package gov.samhsa.c2s.ums.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of moving a batch of user avatar contents from the database to the avatar storage.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AvatarStorageMigrationBatchDto {
+    /**
+     * The id of the last avatar of the batch, to continue the migration after; null when there is nothing left
+     */
+    private Long lastUserAvatarId;
+    private int migratedCount;
+    private int failedCount;
+}
@@ -0,0 +1,32 @@
+package gov.samhsa.c2s.ums.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FhirBackfillJobDto {
+    private Long id;
+    private String operation;
+    private String status;
+    private long lastPatientId;
+    private long totalCount;
+    private long processedCount;
+    private long failedCount;
+    private Date startedDate;
+    private Date lastUpdatedDate;
+    /**
+     * The number of patients processed per second since the job was started or resumed on this instance
+     */
+    private double throughputPerSecond;
+    /**
+     * The estimated number of seconds until the job completes, or null if the job is not running
+     */
+    private Long etaSeconds;
+}
@@ -0,0 +1,15 @@
+package gov.samhsa.c2s.ums.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FhirPublicationReplayDto {
+    /**
+     * The number of publications that will be delivered again
+     */
+    private int replayedCount;
+}
@@ -0,0 +1,26 @@
+package gov.samhsa.c2s.ums.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FhirPublicationStatisticsDto {
+    private long pendingCount;
+    private long deadCount;
+    /**
+     * The age of the oldest pending publication, which is how far FIS lags behind UMS
+     */
+    private long oldestPendingAgeSeconds;
+    private long enqueuedCount;
+    /**
+     * The number of publications merged into a pending publication of the same user
+     */
+    private long mergedCount;
+    private long deliveredCount;
+    private long failedCount;
+}
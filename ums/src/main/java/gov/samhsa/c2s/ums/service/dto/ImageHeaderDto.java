@@ -0,0 +1,23 @@
+package gov.samhsa.c2s.ums.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The format and dimensions of an image, as read from the leading header bytes of the image file.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImageHeaderDto {
+    private String formatName;
+    private String mediaType;
+    private List<String> fileExtensions;
+    private int widthPixels;
+    private int heightPixels;
+}
@@ -0,0 +1,37 @@
+package gov.samhsa.c2s.ums.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A point in time snapshot of the MRN block allocation of this node.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MrnAllocationStatisticsDto {
+    private int blockSize;
+    private long allocatedBlockCount;
+    private long allocatedMrnCount;
+    private long currentBlockRemaining;
+    private long lastBlockDurationMillis;
+    private long sequenceCapacity;
+    private long sequenceNextValue;
+
+    /**
+     * @return the MRNs allocated per second while the previous block was used up, or 0 before the first block is used up
+     */
+    public double getAllocationRatePerSecond() {
+        return lastBlockDurationMillis > 0 ? blockSize * 1000.0 / lastBlockDurationMillis : 0.0;
+    }
+
+    /**
+     * @return the fraction of the sequence capacity that is reserved by all nodes, as last seen by this node
+     */
+    public double getSequenceUsedRatio() {
+        return sequenceCapacity > 0 ? (double) sequenceNextValue / sequenceCapacity : 0.0;
+    }
+}
@@ -6,6 +6,8 @@
 import lombok.NoArgsConstructor;
 import org.hibernate.validator.constraints.NotBlank;
 
+import javax.validation.constraints.Pattern;
+
 @Data
 @Builder
 @AllArgsConstructor
@@ -13,10 +15,13 @@
 public class TelecomDto {
 
     @NotBlank
+    @Pattern(regexp = "EMAIL|PHONE")
     private String system;
 
     @NotBlank
     private String value;
 
+    @NotBlank
+    @Pattern(regexp = "HOME|WORK")
     private String use;
 }
@@ -0,0 +1,35 @@
+package gov.samhsa.c2s.ums.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserAvatarCacheStatisticsDto {
+    private long metadataHitCount;
+    private long metadataMissCount;
+    private long metadataEntryCount;
+    private long contentsHitCount;
+    private long contentsMissCount;
+    private long contentsEntryCount;
+    private long contentsEvictionCount;
+    private long contentsSizeBytes;
+    private long maxContentsSizeBytes;
+
+    public double getMetadataHitRatio() {
+        return ratio(metadataHitCount, metadataMissCount);
+    }
+
+    public double getContentsHitRatio() {
+        return ratio(contentsHitCount, contentsMissCount);
+    }
+
+    private static double ratio(long hitCount, long missCount) {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 0.0 : (double) hitCount / requestCount;
+    }
+}
@@ -0,0 +1,33 @@
+package gov.samhsa.c2s.ums.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+
+/**
+ * The metadata needed to serve a user avatar image over HTTP, along with the decoded binary contents when they are
+ * already loaded.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserAvatarImageDto {
+    private byte[] imageBytes;
+
+    @NotEmpty
+    private String mediaType;
+
+    @NotEmpty
+    private String contentHash;
+
+    private Date lastUpdatedDate;
+
+    @NotNull
+    private Long userId;
+}
@@ -0,0 +1,53 @@
+package gov.samhsa.c2s.ums.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The metadata of a user avatar without the image contents.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserAvatarMetadataDto {
+    @NotNull
+    private Long id;
+
+    @NotEmpty
+    private String fileName;
+
+    @NotEmpty
+    private String fileExtension;
+
+    @NotNull
+    private Long fileSizeBytes;
+
+    @NotNull
+    private Long fileWidthPixels;
+
+    @NotNull
+    private Long fileHeightPixels;
+
+    @NotEmpty
+    private String contentHash;
+
+    @NotEmpty
+    private String mediaType;
+
+    private Date lastUpdatedDate;
+
+    private String imageUrl;
+
+    private List<UserAvatarRenditionDto> renditions;
+
+    @NotNull
+    private Long userId;
+}
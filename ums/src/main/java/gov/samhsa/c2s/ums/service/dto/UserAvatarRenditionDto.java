@@ -0,0 +1,33 @@
+package gov.samhsa.c2s.ums.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * The metadata of a scaled down, square copy of a user avatar image.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserAvatarRenditionDto {
+    @NotNull
+    private Integer sizePixels;
+
+    @NotNull
+    private Long fileWidthPixels;
+
+    @NotNull
+    private Long fileHeightPixels;
+
+    @NotNull
+    private Long fileSizeBytes;
+
+    @NotEmpty
+    private String contentHash;
+}
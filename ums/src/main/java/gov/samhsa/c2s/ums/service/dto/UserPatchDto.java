@@ -0,0 +1,103 @@
+package gov.samhsa.c2s.ums.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import gov.samhsa.c2s.ums.service.exception.InvalidUserPatchException;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Past;
+import javax.validation.constraints.Pattern;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A JSON Merge Patch (RFC 7396) document for a user.
+ * <p>
+ * A <code>null</code> field is absent from the patch and leaves the user unchanged, an empty {@link Optional} is a
+ * JSON <code>null</code> that removes the value, and a present {@link Optional} replaces the value. Lists replace the
+ * whole list, as arrays do in a merge patch. Fields that cannot be patched are rejected.
+ * <p>
+ * Bean Validation does not look into the {@link Optional} fields, so the patched values are validated through the
+ * package-private getters below, which Jackson does not bind.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserPatchDto {
+    private static final String NOT_BLANK = "(?s).*\\S.*";
+
+    private Optional<String> lastName;
+
+    private Optional<String> middleName;
+
+    private Optional<String> firstName;
+
+    private Optional<LocalDate> birthDate;
+
+    private Optional<String> genderCode;
+
+    private Optional<String> socialSecurityNumber;
+
+    private Optional<List<AddressDto>> addresses;
+
+    private Optional<List<TelecomDto>> telecoms;
+
+    private Optional<String> locale;
+
+    private Optional<String> registrationPurposeEmail;
+
+    private Optional<List<IdentifierDto>> identifiers;
+
+    private Optional<String> lastUpdatedBy;
+
+    /**
+     * Rejects the properties that cannot be patched, such as roles, because the ObjectMapper of Spring Boot ignores
+     * unknown properties
+     */
+    @JsonAnySetter
+    public void rejectUnpatchableProperty(String property, Object value) {
+        throw new InvalidUserPatchException(property + " cannot be patched");
+    }
+
+    @Pattern(regexp = NOT_BLANK, message = "may not be blank")
+    String getPatchedLastName() {
+        return patchedValue(lastName);
+    }
+
+    @Pattern(regexp = NOT_BLANK, message = "may not be blank")
+    String getPatchedFirstName() {
+        return patchedValue(firstName);
+    }
+
+    @Past
+    LocalDate getPatchedBirthDate() {
+        return patchedValue(birthDate);
+    }
+
+    @Valid
+    List<AddressDto> getPatchedAddresses() {
+        return patchedValue(addresses);
+    }
+
+    @Valid
+    List<TelecomDto> getPatchedTelecoms() {
+        return patchedValue(telecoms);
+    }
+
+    @Valid
+    List<IdentifierDto> getPatchedIdentifiers() {
+        return patchedValue(identifiers);
+    }
+
+    /**
+     * @return the value that replaces the current value, or null if the patch leaves or removes the value
+     */
+    private static <T> T patchedValue(Optional<T> patchValue) {
+        return patchValue != null ? patchValue.orElse(null) : null;
+    }
+}
@@ -0,0 +1,31 @@
+package gov.samhsa.c2s.ums.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The result of registering one user of a batch registration request.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserRegistrationResultDto {
+    public enum Status {
+        CREATED,
+        FAILED
+    }
+
+    // Position of the user in the request
+    private int index;
+
+    private Status status;
+
+    private UserDto user;
+
+    private String errorMessage;
+}
@@ -0,0 +1,23 @@
+package gov.samhsa.c2s.ums.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserSyncStatisticsDto {
+    /**
+     * The number of sent synchronizations by metric name of the sync target
+     */
+    private Map<String, Long> sentCounts;
+    /**
+     * The number of suppressed synchronizations by metric name of the sync target
+     */
+    private Map<String, Long> suppressedCounts;
+}
@@ -0,0 +1,26 @@
+package gov.samhsa.c2s.ums.service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class FhirBackfillAlreadyRunningException extends RuntimeException {
+    public FhirBackfillAlreadyRunningException() {
+    }
+
+    public FhirBackfillAlreadyRunningException(String message) {
+        super(message);
+    }
+
+    public FhirBackfillAlreadyRunningException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public FhirBackfillAlreadyRunningException(Throwable cause) {
+        super(cause);
+    }
+
+    public FhirBackfillAlreadyRunningException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
@@ -0,0 +1,26 @@
+package gov.samhsa.c2s.ums.service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class FhirBackfillJobNotFoundException extends RuntimeException {
+    public FhirBackfillJobNotFoundException() {
+    }
+
+    public FhirBackfillJobNotFoundException(String message) {
+        super(message);
+    }
+
+    public FhirBackfillJobNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public FhirBackfillJobNotFoundException(Throwable cause) {
+        super(cause);
+    }
+
+    public FhirBackfillJobNotFoundException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
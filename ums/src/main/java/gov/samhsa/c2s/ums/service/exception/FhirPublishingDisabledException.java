@@ -0,0 +1,26 @@
+package gov.samhsa.c2s.ums.service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class FhirPublishingDisabledException extends RuntimeException {
+    public FhirPublishingDisabledException() {
+    }
+
+    public FhirPublishingDisabledException(String message) {
+        super(message);
+    }
+
+    public FhirPublishingDisabledException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public FhirPublishingDisabledException(Throwable cause) {
+        super(cause);
+    }
+
+    public FhirPublishingDisabledException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
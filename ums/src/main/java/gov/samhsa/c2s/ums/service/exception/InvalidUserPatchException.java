@@ -0,0 +1,26 @@
+package gov.samhsa.c2s.ums.service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidUserPatchException extends RuntimeException {
+    public InvalidUserPatchException() {
+    }
+
+    public InvalidUserPatchException(String message) {
+        super(message);
+    }
+
+    public InvalidUserPatchException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public InvalidUserPatchException(Throwable cause) {
+        super(cause);
+    }
+
+    public InvalidUserPatchException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
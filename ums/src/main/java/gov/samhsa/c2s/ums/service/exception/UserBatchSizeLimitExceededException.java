@@ -0,0 +1,26 @@
+package gov.samhsa.c2s.ums.service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UserBatchSizeLimitExceededException extends RuntimeException {
+    public UserBatchSizeLimitExceededException() {
+    }
+
+    public UserBatchSizeLimitExceededException(String message) {
+        super(message);
+    }
+
+    public UserBatchSizeLimitExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public UserBatchSizeLimitExceededException(Throwable cause) {
+        super(cause);
+    }
+
+    public UserBatchSizeLimitExceededException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
@@ -0,0 +1,13 @@
+package gov.samhsa.c2s.ums.service.exception.checkedexceptions;
+
+import java.io.IOException;
+
+public class AvatarFileSizeLimitExceededException extends IOException {
+    public AvatarFileSizeLimitExceededException() {
+        super();
+    }
+
+    public AvatarFileSizeLimitExceededException(String message) {
+        super(message);
+    }
+}
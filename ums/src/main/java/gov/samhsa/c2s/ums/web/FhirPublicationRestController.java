@@ -0,0 +1,79 @@
+package gov.samhsa.c2s.ums.web;
+
+import gov.samhsa.c2s.ums.domain.FhirPublication;
+import gov.samhsa.c2s.ums.service.FhirBackfillService;
+import gov.samhsa.c2s.ums.service.FhirPublicationService;
+import gov.samhsa.c2s.ums.service.dto.FhirBackfillJobDto;
+import gov.samhsa.c2s.ums.service.dto.FhirPublicationReplayDto;
+import gov.samhsa.c2s.ums.service.dto.FhirPublicationStatisticsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/fhir-publications")
+public class FhirPublicationRestController {
+
+    @Autowired
+    private FhirPublicationService fhirPublicationService;
+
+    @Autowired
+    private FhirBackfillService fhirBackfillService;
+
+    /**
+     * Publish FHIR patients again
+     *
+     * @param userIds PKs of the Users to publish again; if absent, the publications that failed too many times are
+     *                published again
+     * @return the number of publications that will be delivered again
+     */
+    @PostMapping("/replay")
+    public FhirPublicationReplayDto replay(@RequestParam("userId") Optional<List<Long>> userIds) {
+        return fhirPublicationService.replay(userIds);
+    }
+
+    @GetMapping("/statistics")
+    public FhirPublicationStatisticsDto getStatistics() {
+        return fhirPublicationService.getStatistics();
+    }
+
+    /**
+     * Start publishing all patients to FIS in the background
+     *
+     * @param restart   if true, a new job is started even if the last job did not complete; otherwise the last job is
+     *                  resumed from its checkpoint
+     * @param operation the FIS operation of a new job
+     * @return the started job
+     */
+    @PostMapping("/backfill")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public FhirBackfillJobDto startBackfill(@RequestParam(value = "restart", defaultValue = "false") boolean restart,
+                                            @RequestParam(value = "operation", defaultValue = "UPDATE") FhirPublication.Operation operation) {
+        return fhirBackfillService.start(restart, operation);
+    }
+
+    /**
+     * @return the progress of the last backfill job, with its throughput and ETA while it runs
+     */
+    @GetMapping("/backfill")
+    public FhirBackfillJobDto getBackfillStatus() {
+        return fhirBackfillService.getStatus();
+    }
+
+    /**
+     * Stop the running backfill job after its current chunk
+     */
+    @DeleteMapping("/backfill")
+    public FhirBackfillJobDto stopBackfill() {
+        return fhirBackfillService.stop();
+    }
+}
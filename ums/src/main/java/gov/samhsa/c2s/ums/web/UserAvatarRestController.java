@@ -3,17 +3,37 @@
 import gov.samhsa.c2s.ums.service.UserAvatarService;
 import gov.samhsa.c2s.ums.service.dto.AvatarBytesAndMetaDto;
 import gov.samhsa.c2s.ums.service.dto.UserAvatarDto;
+import gov.samhsa.c2s.ums.service.dto.UserAvatarImageDto;
+import gov.samhsa.c2s.ums.service.dto.UserAvatarMetadataDto;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 @RestController
 @RequestMapping("/user-avatars")
+@Slf4j
 public class UserAvatarRestController {
     private final UserAvatarService userAvatarService;
 
@@ -27,6 +47,83 @@ public UserAvatarDto getUserAvatar(@PathVariable Long userId) {
         return userAvatarService.getUserAvatarByUserId(userId);
     }
 
+    /**
+     * Streams the decoded avatar image of a user as raw binary content.
+     * <p>
+     * The response carries a content hash based ETag (and a Last-Modified header when known), so a request with a
+     * matching If-None-Match or If-Modified-Since header is answered with 304 Not Modified and no body. A matching
+     * If-None-Match header is answered from the persisted content hash, without loading the image.
+     * <p>
+     * When a size is requested, the smallest rendition that is at least as large as the requested size is served, or
+     * the original image if no rendition is large enough.
+     *
+     * @param userId         PK of User
+     * @param size           the requested width and height in pixels (optional)
+     * @param requestHeaders the request headers, including the conditional request headers
+     * @return the avatar image bytes with the image media type
+     */
+    @GetMapping("/user/{userId}/avatar/image")
+    public ResponseEntity<Resource> getUserAvatarImage(@PathVariable Long userId,
+                                                       @RequestParam(required = false) Integer size,
+                                                       @RequestHeader HttpHeaders requestHeaders) {
+        UserAvatarImageDto userAvatarImage = userAvatarService.getUserAvatarImageMetadataByUserId(userId, size);
+
+        if (matchesIfNoneMatch(requestHeaders, userAvatarImage.getContentHash())) {
+            ResponseEntity.HeadersBuilder<?> notModifiedBuilder = ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(userAvatarImage.getContentHash())
+                    .cacheControl(CacheControl.noCache());
+            if (userAvatarImage.getLastUpdatedDate() != null) {
+                notModifiedBuilder.lastModified(userAvatarImage.getLastUpdatedDate().getTime());
+            }
+            return notModifiedBuilder.build();
+        }
+
+        byte[] imageBytes = userAvatarService.getUserAvatarImageBytes(userAvatarImage);
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.ok()
+                .contentType(toMediaType(userAvatarImage.getMediaType()))
+                .contentLength(imageBytes.length)
+                .eTag(userAvatarImage.getContentHash())
+                .cacheControl(CacheControl.noCache());
+
+        if (userAvatarImage.getLastUpdatedDate() != null) {
+            responseBuilder.lastModified(userAvatarImage.getLastUpdatedDate().getTime());
+        }
+
+        // An If-Modified-Since header without an If-None-Match header is evaluated by Spring MVC
+        return responseBuilder.body(new ByteArrayResource(imageBytes));
+    }
+
+    /**
+     * Get the avatars of multiple users with a single request. Users without an avatar are omitted from the result.
+     *
+     * @param userIds PKs of the Users
+     * @return the avatars of the users, in the order of the requested user ids
+     */
+    @GetMapping("/users/avatars")
+    public List<UserAvatarDto> getUserAvatars(@RequestParam List<Long> userIds) {
+        return userAvatarService.getUserAvatarsByUserIds(userIds);
+    }
+
+    /**
+     * Get the avatar metadata of multiple users with a single request, without the image contents.
+     * <p>
+     * Each entry carries the content hash and the URL of the binary avatar image endpoint, so clients only need to
+     * download the images that changed.
+     *
+     * @param userIds PKs of the Users
+     * @return the avatar metadata of the users, in the order of the requested user ids
+     */
+    @GetMapping("/users/avatars/metadata")
+    public List<UserAvatarMetadataDto> getUserAvatarMetadata(@RequestParam List<Long> userIds) {
+        List<UserAvatarMetadataDto> userAvatarMetadataList = userAvatarService.getUserAvatarMetadataByUserIds(userIds);
+        userAvatarMetadataList.forEach(userAvatarMetadata -> userAvatarMetadata.setImageUrl(
+                ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/user-avatars/user/{userId}/avatar/image")
+                        .buildAndExpand(userAvatarMetadata.getUserId())
+                        .toUriString()));
+        return userAvatarMetadataList;
+    }
+
     @PostMapping("/user/{userId}/avatar")
     public UserAvatarDto saveNewUserAvatar(
             @PathVariable Long userId,
@@ -35,8 +132,69 @@ public UserAvatarDto saveNewUserAvatar(
         return userAvatarService.saveUserAvatar(userId, avatarFile);
     }
 
+    /**
+     * Save an avatar image sent as the raw binary request body.
+     * <p>
+     * The request body is streamed, so an upload larger than the max avatar file size is rejected as soon as the
+     * limit is exceeded, and the image format and dimensions are checked before the whole image is read.
+     *
+     * @param userId            PK of User
+     * @param fileName          the name of the uploaded image file (optional)
+     * @param avatarInputStream the binary image file contents
+     * @return the saved avatar
+     */
+    @PostMapping(value = "/user/{userId}/avatar/image", consumes = {"image/*", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public UserAvatarDto saveUserAvatarImage(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String fileName,
+            InputStream avatarInputStream
+    ) {
+        return userAvatarService.saveUserAvatar(userId, avatarInputStream, fileName);
+    }
+
+    /**
+     * Save an avatar image uploaded as a multipart/form-data file part.
+     *
+     * @param userId PK of User
+     * @param file   the uploaded image file
+     * @return the saved avatar
+     * @throws IOException if the uploaded file cannot be read
+     */
+    @PostMapping(value = "/user/{userId}/avatar/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public UserAvatarDto saveUserAvatarImageFile(
+            @PathVariable Long userId,
+            @RequestParam MultipartFile file
+    ) throws IOException {
+        try (InputStream avatarInputStream = file.getInputStream()) {
+            return userAvatarService.saveUserAvatar(userId, avatarInputStream, file.getOriginalFilename());
+        }
+    }
+
     @DeleteMapping("/user/{userId}/avatar")
     public void deleteUserAvatar(@PathVariable Long userId) {
         userAvatarService.deleteUserAvatar(userId);
     }
+
+    /**
+     * Uses the weak comparison of RFC 7232, as Spring MVC does for the If-None-Match header
+     */
+    private boolean matchesIfNoneMatch(HttpHeaders requestHeaders, String contentHash) {
+        String eTag = "\"" + contentHash + "\"";
+        return requestHeaders.getIfNoneMatch().stream()
+                .map(requestedETag -> requestedETag.startsWith("W/") ? requestedETag.substring(2) : requestedETag)
+                .anyMatch(requestedETag -> "*".equals(requestedETag) || eTag.equals(requestedETag));
+    }
+
+    /**
+     * The media type is stored from the upload, so an unparsable value is served as generic binary content instead of
+     * failing the request
+     */
+    private MediaType toMediaType(String mediaType) {
+        try {
+            return MediaType.parseMediaType(mediaType);
+        } catch (InvalidMediaTypeException e) {
+            log.warn("Serving an avatar image with the invalid stored media type '" + mediaType + "' as " + MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
 }
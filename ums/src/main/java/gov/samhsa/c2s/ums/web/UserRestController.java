@@ -4,11 +4,14 @@
 import gov.samhsa.c2s.ums.service.dto.AccessDecisionDto;
 import gov.samhsa.c2s.ums.service.dto.UpdateUserLimitedFieldsDto;
 import gov.samhsa.c2s.ums.service.dto.UserDto;
+import gov.samhsa.c2s.ums.service.dto.UserPatchDto;
+import gov.samhsa.c2s.ums.service.dto.UserRegistrationResultDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -30,6 +33,8 @@
 @RequestMapping("/users")
 public class UserRestController {
 
+    public static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
     @Autowired
     private UserService userService;
 
@@ -42,6 +47,20 @@ public UserDto registerUser(@Valid @RequestBody UserDto userDto) {
         return userService.registerUser(userDto);
     }
 
+    /**
+     * Register multiple users with a single request. All users are validated before any of them is saved, and the
+     * valid users are saved in one transaction. An invalid user is reported as failed without affecting the others,
+     * but a database error while saving the valid users fails the whole request, and none of them is saved.
+     *
+     * @param userDtos User Dto Objects
+     * @return the registration result of each user, in the order of the request
+     */
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public List<UserRegistrationResultDto> registerUsers(@RequestBody List<UserDto> userDtos) {
+        return userService.registerUsers(userDtos);
+    }
+
     /**
      * Enable User
      *
@@ -94,6 +113,19 @@ public UserDto updateUser(@PathVariable Long userId, @Valid @RequestBody UserDto
         return userService.updateUser(userId, userDto);
     }
 
+    /**
+     * Partially update User with a JSON Merge Patch. Only the properties in the patch are changed, and the user is
+     * only synchronized with the authorization server and FHIR if the patch changes them.
+     *
+     * @param userId       PK of User
+     * @param userPatchDto User Patch Dto Object
+     * @see UserPatchDto
+     */
+    @PatchMapping(value = "/{userId}", consumes = MERGE_PATCH_JSON_VALUE)
+    public UserDto patchUser(@PathVariable Long userId, @Valid @RequestBody UserPatchDto userPatchDto) {
+        return userService.patchUser(userId, userPatchDto);
+    }
+
     /**
      * Update the following fields for a user:
      * <ul>
@@ -0,0 +1 @@
+ALTER TABLE user_avatar ADD last_updated_date DATETIME;
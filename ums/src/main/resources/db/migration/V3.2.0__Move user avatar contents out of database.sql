@@ -0,0 +1,4 @@
+ALTER TABLE user_avatar MODIFY file_contents longblob NULL;
+ALTER TABLE user_avatar ADD content_hash VARCHAR(64);
+ALTER TABLE user_avatar ADD media_type VARCHAR(255);
+CREATE INDEX content_hash_idx ON user_avatar (content_hash);
@@ -0,0 +1,13 @@
+CREATE TABLE `user_avatar_rendition` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `size_pixels` int(11) NOT NULL,
+  `file_width_pixels` bigint(20) NOT NULL,
+  `file_height_pixels` bigint(20) NOT NULL,
+  `file_size_bytes` bigint(20) NOT NULL,
+  `content_hash` varchar(64) NOT NULL,
+  `user_avatar_id` bigint(20) NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `UNQ_user_avatar_id_size_pixels_idx` (`user_avatar_id`, `size_pixels`),
+  KEY `rendition_content_hash_idx` (`content_hash`),
+  CONSTRAINT `FK_user_avatar` FOREIGN KEY (`user_avatar_id`) REFERENCES `user_avatar` (`id`) ON DELETE CASCADE ON UPDATE NO ACTION
+);
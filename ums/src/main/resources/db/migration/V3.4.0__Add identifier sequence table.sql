@@ -0,0 +1,7 @@
+CREATE TABLE `identifier_sequence` (
+  `name` varchar(255) NOT NULL,
+  `next_value` bigint(20) NOT NULL,
+  PRIMARY KEY (`name`)
+);
+
+INSERT INTO `identifier_sequence` (`name`, `next_value`) VALUES ('MRN', 0);
@@ -0,0 +1,17 @@
+CREATE TABLE `id_generator` (
+  `sequence_name` varchar(255) NOT NULL,
+  `next_val` bigint(20) NOT NULL,
+  PRIMARY KEY (`sequence_name`)
+);
+
+-- Continue after the ids already assigned by auto_increment
+INSERT INTO `id_generator` (`sequence_name`, `next_val`) SELECT 'user', COALESCE(MAX(`id`), 0) + 1 FROM `user`;
+INSERT INTO `id_generator` (`sequence_name`, `next_val`) SELECT 'demographics', COALESCE(MAX(`id`), 0) + 1 FROM `demographics`;
+INSERT INTO `id_generator` (`sequence_name`, `next_val`) SELECT 'telecom', COALESCE(MAX(`id`), 0) + 1 FROM `telecom`;
+INSERT INTO `id_generator` (`sequence_name`, `next_val`) SELECT 'address', COALESCE(MAX(`id`), 0) + 1 FROM `address`;
+INSERT INTO `id_generator` (`sequence_name`, `next_val`) SELECT 'identifier', COALESCE(MAX(`id`), 0) + 1 FROM `identifier`;
+INSERT INTO `id_generator` (`sequence_name`, `next_val`) SELECT 'patient', COALESCE(MAX(`id`), 0) + 1 FROM `patient`;
+INSERT INTO `id_generator` (`sequence_name`, `next_val`) SELECT 'user_activation', COALESCE(MAX(`id`), 0) + 1 FROM `user_activation`;
+INSERT INTO `id_generator` (`sequence_name`, `next_val`) SELECT 'user_scope_assignment', COALESCE(MAX(`id`), 0) + 1 FROM `user_scope_assignment`;
+INSERT INTO `id_generator` (`sequence_name`, `next_val`) SELECT 'user_avatar', COALESCE(MAX(`id`), 0) + 1 FROM `user_avatar`;
+INSERT INTO `id_generator` (`sequence_name`, `next_val`) SELECT 'user_avatar_rendition', COALESCE(MAX(`id`), 0) + 1 FROM `user_avatar_rendition`;
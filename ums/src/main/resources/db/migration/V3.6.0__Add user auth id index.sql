@@ -0,0 +1 @@
+CREATE INDEX `user_auth_id_idx` ON `user` (`user_auth_id`);
@@ -0,0 +1,19 @@
+-- One row per patient user whose FHIR patient is not yet delivered to FIS; repeated changes of the same user are merged into the row
+CREATE TABLE `fhir_publication` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `user_id` bigint(20) NOT NULL,
+  `operation` varchar(20) NOT NULL,
+  `status` varchar(20) NOT NULL,
+  `revision` bigint(20) NOT NULL,
+  `attempts` int(11) NOT NULL,
+  `next_attempt_at` datetime(3) NOT NULL,
+  `lease_owner` varchar(36) DEFAULT NULL,
+  `lease_expires_at` datetime(3) DEFAULT NULL,
+  `last_error` varchar(1000) DEFAULT NULL,
+  `created_date` datetime(3) NOT NULL,
+  `last_updated_date` datetime(3) NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `fhir_publication_user_idx` (`user_id`),
+  KEY `fhir_publication_due_idx` (`status`, `next_attempt_at`),
+  KEY `fhir_publication_lease_idx` (`lease_owner`)
+) ENGINE=InnoDB;
@@ -0,0 +1,13 @@
+-- The checkpoint of the FHIR patient backfill jobs; a stopped or interrupted job resumes after 'last_patient_id'
+CREATE TABLE `fhir_backfill_job` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `operation` varchar(20) NOT NULL,
+  `status` varchar(20) NOT NULL,
+  `last_patient_id` bigint(20) NOT NULL,
+  `total_count` bigint(20) NOT NULL,
+  `processed_count` bigint(20) NOT NULL,
+  `failed_count` bigint(20) NOT NULL,
+  `started_date` datetime(3) NOT NULL,
+  `last_updated_date` datetime(3) NOT NULL,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB;
@@ -0,0 +1,3 @@
+-- The lease of the instance that runs a FHIR patient backfill job, so only one instance runs a backfill at a time
+ALTER TABLE fhir_backfill_job ADD lease_owner VARCHAR(36);
+ALTER TABLE fhir_backfill_job ADD lease_expires_at DATETIME(3);
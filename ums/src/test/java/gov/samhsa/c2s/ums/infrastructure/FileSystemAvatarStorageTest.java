@@ -0,0 +1,119 @@
+package gov.samhsa.c2s.ums.infrastructure;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FileSystemAvatarStorageTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File avatarsFolder;
+
+    private FileSystemAvatarStorage sut;
+
+    @Before
+    public void setUp() throws Exception {
+        avatarsFolder = temporaryFolder.newFolder("avatars");
+        UmsProperties umsProperties = new UmsProperties();
+        UmsProperties.Avatars avatars = new UmsProperties.Avatars();
+        avatars.getStorage().setLocation(avatarsFolder.getAbsolutePath());
+        umsProperties.setAvatars(avatars);
+        sut = new FileSystemAvatarStorage(umsProperties);
+    }
+
+    @Test
+    public void testSaveAndLoad() {
+        //Arrange
+        byte[] imageDataBytes = "image".getBytes(StandardCharsets.UTF_8);
+
+        //Act
+        String contentHash = sut.save(imageDataBytes);
+
+        //Assert
+        assertEquals(64, contentHash.length());
+        assertTrue(sut.exists(contentHash));
+        assertArrayEquals(imageDataBytes, sut.load(contentHash));
+    }
+
+    @Test
+    public void testSave_Given_SameContents_Then_ReturnsSameContentHash() {
+        //Arrange
+        byte[] imageDataBytes = "image".getBytes(StandardCharsets.UTF_8);
+
+        //Act
+        String contentHash1 = sut.save(imageDataBytes);
+        String contentHash2 = sut.save(imageDataBytes.clone());
+
+        //Assert
+        assertEquals(contentHash1, contentHash2);
+    }
+
+    @Test
+    public void testDeleteIfNotSavedSince_Given_SavedBefore_Then_Deletes() {
+        //Arrange
+        String contentHash = sut.save("image".getBytes(StandardCharsets.UTF_8));
+
+        //Act
+        boolean deleted = sut.deleteIfNotSavedSince(contentHash, Instant.now().plusSeconds(60));
+
+        //Assert
+        assertTrue(deleted);
+        assertFalse(sut.exists(contentHash));
+    }
+
+    @Test
+    public void testDeleteIfNotSavedSince_Given_SavedSince_Then_Keeps() {
+        //Arrange
+        String contentHash = sut.save("image".getBytes(StandardCharsets.UTF_8));
+
+        //Act
+        boolean deleted = sut.deleteIfNotSavedSince(contentHash, Instant.now().minusSeconds(60));
+
+        //Assert
+        assertFalse(deleted);
+        assertTrue(sut.exists(contentHash));
+    }
+
+    @Test
+    public void testDeleteIfNotSavedSince_Given_SavedAgain_Then_Keeps() throws Exception {
+        //Arrange
+        byte[] imageDataBytes = "image".getBytes(StandardCharsets.UTF_8);
+        String contentHash = sut.save(imageDataBytes);
+        Path file = avatarsFolder.toPath().resolve(contentHash.substring(0, 2)).resolve(contentHash.substring(2, 4)).resolve(contentHash);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(1, ChronoUnit.DAYS)));
+        sut.save(imageDataBytes);
+
+        //Act
+        boolean deleted = sut.deleteIfNotSavedSince(contentHash, Instant.now().minus(1, ChronoUnit.HOURS));
+
+        //Assert
+        assertFalse(deleted);
+        assertTrue(sut.exists(contentHash));
+    }
+
+    @Test
+    public void testDeleteIfNotSavedSince_Given_MissingContents_Then_ReturnsFalse() {
+        //Act
+        boolean deleted = sut.deleteIfNotSavedSince(DigestUtils.sha256Hex("missing"), Instant.now());
+
+        //Assert
+        assertFalse(deleted);
+    }
+}
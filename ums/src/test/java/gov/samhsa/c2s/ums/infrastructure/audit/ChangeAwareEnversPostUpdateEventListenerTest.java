@@ -0,0 +1,177 @@
+package gov.samhsa.c2s.ums.infrastructure.audit;
+
+import gov.samhsa.c2s.ums.domain.Address;
+import gov.samhsa.c2s.ums.domain.Demographics;
+import gov.samhsa.c2s.ums.domain.FhirBackfillJob;
+import gov.samhsa.c2s.ums.domain.FhirPublication;
+import gov.samhsa.c2s.ums.domain.Identifier;
+import gov.samhsa.c2s.ums.domain.IdentifierSequence;
+import gov.samhsa.c2s.ums.domain.IdentifierSystem;
+import gov.samhsa.c2s.ums.domain.Locale;
+import gov.samhsa.c2s.ums.domain.Patient;
+import gov.samhsa.c2s.ums.domain.Relationship;
+import gov.samhsa.c2s.ums.domain.Role;
+import gov.samhsa.c2s.ums.domain.Scope;
+import gov.samhsa.c2s.ums.domain.Telecom;
+import gov.samhsa.c2s.ums.domain.User;
+import gov.samhsa.c2s.ums.domain.UserActivation;
+import gov.samhsa.c2s.ums.domain.UserAvatar;
+import gov.samhsa.c2s.ums.domain.UserAvatarRendition;
+import gov.samhsa.c2s.ums.domain.UserPatientRelationship;
+import gov.samhsa.c2s.ums.domain.UserScopeAssignment;
+import gov.samhsa.c2s.ums.domain.reference.AdministrativeGenderCode;
+import gov.samhsa.c2s.ums.domain.reference.CountryCode;
+import gov.samhsa.c2s.ums.domain.reference.StateCode;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.MySQL5Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.envers.boot.internal.EnversService;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ChangeAwareEnversPostUpdateEventListenerTest {
+    private static SessionFactoryImplementor sessionFactory;
+    private static EntityPersister userPersister;
+
+    @Mock
+    private EnversService enversService;
+
+    @Mock
+    private EventSource eventSource;
+
+    private ChangeAwareEnversPostUpdateEventListener sut;
+
+    /**
+     * Maps the domain entities without a database, so the tests use the property names and order of the real persister
+     */
+    @BeforeClass
+    public static void buildSessionFactory() {
+        final StandardServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.DIALECT, MySQL5Dialect.class.getName())
+                .applySetting("hibernate.temp.use_jdbc_metadata_defaults", false)
+                .build();
+        final MetadataSources metadataSources = new MetadataSources(serviceRegistry)
+                .addPackage(User.class.getPackage().getName());
+        for (Class<?> entityClass : Arrays.asList(Address.class, AdministrativeGenderCode.class, CountryCode.class,
+                Demographics.class, FhirBackfillJob.class, FhirPublication.class, Identifier.class,
+                IdentifierSequence.class, IdentifierSystem.class, Locale.class, Patient.class, Relationship.class,
+                Role.class, Scope.class, StateCode.class, Telecom.class, User.class, UserActivation.class,
+                UserAvatar.class, UserAvatarRendition.class, UserPatientRelationship.class, UserScopeAssignment.class)) {
+            metadataSources.addAnnotatedClass(entityClass);
+        }
+        sessionFactory = (SessionFactoryImplementor) metadataSources.buildMetadata().buildSessionFactory();
+        userPersister = sessionFactory.getEntityPersister(User.class.getName());
+    }
+
+    @AfterClass
+    public static void closeSessionFactory() {
+        sessionFactory.close();
+    }
+
+    @Before
+    public void setUp() {
+        sut = new ChangeAwareEnversPostUpdateEventListener(enversService);
+    }
+
+    @Test
+    public void testOnPostUpdate_Given_OnlyIgnoredPropertiesChanged_Then_DoesNotAudit() {
+        //Arrange
+        PostUpdateEvent event = newUserPostUpdateEvent("lastUpdatedBy", "lastUpdatedDate");
+
+        //Act
+        sut.onPostUpdate(event);
+
+        //Assert
+        verifyZeroInteractions(enversService);
+    }
+
+    @Test
+    public void testOnPostUpdate_Given_NotAuditedLocaleAndLastUpdatedDateChanged_Then_DoesNotAudit() {
+        //Arrange
+        PostUpdateEvent event = newUserPostUpdateEvent("locale", "lastUpdatedDate");
+
+        //Act
+        sut.onPostUpdate(event);
+
+        //Assert
+        verifyZeroInteractions(enversService);
+    }
+
+    @Test
+    public void testOnlyIgnoredPropertiesChanged_Given_AuditedPropertyChanged_Then_ReturnsFalse() {
+        //Arrange
+        PostUpdateEvent event = newUserPostUpdateEvent("disabled", "lastUpdatedBy", "lastUpdatedDate");
+
+        //Act
+        boolean onlyIgnoredPropertiesChanged = sut.onlyIgnoredPropertiesChanged(event);
+
+        //Assert
+        assertFalse(onlyIgnoredPropertiesChanged);
+    }
+
+    @Test
+    public void testOnlyIgnoredPropertiesChanged_Given_AuditedPropertyAndLocaleChanged_Then_ReturnsFalse() {
+        //Arrange
+        PostUpdateEvent event = newUserPostUpdateEvent("userAuthId", "locale", "lastUpdatedDate");
+
+        //Act
+        boolean onlyIgnoredPropertiesChanged = sut.onlyIgnoredPropertiesChanged(event);
+
+        //Assert
+        assertFalse(onlyIgnoredPropertiesChanged);
+    }
+
+    @Test
+    public void testOnlyIgnoredPropertiesChanged_Given_UnknownDirtyProperties_Then_ReturnsFalse() {
+        //Arrange
+        PostUpdateEvent event = newPostUpdateEvent(null);
+
+        //Act
+        boolean onlyIgnoredPropertiesChanged = sut.onlyIgnoredPropertiesChanged(event);
+
+        //Assert
+        assertFalse(onlyIgnoredPropertiesChanged);
+    }
+
+    @Test
+    public void testOnlyIgnoredPropertiesChanged_Given_LastUpdatedByChanged_Then_ReturnsTrue() {
+        //Arrange
+        PostUpdateEvent event = newUserPostUpdateEvent("lastUpdatedBy");
+
+        //Act
+        boolean onlyIgnoredPropertiesChanged = sut.onlyIgnoredPropertiesChanged(event);
+
+        //Assert
+        assertTrue(onlyIgnoredPropertiesChanged);
+    }
+
+    private PostUpdateEvent newUserPostUpdateEvent(String... dirtyPropertyNames) {
+        return newPostUpdateEvent(Arrays.stream(dirtyPropertyNames)
+                .mapToInt(propertyName -> userPersister.getEntityMetamodel().getPropertyIndex(propertyName))
+                .toArray());
+    }
+
+    private PostUpdateEvent newPostUpdateEvent(int[] dirtyProperties) {
+        final int propertyCount = userPersister.getPropertyNames().length;
+        return new PostUpdateEvent(new User(), 1L, new Object[propertyCount], new Object[propertyCount],
+                dirtyProperties, userPersister, eventSource);
+    }
+}
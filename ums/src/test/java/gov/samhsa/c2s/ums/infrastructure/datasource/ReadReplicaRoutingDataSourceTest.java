@@ -0,0 +1,96 @@
+package gov.samhsa.c2s.ums.infrastructure.datasource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class ReadReplicaRoutingDataSourceTest {
+    private ReplicaPool replica1;
+    private ReplicaPool replica2;
+    private ReadReplicaRoutingDataSource sut;
+
+    @Before
+    public void setUp() {
+        replica1 = new ReplicaPool("replica1", mock(DataSource.class));
+        replica2 = new ReplicaPool("replica2", mock(DataSource.class));
+        replica1.updateReplicationState(true, 0);
+        replica2.updateReplicationState(true, 0);
+        sut = new ReadReplicaRoutingDataSource(mock(DataSource.class), Arrays.asList(replica1, replica2),
+                new ReadYourWritesTracker(5000));
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("caller", null, "ROLE_USER"));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @After
+    public void tearDown() {
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testDetermineCurrentLookupKey_Given_ReadOnlyTransactions_Then_AlternatesReplicas() {
+        //Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        //Act
+        Object firstKey = sut.determineCurrentLookupKey();
+        Object secondKey = sut.determineCurrentLookupKey();
+
+        //Assert
+        assertEquals("replica1", firstKey);
+        assertEquals("replica2", secondKey);
+        assertEquals(1, replica1.getRoutedTransactionCount());
+        assertEquals(1, replica2.getRoutedTransactionCount());
+    }
+
+    @Test
+    public void testDetermineCurrentLookupKey_Given_ReadWriteTransaction_Then_ReturnsPrimary() {
+        //Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+
+        //Act
+        Object key = sut.determineCurrentLookupKey();
+
+        //Assert
+        assertEquals(ReadReplicaRoutingDataSource.PRIMARY, key);
+    }
+
+    @Test
+    public void testDetermineCurrentLookupKey_Given_ReplicasUnavailable_Then_ReturnsPrimary() {
+        //Arrange
+        replica1.updateReplicationState(false, 30);
+        replica2.updateReplicationState(false, -1);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        //Act
+        Object key = sut.determineCurrentLookupKey();
+
+        //Assert
+        assertEquals(ReadReplicaRoutingDataSource.PRIMARY, key);
+        assertEquals(1, sut.getPrimaryRoutedTransactionCount());
+    }
+
+    @Test
+    public void testDetermineCurrentLookupKey_Given_ReadAfterOwnWrite_Then_ReturnsPrimary() {
+        //Arrange
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        sut.determineCurrentLookupKey();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        //Act
+        Object key = sut.determineCurrentLookupKey();
+
+        //Assert
+        assertEquals(ReadReplicaRoutingDataSource.PRIMARY, key);
+    }
+}
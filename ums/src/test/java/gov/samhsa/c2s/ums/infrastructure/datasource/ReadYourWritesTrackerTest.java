@@ -0,0 +1,70 @@
+package gov.samhsa.c2s.ums.infrastructure.datasource;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReadYourWritesTrackerTest {
+    private final AtomicLong now = new AtomicLong(1000);
+    private final ReadYourWritesTracker sut = new ReadYourWritesTracker(5000, now::get);
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testIsWithinWindow_Given_WindowPassed_Then_ReturnsFalse() {
+        //Arrange
+        authenticateAs("caller");
+        sut.recordWrite();
+
+        //Act
+        boolean withinWindow = sut.isWithinWindow();
+        now.addAndGet(5000);
+        boolean withinWindowAfterWindow = sut.isWithinWindow();
+
+        //Assert
+        assertTrue(withinWindow);
+        assertFalse(withinWindowAfterWindow);
+    }
+
+    @Test
+    public void testIsWithinWindow_Given_OtherCallerWrote_Then_ReturnsFalse() {
+        //Arrange
+        authenticateAs("writer");
+        sut.recordWrite();
+        authenticateAs("reader");
+
+        //Act
+        boolean withinWindow = sut.isWithinWindow();
+
+        //Assert
+        assertFalse(withinWindow);
+    }
+
+    @Test
+    public void testPurgeExpired() {
+        //Arrange
+        authenticateAs("caller");
+        sut.recordWrite();
+        now.addAndGet(5000);
+
+        //Act
+        sut.purgeExpired();
+
+        //Assert
+        assertEquals(0, sut.getTrackedCallerCount());
+    }
+
+    private void authenticateAs(String name) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(name, null, "ROLE_USER"));
+    }
+}
@@ -0,0 +1,117 @@
+package gov.samhsa.c2s.ums.infrastructure.datasource;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReplicaLagMonitorTest {
+    private static final long MAX_LAG_SECONDS = 10;
+
+    private DataSource dataSource;
+    private ResultSet resultSet;
+    private ReplicaPool replicaPool;
+    private ReadYourWritesTracker readYourWritesTracker;
+    private ReplicaLagMonitor sut;
+
+    @Before
+    public void setUp() throws SQLException {
+        dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        resultSet = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery("SHOW SLAVE STATUS")).thenReturn(resultSet);
+        replicaPool = new ReplicaPool("replica1", dataSource);
+        readYourWritesTracker = mock(ReadYourWritesTracker.class);
+        sut = new ReplicaLagMonitor(Arrays.asList(replicaPool), readYourWritesTracker, MAX_LAG_SECONDS, 1000);
+    }
+
+    @Test
+    public void testCheckReplicas_Given_LagWithinThreshold_Then_MarksReplicaAvailable() throws SQLException {
+        //Arrange
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong("Seconds_Behind_Master")).thenReturn(MAX_LAG_SECONDS);
+
+        //Act
+        sut.checkReplicas();
+
+        //Assert
+        assertTrue(replicaPool.isAvailable());
+        assertEquals(MAX_LAG_SECONDS, replicaPool.getLagSeconds());
+        verify(readYourWritesTracker).purgeExpired();
+    }
+
+    @Test
+    public void testCheckReplicas_Given_LagAboveThreshold_Then_MarksReplicaUnavailable() throws SQLException {
+        //Arrange
+        replicaPool.updateReplicationState(true, 0);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong("Seconds_Behind_Master")).thenReturn(MAX_LAG_SECONDS + 1);
+
+        //Act
+        sut.checkReplicas();
+
+        //Assert
+        assertFalse(replicaPool.isAvailable());
+        assertEquals(MAX_LAG_SECONDS + 1, replicaPool.getLagSeconds());
+    }
+
+    @Test
+    public void testCheckReplicas_Given_ReplicationStopped_Then_MarksReplicaUnavailable() throws SQLException {
+        //Arrange
+        replicaPool.updateReplicationState(true, 0);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong("Seconds_Behind_Master")).thenReturn(0L);
+        when(resultSet.wasNull()).thenReturn(true);
+
+        //Act
+        sut.checkReplicas();
+
+        //Assert
+        assertFalse(replicaPool.isAvailable());
+        assertEquals(-1, replicaPool.getLagSeconds());
+    }
+
+    @Test
+    public void testCheckReplicas_Given_NoReplicaStatus_Then_MarksReplicaUnavailable() throws SQLException {
+        //Arrange
+        replicaPool.updateReplicationState(true, 0);
+        when(resultSet.next()).thenReturn(false);
+
+        //Act
+        sut.checkReplicas();
+
+        //Assert
+        assertFalse(replicaPool.isAvailable());
+        assertEquals(-1, replicaPool.getLagSeconds());
+    }
+
+    @Test
+    public void testCheckReplicas_Given_ConnectionFails_Then_MarksReplicaUnavailable() throws SQLException {
+        //Arrange
+        replicaPool.updateReplicationState(true, 0);
+        when(dataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        //Act
+        sut.checkReplicas();
+
+        //Assert
+        assertFalse(replicaPool.isAvailable());
+        assertEquals(-1, replicaPool.getLagSeconds());
+        verify(readYourWritesTracker).purgeExpired();
+    }
+}
@@ -0,0 +1,33 @@
+package gov.samhsa.c2s.ums.infrastructure.feign;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class FeignClientMetricsTest {
+
+    @Test
+    public void testRecord() {
+        //Arrange
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FeignClientMetrics sut = new FeignClientMetrics(meterRegistry);
+
+        //Act
+        sut.record("FisClient#publishFhirPatient(UserDto)", 100, null);
+        sut.record("FisClient#publishFhirPatient(UserDto)", 300, "SocketTimeoutException");
+
+        //Assert
+        FeignClientMetrics.MethodMetrics methodMetrics = sut.getMethodMetrics().get("FisClient.publishFhirPatient");
+        assertEquals(2, methodMetrics.getRequestCount());
+        assertEquals(1, methodMetrics.getErrorCount());
+        assertEquals(400, methodMetrics.getTotalMillis());
+        assertEquals(200, methodMetrics.getMeanMillis());
+        assertEquals(100, meterRegistry.find("ums.client.requests").tags("client", "fis", "method", "publishFhirPatient", "exception", "none")
+                .timer().totalTime(TimeUnit.MILLISECONDS), 0);
+        assertEquals(1, meterRegistry.find("ums.client.requests").tags("exception", "SocketTimeoutException").timer().count());
+    }
+}
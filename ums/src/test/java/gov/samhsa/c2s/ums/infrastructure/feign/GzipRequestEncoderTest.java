@@ -0,0 +1,64 @@
+package gov.samhsa.c2s.ums.infrastructure.feign;
+
+import feign.RequestTemplate;
+import feign.codec.Encoder;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class GzipRequestEncoderTest {
+    private static final Encoder STRING_ENCODER = (object, bodyType, template) ->
+            template.body(((String) object).getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+
+    @Test
+    public void testEncode_Given_LargeBody_Then_GzipsBody() throws IOException {
+        //Arrange
+        GzipRequestEncoder sut = new GzipRequestEncoder(STRING_ENCODER, 16);
+        String body = String.join("", Collections.nCopies(100, "{\"lastName\":\"Smith\"}"));
+        RequestTemplate template = new RequestTemplate();
+
+        //Act
+        sut.encode(body, String.class, template);
+
+        //Assert
+        assertEquals(Collections.singletonList("gzip"), template.headers().get("Content-Encoding"));
+        assertEquals(String.valueOf(template.body().length), template.headers().get("Content-Length").iterator().next());
+        assertArrayEquals(body.getBytes(StandardCharsets.UTF_8), gunzip(template.body()));
+    }
+
+    @Test
+    public void testEncode_Given_SmallBody_Then_DoesNotGzipBody() {
+        //Arrange
+        GzipRequestEncoder sut = new GzipRequestEncoder(STRING_ENCODER, 1024);
+        String body = "{\"lastName\":\"Smith\"}";
+        RequestTemplate template = new RequestTemplate();
+
+        //Act
+        sut.encode(body, String.class, template);
+
+        //Assert
+        assertNull(template.headers().get("Content-Encoding"));
+        assertArrayEquals(body.getBytes(StandardCharsets.UTF_8), template.body());
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = gzipInputStream.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
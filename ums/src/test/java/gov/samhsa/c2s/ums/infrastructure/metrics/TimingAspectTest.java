@@ -0,0 +1,72 @@
+package gov.samhsa.c2s.ums.infrastructure.metrics;
+
+import gov.samhsa.c2s.ums.infrastructure.ScimService;
+import gov.samhsa.c2s.ums.service.LookupService;
+import gov.samhsa.c2s.ums.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.doThrow;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TimingAspectTest {
+    private static final String USER_ID = "userId";
+
+    @Mock
+    private ScimService scimService;
+
+    @Mock
+    private LookupService lookupService;
+
+    private MeterRegistry meterRegistry;
+    private TimingAspect sut;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sut = new TimingAspect(meterRegistry, UserService.class, LookupService.class);
+    }
+
+    @Test
+    public void testTimeScim_Given_CallFails_Then_RecordsTimerWithException() {
+        //Arrange
+        doThrow(new IllegalStateException()).when(scimService).activateUser(USER_ID);
+        ScimService timedScimService = proxy(scimService);
+
+        //Act
+        try {
+            timedScimService.activateUser(USER_ID);
+        } catch (IllegalStateException expected) {
+        }
+        timedScimService.inactivateUser(USER_ID);
+
+        //Assert
+        assertEquals(1, meterRegistry.find(TimingAspect.CLIENT_TIMER)
+                .tags("client", "scim", "method", "activateUser", "exception", "IllegalStateException").timer().count());
+        assertEquals(1, meterRegistry.find(TimingAspect.CLIENT_TIMER)
+                .tags("client", "scim", "method", "inactivateUser", "exception", "none").timer().count());
+    }
+
+    @Test
+    public void testComponentName_Given_Implementation_Then_ReturnsTimedInterfaceName() {
+        //Act
+        String componentName = sut.componentName(lookupService);
+
+        //Assert
+        assertEquals("LookupService", componentName);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(T target) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(sut);
+        return (T) proxyFactory.getProxy();
+    }
+}
@@ -0,0 +1,38 @@
+package gov.samhsa.c2s.ums.infrastructure.sql;
+
+import java.util.function.Supplier;
+
+import static org.junit.Assert.fail;
+
+/**
+ * Asserts the max number of SQL statements executed through Hibernate by an action, for example a controller or
+ * service method called in a test that runs against a database:
+ * <pre>
+ * UserDto user = assertMaxSqlStatements(3, () -&gt; userRestController.getUser(userId));
+ * </pre>
+ */
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {
+    }
+
+    public static <T> T assertMaxSqlStatements(int maxStatements, Supplier<T> action) {
+        try (SqlStatementCounter.Counter counter = SqlStatementCounter.start()) {
+            final T result = action.get();
+            if (counter.getCount() > maxStatements) {
+                fail("Expected at most " + maxStatements + " SQL statements, but " + counter.getCount() + " were executed"
+                        + counter.getMostRepeatedStatement()
+                        .map(statement -> "; the most repeated statement was executed " + statement.getValue() + " times: " + statement.getKey())
+                        .orElse(""));
+            }
+            return result;
+        }
+    }
+
+    public static void assertMaxSqlStatements(int maxStatements, Runnable action) {
+        assertMaxSqlStatements(maxStatements, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,99 @@
+package gov.samhsa.c2s.ums.infrastructure.sql;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+
+import static gov.samhsa.c2s.ums.infrastructure.sql.SqlStatementAssertions.assertMaxSqlStatements;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SqlStatementBudgetFilterTest {
+    private static final String SQL = "select * from user where id=?";
+
+    private final SqlStatementCountingInspector inspector = new SqlStatementCountingInspector();
+    private SqlStatementBudgetFilter sut;
+
+    @Before
+    public void setUp() {
+        UmsProperties.SqlStatementBudget budget = new UmsProperties.SqlStatementBudget();
+        budget.setResponseHeaderEnabled(true);
+        sut = new SqlStatementBudgetFilter(budget);
+    }
+
+    @Test
+    public void testDoFilter_Given_DefaultBudget_Then_AddsNoStatementCountHeader() throws Exception {
+        //Arrange
+        sut = new SqlStatementBudgetFilter(new UmsProperties.SqlStatementBudget());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain filterChain = (request, filteredResponse) -> inspector.inspect(SQL);
+
+        //Act
+        sut.doFilter(new MockHttpServletRequest("GET", "/users/1"), response, filterChain);
+
+        //Assert
+        assertNull(response.getHeader(SqlStatementBudgetFilter.STATEMENT_COUNT_HEADER));
+    }
+
+    @Test
+    public void testDoFilter_Given_ResponseCommitted_Then_AddsStatementCountBeforeCommit() throws Exception {
+        //Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain filterChain = (request, filteredResponse) -> {
+            inspector.inspect(SQL);
+            inspector.inspect(SQL);
+            filteredResponse.getWriter().write("{}");
+            filteredResponse.flushBuffer();
+            inspector.inspect(SQL);
+        };
+
+        //Act
+        sut.doFilter(new MockHttpServletRequest("GET", "/users/1"), response, filterChain);
+
+        //Assert
+        assertEquals("2", response.getHeader(SqlStatementBudgetFilter.STATEMENT_COUNT_HEADER));
+    }
+
+    @Test
+    public void testDoFilter_Given_NoResponseBody_Then_AddsFinalStatementCountHeader() throws Exception {
+        //Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain filterChain = (request, filteredResponse) -> inspector.inspect(SQL);
+
+        //Act
+        sut.doFilter(new MockHttpServletRequest("DELETE", "/users/1"), response, filterChain);
+
+        //Assert
+        assertEquals("1", response.getHeader(SqlStatementBudgetFilter.STATEMENT_COUNT_HEADER));
+    }
+
+    @Test
+    public void testAssertMaxSqlStatements_Given_NestedCounter_Then_OuterCounterCountsInnerStatements() {
+        //Act
+        int count;
+        try (SqlStatementCounter.Counter outer = SqlStatementCounter.start()) {
+            assertMaxSqlStatements(2, () -> {
+                inspector.inspect(SQL);
+                inspector.inspect(SQL);
+            });
+            inspector.inspect(SQL);
+            count = outer.getCount();
+        }
+
+        //Assert
+        assertEquals(3, count);
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testAssertMaxSqlStatements_Given_TooManyStatements_Then_Fails() {
+        //Act
+        assertMaxSqlStatements(1, () -> {
+            inspector.inspect(SQL);
+            inspector.inspect(SQL);
+        });
+    }
+}
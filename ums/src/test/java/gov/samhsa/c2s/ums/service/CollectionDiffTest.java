@@ -0,0 +1,152 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.domain.Identifier;
+import gov.samhsa.c2s.ums.domain.IdentifierSystem;
+import gov.samhsa.c2s.ums.domain.Telecom;
+import gov.samhsa.c2s.ums.service.dto.IdentifierDto;
+import gov.samhsa.c2s.ums.service.dto.TelecomDto;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CollectionDiffTest {
+    private static final String[] SYSTEMS = {"http://hl7.org/fhir/sid/us-ssn", "http://hl7.org/fhir/sid/us-npi"};
+    private static final String[] VALUES = {"1", "2", "3", "4"};
+
+    @Test
+    public void testOf() {
+        //Arrange
+        List<String> existing = Arrays.asList("a", "b", "c");
+        List<String> requested = Arrays.asList("B", "C", "D");
+
+        //Act
+        CollectionDiff<String, String> diff = CollectionDiff.of(existing, CollectionDiff::key, requested, s -> CollectionDiff.key(s.toLowerCase()));
+
+        //Assert
+        assertEquals(Arrays.asList("a"), diff.getRemoved());
+        assertEquals(Arrays.asList("D"), diff.getAdded());
+        assertEquals(2, diff.getMatched().size());
+        assertSame("b", diff.getMatched().get(0).getExisting());
+        assertSame("B", diff.getMatched().get(0).getRequested());
+    }
+
+    @Test
+    public void testKey_Given_EnumAndItsName_Then_KeysAreEqual() {
+        //Act
+        List<Object> entityKey = CollectionDiff.key(Telecom.System.EMAIL, "a@b.c", Telecom.Use.HOME);
+        List<Object> dtoKey = CollectionDiff.key("EMAIL", "a@b.c", "HOME");
+
+        //Assert
+        assertEquals(entityKey, dtoKey);
+        assertEquals(entityKey.hashCode(), dtoKey.hashCode());
+    }
+
+    @Test
+    public void testOf_Given_RandomTelecoms_Then_MatchesNestedLoopComparison() {
+        Random random = new Random(42);
+        for (int run = 0; run < 500; run++) {
+            //Arrange
+            List<Telecom> telecoms = randomTelecoms(random);
+            List<TelecomDto> telecomDtos = randomTelecomDtos(random);
+
+            //Act
+            CollectionDiff<Telecom, TelecomDto> diff = CollectionDiff.of(
+                    telecoms, telecom -> CollectionDiff.key(telecom.getSystem(), telecom.getValue(), telecom.getUse()),
+                    telecomDtos, telecomDto -> CollectionDiff.key(telecomDto.getSystem(), telecomDto.getValue(), telecomDto.getUse()));
+
+            //Assert
+            List<Telecom> expectedRemoved = telecoms.stream()
+                    .filter(telecom -> telecomDtos.stream().noneMatch(telecomDto -> deepEquals(telecom, telecomDto)))
+                    .collect(toList());
+            List<TelecomDto> expectedAdded = telecomDtos.stream()
+                    .filter(telecomDto -> telecoms.stream().noneMatch(telecom -> deepEquals(telecom, telecomDto)))
+                    .collect(toList());
+            assertIdentical(expectedRemoved, diff.getRemoved());
+            assertIdentical(expectedAdded, diff.getAdded());
+            assertEquals(telecomDtos.size() - expectedAdded.size(), diff.getMatched().size());
+            diff.getMatched().forEach(match -> assertTrue(deepEquals(match.getExisting(), match.getRequested())));
+        }
+    }
+
+    @Test
+    public void testOf_Given_RandomIdentifiers_Then_MatchesNestedLoopComparison() {
+        Random random = new Random(7);
+        for (int run = 0; run < 500; run++) {
+            //Arrange
+            List<Identifier> identifiers = new ArrayList<>();
+            for (int i = random.nextInt(5); i > 0; i--) {
+                IdentifierSystem identifierSystem = new IdentifierSystem();
+                identifierSystem.setSystem(SYSTEMS[random.nextInt(SYSTEMS.length)]);
+                identifiers.add(Identifier.of(VALUES[random.nextInt(VALUES.length)], identifierSystem));
+            }
+            List<IdentifierDto> identifierDtos = new ArrayList<>();
+            for (int i = random.nextInt(5); i > 0; i--) {
+                identifierDtos.add(IdentifierDto.of(VALUES[random.nextInt(VALUES.length)], SYSTEMS[random.nextInt(SYSTEMS.length)]));
+            }
+
+            //Act
+            CollectionDiff<Identifier, IdentifierDto> diff = CollectionDiff.of(
+                    identifiers, id -> CollectionDiff.key(id.getIdentifierSystem().getSystem(), id.getValue()),
+                    identifierDtos, idDto -> CollectionDiff.key(idDto.getSystem(), idDto.getValue()));
+
+            //Assert
+            List<Identifier> expectedRemoved = identifiers.stream()
+                    .filter(id -> identifierDtos.stream().noneMatch(idDto -> deepEquals(id, idDto)))
+                    .collect(toList());
+            List<IdentifierDto> expectedAdded = identifierDtos.stream()
+                    .filter(idDto -> identifiers.stream().noneMatch(id -> deepEquals(id, idDto)))
+                    .collect(toList());
+            assertIdentical(expectedRemoved, diff.getRemoved());
+            assertIdentical(expectedAdded, diff.getAdded());
+        }
+    }
+
+    private static List<Telecom> randomTelecoms(Random random) {
+        List<Telecom> telecoms = new ArrayList<>();
+        for (int i = random.nextInt(5); i > 0; i--) {
+            Telecom telecom = new Telecom();
+            telecom.setSystem(Telecom.System.values()[random.nextInt(Telecom.System.values().length)]);
+            telecom.setValue(VALUES[random.nextInt(VALUES.length)]);
+            telecom.setUse(Telecom.Use.values()[random.nextInt(Telecom.Use.values().length)]);
+            telecoms.add(telecom);
+        }
+        return telecoms;
+    }
+
+    private static List<TelecomDto> randomTelecomDtos(Random random) {
+        List<TelecomDto> telecomDtos = new ArrayList<>();
+        for (int i = random.nextInt(5); i > 0; i--) {
+            telecomDtos.add(new TelecomDto(
+                    Telecom.System.values()[random.nextInt(Telecom.System.values().length)].toString(),
+                    VALUES[random.nextInt(VALUES.length)],
+                    Telecom.Use.values()[random.nextInt(Telecom.Use.values().length)].toString()));
+        }
+        return telecomDtos;
+    }
+
+    // The comparisons previously used by UserServiceImpl.updateUser
+    private static boolean deepEquals(Telecom telecom, TelecomDto telecomDto) {
+        return telecom.getSystem().toString().equals(telecomDto.getSystem()) &&
+                telecom.getValue().equals(telecomDto.getValue()) &&
+                telecom.getUse().toString().equals(telecomDto.getUse());
+    }
+
+    private static boolean deepEquals(Identifier id, IdentifierDto idDto) {
+        return id.getValue().equals(idDto.getValue()) && id.getIdentifierSystem().getSystem().equals(idDto.getSystem());
+    }
+
+    private static <T> void assertIdentical(List<T> expected, List<T> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), actual.get(i));
+        }
+    }
+}
@@ -1,48 +1,34 @@
 package gov.samhsa.c2s.ums.service;
 
-import gov.samhsa.c2s.common.util.UniqueValueGeneratorException;
-import gov.samhsa.c2s.ums.domain.UserActivation;
-import gov.samhsa.c2s.ums.domain.UserActivationRepository;
-import org.junit.Rule;
 import org.junit.Test;
-import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
-import java.util.Optional;
+import java.time.Instant;
 
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNull;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class EmailTokenGeneratorImplTest {
-    @Rule
-    public ExpectedException thrown = ExpectedException.none();
-
-    @Mock
-    private TokenGenerator tokenGenerator;
-
     @Mock
-    private UserActivationRepository userActivationRepository;
+    private EmailTokenSigner emailTokenSigner;
 
     @InjectMocks
     EmailTokenGeneratorImpl emailTokenGeneratorImpl;
 
     @Test
-    public void testGenerateEmailToken_TheUniqueTokenIsGenerated() {
+    public void testGenerateEmailToken_TheSignedTokenIsGenerated() {
         //Arrange
-        String token = "token";
-        when(tokenGenerator.generateToken()).thenReturn(token);
-        when(userActivationRepository.findOneByEmailToken(token)).thenReturn(Optional.empty());
+        Long userId = 1L;
+        Instant expiration = Instant.parse("2030-01-01T00:00:00Z");
+        String token = "signed-token";
+        when(emailTokenSigner.sign(userId, expiration)).thenReturn(token);
 
         //Act
-        String generatedEmailToken = emailTokenGeneratorImpl.generateEmailToken();
+        String generatedEmailToken = emailTokenGeneratorImpl.generateEmailToken(userId, expiration);
 
         //Assert
         assertEquals(token, generatedEmailToken);
@@ -0,0 +1,83 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.service.dto.SignedEmailTokenDto;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EmailTokenSignerImplTest {
+    private static final String SIGNING_KEY = "test-email-token-signing-key-0123456789";
+
+    private EmailTokenSignerImpl sut;
+
+    @Before
+    public void setUp() {
+        UmsProperties umsProperties = new UmsProperties();
+        umsProperties.getTokens().setEmailTokenSigningKey(SIGNING_KEY);
+        sut = new EmailTokenSignerImpl(umsProperties, new TokenGeneratorImpl());
+    }
+
+    @Test
+    public void testVerify_Given_SignedToken_Then_ReturnsClaims() {
+        //Arrange
+        Instant expiration = Instant.ofEpochSecond(1500000000L);
+        String emailToken = sut.sign(30L, expiration);
+
+        //Act
+        Optional<SignedEmailTokenDto> claims = sut.verify(emailToken);
+
+        //Assert
+        assertTrue(sut.isSigned(emailToken));
+        assertEquals(Long.valueOf(30L), claims.get().getUserId());
+        assertEquals(expiration, claims.get().getExpiration());
+    }
+
+    @Test
+    public void testVerify_Given_TamperedToken_Then_ReturnsEmpty() {
+        //Arrange
+        String emailToken = sut.sign(30L, Instant.ofEpochSecond(1500000000L));
+        String tamperedEmailToken = emailToken.replace("v1.30.", "v1.31.");
+
+        //Act
+        Optional<SignedEmailTokenDto> claims = sut.verify(tamperedEmailToken);
+
+        //Assert
+        assertFalse(claims.isPresent());
+    }
+
+    @Test
+    public void testVerify_Given_OpaqueToken_Then_ReturnsEmpty() {
+        //Arrange
+        String emailToken = new TokenGeneratorImpl().generateToken();
+
+        //Act
+        Optional<SignedEmailTokenDto> claims = sut.verify(emailToken);
+
+        //Assert
+        assertFalse(sut.isSigned(emailToken));
+        assertFalse(claims.isPresent());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testConstructor_Given_PlaceholderSigningKey_Then_ThrowsException() {
+        //Arrange
+        UmsProperties umsProperties = new UmsProperties();
+        umsProperties.getTokens().setEmailTokenSigningKey("change-me-change-me-change-me-change-me");
+
+        //Act
+        new EmailTokenSignerImpl(umsProperties, new TokenGeneratorImpl());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testConstructor_Given_MissingSigningKey_Then_ThrowsException() {
+        //Act
+        new EmailTokenSignerImpl(new UmsProperties(), new TokenGeneratorImpl());
+    }
+}
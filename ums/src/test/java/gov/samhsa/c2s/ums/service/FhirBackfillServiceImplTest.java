@@ -0,0 +1,204 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.domain.FhirBackfillJob;
+import gov.samhsa.c2s.ums.domain.FhirBackfillJobRepository;
+import gov.samhsa.c2s.ums.domain.FhirPublication;
+import gov.samhsa.c2s.ums.domain.PatientRepository;
+import gov.samhsa.c2s.ums.infrastructure.FisClient;
+import gov.samhsa.c2s.ums.service.dto.UserDto;
+import gov.samhsa.c2s.ums.service.exception.FhirBackfillAlreadyRunningException;
+import gov.samhsa.c2s.ums.service.exception.FhirPublishingDisabledException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FhirBackfillServiceImplTest {
+    private static final Long JOB_ID = 1L;
+    private static final String LEASE_OWNER = "lease-owner";
+
+    @Mock
+    private FhirBackfillJobRepository fhirBackfillJobRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private FhirPublicationService fhirPublicationService;
+
+    @Mock
+    private FisClient fisClient;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UmsProperties umsProperties;
+    private FhirBackfillServiceImpl sut;
+    private FhirBackfillJob job;
+
+    @Before
+    public void setUp() {
+        umsProperties = new UmsProperties();
+        umsProperties.setFhir(new UmsProperties.Fhir());
+        umsProperties.getFhir().setPublish(new UmsProperties.Fhir.Publish());
+        umsProperties.getFhir().getPublish().setEnabled(true);
+        umsProperties.getFhir().getBackfill().setChunkSize(2);
+        umsProperties.getFhir().getBackfill().setConcurrency(2);
+        sut = new FhirBackfillServiceImpl(fhirBackfillJobRepository, patientRepository, fhirPublicationService, fisClient,
+                umsProperties, transactionManager);
+        job = new FhirBackfillJob();
+        job.setId(JOB_ID);
+        job.setOperation(FhirPublication.Operation.UPDATE);
+        job.setStatus(FhirBackfillJob.Status.RUNNING);
+        job.setTotalCount(3);
+        when(fhirBackfillJobRepository.findOne(JOB_ID)).thenReturn(job);
+        when(fhirBackfillJobRepository.save(any(FhirBackfillJob.class))).thenAnswer(invocation -> invocation.getArguments()[0]);
+        when(fhirBackfillJobRepository.renewLease(eq(JOB_ID), eq(LEASE_OWNER), anyLong())).thenReturn(1);
+        when(patientRepository.findPatientAndUserIdsAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(new Object[]{1L, 11L}, new Object[]{2L, 12L}));
+        when(patientRepository.findPatientAndUserIdsAfter(eq(2L), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(new Object[]{3L, 13L}));
+        when(fhirPublicationService.getPatientUser(anyLong())).thenReturn(Optional.of(new UserDto()));
+    }
+
+    @Test
+    public void testRun_Given_AllChunks_Then_PushesAllPatientsAndCompletes() {
+        //Act
+        sut.run(new FhirBackfillServiceImpl.RunningJob(job, LEASE_OWNER, new PermitRateLimiter(1000)));
+
+        //Assert
+        verify(fhirPublicationService).getPatientUser(11L);
+        verify(fhirPublicationService).getPatientUser(12L);
+        verify(fhirPublicationService).getPatientUser(13L);
+        assertEquals(FhirBackfillJob.Status.COMPLETED, job.getStatus());
+        assertEquals(3L, job.getLastPatientId());
+        assertEquals(3L, job.getProcessedCount());
+        assertEquals(0L, job.getFailedCount());
+        verify(fhirBackfillJobRepository).releaseLease(LEASE_OWNER);
+    }
+
+    @Test
+    public void testRun_Given_FisFails_Then_EnqueuesPatientForRetry() {
+        //Arrange
+        UserDto failingUserDto = new UserDto();
+        failingUserDto.setId(13L);
+        when(fhirPublicationService.getPatientUser(13L)).thenReturn(Optional.of(failingUserDto));
+        when(fisClient.updateFhirPatient(failingUserDto)).thenThrow(new RuntimeException("FIS is unavailable"));
+
+        //Act
+        sut.run(new FhirBackfillServiceImpl.RunningJob(job, LEASE_OWNER, new PermitRateLimiter(1000)));
+
+        //Assert
+        verify(fhirPublicationService).enqueue(13L, FhirPublication.Operation.UPDATE);
+        assertEquals(FhirBackfillJob.Status.COMPLETED, job.getStatus());
+        assertEquals(3L, job.getProcessedCount());
+        assertEquals(1L, job.getFailedCount());
+    }
+
+    @Test
+    public void testRun_Given_Concurrency_Then_PushesNoMoreRequestsAtOnce() {
+        //Arrange
+        umsProperties.getFhir().getBackfill().setConcurrency(1);
+        sut = new FhirBackfillServiceImpl(fhirBackfillJobRepository, patientRepository, fhirPublicationService, fisClient,
+                umsProperties, transactionManager);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(fisClient.updateFhirPatient(any(UserDto.class))).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return null;
+        });
+
+        //Act
+        sut.run(new FhirBackfillServiceImpl.RunningJob(job, LEASE_OWNER, new PermitRateLimiter(1000)));
+
+        //Assert
+        assertEquals(1, maxInFlight.get());
+        assertEquals(FhirBackfillJob.Status.COMPLETED, job.getStatus());
+        assertEquals(3L, job.getProcessedCount());
+    }
+
+    @Test
+    public void testRun_Given_LeaseTakenByAnotherInstance_Then_DoesNotRecordStatus() {
+        //Arrange
+        when(fhirBackfillJobRepository.renewLease(eq(JOB_ID), eq(LEASE_OWNER), anyLong())).thenReturn(0);
+
+        //Act
+        sut.run(new FhirBackfillServiceImpl.RunningJob(job, LEASE_OWNER, new PermitRateLimiter(1000)));
+
+        //Assert
+        verify(fhirBackfillJobRepository, never()).save(any(FhirBackfillJob.class));
+        verify(patientRepository, never()).findPatientAndUserIdsAfter(eq(2L), any(Pageable.class));
+        assertEquals(FhirBackfillJob.Status.RUNNING, job.getStatus());
+        verify(fhirBackfillJobRepository).releaseLease(LEASE_OWNER);
+    }
+
+    @Test(expected = FhirBackfillAlreadyRunningException.class)
+    public void testStart_Given_LastJobLeasedByAnotherInstance_Then_Throws() {
+        //Arrange
+        when(fhirBackfillJobRepository.findTopByOrderByIdDesc()).thenReturn(Optional.of(job));
+        when(fhirBackfillJobRepository.lease(eq(JOB_ID), anyString(), anyLong())).thenReturn(0);
+
+        //Act
+        try {
+            sut.start(false, FhirPublication.Operation.UPDATE);
+        } finally {
+            //Assert
+            verify(fhirBackfillJobRepository, never()).save(any(FhirBackfillJob.class));
+        }
+    }
+
+    @Test
+    public void testFhirBackfillServiceImpl_Given_ChunkOutlastingHalfOfLease_Then_FailsStartup() {
+        //Arrange
+        umsProperties.getFhir().getBackfill().setChunkSize(500);
+        umsProperties.getFhir().getBackfill().setMaxRequestsPerSecond(1);
+        umsProperties.getFhir().getBackfill().setLeaseMillis(600000);
+
+        //Act
+        try {
+            new FhirBackfillServiceImpl(fhirBackfillJobRepository, patientRepository, fhirPublicationService, fisClient,
+                    umsProperties, transactionManager);
+            throw new AssertionError("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            //Assert
+            assertTrue(e.getMessage().contains("c2s.ums.fhir.backfill.lease-millis"));
+        }
+    }
+
+    @Test(expected = FhirPublishingDisabledException.class)
+    public void testStart_Given_PublishingDisabled_Then_Throws() {
+        //Arrange
+        umsProperties.getFhir().getPublish().setEnabled(false);
+
+        //Act
+        try {
+            sut.start(false, FhirPublication.Operation.UPDATE);
+        } finally {
+            //Assert
+            verifyZeroInteractions(fhirBackfillJobRepository, transactionManager);
+        }
+    }
+}
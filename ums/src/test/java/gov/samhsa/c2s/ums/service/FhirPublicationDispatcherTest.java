@@ -0,0 +1,85 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.domain.FhirPublication;
+import gov.samhsa.c2s.ums.infrastructure.FisClient;
+import gov.samhsa.c2s.ums.service.dto.UserDto;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Optional;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FhirPublicationDispatcherTest {
+    private static final Long USER_ID = 10L;
+
+    @Mock
+    private FhirPublicationService fhirPublicationService;
+
+    @Mock
+    private FisClient fisClient;
+
+    private FhirPublicationDispatcher sut;
+    private FhirPublication publication;
+
+    @Before
+    public void setUp() {
+        UmsProperties umsProperties = new UmsProperties();
+        umsProperties.setFhir(new UmsProperties.Fhir());
+        sut = new FhirPublicationDispatcher(fhirPublicationService, fisClient, umsProperties);
+        publication = new FhirPublication();
+        publication.setUserId(USER_ID);
+        publication.setOperation(FhirPublication.Operation.UPDATE);
+    }
+
+    @Test
+    public void testDeliver_Given_PatientUser_Then_UpdatesFhirPatientAndMarksDelivered() {
+        //Arrange
+        UserDto userDto = new UserDto();
+        when(fhirPublicationService.getPatientUser(USER_ID)).thenReturn(Optional.of(userDto));
+
+        //Act
+        sut.deliver(publication);
+
+        //Assert
+        verify(fisClient).updateFhirPatient(userDto);
+        verify(fhirPublicationService).markDelivered(publication);
+    }
+
+    @Test
+    public void testDeliver_Given_FisFails_Then_MarksFailed() {
+        //Arrange
+        UserDto userDto = new UserDto();
+        RuntimeException failure = new RuntimeException("Read timed out");
+        when(fhirPublicationService.getPatientUser(USER_ID)).thenReturn(Optional.of(userDto));
+        when(fisClient.updateFhirPatient(userDto)).thenThrow(failure);
+
+        //Act
+        sut.deliver(publication);
+
+        //Assert
+        verify(fhirPublicationService).markFailed(publication, failure);
+        verify(fhirPublicationService, never()).markDelivered(publication);
+    }
+
+    @Test
+    public void testDeliver_Given_UserIsNotPatient_Then_DiscardsPublication() {
+        //Arrange
+        when(fhirPublicationService.getPatientUser(USER_ID)).thenReturn(Optional.empty());
+
+        //Act
+        sut.deliver(publication);
+
+        //Assert
+        verify(fhirPublicationService).discard(publication);
+        verifyZeroInteractions(fisClient);
+    }
+}
@@ -0,0 +1,106 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.domain.FhirPublication;
+import gov.samhsa.c2s.ums.domain.FhirPublicationRepository;
+import gov.samhsa.c2s.ums.domain.UserRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.modelmapper.ModelMapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FhirPublicationServiceImplTest {
+    private static final Long PUBLICATION_ID = 1L;
+    private static final Long USER_ID = 10L;
+
+    @Mock
+    private FhirPublicationRepository fhirPublicationRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ModelMapper modelMapper;
+
+    private FhirPublicationServiceImpl sut;
+    private FhirPublication publication;
+
+    @Before
+    public void setUp() {
+        UmsProperties umsProperties = new UmsProperties();
+        umsProperties.setFhir(new UmsProperties.Fhir());
+        umsProperties.getFhir().getOutbox().setInitialBackoffMillis(1000);
+        umsProperties.getFhir().getOutbox().setMaxBackoffMillis(5000);
+        umsProperties.getFhir().getOutbox().setMaxAttempts(10);
+        sut = new FhirPublicationServiceImpl(fhirPublicationRepository, userRepository, modelMapper, umsProperties);
+        publication = new FhirPublication();
+        publication.setId(PUBLICATION_ID);
+        publication.setUserId(USER_ID);
+        publication.setOperation(FhirPublication.Operation.PUBLISH);
+        publication.setRevision(3);
+    }
+
+    @Test
+    public void testEnqueue_Given_PendingPublicationOfUser_Then_CountsMergedPublication() {
+        //Arrange
+        when(fhirPublicationRepository.upsert(USER_ID, "UPDATE")).thenReturn(2);
+
+        //Act
+        sut.enqueue(USER_ID, FhirPublication.Operation.UPDATE);
+
+        //Assert
+        assertEquals(1, sut.getStatistics().getEnqueuedCount());
+        assertEquals(1, sut.getStatistics().getMergedCount());
+    }
+
+    @Test
+    public void testMarkDelivered_Given_UnchangedUser_Then_DeletesPublication() {
+        //Arrange
+        when(fhirPublicationRepository.deleteByIdAndRevision(PUBLICATION_ID, 3)).thenReturn(1);
+
+        //Act
+        sut.markDelivered(publication);
+
+        //Assert
+        verify(fhirPublicationRepository, never()).releaseAsUpdate(PUBLICATION_ID);
+    }
+
+    @Test
+    public void testMarkDelivered_Given_UserChangedDuringDelivery_Then_ReleasesPublicationAsUpdate() {
+        //Arrange
+        when(fhirPublicationRepository.deleteByIdAndRevision(PUBLICATION_ID, 3)).thenReturn(0);
+
+        //Act
+        sut.markDelivered(publication);
+
+        //Assert
+        verify(fhirPublicationRepository).releaseAsUpdate(PUBLICATION_ID);
+    }
+
+    @Test
+    public void testMarkFailed_Given_ManyAttempts_Then_BackoffIsBoundedByMaxBackoff() {
+        //Arrange
+        publication.setAttempts(2);
+        FhirPublication failingPublication = new FhirPublication();
+        failingPublication.setId(2L);
+        failingPublication.setAttempts(8);
+
+        //Act
+        sut.markFailed(publication, new IllegalStateException("timeout"));
+        sut.markFailed(failingPublication, new IllegalStateException());
+
+        //Assert
+        verify(fhirPublicationRepository).recordFailure(PUBLICATION_ID, 10, 4000, "IllegalStateException: timeout");
+        verify(fhirPublicationRepository).recordFailure(eq(2L), eq(10), eq(5000L), anyString());
+    }
+}
@@ -0,0 +1,35 @@
+package gov.samhsa.c2s.ums.service;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ImageProcessingServiceImplTest {
+    @InjectMocks
+    private ImageProcessingServiceImpl sut;
+
+    @Test
+    public void testResizeImage_Given_NonSquareImage_Then_ReturnsSquareRendition() throws Exception {
+        //Arrange
+        BufferedImage originalImage = new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream originalImageBytes = new ByteArrayOutputStream();
+        ImageIO.write(originalImage, "jpg", originalImageBytes);
+
+        //Act
+        byte[] resizedImageBytes = sut.resizeImage(originalImageBytes.toByteArray(), "jpg", 32);
+
+        //Assert
+        BufferedImage resizedImage = ImageIO.read(new ByteArrayInputStream(resizedImageBytes));
+        assertEquals(32, resizedImage.getWidth());
+        assertEquals(32, resizedImage.getHeight());
+    }
+}
@@ -0,0 +1,183 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MrnBlockAllocatorImplTest {
+    private static final int BLOCK_SIZE = 10;
+    private static final long SEQUENCE_CAPACITY = 1_000_000L;
+
+    private UmsProperties umsProperties;
+    private MrnBlockAllocatorImpl sut;
+
+    @Before
+    public void setUp() {
+        UmsProperties.Mrn mrn = new UmsProperties.Mrn();
+        mrn.setLength(6);
+        mrn.setBlockSize(BLOCK_SIZE);
+        umsProperties = new UmsProperties();
+        umsProperties.setMrn(mrn);
+    }
+
+    @After
+    public void tearDown() {
+        if (sut != null) {
+            sut.destroy();
+        }
+    }
+
+    @Test
+    public void testNextValue_Given_ConcurrentCallersAcrossBlocks_Then_ReturnsNoDuplicates() throws Exception {
+        //Arrange
+        AtomicLong sequence = new AtomicLong();
+        sut = new MrnBlockAllocatorImpl(umsProperties, () -> {
+            // Slow enough that callers wait for the reservation of the next block
+            sleep(2);
+            return sequence.getAndAdd(BLOCK_SIZE);
+        });
+        int threads = 8;
+        int valuesPerThread = 100;
+        Set<Long> values = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+
+        //Act
+        try {
+            List<Future<?>> callers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                callers.add(executorService.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < valuesPerThread; j++) {
+                        if (!values.add(sut.nextValue())) {
+                            duplicates.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> caller : callers) {
+                caller.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        //Assert
+        assertEquals(0, duplicates.get());
+        assertEquals(threads * valuesPerThread, values.size());
+        assertTrue(values.stream().allMatch(value -> value < sequence.get()));
+        assertEquals(threads * valuesPerThread, sut.getStatistics().getAllocatedMrnCount());
+    }
+
+    @Test
+    public void testNextValue_Given_HalfOfBlockUsed_Then_ReservesNextBlock() throws Exception {
+        //Arrange
+        AtomicLong sequence = new AtomicLong();
+        CountDownLatch secondReservation = new CountDownLatch(2);
+        sut = new MrnBlockAllocatorImpl(umsProperties, () -> {
+            secondReservation.countDown();
+            return sequence.getAndAdd(BLOCK_SIZE);
+        });
+        for (int i = 0; i < BLOCK_SIZE / 2; i++) {
+            sut.nextValue();
+        }
+        assertEquals(1, secondReservation.getCount());
+
+        //Act
+        long value = sut.nextValue();
+
+        //Assert
+        assertEquals(BLOCK_SIZE / 2, value);
+        assertTrue(secondReservation.await(5, TimeUnit.SECONDS));
+        for (int i = BLOCK_SIZE / 2 + 1; i < 2 * BLOCK_SIZE; i++) {
+            assertEquals(i, sut.nextValue());
+        }
+    }
+
+    @Test
+    public void testNextValue_Given_FailedReservation_Then_NextCallerRetries() {
+        //Arrange
+        AtomicInteger reservations = new AtomicInteger();
+        sut = new MrnBlockAllocatorImpl(umsProperties, () -> {
+            if (reservations.getAndIncrement() == 0) {
+                throw new IllegalStateException("database unavailable");
+            }
+            return 100L;
+        });
+
+        //Act
+        try {
+            sut.nextValue();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals("database unavailable", e.getMessage());
+        }
+        long value = sut.nextValue();
+
+        //Assert
+        assertEquals(100L, value);
+        assertEquals(2, reservations.get());
+    }
+
+    @Test
+    public void testNextValue_Given_ExhaustedCapacity_Then_HandsOutRemainingValuesAndThrows() {
+        //Arrange
+        long lastBlockStart = SEQUENCE_CAPACITY - BLOCK_SIZE / 2;
+        AtomicInteger reservations = new AtomicInteger();
+        sut = new MrnBlockAllocatorImpl(umsProperties, () -> {
+            if (reservations.getAndIncrement() == 0) {
+                return lastBlockStart;
+            }
+            throw new IllegalStateException("All MRNs of length 6 are allocated; increase c2s.ums.mrn.length");
+        });
+
+        //Act
+        List<Long> values = new ArrayList<>();
+        try {
+            while (true) {
+                values.add(sut.nextValue());
+            }
+        } catch (IllegalStateException e) {
+            //Assert
+            assertEquals(BLOCK_SIZE / 2, values.size());
+            assertEquals(Long.valueOf(lastBlockStart), values.get(0));
+            assertEquals(Long.valueOf(SEQUENCE_CAPACITY - 1), values.get(values.size() - 1));
+        }
+
+        // The exhausted sequence keeps failing instead of handing out values beyond its capacity
+        try {
+            sut.nextValue();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals(0, sut.getStatistics().getCurrentBlockRemaining());
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
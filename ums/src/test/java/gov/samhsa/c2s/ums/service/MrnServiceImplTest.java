@@ -7,6 +7,9 @@
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
@@ -14,10 +17,12 @@
 
 @RunWith(MockitoJUnitRunner.class)
 public class MrnServiceImplTest {
-    //TODO:Test of generateRandomMrn should be done according to where the generateRandomMrn is moved(domain of ums).
     @Mock
     UmsProperties umsProperties;
 
+    @Mock
+    MrnBlockAllocator mrnBlockAllocator;
+
     @InjectMocks
     MrnServiceImpl mrnServiceImpl;
 
@@ -30,12 +35,13 @@ public void testGenerateMrn_Given_ThereIsaPrefixInMrn() {
         when(umsProperties.getMrn()).thenReturn(mrn);
         when(mrn.getPrefix()).thenReturn(prefix);
         when(mrn.getLength()).thenReturn(length);
+        when(mrnBlockAllocator.nextValue()).thenReturn(42L);
 
         //Act
         String generatedMrn = mrnServiceImpl.generateMrn();
 
         //Assert
-        assertEquals(13, generatedMrn.length());
+        assertEquals(14, generatedMrn.length());
         assertEquals("PREFIX-", generatedMrn.substring(0, 7));
         assertTrue(generatedMrn.equals(generatedMrn.toUpperCase()));
     }
@@ -49,13 +55,45 @@ public void testGenerateMrn_Given_ThereIsNoPrefixInMrn() {
         when(umsProperties.getMrn()).thenReturn(mrn);
         when(mrn.getPrefix()).thenReturn(prefix);
         when(mrn.getLength()).thenReturn(length);
+        when(mrnBlockAllocator.nextValue()).thenReturn(42L);
 
         //Act
         String generatedMrn = mrnServiceImpl.generateMrn();
 
         //Assert
-        assertEquals(6, generatedMrn.length());
-        assertTrue(generatedMrn.equals(generatedMrn.toUpperCase()));
+        assertEquals(7, generatedMrn.length());
+        assertTrue(generatedMrn.matches("[0-9]{7}"));
+    }
+
+    @Test
+    public void testGenerateMrn_Given_AllSequenceValues_Then_AllMrnsAreUniqueWithValidCheckDigit() {
+        //Arrange
+        UmsProperties.Mrn mrn = mock(UmsProperties.Mrn.class);
+        int length = 4;
+        when(umsProperties.getMrn()).thenReturn(mrn);
+        when(mrn.getPrefix()).thenReturn(null);
+        when(mrn.getLength()).thenReturn(length);
+        Set<String> generatedMrns = new HashSet<>();
+
+        //Act
+        for (long sequenceValue = 0; sequenceValue < 10000; sequenceValue++) {
+            generatedMrns.add(mrnServiceImpl.generateMrn(sequenceValue));
+        }
+
+        //Assert
+        assertEquals(10000, generatedMrns.size());
+        generatedMrns.forEach(generatedMrn -> assertEquals(0, luhnSum(generatedMrn) % 10));
     }
 
+    private int luhnSum(String digits) {
+        int sum = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            int digit = digits.charAt(digits.length() - 1 - i) - '0';
+            if (i % 2 == 1) {
+                digit = digit * 2 > 9 ? digit * 2 - 9 : digit * 2;
+            }
+            sum += digit;
+        }
+        return sum;
+    }
 }
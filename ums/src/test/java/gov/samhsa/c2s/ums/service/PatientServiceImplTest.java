@@ -11,7 +11,6 @@
 import gov.samhsa.c2s.ums.domain.User;
 import gov.samhsa.c2s.ums.domain.UserPatientRelationship;
 import gov.samhsa.c2s.ums.domain.UserPatientRelationshipRepository;
-import gov.samhsa.c2s.ums.domain.UserRepository;
 import gov.samhsa.c2s.ums.domain.valueobject.RelationshipRoleId;
 import gov.samhsa.c2s.ums.domain.valueobject.UserPatientRelationshipId;
 import gov.samhsa.c2s.ums.service.dto.PatientDto;
@@ -51,7 +50,7 @@ public class PatientServiceImplTest {
     ModelMapper modelMapper;
 
     @Mock
-    UserRepository userRepository;
+    UserAuthIdCache userAuthIdCache;
 
     @Mock
     UserPatientRelationshipRepository userPatientRelationshipRepository;
@@ -86,7 +85,7 @@ public void testGetPatientByPatientId() {
         when(demographics.getPatient()).thenReturn(patient);
 
         User user = mock(User.class);
-        when(userRepository.findByUserAuthIdAndDisabled(userAuthId.get(), false)).thenReturn(Optional.ofNullable(user));
+        when(userAuthIdCache.findEnabledUser(userAuthId.get())).thenReturn(Optional.ofNullable(user));
 
         UserPatientRelationship userPatientRelationship1 = mock(UserPatientRelationship.class);
         UserPatientRelationship userPatientRelationship2 = mock(UserPatientRelationship.class);
@@ -127,7 +126,7 @@ public void testGetPatientByPatientId_Given_NoUserIsFoundFromUserAuthId_Then_Thr
 
         when(demographics.getPatient()).thenReturn(patient);
 
-        when(userRepository.findByUserAuthIdAndDisabled(userAuthId.get(), false)).thenReturn(Optional.empty());
+        when(userAuthIdCache.findEnabledUser(userAuthId.get())).thenReturn(Optional.empty());
 
         //Act
         patientService.getPatientByPatientId(patientId,userAuthId);
@@ -159,7 +158,7 @@ public void testGetPatientByPatientId_Given_ThereIsNoUserPatientRelationship_The
         when(demographics.getPatient()).thenReturn(patient);
 
         User user = mock(User.class);
-        when(userRepository.findByUserAuthIdAndDisabled(userAuthId.get(), false)).thenReturn(Optional.ofNullable(user));
+        when(userAuthIdCache.findEnabledUser(userAuthId.get())).thenReturn(Optional.ofNullable(user));
 
         UserPatientRelationship userPatientRelationship1 = mock(UserPatientRelationship.class);
         UserPatientRelationship userPatientRelationship2 = mock(UserPatientRelationship.class);
@@ -192,7 +191,7 @@ public void testGetPatientByUserAuthId() {
         userPatientRelationships.add(userPatientRelationship1);
         userPatientRelationships.add(userPatientRelationship2);
 
-        when(userRepository.findByUserAuthIdAndDisabled(userAuthId, false)).thenReturn(Optional.ofNullable(user));
+        when(userAuthIdCache.findEnabledUser(userAuthId)).thenReturn(Optional.ofNullable(user));
 
         when(user.getId()).thenReturn(userId);
         when(userPatientRelationshipRepository.findAllByIdUserId(userId)).thenReturn(userPatientRelationships);
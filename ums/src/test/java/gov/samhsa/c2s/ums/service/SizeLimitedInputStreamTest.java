@@ -0,0 +1,36 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.service.exception.checkedexceptions.AvatarFileSizeLimitExceededException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class SizeLimitedInputStreamTest {
+
+    @Test
+    public void testRead_Given_InputWithinLimit_Then_ReadsAllBytes() throws Exception {
+        //Arrange
+        InputStream sut = new SizeLimitedInputStream(new ByteArrayInputStream(new byte[10]), 10);
+        byte[] buffer = new byte[20];
+
+        //Act
+        int length = sut.read(buffer, 0, buffer.length);
+
+        //Assert
+        assertEquals(10, length);
+        assertEquals(-1, sut.read());
+    }
+
+    @Test(expected = AvatarFileSizeLimitExceededException.class)
+    public void testRead_Given_InputLargerThanLimit_Then_ThrowsAvatarFileSizeLimitExceededException() throws Exception {
+        //Arrange
+        InputStream sut = new SizeLimitedInputStream(new ByteArrayInputStream(new byte[11]), 10);
+        byte[] buffer = new byte[20];
+
+        //Act
+        sut.read(buffer, 0, buffer.length);
+    }
+}
@@ -4,6 +4,9 @@
 import org.junit.runner.RunWith;
 import org.springframework.util.StringUtils;
 
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -31,4 +34,25 @@ public void generateToken_Given_MaxLength_Then_GenerateTokenNotLongerThanMaxLeng
         assertTrue(token.length() <= length);
 
     }
+
+    @Test
+    public void generateToken_Given_AlphabetAndLength_Then_GenerateTokenFromAlphabetWithLength() {
+        //Act
+        String token = tokenGeneratorImpl.generateToken("0123456789", 12);
+
+        //Assert
+        assertEquals(12, token.length());
+        assertTrue(token.matches("[0-9]+"));
+    }
+
+    @Test
+    public void generateUuid_Then_GenerateRandomVersion4Uuid() {
+        //Act
+        UUID uuid = tokenGeneratorImpl.generateUuid();
+
+        //Assert
+        assertEquals(4, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertNotEquals(uuid, tokenGeneratorImpl.generateUuid());
+    }
 }
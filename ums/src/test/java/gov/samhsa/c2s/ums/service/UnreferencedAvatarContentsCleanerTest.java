@@ -0,0 +1,84 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.domain.UserAvatarRenditionRepository;
+import gov.samhsa.c2s.ums.domain.UserAvatarRepository;
+import gov.samhsa.c2s.ums.infrastructure.AvatarStorage;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.time.Instant;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UnreferencedAvatarContentsCleanerTest {
+    private static final String CONTENT_HASH = "hash";
+
+    @Mock
+    private UserAvatarRepository userAvatarRepository;
+
+    @Mock
+    private UserAvatarRenditionRepository userAvatarRenditionRepository;
+
+    @Mock
+    private AvatarStorage avatarStorage;
+
+    private UnreferencedAvatarContentsCleaner sut;
+
+    @Before
+    public void setUp() {
+        UmsProperties umsProperties = new UmsProperties();
+        umsProperties.setAvatars(new UmsProperties.Avatars());
+        sut = new UnreferencedAvatarContentsCleaner(userAvatarRepository, userAvatarRenditionRepository, avatarStorage, umsProperties);
+    }
+
+    @Test
+    public void testRelease_Given_UnreferencedContents_Then_DeletesIfNotSavedSince() {
+        //Arrange
+        Instant savedSince = Instant.now();
+        when(avatarStorage.deleteIfNotSavedSince(CONTENT_HASH, savedSince)).thenReturn(true);
+
+        //Act
+        boolean released = sut.release(CONTENT_HASH, savedSince);
+
+        //Assert
+        assertTrue(released);
+        verify(avatarStorage).deleteIfNotSavedSince(CONTENT_HASH, savedSince);
+    }
+
+    @Test
+    public void testRelease_Given_ContentsReferencedByAvatar_Then_Keeps() {
+        //Arrange
+        when(userAvatarRepository.countByContentHash(CONTENT_HASH)).thenReturn(1L);
+
+        //Act
+        boolean released = sut.release(CONTENT_HASH, Instant.now());
+
+        //Assert
+        assertFalse(released);
+        verify(avatarStorage, never()).deleteIfNotSavedSince(anyString(), any(Instant.class));
+    }
+
+    @Test
+    public void testRelease_Given_ContentsReferencedByRendition_Then_Keeps() {
+        //Arrange
+        when(userAvatarRenditionRepository.countByContentHash(CONTENT_HASH)).thenReturn(1L);
+
+        //Act
+        boolean released = sut.release(CONTENT_HASH, Instant.now());
+
+        //Assert
+        assertFalse(released);
+        verify(avatarStorage, never()).deleteIfNotSavedSince(anyString(), any(Instant.class));
+    }
+}
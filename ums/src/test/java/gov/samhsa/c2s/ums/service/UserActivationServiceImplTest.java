@@ -17,12 +17,14 @@
 import gov.samhsa.c2s.ums.infrastructure.EmailSender;
 import gov.samhsa.c2s.ums.infrastructure.ScimService;
 import gov.samhsa.c2s.ums.service.dto.ScopeAssignmentRequestDto;
+import gov.samhsa.c2s.ums.service.dto.SignedEmailTokenDto;
 import gov.samhsa.c2s.ums.service.dto.UserActivationResponseDto;
 import gov.samhsa.c2s.ums.service.dto.UserVerificationRequestDto;
 import gov.samhsa.c2s.ums.service.dto.UsernameUsedDto;
 import gov.samhsa.c2s.ums.service.dto.VerificationResponseDto;
 import gov.samhsa.c2s.ums.service.exception.UserActivationNotFoundException;
 import gov.samhsa.c2s.ums.service.exception.UserIsAlreadyVerifiedException;
+import gov.samhsa.c2s.ums.service.exception.VerificationFailedException;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -40,7 +42,11 @@
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -63,12 +69,18 @@ public class UserActivationServiceImplTest {
     @Mock
     UserRepository userRepository;
 
+    @Mock
+    UserAuthIdCache userAuthIdCache;
+
     @Mock
     RoleRepository roleRepository;
 
     @Mock
     EmailTokenGenerator emailTokenGenerator;
 
+    @Mock
+    EmailTokenSigner emailTokenSigner;
+
     @Mock
     EmailSender emailSender;
 
@@ -114,7 +126,7 @@ public void testInitiateUserActivation() {
 
         UserActivation userActivation = mock(UserActivation.class);
 
-        when(emailTokenGenerator.generateEmailToken()).thenReturn(emailToken);
+        when(emailTokenGenerator.generateEmailToken(eq(userId), any(Instant.class))).thenReturn(emailToken);
         when(emailSenderProperties.getEmailTokenExpirationInDays()).thenReturn(7);
 
         when(userActivationRepository.findOneByUserId(userId)).thenReturn(Optional.ofNullable(userActivation));
@@ -169,7 +181,7 @@ public void testInitiateUserActivation_Given_UserIsAlreadyVerified_Then_ThrowsEx
 
         UserActivation userActivation = mock(UserActivation.class);
 
-        when(emailTokenGenerator.generateEmailToken()).thenReturn(emailToken);
+        when(emailTokenGenerator.generateEmailToken(eq(userId), any(Instant.class))).thenReturn(emailToken);
         when(emailSenderProperties.getEmailTokenExpirationInDays()).thenReturn(7);
 
         when(userActivationRepository.findOneByUserId(userId)).thenReturn(Optional.ofNullable(userActivation));
@@ -338,4 +350,65 @@ public void testCheckUsername() {
         assertEquals(usernameUsedDto, usernameUsedDto1);
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void testVerify_Given_SignedEmailTokenOnly_Then_Verifies() {
+        //Arrange
+        UserVerificationRequestDto userVerificationRequest = mock(UserVerificationRequestDto.class);
+        final String emailToken = "v1.30.1500000000.nonce.signature";
+        when(userVerificationRequest.getEmailToken()).thenReturn(emailToken);
+        when(emailTokenSigner.isSigned(emailToken)).thenReturn(true);
+        when(emailTokenSigner.verify(emailToken)).thenReturn(Optional.of(SignedEmailTokenDto.builder()
+                .userId(userId)
+                .expiration(Instant.MAX)
+                .build()));
+        UserActivation userActivation = mock(UserActivation.class);
+        when(userActivation.getEmailTokenExpirationAsInstant()).thenReturn(Instant.MAX);
+        when(userActivationRepository.findOneByEmailToken(emailToken)).thenReturn(Optional.of(userActivation));
+
+        //Act
+        VerificationResponseDto verificationResponseDto = userActivationService.verify(userVerificationRequest);
+
+        //Assert
+        assertEquals(new VerificationResponseDto(true), verificationResponseDto);
+    }
+
+    @Test
+    public void testVerify_Given_SignedEmailTokenOfVerifiedUser_Then_ThrowsException() {
+        //Arrange
+        thrown.expect(UserIsAlreadyVerifiedException.class);
+        UserVerificationRequestDto userVerificationRequest = mock(UserVerificationRequestDto.class);
+        final String emailToken = "v1.30.1500000000.nonce.signature";
+        when(userVerificationRequest.getEmailToken()).thenReturn(emailToken);
+        when(emailTokenSigner.isSigned(emailToken)).thenReturn(true);
+        when(emailTokenSigner.verify(emailToken)).thenReturn(Optional.of(SignedEmailTokenDto.builder()
+                .userId(userId)
+                .expiration(Instant.MAX)
+                .build()));
+        UserActivation userActivation = mock(UserActivation.class);
+        when(userActivation.isVerified()).thenReturn(true);
+        when(userActivationRepository.findOneByEmailToken(emailToken)).thenReturn(Optional.of(userActivation));
+
+        //Act
+        userActivationService.verify(userVerificationRequest);
+    }
+
+    @Test
+    public void testVerify_Given_ForgedSignedEmailToken_Then_FailsWithoutDatabaseLookup() {
+        //Arrange
+        UserVerificationRequestDto userVerificationRequest = mock(UserVerificationRequestDto.class);
+        final String emailToken = "v1.30.1500000000.nonce.forged";
+        when(userVerificationRequest.getEmailToken()).thenReturn(emailToken);
+        when(emailTokenSigner.isSigned(emailToken)).thenReturn(true);
+        when(emailTokenSigner.verify(emailToken)).thenReturn(Optional.empty());
+
+        //Act
+        try {
+            userActivationService.verify(userVerificationRequest);
+            fail("VerificationFailedException expected");
+        } catch (VerificationFailedException e) {
+            //Assert
+            verify(userActivationRepository, never()).findOneByEmailToken(emailToken);
+        }
+    }
+}
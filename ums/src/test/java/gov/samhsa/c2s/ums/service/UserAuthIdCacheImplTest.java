@@ -0,0 +1,84 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.domain.User;
+import gov.samhsa.c2s.ums.domain.UserRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UserAuthIdCacheImplTest {
+    private static final String USER_AUTH_ID = "userAuthId";
+    private static final Long USER_ID = 10L;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserAuthIdCacheImpl sut;
+    private User user;
+
+    @Before
+    public void setUp() {
+        UmsProperties umsProperties = new UmsProperties();
+        umsProperties.getUserAuthIdCache().setMaxEntries(1);
+        sut = new UserAuthIdCacheImpl(userRepository, umsProperties);
+        user = new User();
+        user.setId(USER_ID);
+        user.setUserAuthId(USER_AUTH_ID);
+        when(userRepository.findByUserAuthIdAndDisabled(USER_AUTH_ID, false)).thenReturn(Optional.of(user));
+        when(userRepository.findOne(USER_ID)).thenReturn(user);
+    }
+
+    @Test
+    public void testFindEnabledUser_Given_CachedUserAuthId_Then_LoadsUserByPrimaryKey() {
+        //Act
+        sut.findEnabledUser(USER_AUTH_ID);
+        Optional<User> cachedUser = sut.findEnabledUser(USER_AUTH_ID);
+
+        //Assert
+        assertSame(user, cachedUser.get());
+        verify(userRepository, times(1)).findByUserAuthIdAndDisabled(USER_AUTH_ID, false);
+        verify(userRepository).findOne(USER_ID);
+        assertEquals(1, sut.getStatistics().getHitCount());
+        assertEquals(1, sut.getStatistics().getMissCount());
+    }
+
+    @Test
+    public void testFindEnabledUser_Given_CachedUserIsDisabled_Then_ReturnsEmpty() {
+        //Arrange
+        sut.findEnabledUser(USER_AUTH_ID);
+        user.setDisabled(true);
+
+        //Act
+        Optional<User> cachedUser = sut.findEnabledUser(USER_AUTH_ID);
+
+        //Assert
+        assertFalse(cachedUser.isPresent());
+    }
+
+    @Test
+    public void testEvict() {
+        //Arrange
+        sut.findEnabledUser(USER_AUTH_ID);
+
+        //Act
+        sut.evict(USER_AUTH_ID);
+        sut.findEnabledUser(USER_AUTH_ID);
+
+        //Assert
+        verify(userRepository, times(2)).findByUserAuthIdAndDisabled(USER_AUTH_ID, false);
+        assertEquals(1, sut.getStatistics().getEntryCount());
+    }
+}
@@ -0,0 +1,124 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.service.dto.UserAvatarCacheStatisticsDto;
+import gov.samhsa.c2s.ums.service.dto.UserAvatarMetadataDto;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class UserAvatarCacheImplTest {
+    private static final Long USER_ID = 20L;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private UserAvatarCacheImpl sut;
+
+    @Before
+    public void setUp() {
+        UmsProperties umsProperties = new UmsProperties();
+        UmsProperties.Avatars avatars = new UmsProperties.Avatars();
+        avatars.getCache().setMaxContentsSizeBytes(10);
+        avatars.getCache().setMetadataTimeToLiveSeconds(60);
+        umsProperties.setAvatars(avatars);
+        sut = new UserAvatarCacheImpl(umsProperties, clock::get);
+    }
+
+    @Test
+    public void testGetContents_Given_CachedContents() {
+        //Arrange
+        byte[] imageDataBytes = {1, 2, 3};
+        sut.putContents("hash", imageDataBytes);
+
+        //Act
+        byte[] cachedImageDataBytes = sut.getContents("hash").get();
+
+        //Assert
+        assertSame(imageDataBytes, cachedImageDataBytes);
+        assertEquals(1, sut.getStatistics().getContentsHitCount());
+    }
+
+    @Test
+    public void testPutContents_Given_SizeBoundExceeded_Then_EvictsLeastRecentlyUsed() {
+        //Arrange
+        sut.putContents("hash1", new byte[4]);
+        sut.putContents("hash2", new byte[4]);
+        sut.getContents("hash1");
+
+        //Act
+        sut.putContents("hash3", new byte[4]);
+
+        //Assert
+        assertTrue(sut.getContents("hash1").isPresent());
+        assertFalse(sut.getContents("hash2").isPresent());
+        assertTrue(sut.getContents("hash3").isPresent());
+        UserAvatarCacheStatisticsDto statistics = sut.getStatistics();
+        assertEquals(8, statistics.getContentsSizeBytes());
+        assertEquals(1, statistics.getContentsEvictionCount());
+    }
+
+    @Test
+    public void testEvict() {
+        //Arrange
+        sut.putMetadata(newUserAvatarMetadata(USER_ID), sut.currentMetadataGeneration());
+
+        //Act
+        sut.evict(USER_ID);
+
+        //Assert
+        assertFalse(sut.getMetadata(USER_ID).isPresent());
+        assertEquals(1, sut.getStatistics().getMetadataMissCount());
+    }
+
+    @Test
+    public void testGetMetadata_Given_TimeToLiveElapsed_Then_ReturnsEmpty() {
+        //Arrange
+        sut.putMetadata(newUserAvatarMetadata(USER_ID), sut.currentMetadataGeneration());
+        clock.set(59_999);
+        assertTrue(sut.getMetadata(USER_ID).isPresent());
+        clock.set(60_000);
+
+        //Act
+        boolean cached = sut.getMetadata(USER_ID).isPresent();
+
+        //Assert
+        assertFalse(cached);
+        assertEquals(0, sut.getStatistics().getMetadataEntryCount());
+    }
+
+    @Test
+    public void testPutMetadata_Given_EvictedAfterLoadStarted_Then_DoesNotCache() {
+        //Arrange
+        long loadedGeneration = sut.currentMetadataGeneration();
+        sut.evict(USER_ID);
+
+        //Act
+        sut.putMetadata(newUserAvatarMetadata(USER_ID), loadedGeneration);
+
+        //Assert
+        assertFalse(sut.getMetadata(USER_ID).isPresent());
+    }
+
+    @Test
+    public void testPutMetadata_Given_OtherUserEvictedAfterLoadStarted_Then_Caches() {
+        //Arrange
+        long loadedGeneration = sut.currentMetadataGeneration();
+        sut.evict(USER_ID + 1);
+
+        //Act
+        sut.putMetadata(newUserAvatarMetadata(USER_ID), loadedGeneration);
+
+        //Assert
+        assertTrue(sut.getMetadata(USER_ID).isPresent());
+    }
+
+    private UserAvatarMetadataDto newUserAvatarMetadata(Long userId) {
+        return UserAvatarMetadataDto.builder().userId(userId).contentHash("hash").build();
+    }
+}
@@ -0,0 +1,193 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.domain.UserAvatar;
+import gov.samhsa.c2s.ums.domain.UserAvatarRendition;
+import gov.samhsa.c2s.ums.domain.UserAvatarRepository;
+import gov.samhsa.c2s.ums.infrastructure.AvatarStorage;
+import gov.samhsa.c2s.ums.infrastructure.exception.AvatarStorageException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UserAvatarRenditionServiceImplTest {
+    private static final Long USER_ID = 1L;
+    private static final String CONTENT_HASH = "hash";
+    private static final byte[] ORIGINAL_IMAGE_BYTES = {1, 2, 3};
+
+    @Mock
+    private ImageProcessingService imageProcessingService;
+
+    @Mock
+    private UserAvatarRepository userAvatarRepository;
+
+    @Mock
+    private AvatarStorage avatarStorage;
+
+    @Mock
+    private UserAvatarCache userAvatarCache;
+
+    @Mock
+    private UnreferencedAvatarContentsCleaner unreferencedAvatarContentsCleaner;
+
+    @Mock
+    private TaskExecutor avatarRenditionTaskExecutor;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserAvatarRenditionServiceImpl sut;
+
+    @Before
+    public void setUp() throws Exception {
+        UmsProperties umsProperties = new UmsProperties();
+        UmsProperties.Avatars avatars = new UmsProperties.Avatars();
+        avatars.getRenditions().setSizes(Arrays.asList(32, 48));
+        umsProperties.setAvatars(avatars);
+        when(avatarStorage.load(CONTENT_HASH)).thenReturn(ORIGINAL_IMAGE_BYTES);
+        // Each rendition is as many bytes long as it is wide, and is stored under a hash named after its size
+        when(imageProcessingService.resizeImage(any(byte[].class), anyString(), anyInt()))
+                .thenAnswer(invocation -> new byte[(Integer) invocation.getArguments()[2]]);
+        when(avatarStorage.save(any(byte[].class)))
+                .thenAnswer(invocation -> "hash" + ((byte[]) invocation.getArguments()[0]).length);
+        sut = new UserAvatarRenditionServiceImpl(umsProperties, imageProcessingService, userAvatarRepository,
+                avatarStorage, userAvatarCache, unreferencedAvatarContentsCleaner, avatarRenditionTaskExecutor,
+                transactionManager);
+    }
+
+    @Test
+    public void testGenerateRenditions_Given_AvatarChanged_Then_SkipsGeneration() {
+        //Arrange
+        when(userAvatarRepository.findByUserId(USER_ID)).thenReturn(Optional.of(newUserAvatar("changed hash")));
+
+        //Act
+        sut.generateRenditions(USER_ID, CONTENT_HASH);
+
+        //Assert
+        verifyZeroInteractions(avatarStorage, imageProcessingService, unreferencedAvatarContentsCleaner, userAvatarCache);
+        verify(userAvatarRepository, never()).save(any(UserAvatar.class));
+    }
+
+    @Test
+    public void testGenerateRenditions_Given_AvatarChangedWhileResizing_Then_ReleasesNewRenditions() {
+        //Arrange
+        when(userAvatarRepository.findByUserId(USER_ID))
+                .thenReturn(Optional.of(newUserAvatar(CONTENT_HASH)), Optional.of(newUserAvatar("changed hash")));
+
+        //Act
+        sut.generateRenditions(USER_ID, CONTENT_HASH);
+
+        //Assert
+        verify(unreferencedAvatarContentsCleaner).releaseAfterCommit("hash32");
+        verify(unreferencedAvatarContentsCleaner).releaseAfterCommit("hash48");
+        verify(userAvatarRepository, never()).save(any(UserAvatar.class));
+        verify(userAvatarCache).evict(USER_ID);
+    }
+
+    @Test
+    public void testGenerateRenditions_Given_RenditionOfSameSize_Then_ReplacesItInPlace() {
+        //Arrange
+        UserAvatar userAvatar = newUserAvatar(CONTENT_HASH);
+        UserAvatarRendition existingRendition = newUserAvatarRendition(32, "hash32", userAvatar);
+        existingRendition.setId(5L);
+        when(userAvatarRepository.findByUserId(USER_ID)).thenReturn(Optional.of(userAvatar));
+
+        //Act
+        sut.generateRenditions(USER_ID, CONTENT_HASH);
+
+        //Assert
+        verify(userAvatarRepository).save(userAvatar);
+        assertEquals(2, userAvatar.getRenditions().size());
+        assertSame(existingRendition, userAvatar.getRenditions().get(0));
+        assertEquals(Long.valueOf(5L), existingRendition.getId());
+        assertEquals(Long.valueOf(32L), existingRendition.getFileSizeBytes());
+        assertEquals(Integer.valueOf(48), userAvatar.getRenditions().get(1).getSizePixels());
+        assertSame(userAvatar, userAvatar.getRenditions().get(1).getUserAvatar());
+        // The contents of the unchanged rendition are still referenced
+        verifyZeroInteractions(unreferencedAvatarContentsCleaner);
+    }
+
+    @Test
+    public void testGenerateRenditions_Given_ReplacedAndRemovedRenditions_Then_ReleasesTheirContents() {
+        //Arrange
+        UserAvatar userAvatar = newUserAvatar(CONTENT_HASH);
+        UserAvatarRendition replacedRendition = newUserAvatarRendition(32, "old hash32", userAvatar);
+        newUserAvatarRendition(128, "hash128", userAvatar);
+        when(userAvatarRepository.findByUserId(USER_ID)).thenReturn(Optional.of(userAvatar));
+
+        //Act
+        sut.generateRenditions(USER_ID, CONTENT_HASH);
+
+        //Assert
+        assertEquals("hash32", replacedRendition.getContentHash());
+        assertEquals(2, userAvatar.getRenditions().size());
+        assertEquals(Integer.valueOf(32), userAvatar.getRenditions().get(0).getSizePixels());
+        assertEquals(Integer.valueOf(48), userAvatar.getRenditions().get(1).getSizePixels());
+        verify(unreferencedAvatarContentsCleaner).releaseAfterCommit("old hash32");
+        verify(unreferencedAvatarContentsCleaner).releaseAfterCommit("hash128");
+        verify(unreferencedAvatarContentsCleaner, times(2)).releaseAfterCommit(anyString());
+        verify(userAvatarRepository).save(userAvatar);
+    }
+
+    @Test
+    public void testGenerateRenditions_Given_SaveFailsPartway_Then_ReleasesSavedRenditions() {
+        //Arrange
+        when(userAvatarRepository.findByUserId(USER_ID)).thenReturn(Optional.of(newUserAvatar(CONTENT_HASH)));
+        doReturn("hash32").doThrow(new AvatarStorageException("disk full")).when(avatarStorage).save(any(byte[].class));
+
+        //Act
+        try {
+            sut.generateRenditions(USER_ID, CONTENT_HASH);
+            fail("Expected AvatarStorageException");
+        } catch (AvatarStorageException e) {
+            //Assert
+            assertEquals("disk full", e.getMessage());
+        }
+        verify(unreferencedAvatarContentsCleaner).releaseAfterCommit("hash32");
+        verify(unreferencedAvatarContentsCleaner, times(1)).releaseAfterCommit(anyString());
+        verify(userAvatarRepository, times(1)).findByUserId(USER_ID);
+        verify(userAvatarRepository, never()).save(any(UserAvatar.class));
+    }
+
+    private UserAvatar newUserAvatar(String contentHash) {
+        UserAvatar userAvatar = new UserAvatar();
+        userAvatar.setContentHash(contentHash);
+        userAvatar.setFileExtension("png");
+        userAvatar.setFileWidthPixels(64L);
+        userAvatar.setFileHeightPixels(64L);
+        return userAvatar;
+    }
+
+    private UserAvatarRendition newUserAvatarRendition(int sizePixels, String contentHash, UserAvatar userAvatar) {
+        UserAvatarRendition rendition = new UserAvatarRendition();
+        rendition.setSizePixels(sizePixels);
+        rendition.setFileWidthPixels((long) sizePixels);
+        rendition.setFileHeightPixels((long) sizePixels);
+        rendition.setFileSizeBytes((long) sizePixels);
+        rendition.setContentHash(contentHash);
+        rendition.setUserAvatar(userAvatar);
+        userAvatar.getRenditions().add(rendition);
+        return rendition;
+    }
+}
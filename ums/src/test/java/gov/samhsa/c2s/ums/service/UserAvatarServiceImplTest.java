@@ -0,0 +1,359 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.config.UmsProperties;
+import gov.samhsa.c2s.ums.domain.User;
+import gov.samhsa.c2s.ums.domain.UserAvatar;
+import gov.samhsa.c2s.ums.domain.UserAvatarRendition;
+import gov.samhsa.c2s.ums.domain.UserAvatarRepository;
+import gov.samhsa.c2s.ums.domain.UserRepository;
+import gov.samhsa.c2s.ums.infrastructure.AvatarStorage;
+import gov.samhsa.c2s.ums.service.dto.ImageHeaderDto;
+import gov.samhsa.c2s.ums.service.dto.UserAvatarDto;
+import gov.samhsa.c2s.ums.service.dto.UserAvatarImageDto;
+import gov.samhsa.c2s.ums.service.dto.UserAvatarMetadataDto;
+import gov.samhsa.c2s.ums.service.exception.InvalidAvatarInputException;
+import gov.samhsa.c2s.ums.service.exception.UserNotFoundException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.imageio.stream.ImageInputStream;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static gov.samhsa.c2s.common.unit.matcher.ArgumentMatchers.matching;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UserAvatarServiceImplTest {
+    private static final Long USER_ID = 1L;
+    private static final Long UNMIGRATED_USER_ID = 2L;
+    private static final Long MISSING_USER_ID = 3L;
+    private static final String CONTENT_HASH = "hash";
+    private static final byte[] IMAGE_DATA_BYTES = {1, 2, 3, 4};
+
+    @Mock
+    private ImageProcessingService imageProcessingService;
+
+    @Mock
+    private UserAvatarRepository userAvatarRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private AvatarStorage avatarStorage;
+
+    @Mock
+    private UserAvatarCache userAvatarCache;
+
+    @Mock
+    private UserAvatarRenditionService userAvatarRenditionService;
+
+    @Mock
+    private UnreferencedAvatarContentsCleaner unreferencedAvatarContentsCleaner;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserAvatarServiceImpl sut;
+
+    @Before
+    public void setUp() throws Exception {
+        UmsProperties.Avatars avatars = new UmsProperties.Avatars();
+        avatars.setMaxFileSize((long) IMAGE_DATA_BYTES.length);
+        avatars.setAllowedFileTypesList(Collections.singletonList("JPEG"));
+        avatars.setRequiredImageWidth(48L);
+        avatars.setRequiredImageHeight(48L);
+        UmsProperties.Pagination pagination = new UmsProperties.Pagination();
+        pagination.setMaxSize(10);
+        UmsProperties umsProperties = new UmsProperties();
+        umsProperties.setAvatars(avatars);
+        umsProperties.setPagination(pagination);
+
+        when(imageProcessingService.getImageHeader(any(ImageInputStream.class))).thenReturn(ImageHeaderDto.builder()
+                .formatName("JPEG")
+                .mediaType("image/jpeg")
+                .fileExtensions(Arrays.asList("jpg", "jpeg"))
+                .widthPixels(100)
+                .heightPixels(100)
+                .build());
+        when(avatarStorage.save(IMAGE_DATA_BYTES)).thenReturn(CONTENT_HASH);
+        when(avatarStorage.load(CONTENT_HASH)).thenReturn(IMAGE_DATA_BYTES);
+        when(userAvatarCache.getContents(CONTENT_HASH)).thenReturn(Optional.empty());
+        when(userAvatarCache.getMetadata(anyLong())).thenReturn(Optional.empty());
+        when(userAvatarRepository.findByUserId(USER_ID)).thenReturn(Optional.empty());
+        when(userAvatarRepository.save(any(UserAvatar.class))).thenAnswer(invocation -> invocation.getArguments()[0]);
+
+        sut = new UserAvatarServiceImpl(umsProperties, imageProcessingService, userAvatarRepository,
+                userRepository, avatarStorage, userAvatarCache, userAvatarRenditionService,
+                unreferencedAvatarContentsCleaner, transactionManager);
+    }
+
+    @Test
+    public void testSaveUserAvatar_Given_ImageStream_Then_StoresContentsBeforeTransaction() {
+        //Arrange
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(newUser()));
+
+        //Act
+        UserAvatarDto userAvatar = sut.saveUserAvatar(USER_ID, new ByteArrayInputStream(IMAGE_DATA_BYTES), "avatar.jpg");
+
+        //Assert
+        assertEquals(USER_ID, userAvatar.getUserId());
+        assertEquals(Long.valueOf(IMAGE_DATA_BYTES.length), userAvatar.getFileSizeBytes());
+        assertEquals("jpg", userAvatar.getFileExtension());
+        InOrder inOrder = inOrder(avatarStorage, transactionManager, userAvatarRepository);
+        inOrder.verify(avatarStorage).save(IMAGE_DATA_BYTES);
+        inOrder.verify(transactionManager).getTransaction(any(TransactionDefinition.class));
+        inOrder.verify(userAvatarRepository).save(argThat(matching((UserAvatar savedUserAvatar) ->
+                CONTENT_HASH.equals(savedUserAvatar.getContentHash()) &&
+                        "image/jpeg".equals(savedUserAvatar.getMediaType()) &&
+                        savedUserAvatar.getFileContents() == null)));
+        inOrder.verify(transactionManager).commit(any());
+        verify(userAvatarRenditionService).generateRenditionsAfterCommit(USER_ID, CONTENT_HASH);
+    }
+
+    @Test
+    public void testSaveUserAvatar_Given_OversizedImageStream_Then_ThrowsWithoutTransaction() {
+        //Arrange
+        byte[] oversizedImageDataBytes = Arrays.copyOf(IMAGE_DATA_BYTES, IMAGE_DATA_BYTES.length + 1);
+
+        //Act
+        try {
+            sut.saveUserAvatar(USER_ID, new ByteArrayInputStream(oversizedImageDataBytes), "avatar.jpg");
+            fail("Expected InvalidAvatarInputException");
+        } catch (InvalidAvatarInputException e) {
+            //Assert
+            verifyZeroInteractions(avatarStorage, transactionManager, userRepository);
+        }
+    }
+
+    @Test
+    public void testSaveUserAvatar_Given_ImageStreamOfDisallowedType_Then_ThrowsWithoutTransaction() throws Exception {
+        //Arrange
+        when(imageProcessingService.getImageHeader(any(ImageInputStream.class))).thenReturn(ImageHeaderDto.builder()
+                .formatName("gif")
+                .mediaType("image/gif")
+                .fileExtensions(Collections.singletonList("gif"))
+                .widthPixels(100)
+                .heightPixels(100)
+                .build());
+
+        //Act
+        try {
+            sut.saveUserAvatar(USER_ID, new ByteArrayInputStream(IMAGE_DATA_BYTES), "avatar.gif");
+            fail("Expected InvalidAvatarInputException");
+        } catch (InvalidAvatarInputException e) {
+            //Assert
+            verifyZeroInteractions(avatarStorage, transactionManager, userRepository);
+        }
+    }
+
+    @Test
+    public void testSaveUserAvatar_Given_ImageStreamForUnknownUser_Then_ReleasesStoredContents() {
+        //Arrange
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.empty());
+
+        //Act
+        try {
+            sut.saveUserAvatar(USER_ID, new ByteArrayInputStream(IMAGE_DATA_BYTES), "avatar.jpg");
+            fail("Expected UserNotFoundException");
+        } catch (UserNotFoundException e) {
+            //Assert
+            verify(unreferencedAvatarContentsCleaner).releaseAfterCommit(CONTENT_HASH);
+            verify(transactionManager).rollback(any());
+        }
+    }
+
+    @Test
+    public void testGetUserAvatarImageMetadataByUserId_Given_RequestedSize_Then_SelectsRenditionWithoutLoadingContents() {
+        //Arrange
+        UserAvatar userAvatar = newUserAvatar(10L, CONTENT_HASH, null, mock(User.class));
+        userAvatar.getRenditions().add(newUserAvatarRendition(48, "hash-48"));
+        userAvatar.getRenditions().add(newUserAvatarRendition(96, "hash-96"));
+        when(userAvatarRepository.findByUserId(USER_ID)).thenReturn(Optional.of(userAvatar));
+
+        //Act
+        UserAvatarImageDto userAvatarImage = sut.getUserAvatarImageMetadataByUserId(USER_ID, 64);
+
+        //Assert
+        assertEquals("hash-96", userAvatarImage.getContentHash());
+        assertEquals("image/jpeg", userAvatarImage.getMediaType());
+        assertEquals(USER_ID, userAvatarImage.getUserId());
+        assertNull(userAvatarImage.getImageBytes());
+        verify(avatarStorage, never()).load(anyString());
+        verify(userAvatarCache, never()).getContents(anyString());
+    }
+
+    @Test
+    public void testGetUserAvatarImageBytes_Given_MetadataWithoutImageBytes_Then_LoadsContents() {
+        //Arrange
+        UserAvatarImageDto userAvatarImage = UserAvatarImageDto.builder()
+                .contentHash(CONTENT_HASH)
+                .mediaType("image/jpeg")
+                .userId(USER_ID)
+                .build();
+
+        //Act
+        byte[] imageBytes = sut.getUserAvatarImageBytes(userAvatarImage);
+
+        //Assert
+        assertArrayEquals(IMAGE_DATA_BYTES, imageBytes);
+        verify(userAvatarCache).putContents(CONTENT_HASH, IMAGE_DATA_BYTES);
+    }
+
+    @Test
+    public void testGetUserAvatarMetadataByUserIds_Given_MigratedUnmigratedAndMissingAvatars_Then_ReturnsFoundAvatarsInRequestOrder() {
+        //Arrange
+        byte[] unmigratedFileContents = "data:image/png;base64,AQID".getBytes(StandardCharsets.US_ASCII);
+        byte[] unmigratedImageDataBytes = {1, 2, 3};
+        User user = mock(User.class);
+        UserAvatar userAvatar = newUserAvatar(10L, CONTENT_HASH, null, user);
+        userAvatar.getRenditions().add(newUserAvatarRendition(48, "hash-48"));
+        userAvatar.getRenditions().add(newUserAvatarRendition(96, "hash-96"));
+        UserAvatar unmigratedUserAvatar = newUserAvatar(20L, null, unmigratedFileContents, user);
+        // The avatar with renditions is returned once per rendition
+        when(userAvatarRepository.findUserAvatarAndUserIdsByUserIdIn(Arrays.asList(MISSING_USER_ID, UNMIGRATED_USER_ID, USER_ID)))
+                .thenReturn(Arrays.asList(
+                        new Object[]{userAvatar, USER_ID},
+                        new Object[]{userAvatar, USER_ID},
+                        new Object[]{unmigratedUserAvatar, UNMIGRATED_USER_ID}));
+        when(imageProcessingService.getImageDataBytes(unmigratedFileContents)).thenReturn(unmigratedImageDataBytes);
+        when(imageProcessingService.getImageContentHash(unmigratedImageDataBytes)).thenReturn("unmigrated-hash");
+        when(imageProcessingService.getImageMediaType(unmigratedFileContents, "jpg")).thenReturn("image/png");
+
+        //Act
+        List<UserAvatarMetadataDto> userAvatarMetadataList = sut.getUserAvatarMetadataByUserIds(
+                Arrays.asList(MISSING_USER_ID, UNMIGRATED_USER_ID, USER_ID, UNMIGRATED_USER_ID));
+
+        //Assert
+        assertEquals(2, userAvatarMetadataList.size());
+        assertEquals(UNMIGRATED_USER_ID, userAvatarMetadataList.get(0).getUserId());
+        assertEquals("unmigrated-hash", userAvatarMetadataList.get(0).getContentHash());
+        assertEquals("image/png", userAvatarMetadataList.get(0).getMediaType());
+        assertEquals(USER_ID, userAvatarMetadataList.get(1).getUserId());
+        assertEquals(CONTENT_HASH, userAvatarMetadataList.get(1).getContentHash());
+        assertEquals(2, userAvatarMetadataList.get(1).getRenditions().size());
+        verify(userAvatarCache).putMetadata(argThat(matching((UserAvatarMetadataDto userAvatarMetadata) ->
+                USER_ID.equals(userAvatarMetadata.getUserId()))), anyLong());
+        // Only avatars with stored contents are cached
+        verify(userAvatarCache, never()).putMetadata(argThat(matching((UserAvatarMetadataDto userAvatarMetadata) ->
+                UNMIGRATED_USER_ID.equals(userAvatarMetadata.getUserId()))), anyLong());
+        // The lazy users are not loaded
+        verifyZeroInteractions(user);
+    }
+
+    @Test
+    public void testGetUserAvatarMetadataByUserIds_Given_CachedMetadata_Then_DoesNotQueryRepository() {
+        //Arrange
+        UserAvatarMetadataDto cachedUserAvatarMetadata = UserAvatarMetadataDto.builder()
+                .id(10L)
+                .contentHash(CONTENT_HASH)
+                .renditions(Collections.emptyList())
+                .userId(USER_ID)
+                .build();
+        when(userAvatarCache.getMetadata(USER_ID)).thenReturn(Optional.of(cachedUserAvatarMetadata));
+
+        //Act
+        List<UserAvatarMetadataDto> userAvatarMetadataList = sut.getUserAvatarMetadataByUserIds(Collections.singletonList(USER_ID));
+
+        //Assert
+        assertEquals(Collections.singletonList(cachedUserAvatarMetadata), userAvatarMetadataList);
+        verify(userAvatarRepository, never()).findUserAvatarAndUserIdsByUserIdIn(any());
+    }
+
+    @Test
+    public void testGetUserAvatarsByUserIds_Given_MigratedUnmigratedAndMissingAvatars_Then_ReturnsFoundAvatarsInRequestOrder() {
+        //Arrange
+        byte[] unmigratedFileContents = "data:image/png;base64,AQID".getBytes(StandardCharsets.US_ASCII);
+        User user = mock(User.class);
+        UserAvatar userAvatar = newUserAvatar(10L, CONTENT_HASH, null, user);
+        UserAvatar unmigratedUserAvatar = newUserAvatar(20L, null, unmigratedFileContents, user);
+        when(userAvatarRepository.findUserAvatarAndUserIdsByUserIdIn(Arrays.asList(USER_ID, MISSING_USER_ID, UNMIGRATED_USER_ID)))
+                .thenReturn(Arrays.asList(
+                        new Object[]{userAvatar, USER_ID},
+                        new Object[]{unmigratedUserAvatar, UNMIGRATED_USER_ID}));
+
+        //Act
+        List<UserAvatarDto> userAvatars = sut.getUserAvatarsByUserIds(Arrays.asList(USER_ID, MISSING_USER_ID, UNMIGRATED_USER_ID));
+
+        //Assert
+        assertEquals(2, userAvatars.size());
+        assertEquals(USER_ID, userAvatars.get(0).getUserId());
+        assertArrayEquals("data:image/jpeg;base64,AQIDBA==".getBytes(StandardCharsets.US_ASCII), userAvatars.get(0).getFileContents());
+        assertEquals(UNMIGRATED_USER_ID, userAvatars.get(1).getUserId());
+        assertArrayEquals(unmigratedFileContents, userAvatars.get(1).getFileContents());
+        verify(userAvatarCache).putContents(CONTENT_HASH, IMAGE_DATA_BYTES);
+        verify(userAvatarCache).putMetadata(any(UserAvatarMetadataDto.class), anyLong());
+        // The lazy users are not loaded
+        verifyZeroInteractions(user);
+    }
+
+    @Test
+    public void testGetUserAvatarsByUserIds_Given_TooManyUserIds_Then_ThrowsWithoutQuery() {
+        //Arrange
+        List<Long> userIds = Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L);
+
+        //Act
+        try {
+            sut.getUserAvatarsByUserIds(userIds);
+            fail("Expected InvalidAvatarInputException");
+        } catch (InvalidAvatarInputException e) {
+            //Assert
+            verifyZeroInteractions(userAvatarRepository);
+        }
+    }
+
+    private UserAvatar newUserAvatar(Long id, String contentHash, byte[] fileContents, User user) {
+        UserAvatar userAvatar = new UserAvatar();
+        userAvatar.setId(id);
+        userAvatar.setContentHash(contentHash);
+        userAvatar.setFileContents(fileContents);
+        userAvatar.setMediaType(contentHash == null ? null : "image/jpeg");
+        userAvatar.setFileName("avatar.jpg");
+        userAvatar.setFileExtension("jpg");
+        userAvatar.setFileSizeBytes((long) IMAGE_DATA_BYTES.length);
+        userAvatar.setFileWidthPixels(100L);
+        userAvatar.setFileHeightPixels(100L);
+        userAvatar.setUser(user);
+        return userAvatar;
+    }
+
+    private UserAvatarRendition newUserAvatarRendition(Integer sizePixels, String contentHash) {
+        UserAvatarRendition userAvatarRendition = new UserAvatarRendition();
+        userAvatarRendition.setSizePixels(sizePixels);
+        userAvatarRendition.setFileWidthPixels(sizePixels.longValue());
+        userAvatarRendition.setFileHeightPixels(sizePixels.longValue());
+        userAvatarRendition.setFileSizeBytes(1L);
+        userAvatarRendition.setContentHash(contentHash);
+        return userAvatarRendition;
+    }
+
+    private User newUser() {
+        User user = new User();
+        user.setId(USER_ID);
+        return user;
+    }
+}
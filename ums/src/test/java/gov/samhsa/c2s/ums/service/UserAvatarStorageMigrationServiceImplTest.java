@@ -0,0 +1,155 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.domain.UserAvatar;
+import gov.samhsa.c2s.ums.domain.UserAvatarRepository;
+import gov.samhsa.c2s.ums.infrastructure.AvatarStorage;
+import gov.samhsa.c2s.ums.service.dto.AvatarStorageMigrationBatchDto;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static gov.samhsa.c2s.common.unit.matcher.ArgumentMatchers.matching;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UserAvatarStorageMigrationServiceImplTest {
+    private static final int BATCH_SIZE = 10;
+    private static final byte[] IMAGE_DATA_BYTES = {1, 2, 3};
+
+    @Mock
+    private UserAvatarRepository userAvatarRepository;
+
+    @Mock
+    private ImageProcessingService imageProcessingService;
+
+    @Mock
+    private AvatarStorage avatarStorage;
+
+    @Mock
+    private UnreferencedAvatarContentsCleaner unreferencedAvatarContentsCleaner;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserAvatarStorageMigrationServiceImpl sut;
+
+    @Before
+    public void setUp() {
+        when(userAvatarRepository.save(any(UserAvatar.class))).thenAnswer(invocation -> invocation.getArguments()[0]);
+        when(imageProcessingService.getImageMediaType(any(byte[].class), anyString())).thenReturn("image/png");
+        sut = new UserAvatarStorageMigrationServiceImpl(userAvatarRepository, imageProcessingService, avatarStorage,
+                unreferencedAvatarContentsCleaner, transactionManager);
+    }
+
+    @Test
+    public void testMigrateNextBatch_Given_UndecodableContents_Then_SkipsAvatarAndMigratesOthers() {
+        //Arrange
+        UserAvatar undecodableUserAvatar = newUserAvatar(11L, "not a data uri");
+        UserAvatar userAvatar = newUserAvatar(12L, "data:image/png;base64,AQID");
+        when(userAvatarRepository.findIdsByContentHashIsNullAndIdGreaterThan(eq(10L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(11L, 12L));
+        when(userAvatarRepository.findOne(11L)).thenReturn(undecodableUserAvatar);
+        when(userAvatarRepository.findOne(12L)).thenReturn(userAvatar);
+        when(imageProcessingService.getImageDataBytes(undecodableUserAvatar.getFileContents()))
+                .thenThrow(new IllegalArgumentException("Illegal base64 character"));
+        when(imageProcessingService.getImageDataBytes(userAvatar.getFileContents())).thenReturn(IMAGE_DATA_BYTES);
+        when(avatarStorage.save(IMAGE_DATA_BYTES)).thenReturn("hash");
+
+        //Act
+        AvatarStorageMigrationBatchDto batch = sut.migrateNextBatch(10L, BATCH_SIZE);
+
+        //Assert
+        assertEquals(Long.valueOf(12L), batch.getLastUserAvatarId());
+        assertEquals(1, batch.getMigratedCount());
+        assertEquals(1, batch.getFailedCount());
+        verify(userAvatarRepository).save(argThat(matching((UserAvatar savedUserAvatar) ->
+                savedUserAvatar.getId().equals(12L) &&
+                        "hash".equals(savedUserAvatar.getContentHash()) &&
+                        "image/png".equals(savedUserAvatar.getMediaType()) &&
+                        savedUserAvatar.getFileContents() == null)));
+        verify(userAvatarRepository, times(1)).save(any(UserAvatar.class));
+        verify(transactionManager).rollback(any());
+        verify(transactionManager).commit(any());
+        verify(unreferencedAvatarContentsCleaner, never()).releaseAfterCommit(anyString());
+    }
+
+    @Test
+    public void testMigrateNextBatch_Given_SaveFailsAfterContentsStored_Then_ReleasesStoredContents() {
+        //Arrange
+        UserAvatar userAvatar = newUserAvatar(11L, "data:image/png;base64,AQID");
+        when(userAvatarRepository.findIdsByContentHashIsNullAndIdGreaterThan(eq(0L), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(11L));
+        when(userAvatarRepository.findOne(11L)).thenReturn(userAvatar);
+        when(imageProcessingService.getImageDataBytes(userAvatar.getFileContents())).thenReturn(IMAGE_DATA_BYTES);
+        when(avatarStorage.save(IMAGE_DATA_BYTES)).thenReturn("hash");
+        when(userAvatarRepository.save(any(UserAvatar.class))).thenThrow(new IllegalStateException("database unavailable"));
+
+        //Act
+        AvatarStorageMigrationBatchDto batch = sut.migrateNextBatch(0L, BATCH_SIZE);
+
+        //Assert
+        assertEquals(Long.valueOf(11L), batch.getLastUserAvatarId());
+        assertEquals(0, batch.getMigratedCount());
+        assertEquals(1, batch.getFailedCount());
+        verify(unreferencedAvatarContentsCleaner).releaseAfterCommit("hash");
+    }
+
+    @Test
+    public void testMigrateNextBatch_Given_AvatarMigratedSinceBatchWasRead_Then_LeavesAvatarUnchanged() {
+        //Arrange
+        UserAvatar userAvatar = newUserAvatar(11L, null);
+        userAvatar.setContentHash("hash");
+        when(userAvatarRepository.findIdsByContentHashIsNullAndIdGreaterThan(eq(0L), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(11L));
+        when(userAvatarRepository.findOne(11L)).thenReturn(userAvatar);
+
+        //Act
+        AvatarStorageMigrationBatchDto batch = sut.migrateNextBatch(0L, BATCH_SIZE);
+
+        //Assert
+        assertEquals(Long.valueOf(11L), batch.getLastUserAvatarId());
+        verify(avatarStorage, never()).save(any(byte[].class));
+        verify(userAvatarRepository, never()).save(any(UserAvatar.class));
+    }
+
+    @Test
+    public void testMigrateNextBatch_Given_NothingLeftToMigrate_Then_ReturnsNoLastUserAvatarId() {
+        //Arrange
+        when(userAvatarRepository.findIdsByContentHashIsNullAndIdGreaterThan(eq(12L), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+
+        //Act
+        AvatarStorageMigrationBatchDto batch = sut.migrateNextBatch(12L, BATCH_SIZE);
+
+        //Assert
+        assertNull(batch.getLastUserAvatarId());
+        assertEquals(0, batch.getMigratedCount());
+        assertEquals(0, batch.getFailedCount());
+    }
+
+    private UserAvatar newUserAvatar(Long id, String dataURI) {
+        UserAvatar userAvatar = new UserAvatar();
+        userAvatar.setId(id);
+        userAvatar.setFileContents(dataURI == null ? null : dataURI.getBytes(StandardCharsets.US_ASCII));
+        userAvatar.setFileName("avatar.png");
+        userAvatar.setFileExtension("png");
+        return userAvatar;
+    }
+}
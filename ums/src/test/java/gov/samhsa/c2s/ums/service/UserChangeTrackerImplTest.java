@@ -0,0 +1,100 @@
+package gov.samhsa.c2s.ums.service;
+
+import gov.samhsa.c2s.ums.domain.Demographics;
+import gov.samhsa.c2s.ums.domain.Telecom;
+import gov.samhsa.c2s.ums.domain.User;
+import gov.samhsa.c2s.ums.service.mapping.UserToMrnConverter;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UserChangeTrackerImplTest {
+    @Mock
+    private UserToMrnConverter userToMrnConverter;
+
+    private UserChangeTrackerImpl sut;
+    private User user;
+
+    @Before
+    public void setUp() {
+        when(userToMrnConverter.convertAsOptional(any(User.class))).thenReturn(Optional.of("mrn"));
+        sut = new UserChangeTrackerImpl(userToMrnConverter);
+        Demographics demographics = new Demographics();
+        demographics.setFirstName("First");
+        demographics.setLastName("Last");
+        demographics.setTelecoms(new ArrayList<>());
+        demographics.getTelecoms().add(newTelecom(Telecom.System.PHONE, "1234567"));
+        demographics.getTelecoms().add(newTelecom(Telecom.System.EMAIL, "a@b.c"));
+        demographics.setAddresses(new ArrayList<>());
+        demographics.setIdentifiers(new ArrayList<>());
+        user = new User();
+        user.setDemographics(demographics);
+    }
+
+    @Test
+    public void testGetChangedFields_Given_ReorderedTelecoms_Then_ReturnsNoChange() {
+        //Arrange
+        UserChangeSet changeSet = sut.track(user);
+        Collections.reverse(user.getDemographics().getTelecoms());
+
+        //Act
+        boolean changed = !sut.getChangedFields(changeSet).isEmpty();
+
+        //Assert
+        assertFalse(changed);
+    }
+
+    @Test
+    public void testShouldSync_Given_ChangedPhone_Then_SendsOnlyDownstreamSyncsOfPhone() {
+        //Arrange
+        UserChangeSet changeSet = sut.track(user);
+        user.getDemographics().getTelecoms().get(0).setValue("7654321");
+
+        //Act
+        boolean basicInfoSync = sut.shouldSync(changeSet, UserSyncTarget.UAA_BASIC_INFO);
+        boolean limitedInfoSync = sut.shouldSync(changeSet, UserSyncTarget.UAA_LIMITED_INFO);
+        boolean fhirSync = sut.shouldSync(changeSet, UserSyncTarget.FHIR_PATIENT);
+
+        //Assert
+        assertFalse(basicInfoSync);
+        assertTrue(limitedInfoSync);
+        assertTrue(fhirSync);
+        assertEquals(Long.valueOf(1), sut.getStatistics().getSuppressedCounts().get(UserSyncTarget.UAA_BASIC_INFO.getMetricName()));
+        assertEquals(Long.valueOf(1), sut.getStatistics().getSentCounts().get(UserSyncTarget.FHIR_PATIENT.getMetricName()));
+    }
+
+    @Test
+    public void testGetChangedFields_Given_UntrackedFieldChanged_Then_ReturnsNoChange() {
+        //Arrange
+        UserChangeSet changeSet = sut.track(user, EnumSet.of(UserChangeSet.Field.NAME));
+        user.getDemographics().getTelecoms().clear();
+
+        //Act
+        boolean changed = !sut.getChangedFields(changeSet).isEmpty();
+
+        //Assert
+        assertFalse(changed);
+    }
+
+    private static Telecom newTelecom(Telecom.System system, String value) {
+        Telecom telecom = new Telecom();
+        telecom.setSystem(system);
+        telecom.setValue(value);
+        telecom.setUse(Telecom.Use.HOME);
+        return telecom;
+    }
+}
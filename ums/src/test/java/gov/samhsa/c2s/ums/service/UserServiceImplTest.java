@@ -3,9 +3,16 @@
 import gov.samhsa.c2s.ums.config.UmsProperties;
 import gov.samhsa.c2s.ums.domain.Demographics;
 import gov.samhsa.c2s.ums.domain.DemographicsRepository;
+import gov.samhsa.c2s.ums.domain.FhirPublication;
+import gov.samhsa.c2s.ums.domain.Identifier;
+import gov.samhsa.c2s.ums.domain.IdentifierRepository;
+import gov.samhsa.c2s.ums.domain.IdentifierSystem;
+import gov.samhsa.c2s.ums.domain.IdentifierSystemRepository;
 import gov.samhsa.c2s.ums.domain.Locale;
 import gov.samhsa.c2s.ums.domain.LocaleRepository;
 import gov.samhsa.c2s.ums.domain.Patient;
+import gov.samhsa.c2s.ums.domain.PatientRepository;
+import gov.samhsa.c2s.ums.domain.Role;
 import gov.samhsa.c2s.ums.domain.User;
 import gov.samhsa.c2s.ums.domain.UserPatientRelationship;
 import gov.samhsa.c2s.ums.domain.UserPatientRelationshipRepository;
@@ -14,32 +21,57 @@
 import gov.samhsa.c2s.ums.domain.reference.AdministrativeGenderCodeRepository;
 import gov.samhsa.c2s.ums.infrastructure.ScimService;
 import gov.samhsa.c2s.ums.service.dto.AccessDecisionDto;
+import gov.samhsa.c2s.ums.service.dto.IdentifierDto;
+import gov.samhsa.c2s.ums.service.dto.RoleDto;
 import gov.samhsa.c2s.ums.service.dto.UserDto;
+import gov.samhsa.c2s.ums.service.dto.UserPatchDto;
+import gov.samhsa.c2s.ums.service.dto.UserRegistrationResultDto;
+import gov.samhsa.c2s.ums.service.exception.InvalidUserPatchException;
+import gov.samhsa.c2s.ums.service.exception.UserBatchSizeLimitExceededException;
 import gov.samhsa.c2s.ums.service.exception.UserNotFoundException;
+import gov.samhsa.c2s.ums.service.mapping.UserToMrnConverter;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Path;
+import javax.validation.Validator;
+import java.lang.reflect.Type;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 
+import static gov.samhsa.c2s.common.unit.matcher.ArgumentMatchers.matching;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class UserServiceImplTest {
+    private static final Long USER_ID = 1L;
+
     @Rule
     public ExpectedException thrown = ExpectedException.none();
 
@@ -67,9 +99,152 @@ public class UserServiceImplTest {
     @Mock
     private DemographicsRepository demographicsRepository;
 
+    @Mock
+    private IdentifierRepository identifierRepository;
+
+    @Mock
+    private IdentifierSystemRepository identifierSystemRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private UserAuthIdCache userAuthIdCache;
+
+    @Mock
+    private FhirPublicationService fhirPublicationService;
+
+    @Mock
+    private MrnService mrnService;
+
+    @Spy
+    private UserChangeTracker userChangeTracker = new UserChangeTrackerImpl(new UserToMrnConverter());
+
     @InjectMocks
     private UserServiceImpl sut;
 
+    @Test
+    public void testRegisterUsers_Given_MoreUsersThanMaxSize_Then_ThrowsException() {
+        //Arrange
+        thrown.expect(UserBatchSizeLimitExceededException.class);
+
+        UmsProperties.Pagination pagination = new UmsProperties.Pagination();
+        pagination.setMaxSize(1);
+        when(umsProperties.getPagination()).thenReturn(pagination);
+        List<UserDto> userDtos = Arrays.asList(new UserDto(), new UserDto());
+
+        //Act
+        sut.registerUsers(userDtos);
+
+        //Assert
+        //ExpectedException annotated by @rule is thrown;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRegisterUsers_Given_InvalidUser_Then_ReturnsFailedResultWithoutSavingIt() {
+        //Arrange
+        UmsProperties.Pagination pagination = new UmsProperties.Pagination();
+        pagination.setMaxSize(10);
+        when(umsProperties.getPagination()).thenReturn(pagination);
+        UserDto userDto = new UserDto();
+        ConstraintViolation<UserDto> violation = mock(ConstraintViolation.class);
+        when(violation.getPropertyPath()).thenReturn(mock(Path.class));
+        when(violation.getMessage()).thenReturn("may not be empty");
+        when(validator.validate(userDto)).thenReturn(Collections.singleton(violation));
+
+        //Act
+        List<UserRegistrationResultDto> results = sut.registerUsers(Collections.singletonList(userDto));
+
+        //Assert
+        assertEquals(1, results.size());
+        assertEquals(0, results.get(0).getIndex());
+        assertEquals(UserRegistrationResultDto.Status.FAILED, results.get(0).getStatus());
+        verify(modelMapper, never()).map(userDto, User.class);
+        verify(userRepository).save(Collections.<User>emptyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRegisterUsers_Given_ValidPatients_Then_SavesUsersAndPatientsAndEnqueuesFhirPublications() {
+        //Arrange
+        UmsProperties.Pagination pagination = new UmsProperties.Pagination();
+        pagination.setMaxSize(10);
+        when(umsProperties.getPagination()).thenReturn(pagination);
+        UmsProperties.Ssn ssn = new UmsProperties.Ssn();
+        ssn.setCodeSystem("ssn");
+        when(umsProperties.getSsn()).thenReturn(ssn);
+        UmsProperties.RequiredIdentifierSystem mrnRequiredIdentifierSystem = new UmsProperties.RequiredIdentifierSystem();
+        mrnRequiredIdentifierSystem.setSystem("mrn");
+        mrnRequiredIdentifierSystem.setAlgorithm(UmsProperties.Algorithm.MRN);
+        when(umsProperties.getRequiredIdentifierSystemsByRole())
+                .thenReturn(Collections.singletonMap("patient", Collections.singletonList(mrnRequiredIdentifierSystem)));
+        UmsProperties.Fhir fhir = new UmsProperties.Fhir();
+        fhir.setPublish(new UmsProperties.Fhir.Publish());
+        fhir.getPublish().setEnabled(true);
+        when(umsProperties.getFhir()).thenReturn(fhir);
+
+        IdentifierSystem ssnSystem = newIdentifierSystem("ssn");
+        IdentifierSystem otherSystem = newIdentifierSystem("other");
+        IdentifierSystem mrnSystem = newIdentifierSystem("mrn");
+        Identifier existingIdentifier = Identifier.of(30L, "existing", otherSystem);
+        when(identifierSystemRepository.findAllBySystemIn(any())).thenReturn(Arrays.asList(ssnSystem, otherSystem, mrnSystem));
+        when(identifierRepository.findAllByIdentifierSystemSystemInAndValueIn(any(), any())).thenReturn(Collections.singletonList(existingIdentifier));
+        when(mrnService.generateMrn()).thenReturn("MRN1", "MRN2");
+
+        UserDto userDto1 = newPatientUserDto(IdentifierDto.of("123", "ssn"));
+        UserDto userDto2 = newPatientUserDto(IdentifierDto.of("123", "ssn"), IdentifierDto.of("existing", "other"));
+        User user1 = newPatientUser();
+        User user2 = newPatientUser();
+        when(modelMapper.map(userDto1, User.class)).thenReturn(user1);
+        when(modelMapper.map(userDto2, User.class)).thenReturn(user2);
+        when(modelMapper.map(any(), any(Type.class))).thenAnswer(invocation -> new ArrayList<>());
+        when(userRepository.save(anyListOf(User.class))).thenAnswer(invocation -> {
+            List<User> users = (List<User>) invocation.getArguments()[0];
+            for (int i = 0; i < users.size(); i++) {
+                users.get(i).setId(10L + i);
+            }
+            return users;
+        });
+        when(patientRepository.save(anyListOf(Patient.class))).thenAnswer(invocation -> {
+            List<Patient> patients = (List<Patient>) invocation.getArguments()[0];
+            for (int i = 0; i < patients.size(); i++) {
+                patients.get(i).setId(20L + i);
+            }
+            return patients;
+        });
+
+        //Act
+        List<UserRegistrationResultDto> results = sut.registerUsers(Arrays.asList(userDto1, userDto2));
+
+        //Assert
+        assertEquals(UserRegistrationResultDto.Status.CREATED, results.get(0).getStatus());
+        assertEquals(UserRegistrationResultDto.Status.CREATED, results.get(1).getStatus());
+        List<Identifier> identifiers1 = user1.getDemographics().getIdentifiers();
+        List<Identifier> identifiers2 = user2.getDemographics().getIdentifiers();
+        assertEquals(2, identifiers1.size());
+        assertEquals(3, identifiers2.size());
+        // The records share the new identifier, and the existing identifier is assigned as it is
+        assertSame(identifiers1.get(0), identifiers2.get(0));
+        assertSame(existingIdentifier, identifiers2.get(1));
+        assertEquals("MRN1", identifiers1.get(1).getValue());
+        assertEquals("MRN2", identifiers2.get(2).getValue());
+        verify(identifierRepository).save(argThat(matching((List<Identifier> newIdentifiers) ->
+                newIdentifiers.size() == 3 && !newIdentifiers.contains(existingIdentifier))));
+        verify(userRepository).save(Arrays.asList(user1, user2));
+        verify(patientRepository).save(argThat(matching((List<Patient> patients) -> patients.size() == 2 &&
+                patients.get(0).getDemographics() == user1.getDemographics() &&
+                patients.get(1).getDemographics() == user2.getDemographics() &&
+                "patient@example.com".equals(patients.get(0).getRegistrationPurposeEmail()))));
+        verify(userPatientRelationshipRepository).save(argThat(matching((List<UserPatientRelationship> relationships) ->
+                relationships.size() == 2)));
+        verify(fhirPublicationService).enqueue(10L, FhirPublication.Operation.PUBLISH);
+        verify(fhirPublicationService).enqueue(11L, FhirPublication.Operation.PUBLISH);
+    }
+
     @Test
     public void testDisableUser_Given_UserIsFoundById() {
         //Arrange
@@ -187,7 +362,7 @@ public void testGetUserByUserAuthId() {
 
         User user = mock(User.class);
 
-        when(userRepository.findByUserAuthIdAndDisabled(oAuth2UserId, false)).thenReturn(Optional.ofNullable(user));
+        when(userAuthIdCache.findEnabledUser(oAuth2UserId)).thenReturn(Optional.ofNullable(user));
 
         when(modelMapper.map(user, UserDto.class)).thenReturn(getUserResponseDto);
 
@@ -224,7 +399,7 @@ public void testUpdateUserLocaleByUserAuthId() {
         Locale locale = mock(Locale.class);
         User user = mock(User.class);
 
-        when(userRepository.findByUserAuthIdAndDisabled(userAuthId, false)).thenReturn(Optional.ofNullable(user));
+        when(userAuthIdCache.findEnabledUser(userAuthId)).thenReturn(Optional.ofNullable(user));
         when(localeRepository.findByCode(localeCode)).thenReturn(locale);
 
         //Act
@@ -247,7 +422,7 @@ public void testAccessDecision() {
         String codeSystem = "code";
         Demographics demographics = mock(Demographics.class);
 
-        when(userRepository.findByUserAuthIdAndDisabled(userAuthId, false)).thenReturn(Optional.ofNullable(user));
+        when(userAuthIdCache.findEnabledUser(userAuthId)).thenReturn(Optional.ofNullable(user));
         when(umsProperties.getMrn()).thenReturn(mrn);
         when(mrn.getCodeSystem()).thenReturn(codeSystem);
         when(demographicsRepository.findOneByIdentifiersValueAndIdentifiersIdentifierSystemSystem(patientMrn, codeSystem)).thenReturn(Optional.ofNullable(demographics));
@@ -361,4 +536,115 @@ public void testSearchUsersByDemographic_Given_ThereIsNoUserOnUserList() {
         assertEquals(userDtos.getTotalElements(), 0);
     }
 
+    @Test
+    public void testPatchUser_Given_MiddleName_Then_OnlyChangesMiddleNameWithoutSynchronizing() {
+        //Arrange
+        User user = newUserToPatch();
+        UserPatchDto userPatchDto = UserPatchDto.builder().middleName(Optional.of("Middle")).build();
+
+        //Act
+        sut.patchUser(USER_ID, userPatchDto);
+
+        //Assert
+        assertEquals("Middle", user.getDemographics().getMiddleName());
+        assertEquals("First", user.getDemographics().getFirstName());
+        verify(scimService, never()).updateUserBasicInfo(anyString(), any(UserDto.class));
+    }
+
+    @Test
+    public void testPatchUser_Given_ChangedLastName_Then_UpdatesAuthorizationServer() {
+        //Arrange
+        User user = newUserToPatch();
+        UserPatchDto userPatchDto = UserPatchDto.builder().lastName(Optional.of("Changed")).build();
+
+        //Act
+        sut.patchUser(USER_ID, userPatchDto);
+
+        //Assert
+        assertEquals("Changed", user.getDemographics().getLastName());
+        verify(scimService).updateUserBasicInfo(eq("userAuthId"), any(UserDto.class));
+    }
+
+    @Test
+    public void testPatchUser_Given_UnchangedLastName_Then_DoesNotUpdateAuthorizationServer() {
+        //Arrange
+        newUserToPatch();
+        UserPatchDto userPatchDto = UserPatchDto.builder().lastName(Optional.of("Last")).build();
+
+        //Act
+        sut.patchUser(USER_ID, userPatchDto);
+
+        //Assert
+        verify(scimService, never()).updateUserBasicInfo(anyString(), any(UserDto.class));
+        assertEquals(Long.valueOf(1), userChangeTracker.getStatistics().getSuppressedCounts().get(UserSyncTarget.UAA_BASIC_INFO.getMetricName()));
+    }
+
+    @Test
+    public void testPatchUser_Given_ChangedPatientBirthDate_Then_EnqueuesFhirPublication() {
+        //Arrange
+        User user = newUserToPatch();
+        user.getDemographics().setPatient(new Patient());
+        UmsProperties.Fhir fhir = new UmsProperties.Fhir();
+        fhir.setPublish(new UmsProperties.Fhir.Publish());
+        fhir.getPublish().setEnabled(true);
+        when(umsProperties.getFhir()).thenReturn(fhir);
+        UserPatchDto userPatchDto = UserPatchDto.builder().birthDate(Optional.of(LocalDate.of(1980, 1, 1))).build();
+
+        //Act
+        sut.patchUser(USER_ID, userPatchDto);
+
+        //Assert
+        verify(fhirPublicationService).enqueue(USER_ID, FhirPublication.Operation.UPDATE);
+    }
+
+    @Test
+    public void testPatchUser_Given_NullFirstName_Then_ThrowsException() {
+        //Arrange
+        thrown.expect(InvalidUserPatchException.class);
+        newUserToPatch();
+        UserPatchDto userPatchDto = UserPatchDto.builder().firstName(Optional.empty()).build();
+
+        //Act
+        sut.patchUser(USER_ID, userPatchDto);
+
+        //Assert
+        //ExpectedException annotated by @rule is thrown;
+    }
+
+    private User newUserToPatch() {
+        Demographics demographics = new Demographics();
+        demographics.setFirstName("First");
+        demographics.setLastName("Last");
+        demographics.setTelecoms(new ArrayList<>());
+        User user = new User();
+        user.setId(USER_ID);
+        user.setUserAuthId("userAuthId");
+        user.setDemographics(demographics);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        return user;
+    }
+
+    private IdentifierSystem newIdentifierSystem(String system) {
+        IdentifierSystem identifierSystem = new IdentifierSystem();
+        identifierSystem.setSystem(system);
+        return identifierSystem;
+    }
+
+    private UserDto newPatientUserDto(IdentifierDto... identifierDtos) {
+        UserDto userDto = new UserDto();
+        userDto.setRoles(Collections.singletonList(RoleDto.builder().code("patient").build()));
+        userDto.setSocialSecurityNumber(Optional.empty());
+        userDto.setRegistrationPurposeEmail(Optional.of("patient@example.com"));
+        userDto.setIdentifiers(Optional.of(Arrays.asList(identifierDtos)));
+        return userDto;
+    }
+
+    private User newPatientUser() {
+        Role patientRole = new Role();
+        patientRole.setCode("patient");
+        User user = new User();
+        user.setRoles(new HashSet<>(Collections.singletonList(patientRole)));
+        user.setDemographics(new Demographics());
+        return user;
+    }
 }
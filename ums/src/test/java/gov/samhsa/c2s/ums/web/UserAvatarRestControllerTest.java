@@ -0,0 +1,223 @@
+package gov.samhsa.c2s.ums.web;
+
+import gov.samhsa.c2s.ums.service.UserAvatarService;
+import gov.samhsa.c2s.ums.service.dto.UserAvatarDto;
+import gov.samhsa.c2s.ums.service.dto.UserAvatarImageDto;
+import gov.samhsa.c2s.ums.service.dto.UserAvatarMetadataDto;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UserAvatarRestControllerTest {
+    @Mock
+    private UserAvatarService userAvatarService;
+
+    @InjectMocks
+    private UserAvatarRestController sut;
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(sut)
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json().build()))
+                .build();
+    }
+
+    @Test
+    public void testGetUserAvatarImage() throws Exception {
+        //Arrange
+        Long userId = 20L;
+        byte[] imageBytes = {1, 2, 3};
+        Date lastUpdatedDate = new Date(1500000000000L);
+        UserAvatarImageDto userAvatarImageDto = UserAvatarImageDto.builder()
+                .mediaType(MediaType.IMAGE_JPEG_VALUE)
+                .contentHash("abc123")
+                .lastUpdatedDate(lastUpdatedDate)
+                .userId(userId)
+                .build();
+        when(userAvatarService.getUserAvatarImageMetadataByUserId(userId, null)).thenReturn(userAvatarImageDto);
+        when(userAvatarService.getUserAvatarImageBytes(userAvatarImageDto)).thenReturn(imageBytes);
+
+        //Act
+        ResponseEntity<Resource> response = sut.getUserAvatarImage(userId, null, new HttpHeaders());
+
+        //Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.IMAGE_JPEG, response.getHeaders().getContentType());
+        assertEquals("\"abc123\"", response.getHeaders().getETag());
+        assertEquals(lastUpdatedDate.getTime(), response.getHeaders().getLastModified());
+        assertEquals(imageBytes.length, response.getBody().contentLength());
+    }
+
+    @Test
+    public void testGetUserAvatarImage_Given_MatchingIfNoneMatch_Then_ReturnsNotModifiedWithoutLoadingImage() throws Exception {
+        //Arrange
+        Long userId = 20L;
+        Date lastUpdatedDate = new Date(1500000000000L);
+        UserAvatarImageDto userAvatarImageDto = UserAvatarImageDto.builder()
+                .mediaType(MediaType.IMAGE_JPEG_VALUE)
+                .contentHash("abc123")
+                .lastUpdatedDate(lastUpdatedDate)
+                .userId(userId)
+                .build();
+        when(userAvatarService.getUserAvatarImageMetadataByUserId(userId, 48)).thenReturn(userAvatarImageDto);
+        HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.setIfNoneMatch("\"other\", W/\"abc123\"");
+
+        //Act
+        ResponseEntity<Resource> response = sut.getUserAvatarImage(userId, 48, requestHeaders);
+
+        //Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"abc123\"", response.getHeaders().getETag());
+        assertEquals(lastUpdatedDate.getTime(), response.getHeaders().getLastModified());
+        assertNull(response.getBody());
+        verify(userAvatarService, never()).getUserAvatarImageBytes(any(UserAvatarImageDto.class));
+    }
+
+    @Test
+    public void testGetUserAvatarImage_Given_NotMatchingIfNoneMatch_Then_ReturnsImage() throws Exception {
+        //Arrange
+        Long userId = 20L;
+        byte[] imageBytes = {1, 2, 3};
+        UserAvatarImageDto userAvatarImageDto = UserAvatarImageDto.builder()
+                .mediaType(MediaType.IMAGE_JPEG_VALUE)
+                .contentHash("abc123")
+                .userId(userId)
+                .build();
+        when(userAvatarService.getUserAvatarImageMetadataByUserId(userId, null)).thenReturn(userAvatarImageDto);
+        when(userAvatarService.getUserAvatarImageBytes(userAvatarImageDto)).thenReturn(imageBytes);
+        HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.setIfNoneMatch("\"other\"");
+
+        //Act
+        ResponseEntity<Resource> response = sut.getUserAvatarImage(userId, null, requestHeaders);
+
+        //Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(imageBytes.length, response.getBody().contentLength());
+    }
+
+    @Test
+    public void testGetUserAvatarImage_Given_InvalidStoredMediaType_Then_ReturnsOctetStream() throws Exception {
+        //Arrange
+        Long userId = 20L;
+        byte[] imageBytes = {1, 2, 3};
+        UserAvatarImageDto userAvatarImageDto = UserAvatarImageDto.builder()
+                .mediaType("not a media type")
+                .contentHash("abc123")
+                .userId(userId)
+                .build();
+        when(userAvatarService.getUserAvatarImageMetadataByUserId(userId, null)).thenReturn(userAvatarImageDto);
+        when(userAvatarService.getUserAvatarImageBytes(userAvatarImageDto)).thenReturn(imageBytes);
+
+        //Act
+        ResponseEntity<Resource> response = sut.getUserAvatarImage(userId, null, new HttpHeaders());
+
+        //Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_OCTET_STREAM, response.getHeaders().getContentType());
+    }
+
+    @Test
+    public void testGetUserAvatars_Given_UserWithoutAvatar_Then_ReturnsFoundAvatars() throws Exception {
+        //Arrange
+        UserAvatarDto userAvatarDto = UserAvatarDto.builder()
+                .id(1L)
+                .fileName("avatar.jpg")
+                .userId(20L)
+                .build();
+        // The service omits users without an avatar
+        when(userAvatarService.getUserAvatarsByUserIds(Arrays.asList(20L, 21L)))
+                .thenReturn(Collections.singletonList(userAvatarDto));
+
+        //Act and Assert
+        mockMvc.perform(get("/user-avatars/users/avatars").param("userIds", "20,21"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].userId").value(20))
+                .andExpect(jsonPath("$[0].fileName").value("avatar.jpg"));
+    }
+
+    @Test
+    public void testGetUserAvatarMetadata_Given_UserWithoutAvatar_Then_ReturnsFoundMetadataWithImageUrls() throws Exception {
+        //Arrange
+        UserAvatarMetadataDto userAvatarMetadataDto = UserAvatarMetadataDto.builder()
+                .id(1L)
+                .contentHash("abc123")
+                .mediaType(MediaType.IMAGE_JPEG_VALUE)
+                .renditions(Collections.emptyList())
+                .userId(20L)
+                .build();
+        when(userAvatarService.getUserAvatarMetadataByUserIds(Arrays.asList(21L, 20L)))
+                .thenReturn(Collections.singletonList(userAvatarMetadataDto));
+
+        //Act and Assert
+        mockMvc.perform(get("/user-avatars/users/avatars/metadata").param("userIds", "21", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].userId").value(20))
+                .andExpect(jsonPath("$[0].contentHash").value("abc123"))
+                .andExpect(jsonPath("$[0].imageUrl").value("http://localhost/user-avatars/user/20/avatar/image"));
+    }
+
+    @Test
+    public void testGetUserAvatarMetadata_Given_NullContentHash_Then_ReturnsMetadataWithoutContentHash() throws Exception {
+        //Arrange
+        UserAvatarMetadataDto userAvatarMetadataDto = UserAvatarMetadataDto.builder()
+                .id(1L)
+                .renditions(Collections.emptyList())
+                .userId(20L)
+                .build();
+        when(userAvatarService.getUserAvatarMetadataByUserIds(Collections.singletonList(20L)))
+                .thenReturn(Collections.singletonList(userAvatarMetadataDto));
+
+        //Act and Assert
+        mockMvc.perform(get("/user-avatars/users/avatars/metadata").param("userIds", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].contentHash").value(nullValue()))
+                .andExpect(jsonPath("$[0].imageUrl").value("http://localhost/user-avatars/user/20/avatar/image"));
+    }
+
+    @Test
+    public void testGetUserAvatarMetadata_Given_NoAvatars_Then_ReturnsEmptyList() throws Exception {
+        //Arrange
+        when(userAvatarService.getUserAvatarMetadataByUserIds(Collections.singletonList(21L)))
+                .thenReturn(Collections.emptyList());
+
+        //Act and Assert
+        mockMvc.perform(get("/user-avatars/users/avatars/metadata").param("userIds", "21"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+}
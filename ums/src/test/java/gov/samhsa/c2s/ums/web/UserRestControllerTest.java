@@ -3,7 +3,9 @@
 import gov.samhsa.c2s.ums.service.UserService;
 import gov.samhsa.c2s.ums.service.dto.AccessDecisionDto;
 import gov.samhsa.c2s.ums.service.dto.UserDto;
+import gov.samhsa.c2s.ums.service.dto.UserPatchDto;
 import org.junit.AfterClass;
+import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Rule;
 import org.junit.Test;
@@ -13,6 +15,11 @@
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.data.domain.Page;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -20,12 +27,18 @@
 import java.util.Optional;
 import java.util.StringTokenizer;
 
+import static gov.samhsa.c2s.common.unit.matcher.ArgumentMatchers.matching;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(MockitoJUnitRunner.class)
 public class UserRestControllerTest {
@@ -46,6 +59,16 @@ public static void before() {
     public static void after() {
     }
 
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+        // Configured like the ObjectMapper of Spring Boot, which ignores unknown properties
+        mockMvc = MockMvcBuilders.standaloneSetup(sut)
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json().build()))
+                .build();
+    }
+
 
     @Test
     public void testRegisterUser() {
@@ -59,6 +82,98 @@ public void testRegisterUser() {
         verify(userServiceMock).registerUser(userDto);
     }
 
+    @Test
+    public void testRegisterUsers() {
+        //Arrange
+        List<UserDto> userDtos = new ArrayList<>();
+        userDtos.add(mock(UserDto.class));
+
+        //Act
+        sut.registerUsers(userDtos);
+
+        //Assert
+        verify(userServiceMock).registerUsers(userDtos);
+    }
+
+    @Test
+    public void testPatchUser() {
+        //Arrange
+        Long userId = 20L;
+        UserPatchDto userPatchDto = mock(UserPatchDto.class);
+
+        //Act
+        sut.patchUser(userId, userPatchDto);
+
+        //Assert
+        verify(userServiceMock).patchUser(userId, userPatchDto);
+    }
+
+    @Test
+    public void testPatchUser_Given_MergePatch_Then_PatchesUser() throws Exception {
+        //Act
+        mockMvc.perform(patchUserRequest("{\"middleName\": null, \"birthDate\": \"1980-01-01\", " +
+                "\"telecoms\": [{\"system\": \"EMAIL\", \"value\": \"user@example.com\", \"use\": \"HOME\"}]}"))
+                .andExpect(status().isOk());
+
+        //Assert
+        verify(userServiceMock).patchUser(eq(20L), argThat(matching((UserPatchDto userPatchDto) ->
+                Optional.empty().equals(userPatchDto.getMiddleName()) &&
+                        Optional.of(LocalDate.of(1980, 1, 1)).equals(userPatchDto.getBirthDate()) &&
+                        userPatchDto.getTelecoms().get().size() == 1 &&
+                        userPatchDto.getFirstName() == null)));
+    }
+
+    @Test
+    public void testPatchUser_Given_UnpatchableRoles_Then_BadRequest() throws Exception {
+        //Act
+        mockMvc.perform(patchUserRequest("{\"firstName\": \"First\", \"roles\": [{\"code\": \"provider\"}]}"))
+                .andExpect(status().isBadRequest());
+
+        //Assert
+        verify(userServiceMock, never()).patchUser(anyLong(), any(UserPatchDto.class));
+    }
+
+    @Test
+    public void testPatchUser_Given_BlankFirstName_Then_BadRequest() throws Exception {
+        //Act
+        mockMvc.perform(patchUserRequest("{\"firstName\": \" \"}"))
+                .andExpect(status().isBadRequest());
+
+        //Assert
+        verify(userServiceMock, never()).patchUser(anyLong(), any(UserPatchDto.class));
+    }
+
+    @Test
+    public void testPatchUser_Given_UnknownTelecomSystem_Then_BadRequest() throws Exception {
+        //Act
+        mockMvc.perform(patchUserRequest("{\"telecoms\": [{\"system\": \"FAX\", \"value\": \"555-555-5555\", \"use\": \"HOME\"}]}"))
+                .andExpect(status().isBadRequest());
+
+        //Assert
+        verify(userServiceMock, never()).patchUser(anyLong(), any(UserPatchDto.class));
+    }
+
+    @Test
+    public void testPatchUser_Given_AddressWithoutUse_Then_BadRequest() throws Exception {
+        //Act
+        mockMvc.perform(patchUserRequest("{\"addresses\": [{\"line1\": \"1 Main St\", \"city\": \"Columbia\", " +
+                "\"stateCode\": \"MD\", \"postalCode\": \"21044\", \"countryCode\": \"US\"}]}"))
+                .andExpect(status().isBadRequest());
+
+        //Assert
+        verify(userServiceMock, never()).patchUser(anyLong(), any(UserPatchDto.class));
+    }
+
+    @Test
+    public void testPatchUser_Given_BlankIdentifierValue_Then_BadRequest() throws Exception {
+        //Act
+        mockMvc.perform(patchUserRequest("{\"identifiers\": [{\"value\": \"\", \"system\": \"http://hl7.org/fhir/sid/us-npi\"}]}"))
+                .andExpect(status().isBadRequest());
+
+        //Assert
+        verify(userServiceMock, never()).patchUser(anyLong(), any(UserPatchDto.class));
+    }
+
     @Test
     public void testEnableUser() {
         //Arrange
@@ -196,4 +311,10 @@ public void testSearchUsersByDemographic() {
         assertEquals(list, list2);*/
     }
 
+    private static MockHttpServletRequestBuilder patchUserRequest(String mergePatch) {
+        return patch("/users/{userId}", 20L)
+                .contentType(UserRestController.MERGE_PATCH_JSON_VALUE)
+                .content(mergePatch);
+    }
+
 }
\ No newline at end of file